@@ -0,0 +1,86 @@
+package com.github.ayltai.gradle.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import com.github.ayltai.gradle.plugin.internal.FileUtils;
+
+import org.gradle.api.Project;
+import org.gradle.api.tasks.bundling.Jar;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the parts of {@code buildNativeImage} that run between the extraction of the boot jar and the launch of {@code native-image}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpringGraalNativeTaskBenchmark {
+    @Param({ "100", "1000", "5000" })
+    public int libCount;
+
+    private File                  projectDir;
+    private File                  outputDir;
+    private String                classesPath;
+    private String                classPath;
+    private SpringGraalNativeTask task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.projectDir = Files.createTempDirectory("task-benchmark").toFile();
+
+        final Project project = ProjectBuilder.builder()
+            .withProjectDir(this.projectDir)
+            .build();
+
+        project.getTasks().create(SpringGraalNativePlugin.DEPENDENT_TASK, Jar.class);
+        project.getPluginManager().apply(SpringGraalNativePlugin.class);
+
+        this.task = (SpringGraalNativeTask)project.getTasks().getByName(SpringGraalNativePlugin.TASK_NAME);
+        this.task.download.set(Constants.DOWNLOAD_SKIP);
+        this.task.mainClassName.set("com.example.Application");
+        this.task.springNativeMode.set(SpringNativeMode.REFLECTION);
+        this.task.removeYamlSupport.set(true);
+        this.task.removeJmxSupport.set(true);
+        this.task.initializeAtBuildTime.add("org.springframework.util.unit.DataSize");
+        this.task.extraArgs.add("-H:+ReportExceptionStackTraces");
+
+        this.outputDir   = new File(this.projectDir, SpringGraalNativeTask.DIR_OUTPUT);
+        this.classesPath = Paths.get(this.outputDir.getAbsolutePath(), "BOOT-INF", "classes").toString();
+
+        final File libDir = Paths.get(this.outputDir.getAbsolutePath(), "BOOT-INF", "lib").toFile();
+        Files.createDirectories(libDir.toPath());
+
+        for (int i = 0; i < this.libCount; i++) Files.createFile(new File(libDir, "spring-library-" + i + "-5.3.20.jar").toPath());
+
+        this.classPath = this.task.getClassPath(this.classesPath, this.outputDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.delete(this.projectDir);
+    }
+
+    @Benchmark
+    public String getClassPath() {
+        return this.task.getClassPath(this.classesPath, this.outputDir);
+    }
+
+    @Benchmark
+    public Iterable<String> getCommandLineArgs() {
+        return this.task.getCommandLineArgs(this.classPath);
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the extraction of a synthetic Spring Boot jar and a synthetic GraalVM tar.gz archive, both laid out and sized like real ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArchiveUtilsBenchmark {
+    //region Constants
+
+    // A Spring Boot web application typically has about 60 dependencies and 1,000 classes, including generated ones
+    private static final int LIB_COUNT   = 60;
+    private static final int LIB_SIZE    = 512 * 1024;
+    private static final int CLASS_COUNT = 1000;
+    private static final int CLASS_SIZE  = 4 * 1024;
+
+    // A GraalVM distribution has about 2,000 files, most of them small
+    private static final int TOOL_FILE_COUNT = 2000;
+    private static final int TOOL_FILE_SIZE  = 32 * 1024;
+
+    //endregion
+
+    @Param({ "jar", "sync", "tar.gz" })
+    public String format;
+
+    private File tempDir;
+    private File archive;
+    private File outputDir;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException, IllegalAccessException {
+        this.tempDir   = Files.createTempDirectory("archive-benchmark").toFile();
+        this.archive   = new File(this.tempDir, "archive." + ("tar.gz".equals(this.format) ? "tar.gz" : "jar"));
+        this.outputDir = new File(this.tempDir, "output");
+
+        final Random random = new Random(42);
+
+        if ("tar.gz".equals(this.format)) {
+            ArchiveUtilsBenchmark.createTarGZip(this.archive, random);
+        } else {
+            ArchiveUtilsBenchmark.createBootJar(this.archive, random);
+        }
+
+        // Incremental extraction is measured against an up-to-date output directory, as on a rebuild with no changes
+        if ("sync".equals(this.format)) ArchiveUtils.syncJar(this.archive, this.outputDir);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() throws IOException {
+        if (!"sync".equals(this.format) && this.outputDir.exists()) FileUtils.delete(this.outputDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        FileUtils.delete(this.tempDir);
+    }
+
+    @Benchmark
+    public int decompress() throws IOException, IllegalAccessException {
+        switch (this.format) {
+            case "sync":
+                return ArchiveUtils.syncJar(this.archive, this.outputDir);
+
+            case "tar.gz":
+                ArchiveUtils.decompressTarGZip(this.archive, this.outputDir);
+                return 0;
+
+            default:
+                ArchiveUtils.decompressJar(this.archive, this.outputDir);
+                return 0;
+        }
+    }
+
+    private static void createBootJar(@Nonnull final File file, @Nonnull final Random random) throws IOException {
+        try (ZipArchiveOutputStream outputStream = new ZipArchiveOutputStream(file)) {
+            // Spring Boot stores nested jars uncompressed, as they are compressed already
+            for (int i = 0; i < ArchiveUtilsBenchmark.LIB_COUNT; i++) {
+                final byte[] bytes = ArchiveUtilsBenchmark.createBytes(random, ArchiveUtilsBenchmark.LIB_SIZE, 256);
+                final CRC32  crc   = new CRC32();
+                crc.update(bytes);
+
+                final ZipArchiveEntry entry = new ZipArchiveEntry("BOOT-INF/lib/lib-" + i + ".jar");
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(bytes.length);
+                entry.setCrc(crc.getValue());
+
+                ArchiveUtilsBenchmark.write(outputStream, entry, bytes);
+            }
+
+            for (int i = 0; i < ArchiveUtilsBenchmark.CLASS_COUNT; i++) {
+                final ZipArchiveEntry entry = new ZipArchiveEntry("BOOT-INF/classes/com/example/package" + i % 20 + "/Class" + i + ".class");
+                entry.setMethod(ZipEntry.DEFLATED);
+
+                ArchiveUtilsBenchmark.write(outputStream, entry, ArchiveUtilsBenchmark.createBytes(random, ArchiveUtilsBenchmark.CLASS_SIZE, 16));
+            }
+        }
+    }
+
+    private static void createTarGZip(@Nonnull final File file, @Nonnull final Random random) throws IOException {
+        try (TarArchiveOutputStream outputStream = new TarArchiveOutputStream(new GzipCompressorOutputStream(new BufferedOutputStream(new FileOutputStream(file))))) {
+            outputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+
+            for (int i = 0; i < ArchiveUtilsBenchmark.TOOL_FILE_COUNT; i++) {
+                final byte[]          bytes = ArchiveUtilsBenchmark.createBytes(random, ArchiveUtilsBenchmark.TOOL_FILE_SIZE, 32);
+                final TarArchiveEntry entry = new TarArchiveEntry("graalvm-ce/lib/module" + i % 50 + "/file" + i);
+                entry.setSize(bytes.length);
+
+                outputStream.putArchiveEntry(entry);
+                outputStream.write(bytes);
+                outputStream.closeArchiveEntry();
+            }
+        }
+    }
+
+    private static void write(@Nonnull final ZipArchiveOutputStream outputStream, @Nonnull final ZipArchiveEntry entry, @Nonnull final byte[] bytes) throws IOException {
+        outputStream.putArchiveEntry(entry);
+        ((OutputStream)outputStream).write(bytes);
+        outputStream.closeArchiveEntry();
+    }
+
+    /**
+     * Returns {@code size} random bytes out of {@code symbols} distinct values, which compress about as well as their real counterparts when {@code symbols} is small.
+     */
+    @Nonnull
+    private static byte[] createBytes(@Nonnull final Random random, final int size, final int symbols) {
+        final byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) bytes[i] = (byte)random.nextInt(symbols);
+
+        return bytes;
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VersionNumberComparatorBenchmark {
+    private static final String[][] VERSIONS = {
+        { "21.1.0", "21.1.0" },
+        { "20.2.0", "21.1.0" },
+        { "21.3.10", "21.3.9" },
+        { "22.3.0-dev", "22.3.0" },
+        { "1.10.2", "1.9.12" },
+    };
+
+    private final Comparator<String> comparator = VersionNumberComparator.getInstance();
+
+    @Benchmark
+    public void compare(final Blackhole blackhole) {
+        for (final String[] versions : VersionNumberComparatorBenchmark.VERSIONS) blackhole.consume(this.comparator.compare(versions[0], versions[1]));
+    }
+
+    @Benchmark
+    public void supports(final Blackhole blackhole) {
+        for (final String[] versions : VersionNumberComparatorBenchmark.VERSIONS) blackhole.consume(Version.of(versions[0]).supports(GraalVMFeature.TRACE_CLASS_INITIALIZATION_FOR));
+    }
+}
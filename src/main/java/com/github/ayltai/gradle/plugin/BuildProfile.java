@@ -0,0 +1,16 @@
+package com.github.ayltai.gradle.plugin;
+
+public final class BuildProfile {
+    /**
+     * Builds the native image as fast as the GraalVM version allows, with fewer optimizations, for local iterations.
+     */
+    public static final String DEV = "dev";
+
+    /**
+     * Builds the native image with the highest optimization level of GraalVM Community Edition, for the CPU of the build machine.
+     */
+    public static final String RELEASE = "release";
+
+    private BuildProfile() {
+    }
+}
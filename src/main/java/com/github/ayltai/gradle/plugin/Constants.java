@@ -7,6 +7,7 @@ public final class Constants {
     public static final String DOWNLOAD_ALWAYS       = "always";
     public static final String DOWNLOAD_DEFAULT      = "default";
     public static final String DOWNLOAD_SKIP         = "skip";
+    public static final String DEFAULT_MIRROR        = "https://github.com/graalvm/graalvm-ce-builds/releases/download";
 
     private Constants() {
     }
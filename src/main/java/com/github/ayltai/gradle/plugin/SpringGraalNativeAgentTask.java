@@ -0,0 +1,254 @@
+package com.github.ayltai.gradle.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import com.github.ayltai.gradle.plugin.internal.PlatformUtils;
+import com.github.ayltai.gradle.plugin.internal.TracingAgent;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.resources.ResourceException;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.TaskAction;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the application on the GraalVM JVM with the native image agent, drives it with a workload, and merges the reflection, resource, proxy, JNI and serialization configuration recorded by the agent with that of earlier runs. The native image is built with the merged configuration in {@link SpringNativeMode#AGENT} mode.
+ */
+public abstract class SpringGraalNativeAgentTask extends SpringGraalNativeTask {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(SpringGraalNativeAgentTask.class);
+
+    //region Constants
+
+    protected static final String DIR_OUTPUT = "nativeAgent";
+
+    private static final String ENV_PORT = "PORT";
+
+    //endregion
+
+    //region Properties
+
+    protected final DirectoryProperty    agentConfigDir;
+    protected final ListProperty<String> applicationArgs;
+    protected final ListProperty<String> workload;
+    protected final DirectoryProperty    workloadDir;
+    protected final Property<Integer>    port;
+    protected final Property<String>     readinessLogLine;
+    protected final Property<Integer>    startupTimeout;
+
+    //endregion
+
+    @Inject
+    public SpringGraalNativeAgentTask(@Nonnull final ObjectFactory factory) {
+        super(factory);
+
+        this.agentConfigDir   = factory.directoryProperty();
+        this.applicationArgs  = factory.listProperty(String.class);
+        this.workload         = factory.listProperty(String.class);
+        this.workloadDir      = factory.directoryProperty();
+        this.port             = factory.property(Integer.class);
+        this.readinessLogLine = factory.property(String.class);
+        this.startupTimeout   = factory.property(Integer.class);
+
+        this.setDescription("Runs the Spring Boot application with the GraalVM native image agent to record its configuration");
+
+        // What the agent records depends on what the workload exercises, so it is recorded whenever asked for, and never taken from the build cache
+        this.getOutputs().upToDateWhen(task -> false);
+        this.getOutputs().doNotCacheIf("The native image agent records what the workload exercises", task -> true);
+    }
+
+    //region Inputs and outputs
+
+    /**
+     * Returns the directory that the configuration recorded by the native image agent is merged into.
+     */
+    @Nonnull
+    @OutputDirectory
+    public DirectoryProperty getAgentConfigDir() {
+        return this.agentConfigDir;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public ListProperty<String> getApplicationArgs() {
+        return this.applicationArgs;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public ListProperty<String> getWorkload() {
+        return this.workload;
+    }
+
+    @Nonnull
+    @Internal
+    public DirectoryProperty getWorkloadDir() {
+        return this.workloadDir;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Integer> getPort() {
+        return this.port;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getReadinessLogLine() {
+        return this.readinessLogLine;
+    }
+
+    @Nonnull
+    @Internal
+    public Property<Integer> getStartupTimeout() {
+        return this.startupTimeout;
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getOutputFile() {
+        return super.getOutputFile();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getJsonReport() {
+        return super.getJsonReport();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getCsvReport() {
+        return super.getCsvReport();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getDashboardDump() {
+        return super.getDashboardDump();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public DirectoryProperty getConfigurationDir() {
+        return super.getConfigurationDir();
+    }
+
+    //endregion
+
+    /**
+     * Returns the command line that runs the application on the JVM of {@code toolsDir} with the native image agent.
+     * @param toolsDir The GraalVM home directory, or {@code null} to use {@code java} on {@code PATH}.
+     * @param classPath The classpath of the application.
+     * @return The command line that runs the application with the native image agent.
+     */
+    @Nonnull
+    protected List<String> getAgentCommandLineArgs(@Nullable final File toolsDir, @Nonnull final String classPath) {
+        final List<String> args = new ArrayList<>();
+
+        if (toolsDir == null) {
+            args.add(PlatformUtils.isWindows() ? "java.exe" : "java");
+        } else {
+            args.add(Paths.get(toolsDir.getAbsolutePath(), "bin", PlatformUtils.isWindows() ? "java.exe" : "java").toString());
+        }
+
+        args.add(TracingAgent.getAgentArg(this.agentConfigDir.get().getAsFile()));
+        args.add("-Dserver.port=" + this.port.get());
+        args.add("-cp");
+        args.add(classPath);
+        args.add(this.mainClassName.get());
+        args.addAll(this.applicationArgs.getOrElse(Collections.emptyList()));
+
+        if (SpringGraalNativeAgentTask.LOGGER.isEnabled(LogLevel.DEBUG)) SpringGraalNativeAgentTask.LOGGER.debug(String.join(" ", args));
+
+        return args;
+    }
+
+    /**
+     * Returns {@code files} as they are, so that the native image agent records what the application loads from any of them.
+     */
+    @Nonnull
+    @Override
+    protected List<File> pruneJars(@Nonnull final String classesPath, @Nonnull final List<File> files) {
+        return files;
+    }
+
+    @TaskAction
+    @Override
+    protected void exec() {
+        if (!this.mainClassName.isPresent()) throw new InvalidUserDataException("mainClassName is null");
+
+        final File toolsDir  = this.installToolchain(null);
+        final File outputDir = this.outputDir.get().getAsFile();
+        final File configDir = this.agentConfigDir.get().getAsFile();
+
+        try {
+            final String classPath = this.prepareClassPath(outputDir);
+
+            Files.createDirectories(configDir.toPath());
+
+            final boolean hasConfig        = TracingAgent.hasConfig(configDir);
+            final Pattern readinessPattern = this.getReadinessPattern();
+            final URL     readinessUrl     = readinessPattern == null ? new URL("http://127.0.0.1:" + this.port.get() + "/") : null;
+
+            TracingAgent.run(this.getAgentCommandLineArgs(toolsDir, classPath), outputDir, readinessUrl, readinessPattern, TimeUnit.SECONDS.toMillis(this.startupTimeout.getOrElse(60)), this.workload.getOrElse(Collections.emptyList()), this.workloadDir.get().getAsFile(), Collections.singletonMap(SpringGraalNativeAgentTask.ENV_PORT, String.valueOf(this.port.get())));
+
+            if (TracingAgent.hasConfig(configDir)) {
+                SpringGraalNativeAgentTask.LOGGER.lifecycle("{} native image configuration in {}", hasConfig ? "Merge" : "Write", configDir.getAbsolutePath());
+            } else {
+                SpringGraalNativeAgentTask.LOGGER.warn("The native image agent wrote no configuration to {}", configDir.getAbsolutePath());
+            }
+        } catch (final IOException e) {
+            throw new ResourceException(e.getMessage(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new GradleException("Interrupted while running the native image agent", e);
+        }
+    }
+
+    @Nullable
+    protected Pattern getReadinessPattern() {
+        if (!this.readinessLogLine.isPresent()) return null;
+
+        try {
+            return Pattern.compile(this.readinessLogLine.get());
+        } catch (final PatternSyntaxException e) {
+            throw new InvalidUserDataException("Invalid readinessLogLine: " + this.readinessLogLine.get(), e);
+        }
+    }
+}
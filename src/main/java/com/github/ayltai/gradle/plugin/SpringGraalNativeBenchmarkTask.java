@@ -0,0 +1,264 @@
+package com.github.ayltai.gradle.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import com.github.ayltai.gradle.plugin.internal.BenchmarkReport;
+import com.github.ayltai.gradle.plugin.internal.JsonUtils;
+import com.github.ayltai.gradle.plugin.internal.PlatformUtils;
+import com.github.ayltai.gradle.plugin.internal.StartupBenchmark;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.resources.ResourceException;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Launches the native image a number of times, and reports its startup time, its peak resident set size and its size. The build fails if any of them has increased by more than allowed since a baseline report.
+ */
+public class SpringGraalNativeBenchmarkTask extends DefaultTask {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(SpringGraalNativeBenchmarkTask.class);
+
+    //region Constants
+
+    protected static final String FILE_REPORT = "%s-benchmark.json";
+
+    private static final long MB = 1024L * 1024;
+
+    //endregion
+
+    //region Properties
+
+    protected final RegularFileProperty  executable;
+    protected final Property<String>     imageName;
+    protected final Property<Integer>    iterations;
+    protected final ListProperty<String> args;
+    protected final Property<Integer>    startupTimeout;
+    protected final Property<String>     readinessUrl;
+    protected final Property<String>     readinessLogLine;
+    protected final RegularFileProperty  baseline;
+    protected final Property<Integer>    maxStartupRegression;
+    protected final Property<Integer>    maxRssRegression;
+    protected final Property<Integer>    maxSizeRegression;
+    protected final RegularFileProperty  report;
+
+    //endregion
+
+    @Inject
+    public SpringGraalNativeBenchmarkTask(@Nonnull final ObjectFactory factory) {
+        this.executable           = factory.fileProperty();
+        this.imageName            = factory.property(String.class);
+        this.iterations           = factory.property(Integer.class);
+        this.args                 = factory.listProperty(String.class);
+        this.startupTimeout       = factory.property(Integer.class);
+        this.readinessUrl         = factory.property(String.class);
+        this.readinessLogLine     = factory.property(String.class);
+        this.baseline             = factory.fileProperty();
+        this.maxStartupRegression = factory.property(Integer.class);
+        this.maxRssRegression     = factory.property(Integer.class);
+        this.maxSizeRegression    = factory.property(Integer.class);
+        this.report               = factory.fileProperty();
+
+        this.setGroup("verification");
+        this.setDescription("Measures the startup time, the peak RSS and the size of the native image");
+
+        // Timings vary from run to run, so a benchmark is never up-to-date
+        this.getOutputs().upToDateWhen(task -> false);
+    }
+
+    //region Inputs and outputs
+
+    @Nonnull
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getExecutable() {
+        return this.executable;
+    }
+
+    @Nonnull
+    @Input
+    public Property<String> getImageName() {
+        return this.imageName;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Integer> getIterations() {
+        return this.iterations;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public ListProperty<String> getArgs() {
+        return this.args;
+    }
+
+    @Nonnull
+    @Internal
+    public Property<Integer> getStartupTimeout() {
+        return this.startupTimeout;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getReadinessUrl() {
+        return this.readinessUrl;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getReadinessLogLine() {
+        return this.readinessLogLine;
+    }
+
+    /**
+     * Returns the benchmark report of a previous build to compare with. It is not required to exist, so that the first report can be taken as the baseline.
+     */
+    @Nonnull
+    @Internal
+    public RegularFileProperty getBaseline() {
+        return this.baseline;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Integer> getMaxStartupRegression() {
+        return this.maxStartupRegression;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Integer> getMaxRssRegression() {
+        return this.maxRssRegression;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Integer> getMaxSizeRegression() {
+        return this.maxSizeRegression;
+    }
+
+    @Nonnull
+    @OutputFile
+    public RegularFileProperty getReport() {
+        return this.report;
+    }
+
+    //endregion
+
+    @TaskAction
+    public void benchmark() {
+        final File executable = this.executable.get().getAsFile();
+        if (!executable.isFile()) throw new InvalidUserDataException("Native image not found: " + executable.getAbsolutePath());
+
+        final Pattern      readinessPattern = this.getReadinessPattern();
+        final URL          readinessUrl     = readinessPattern == null ? this.getReadinessUrlValue() : null;
+        final List<String> commandLine      = new ArrayList<>();
+
+        commandLine.add(executable.getAbsolutePath());
+        commandLine.addAll(this.args.getOrElse(Collections.emptyList()));
+
+        final int                           iterations = Math.max(1, this.iterations.getOrElse(1));
+        final List<StartupBenchmark.Sample> samples    = new ArrayList<>();
+
+        try {
+            for (int i = 1; i <= iterations; i++) {
+                final StartupBenchmark.Sample sample = StartupBenchmark.run(commandLine, executable.getParentFile(), readinessUrl, readinessPattern, TimeUnit.SECONDS.toMillis(this.startupTimeout.getOrElse(60)));
+                samples.add(sample);
+
+                SpringGraalNativeBenchmarkTask.LOGGER.lifecycle("Launch {}/{}: ready in {} ms, peak RSS {}", i, iterations, Math.round(sample.getStartupMillis()), sample.getPeakRss() == null ? "n/a" : sample.getPeakRss() / SpringGraalNativeBenchmarkTask.MB + " MB");
+            }
+
+            final BenchmarkReport report = new BenchmarkReport(samples, executable.length());
+            final File            file   = this.report.get().getAsFile();
+
+            final Map<String, String> properties = new LinkedHashMap<>();
+            properties.put("imageName", this.imageName.get());
+            properties.put("platform", PlatformUtils.getPlatform() + "-" + PlatformUtils.getArchitecture());
+
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            Files.write(file.toPath(), report.toJson(properties).getBytes(StandardCharsets.UTF_8));
+
+            SpringGraalNativeBenchmarkTask.LOGGER.lifecycle("Median startup time {} ms, median peak RSS {}, binary size {} MB. Write benchmark report to {}", Math.round(report.getMedianStartupMillis()), report.getMedianPeakRss() == null ? "n/a" : report.getMedianPeakRss() / SpringGraalNativeBenchmarkTask.MB + " MB", report.getBinarySize() / SpringGraalNativeBenchmarkTask.MB, file.getAbsolutePath());
+
+            this.compareWithBaseline(report);
+        } catch (final IOException e) {
+            throw new ResourceException(e.getMessage(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new GradleException("Interrupted while benchmarking the native image", e);
+        }
+    }
+
+    protected void compareWithBaseline(@Nonnull final BenchmarkReport report) throws IOException {
+        if (!this.baseline.isPresent()) return;
+
+        final File baseline = this.baseline.get().getAsFile();
+        if (!baseline.isFile()) {
+            SpringGraalNativeBenchmarkTask.LOGGER.warn("Benchmark baseline not found: {}", baseline.getAbsolutePath());
+
+            return;
+        }
+
+        final List<String> regressions = report.getRegressions(JsonUtils.parseNumbers(new String(Files.readAllBytes(baseline.toPath()), StandardCharsets.UTF_8)), this.maxStartupRegression.getOrNull(), this.maxRssRegression.getOrNull(), this.maxSizeRegression.getOrNull());
+        if (!regressions.isEmpty()) throw new GradleException("The native image has regressed since " + baseline.getAbsolutePath() + ":\n" + String.join("\n", regressions));
+    }
+
+    @Nullable
+    protected Pattern getReadinessPattern() {
+        if (!this.readinessLogLine.isPresent()) return null;
+
+        try {
+            return Pattern.compile(this.readinessLogLine.get());
+        } catch (final PatternSyntaxException e) {
+            throw new InvalidUserDataException("Invalid readinessLogLine: " + this.readinessLogLine.get(), e);
+        }
+    }
+
+    @Nonnull
+    protected URL getReadinessUrlValue() {
+        try {
+            return new URL(this.readinessUrl.get());
+        } catch (final MalformedURLException e) {
+            throw new InvalidUserDataException("Invalid readinessUrl: " + this.readinessUrl.get(), e);
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.github.ayltai.gradle.plugin;
 
+import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import com.github.ayltai.gradle.plugin.internal.OutputAnalyzer;
+
+import org.gradle.api.Action;
+import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 
 public class SpringGraalNativeExtension {
-    private static final String SPRING_NATIVE_MODE = SpringNativeMode.REFLECTION;
+    private static final String SPRING_NATIVE_MODE   = SpringNativeMode.REFLECTION;
+    private static final int    MAX_PARALLEL_BUILDS  = 2;
+    private static final int    BENCHMARK_ITERATIONS = 5;
+    private static final int    BENCHMARK_TIMEOUT    = 60;
+    private static final String READINESS_URL        = "http://127.0.0.1:8080/";
+    private static final int    AGENT_PORT           = 8080;
+    private static final int    AGENT_TIMEOUT        = 60;
 
     //region Gradle plugin properties
 
@@ -44,41 +55,102 @@ public class SpringGraalNativeExtension {
     protected final Property<String>     maxHeapSize;
     protected final ListProperty<String> initializeAtBuildTime;
     protected final ListProperty<String> extraArgs;
+    protected final Property<Boolean>    incrementalExtraction;
+    protected final Property<Boolean>    useRuntimeClasspath;
+    protected final Property<Boolean>    keepArchive;
+    protected final Property<String>     checksum;
+    protected final Property<Boolean>    useInstalledToolchain;
+    protected final Property<Boolean>    autoSize;
+    protected final Property<Integer>    maxParallelBuilds;
+    protected final Property<Integer>    benchmarkIterations;
+    protected final ListProperty<String> benchmarkArgs;
+    protected final Property<Integer>    benchmarkTimeout;
+    protected final Property<String>     readinessUrl;
+    protected final Property<String>     readinessLogLine;
+    protected final Property<String>     benchmarkBaseline;
+    protected final Property<Integer>    maxStartupRegression;
+    protected final Property<Integer>    maxRssRegression;
+    protected final Property<Integer>    maxSizeRegression;
+    protected final Property<String>     agentConfigDir;
+    protected final ListProperty<String> agentArgs;
+    protected final ListProperty<String> agentWorkload;
+    protected final Property<Integer>    agentPort;
+    protected final Property<Integer>    agentTimeout;
+    protected final Property<Boolean>    sizeReport;
+    protected final Property<Boolean>    pruneClassPath;
+    protected final ListProperty<String> keepJars;
+    protected final Property<String>     buildProfile;
+    protected final Property<Integer>    memoryLimit;
+    protected final Property<Boolean>    failFast;
+    protected final ListProperty<String> fatalPatterns;
+    protected final ListProperty<String> mirrors;
+
+    protected final NamedDomainObjectContainer<SpringGraalNativeVariant> variants;
 
     //endregion
 
     @Inject
     public SpringGraalNativeExtension(@Nonnull final ObjectFactory factory) {
-        this.toolVersion                     = factory.property(String.class);
-        this.javaVersion                     = factory.property(String.class);
-        this.download                        = factory.property(String.class);
-        this.traceClassInitialization        = factory.property(Boolean.class);
-        this.traceClassInitializationEnabled = factory.property(Boolean.class);
+        this.toolVersion                     = factory.property(String.class).convention(Constants.DEFAULT_TOOL_VERSION);
+        this.javaVersion                     = factory.property(String.class).convention(Constants.DEFAULT_JAVA_VERSION);
+        this.download                        = factory.property(String.class).convention(Constants.DOWNLOAD_DEFAULT);
+        this.traceClassInitialization        = factory.property(Boolean.class).convention(false);
+        this.traceClassInitializationEnabled = factory.property(Boolean.class).convention(false);
         this.traceClassInitializationFor     = factory.listProperty(String.class);
-        this.removeSaturatedTypeFlows        = factory.property(Boolean.class);
-        this.reportExceptionStackTraces      = factory.property(Boolean.class);
-        this.printAnalysisCallTree           = factory.property(Boolean.class);
-        this.disableToolchainChecking        = factory.property(Boolean.class);
-        this.enableAllSecurityServices       = factory.property(Boolean.class);
-        this.enableHttp                      = factory.property(Boolean.class);
-        this.enableHttps                     = factory.property(Boolean.class);
+        this.removeSaturatedTypeFlows        = factory.property(Boolean.class).convention(false);
+        this.reportExceptionStackTraces      = factory.property(Boolean.class).convention(false);
+        this.printAnalysisCallTree           = factory.property(Boolean.class).convention(false);
+        this.disableToolchainChecking        = factory.property(Boolean.class).convention(false);
+        this.enableAllSecurityServices       = factory.property(Boolean.class).convention(false);
+        this.enableHttp                      = factory.property(Boolean.class).convention(false);
+        this.enableHttps                     = factory.property(Boolean.class).convention(false);
         this.enableUrlProtocols              = factory.listProperty(String.class);
-        this.staticallyLinked                = factory.property(Boolean.class);
-        this.verbose                         = factory.property(Boolean.class);
-        this.warnMissingSelectorHints        = factory.property(Boolean.class);
-        this.removeUnusedAutoConfig          = factory.property(Boolean.class);
-        this.removeYamlSupport               = factory.property(Boolean.class);
-        this.removeXmlSupport                = factory.property(Boolean.class);
-        this.removeSpelSupport               = factory.property(Boolean.class);
-        this.removeJmxSupport                = factory.property(Boolean.class);
-        this.verify                          = factory.property(Boolean.class);
-        this.springNativeVerbose             = factory.property(Boolean.class);
-        this.springNativeMode                = factory.property(String.class);
+        this.staticallyLinked                = factory.property(Boolean.class).convention(false);
+        this.verbose                         = factory.property(Boolean.class).convention(false);
+        this.warnMissingSelectorHints        = factory.property(Boolean.class).convention(false);
+        this.removeUnusedAutoConfig          = factory.property(Boolean.class).convention(false);
+        this.removeYamlSupport               = factory.property(Boolean.class).convention(false);
+        this.removeXmlSupport                = factory.property(Boolean.class).convention(false);
+        this.removeSpelSupport               = factory.property(Boolean.class).convention(false);
+        this.removeJmxSupport                = factory.property(Boolean.class).convention(false);
+        this.verify                          = factory.property(Boolean.class).convention(false);
+        this.springNativeVerbose             = factory.property(Boolean.class).convention(false);
+        this.springNativeMode                = factory.property(String.class).convention(SpringGraalNativeExtension.SPRING_NATIVE_MODE);
         this.dumpConfig                      = factory.property(String.class);
         this.mainClassName                   = factory.property(String.class);
         this.maxHeapSize                     = factory.property(String.class);
         this.initializeAtBuildTime           = factory.listProperty(String.class);
         this.extraArgs                       = factory.listProperty(String.class);
+        this.incrementalExtraction           = factory.property(Boolean.class).convention(false);
+        this.useRuntimeClasspath             = factory.property(Boolean.class).convention(false);
+        this.keepArchive                     = factory.property(Boolean.class).convention(true);
+        this.checksum                        = factory.property(String.class);
+        this.useInstalledToolchain           = factory.property(Boolean.class).convention(true);
+        this.autoSize                        = factory.property(Boolean.class).convention(false);
+        this.maxParallelBuilds               = factory.property(Integer.class).convention(SpringGraalNativeExtension.MAX_PARALLEL_BUILDS);
+        this.benchmarkIterations             = factory.property(Integer.class).convention(SpringGraalNativeExtension.BENCHMARK_ITERATIONS);
+        this.benchmarkArgs                   = factory.listProperty(String.class);
+        this.benchmarkTimeout                = factory.property(Integer.class).convention(SpringGraalNativeExtension.BENCHMARK_TIMEOUT);
+        this.readinessUrl                    = factory.property(String.class).convention(SpringGraalNativeExtension.READINESS_URL);
+        this.readinessLogLine                = factory.property(String.class);
+        this.benchmarkBaseline               = factory.property(String.class);
+        this.maxStartupRegression            = factory.property(Integer.class);
+        this.maxRssRegression                = factory.property(Integer.class);
+        this.maxSizeRegression               = factory.property(Integer.class);
+        this.agentConfigDir                  = factory.property(String.class);
+        this.agentArgs                       = factory.listProperty(String.class);
+        this.agentWorkload                   = factory.listProperty(String.class);
+        this.agentPort                       = factory.property(Integer.class).convention(SpringGraalNativeExtension.AGENT_PORT);
+        this.agentTimeout                    = factory.property(Integer.class).convention(SpringGraalNativeExtension.AGENT_TIMEOUT);
+        this.sizeReport                      = factory.property(Boolean.class).convention(false);
+        this.pruneClassPath                  = factory.property(Boolean.class).convention(false);
+        this.keepJars                        = factory.listProperty(String.class);
+        this.buildProfile                    = factory.property(String.class);
+        this.memoryLimit                     = factory.property(Integer.class);
+        this.failFast                        = factory.property(Boolean.class).convention(false);
+        this.fatalPatterns                   = factory.listProperty(String.class).convention(OutputAnalyzer.DEFAULT_PATTERNS);
+        this.mirrors                         = factory.listProperty(String.class).convention(Collections.singletonList(Constants.DEFAULT_MIRROR));
+        this.variants                        = factory.domainObjectContainer(SpringGraalNativeVariant.class);
     }
 
     //region Properties
@@ -585,5 +657,502 @@ public class SpringGraalNativeExtension {
         this.extraArgs.set(extraArgs);
     }
 
+    /**
+     * Returns {@code true} if only the changed entries of the boot jar are extracted, instead of clearing the output directory and extracting the whole boot jar on every build.
+     * @return {@code true} if only the changed entries of the boot jar are extracted.
+     */
+    public boolean getIncrementalExtraction() {
+        return this.incrementalExtraction.getOrElse(false);
+    }
+
+    /**
+     * Sets to {@code true} if only the changed entries of the boot jar are extracted.
+     * @param incrementalExtraction {@code true} if only the changed entries of the boot jar are extracted.
+     */
+    public void setIncrementalExtraction(final boolean incrementalExtraction) {
+        this.incrementalExtraction.set(incrementalExtraction);
+    }
+
+    /**
+     * Returns {@code true} if the native image is built from the compiled classes and the runtime classpath of the {@code main} source set, without building and extracting the boot jar.
+     * @return {@code true} if the native image is built from the runtime classpath of the {@code main} source set.
+     */
+    public boolean getUseRuntimeClasspath() {
+        return this.useRuntimeClasspath.getOrElse(false);
+    }
+
+    /**
+     * Sets to {@code true} if the native image is built from the runtime classpath of the {@code main} source set.
+     * @param useRuntimeClasspath {@code true} if the native image is built from the runtime classpath of the {@code main} source set.
+     */
+    public void setUseRuntimeClasspath(final boolean useRuntimeClasspath) {
+        this.useRuntimeClasspath.set(useRuntimeClasspath);
+    }
+
+    /**
+     * Returns {@code true} if a copy of the downloaded GraalVM archive is kept, so that it is not downloaded again after the build directory is cleared.
+     * @return {@code true} if a copy of the downloaded GraalVM archive is kept.
+     */
+    public boolean getKeepArchive() {
+        return this.keepArchive.getOrElse(true);
+    }
+
+    /**
+     * Sets to {@code true} if a copy of the downloaded GraalVM archive is kept.
+     * @param keepArchive {@code true} if a copy of the downloaded GraalVM archive is kept.
+     */
+    public void setKeepArchive(final boolean keepArchive) {
+        this.keepArchive.set(keepArchive);
+    }
+
+    /**
+     * Returns the expected SHA-256 checksum of the GraalVM archive. If not specified, the checksum published with the archive is used.
+     * @return The expected SHA-256 checksum of the GraalVM archive.
+     */
+    @Nullable
+    public String getChecksum() {
+        return this.checksum.getOrNull();
+    }
+
+    /**
+     * Sets the expected SHA-256 checksum of the GraalVM archive.
+     * @param checksum The expected SHA-256 checksum of the GraalVM archive.
+     */
+    public void setChecksum(@Nullable final String checksum) {
+        this.checksum.set(checksum);
+    }
+
+    /**
+     * Returns {@code true} if a GraalVM already installed on this machine is used instead of downloading one. Default to {@code true}.
+     * @return {@code true} if a GraalVM already installed on this machine is used instead of downloading one.
+     */
+    public boolean getUseInstalledToolchain() {
+        return this.useInstalledToolchain.getOrElse(true);
+    }
+
+    /**
+     * Sets to {@code true} if a GraalVM already installed on this machine is used instead of downloading one.
+     * @param useInstalledToolchain {@code true} if a GraalVM already installed on this machine is used instead of downloading one.
+     */
+    public void setUseInstalledToolchain(final boolean useInstalledToolchain) {
+        this.useInstalledToolchain.set(useInstalledToolchain);
+    }
+
+    /**
+     * Returns {@code true} if the heap size and the number of threads for building the native image are chosen from the memory and processors available. Default to {@code false}.
+     * @return {@code true} if the heap size and the number of threads for building the native image are chosen from the memory and processors available.
+     */
+    public boolean getAutoSize() {
+        return this.autoSize.getOrElse(false);
+    }
+
+    /**
+     * Sets to {@code true} if the heap size and the number of threads for building the native image are chosen from the memory and processors available.
+     * @param autoSize {@code true} if the heap size and the number of threads for building the native image are chosen from the memory and processors available.
+     */
+    public void setAutoSize(final boolean autoSize) {
+        this.autoSize.set(autoSize);
+    }
+
+    /**
+     * Returns the maximum number of variants built at the same time on this machine, across all builds. Default is {@code 2}.
+     * @return The maximum number of variants built at the same time on this machine.
+     */
+    public int getMaxParallelBuilds() {
+        return this.maxParallelBuilds.getOrElse(SpringGraalNativeExtension.MAX_PARALLEL_BUILDS);
+    }
+
+    /**
+     * Sets the maximum number of variants built at the same time on this machine, across all builds.
+     * @param maxParallelBuilds The maximum number of variants built at the same time on this machine.
+     */
+    public void setMaxParallelBuilds(final int maxParallelBuilds) {
+        this.maxParallelBuilds.set(maxParallelBuilds);
+    }
+
+    /**
+     * Returns the number of times the native image is launched by the {@code benchmarkNativeImage} task. Default is {@code 5}.
+     * @return The number of times the native image is launched by the {@code benchmarkNativeImage} task.
+     */
+    public int getBenchmarkIterations() {
+        return this.benchmarkIterations.getOrElse(SpringGraalNativeExtension.BENCHMARK_ITERATIONS);
+    }
+
+    /**
+     * Sets the number of times the native image is launched by the {@code benchmarkNativeImage} task.
+     * @param benchmarkIterations The number of times the native image is launched by the {@code benchmarkNativeImage} task.
+     */
+    public void setBenchmarkIterations(final int benchmarkIterations) {
+        this.benchmarkIterations.set(benchmarkIterations);
+    }
+
+    /**
+     * Returns the arguments passed to the native image when it is launched by the {@code benchmarkNativeImage} task.
+     * @return The arguments passed to the native image when it is launched by the {@code benchmarkNativeImage} task.
+     */
+    @Nullable
+    public List<String> getBenchmarkArgs() {
+        return this.benchmarkArgs.getOrNull();
+    }
+
+    /**
+     * Sets the arguments passed to the native image when it is launched by the {@code benchmarkNativeImage} task.
+     * @param benchmarkArgs The arguments passed to the native image when it is launched by the {@code benchmarkNativeImage} task.
+     */
+    public void setBenchmarkArgs(@Nullable final List<String> benchmarkArgs) {
+        this.benchmarkArgs.set(benchmarkArgs);
+    }
+
+    /**
+     * Returns the number of seconds to wait for the native image to become ready before the benchmark fails. Default is {@code 60}.
+     * @return The number of seconds to wait for the native image to become ready before the benchmark fails.
+     */
+    public int getBenchmarkTimeout() {
+        return this.benchmarkTimeout.getOrElse(SpringGraalNativeExtension.BENCHMARK_TIMEOUT);
+    }
+
+    /**
+     * Sets the number of seconds to wait for the native image to become ready before the benchmark fails.
+     * @param benchmarkTimeout The number of seconds to wait for the native image to become ready before the benchmark fails.
+     */
+    public void setBenchmarkTimeout(final int benchmarkTimeout) {
+        this.benchmarkTimeout.set(benchmarkTimeout);
+    }
+
+    /**
+     * Returns the URL that responds once the native image is ready. Default is {@code http://127.0.0.1:8080/}.
+     * @return The URL that responds once the native image is ready.
+     */
+    @Nonnull
+    public String getReadinessUrl() {
+        return this.readinessUrl.getOrElse(SpringGraalNativeExtension.READINESS_URL);
+    }
+
+    /**
+     * Sets the URL that responds once the native image is ready.
+     * @param readinessUrl The URL that responds once the native image is ready.
+     */
+    public void setReadinessUrl(@Nonnull final String readinessUrl) {
+        this.readinessUrl.set(readinessUrl);
+    }
+
+    /**
+     * Returns the regular expression that matches the line printed by the native image once it is ready. If set, it is used instead of {@code readinessUrl}.
+     * @return The regular expression that matches the line printed by the native image once it is ready.
+     */
+    @Nullable
+    public String getReadinessLogLine() {
+        return this.readinessLogLine.getOrNull();
+    }
+
+    /**
+     * Sets the regular expression that matches the line printed by the native image once it is ready.
+     * @param readinessLogLine The regular expression that matches the line printed by the native image once it is ready.
+     */
+    public void setReadinessLogLine(@Nullable final String readinessLogLine) {
+        this.readinessLogLine.set(readinessLogLine);
+    }
+
+    /**
+     * Returns the path of a benchmark report of a previous build to compare the benchmark with.
+     * @return The path of a benchmark report of a previous build to compare the benchmark with.
+     */
+    @Nullable
+    public String getBenchmarkBaseline() {
+        return this.benchmarkBaseline.getOrNull();
+    }
+
+    /**
+     * Sets the path of a benchmark report of a previous build to compare the benchmark with.
+     * @param benchmarkBaseline The path of a benchmark report of a previous build to compare the benchmark with.
+     */
+    public void setBenchmarkBaseline(@Nullable final String benchmarkBaseline) {
+        this.benchmarkBaseline.set(benchmarkBaseline);
+    }
+
+    /**
+     * Returns the maximum increase of the median startup time over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     * @return The maximum increase of the median startup time over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     */
+    @Nullable
+    public Integer getMaxStartupRegression() {
+        return this.maxStartupRegression.getOrNull();
+    }
+
+    /**
+     * Sets the maximum increase of the median startup time over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     * @param maxStartupRegression The maximum increase of the median startup time over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     */
+    public void setMaxStartupRegression(@Nullable final Integer maxStartupRegression) {
+        this.maxStartupRegression.set(maxStartupRegression);
+    }
+
+    /**
+     * Returns the maximum increase of the median peak RSS over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     * @return The maximum increase of the median peak RSS over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     */
+    @Nullable
+    public Integer getMaxRssRegression() {
+        return this.maxRssRegression.getOrNull();
+    }
+
+    /**
+     * Sets the maximum increase of the median peak RSS over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     * @param maxRssRegression The maximum increase of the median peak RSS over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     */
+    public void setMaxRssRegression(@Nullable final Integer maxRssRegression) {
+        this.maxRssRegression.set(maxRssRegression);
+    }
+
+    /**
+     * Returns the maximum increase of the size of the native image over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     * @return The maximum increase of the size of the native image over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     */
+    @Nullable
+    public Integer getMaxSizeRegression() {
+        return this.maxSizeRegression.getOrNull();
+    }
+
+    /**
+     * Sets the maximum increase of the size of the native image over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     * @param maxSizeRegression The maximum increase of the size of the native image over that of {@code benchmarkBaseline}, in percent, before the build fails.
+     */
+    public void setMaxSizeRegression(@Nullable final Integer maxSizeRegression) {
+        this.maxSizeRegression.set(maxSizeRegression);
+    }
+
+    /**
+     * Returns the path of the directory that the {@code traceNativeImage} task merges the configuration recorded by the native image agent into. Default is {@code build/nativeAgent}.
+     * @return The path of the directory that the {@code traceNativeImage} task merges the configuration recorded by the native image agent into.
+     */
+    @Nullable
+    public String getAgentConfigDir() {
+        return this.agentConfigDir.getOrNull();
+    }
+
+    /**
+     * Sets the path of the directory that the {@code traceNativeImage} task merges the configuration recorded by the native image agent into.
+     * @param agentConfigDir The path of the directory that the {@code traceNativeImage} task merges the configuration recorded by the native image agent into.
+     */
+    public void setAgentConfigDir(@Nullable final String agentConfigDir) {
+        this.agentConfigDir.set(agentConfigDir);
+    }
+
+    /**
+     * Returns the arguments passed to the application when it is run with the native image agent by the {@code traceNativeImage} task.
+     * @return The arguments passed to the application when it is run with the native image agent.
+     */
+    @Nullable
+    public List<String> getAgentArgs() {
+        return this.agentArgs.getOrNull();
+    }
+
+    /**
+     * Sets the arguments passed to the application when it is run with the native image agent by the {@code traceNativeImage} task.
+     * @param agentArgs The arguments passed to the application when it is run with the native image agent.
+     */
+    public void setAgentArgs(@Nullable final List<String> agentArgs) {
+        this.agentArgs.set(agentArgs);
+    }
+
+    /**
+     * Returns the command that exercises the application while it is run with the native image agent, such as a script that sends requests to it. The port of the application is given to the command in the {@code PORT} environment variable.
+     * @return The command that exercises the application while it is run with the native image agent.
+     */
+    @Nullable
+    public List<String> getAgentWorkload() {
+        return this.agentWorkload.getOrNull();
+    }
+
+    /**
+     * Sets the command that exercises the application while it is run with the native image agent. If not set, the application is stopped as soon as it is ready.
+     * @param agentWorkload The command that exercises the application while it is run with the native image agent.
+     */
+    public void setAgentWorkload(@Nullable final List<String> agentWorkload) {
+        this.agentWorkload.set(agentWorkload);
+    }
+
+    /**
+     * Returns the local port that the application listens on while it is run with the native image agent. Default is {@code 8080}.
+     * @return The local port that the application listens on while it is run with the native image agent.
+     */
+    public int getAgentPort() {
+        return this.agentPort.getOrElse(SpringGraalNativeExtension.AGENT_PORT);
+    }
+
+    /**
+     * Sets the local port that the application listens on while it is run with the native image agent.
+     * @param agentPort The local port that the application listens on while it is run with the native image agent.
+     */
+    public void setAgentPort(final int agentPort) {
+        this.agentPort.set(agentPort);
+    }
+
+    /**
+     * Returns the number of seconds to wait for the application run with the native image agent to become ready. Default is {@code 60}.
+     * @return The number of seconds to wait for the application run with the native image agent to become ready.
+     */
+    public int getAgentTimeout() {
+        return this.agentTimeout.getOrElse(SpringGraalNativeExtension.AGENT_TIMEOUT);
+    }
+
+    /**
+     * Sets the number of seconds to wait for the application run with the native image agent to become ready.
+     * @param agentTimeout The number of seconds to wait for the application run with the native image agent to become ready.
+     */
+    public void setAgentTimeout(final int agentTimeout) {
+        this.agentTimeout.set(agentTimeout);
+    }
+
+    /**
+     * Returns {@code true} if the code and image heap breakdowns of the native image are written for the {@code reportNativeImageSize} task. Default to {@code false}.
+     * @return {@code true} if the code and image heap breakdowns of the native image are written.
+     */
+    public boolean getSizeReport() {
+        return this.sizeReport.getOrElse(false);
+    }
+
+    /**
+     * Sets to {@code true} if the code and image heap breakdowns of the native image are written for the {@code reportNativeImageSize} task.
+     * @param sizeReport {@code true} if the code and image heap breakdowns of the native image are written.
+     */
+    public void setSizeReport(final boolean sizeReport) {
+        this.sizeReport.set(sizeReport);
+    }
+
+    /**
+     * Returns {@code true} if the jars that cannot be reached from the main class are removed from the classpath of the native image. Default to {@code false}.
+     * @return {@code true} if the jars that cannot be reached from the main class are removed from the classpath of the native image.
+     */
+    public boolean getPruneClassPath() {
+        return this.pruneClassPath.getOrElse(false);
+    }
+
+    /**
+     * Sets to {@code true} if the jars that cannot be reached from the main class are removed from the classpath of the native image.
+     * @param pruneClassPath {@code true} if the jars that cannot be reached from the main class are removed from the classpath of the native image.
+     */
+    public void setPruneClassPath(final boolean pruneClassPath) {
+        this.pruneClassPath.set(pruneClassPath);
+    }
+
+    /**
+     * Returns the glob patterns of the names of the jars that are kept on the classpath when {@code pruneClassPath} is enabled, such as jars that are only loaded reflectively.
+     * @return The glob patterns of the names of the jars that are kept on the classpath.
+     */
+    @Nullable
+    public List<String> getKeepJars() {
+        return this.keepJars.getOrNull();
+    }
+
+    /**
+     * Sets the glob patterns of the names of the jars that are kept on the classpath when {@code pruneClassPath} is enabled, such as jars that are only loaded reflectively.
+     * @param keepJars The glob patterns of the names of the jars that are kept on the classpath.
+     */
+    public void setKeepJars(@Nullable final List<String> keepJars) {
+        this.keepJars.set(keepJars);
+    }
+
+    /**
+     * Returns the build profile, {@code dev} for a faster build with fewer optimizations, or {@code release} for the highest optimization level for the CPU of the build machine. Default to none, which leaves the optimizations to {@code native-image}.
+     * @return The build profile.
+     */
+    @Nullable
+    public String getBuildProfile() {
+        return this.buildProfile.getOrNull();
+    }
+
+    /**
+     * Sets the build profile, {@code dev} for a faster build with fewer optimizations, or {@code release} for the highest optimization level for the CPU of the build machine.
+     * @param buildProfile The build profile.
+     */
+    public void setBuildProfile(@Nullable final String buildProfile) {
+        this.buildProfile.set(buildProfile);
+    }
+
+    /**
+     * Returns the memory, in MB, that the processes of {@code native-image} may use in total before the build is stopped and retried once with a smaller heap and fewer threads. Default to none, which does not watch the memory.
+     * @return The memory, in MB, that the processes of {@code native-image} may use in total.
+     */
+    @Nullable
+    public Integer getMemoryLimit() {
+        return this.memoryLimit.getOrNull();
+    }
+
+    /**
+     * Sets the memory, in MB, that the processes of {@code native-image} may use in total before the build is stopped and retried once with a smaller heap and fewer threads, such as a little below the memory limit of a CI container.
+     * @param memoryLimit The memory, in MB, that the processes of {@code native-image} may use in total.
+     */
+    public void setMemoryLimit(@Nullable final Integer memoryLimit) {
+        this.memoryLimit.set(memoryLimit);
+    }
+
+    /**
+     * Returns {@code true} if {@code native-image} is stopped as soon as its output matches one of {@code fatalPatterns}, rather than left to run to the end of a build that is bound to fail. Default to {@code false}.
+     * @return {@code true} if {@code native-image} is stopped as soon as its output matches one of {@code fatalPatterns}.
+     */
+    public boolean getFailFast() {
+        return this.failFast.getOrElse(false);
+    }
+
+    /**
+     * Sets to {@code true} if {@code native-image} is stopped as soon as its output matches one of {@code fatalPatterns}, rather than left to run to the end of a build that is bound to fail.
+     * @param failFast {@code true} if {@code native-image} is stopped as soon as its output matches one of {@code fatalPatterns}.
+     */
+    public void setFailFast(final boolean failFast) {
+        this.failFast.set(failFast);
+    }
+
+    /**
+     * Returns the regular expressions of the lines of the output of {@code native-image} that show that the build is bound to fail. The named groups {@code class} and {@code reason} tell the offending class and why. Default to the errors of classes initialized at build time by mistake, and of unsupported features.
+     * @return The regular expressions of the lines of the output of {@code native-image} that show that the build is bound to fail.
+     */
+    @Nonnull
+    public List<String> getFatalPatterns() {
+        return this.fatalPatterns.getOrElse(OutputAnalyzer.DEFAULT_PATTERNS);
+    }
+
+    /**
+     * Sets the regular expressions of the lines of the output of {@code native-image} that show that the build is bound to fail. The named groups {@code class} and {@code reason} tell the offending class and why.
+     * @param fatalPatterns The regular expressions of the lines of the output of {@code native-image} that show that the build is bound to fail.
+     */
+    public void setFatalPatterns(@Nullable final List<String> fatalPatterns) {
+        this.fatalPatterns.set(fatalPatterns);
+    }
+
+    /**
+     * Returns the mirrors that GraalVM is downloaded from, in the order they are tried. Default to GitHub releases.
+     * @return The mirrors that GraalVM is downloaded from.
+     */
+    @Nonnull
+    public List<String> getMirrors() {
+        return this.mirrors.getOrElse(Collections.singletonList(Constants.DEFAULT_MIRROR));
+    }
+
+    /**
+     * Sets the mirrors that GraalVM is downloaded from, in the order they are tried. A mirror is a base URL or a directory laid out as GitHub releases are, such as {@code https://mirror.example.com/graalvm} for {@code https://mirror.example.com/graalvm/vm-21.1.0/graalvm-ce-java8-linux-amd64-21.1.0.tar.gz}, or a template with the placeholders {@code [version]} and {@code [file]}, such as {@code file:///opt/graalvm/[file]}. A directory given without a scheme is relative to the project directory. If a download fails or times out, the next mirror is tried.
+     * @param mirrors The mirrors that GraalVM is downloaded from.
+     */
+    public void setMirrors(@Nullable final List<String> mirrors) {
+        this.mirrors.set(mirrors);
+    }
+
+    /**
+     * Returns the variants of the native image built by the {@code buildNativeImageVariants} task.
+     * @return The variants of the native image.
+     */
+    @Nonnull
+    public NamedDomainObjectContainer<SpringGraalNativeVariant> getVariants() {
+        return this.variants;
+    }
+
+    /**
+     * Configures the variants of the native image built by the {@code buildNativeImageVariants} task.
+     * @param action The action that configures the variants of the native image.
+     */
+    public void variants(@Nonnull final Action<? super NamedDomainObjectContainer<SpringGraalNativeVariant>> action) {
+        action.execute(this.variants);
+    }
+
     //endregion
 }
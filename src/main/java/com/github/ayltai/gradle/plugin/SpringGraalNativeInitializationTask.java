@@ -0,0 +1,209 @@
+package com.github.ayltai.gradle.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import com.github.ayltai.gradle.plugin.internal.FileUtils;
+import com.github.ayltai.gradle.plugin.internal.InitializationAdvisor;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.resources.ResourceException;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds the native image with {@code -H:+PrintClassInitialization}, and tells which of the classes initialized at run time can be initialized at build time instead, to move their static initializers out of the startup of the application.
+ * <p>The suggestions are heuristics, read from the bytecode of the static initializers, and should be reviewed before they are added to {@code initializeAtBuildTime}.</p>
+ */
+public abstract class SpringGraalNativeInitializationTask extends SpringGraalNativeTask {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(SpringGraalNativeInitializationTask.class);
+
+    //region Constants
+
+    protected static final String DIR_OUTPUT = "nativeInitialization";
+
+    protected static final String FILE_REPORT     = "%s-initialization.csv";
+    protected static final String FILE_SUGGESTION = "%s-initialize-at-build-time.txt";
+
+    private static final String DIR_IMAGE_REPORTS = "reports";
+    private static final String PREFIX_REPORT     = "class_initialization_report";
+
+    private static final String ARG_PRINT_CLASS_INITIALIZATION = "-H:+PrintClassInitialization";
+
+    //endregion
+
+    @Inject
+    public SpringGraalNativeInitializationTask(@Nonnull final ObjectFactory factory) {
+        super(factory);
+
+        this.setDescription("Builds the native image to suggest the classes that can be initialized at build time");
+        this.setIgnoreExitValue(true);
+    }
+
+    //region Inputs and outputs
+
+    /**
+     * Returns the CSV report of whether each class initialized at run time can be initialized at build time, and why.
+     */
+    @Nonnull
+    @OutputFile
+    public Provider<RegularFile> getInitializationReport() {
+        return this.reportDir.file(this.imageName.map(name -> String.format(SpringGraalNativeInitializationTask.FILE_REPORT, name)));
+    }
+
+    /**
+     * Returns the packages and classes suggested for {@code initializeAtBuildTime}, one per line.
+     */
+    @Nonnull
+    @OutputFile
+    public Provider<RegularFile> getSuggestionFile() {
+        return this.reportDir.file(this.imageName.map(name -> String.format(SpringGraalNativeInitializationTask.FILE_SUGGESTION, name)));
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getOutputFile() {
+        return super.getOutputFile();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getJsonReport() {
+        return super.getJsonReport();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getCsvReport() {
+        return super.getCsvReport();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getDashboardDump() {
+        return super.getDashboardDump();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public DirectoryProperty getConfigurationDir() {
+        return super.getConfigurationDir();
+    }
+
+    //endregion
+
+    @Nonnull
+    @Override
+    protected List<String> getExtraArgs(@Nullable final SpringGraalNativeVariant variant) {
+        final List<String> args = super.getExtraArgs(variant);
+        if (!args.contains(SpringGraalNativeInitializationTask.ARG_PRINT_CLASS_INITIALIZATION)) args.add(SpringGraalNativeInitializationTask.ARG_PRINT_CLASS_INITIALIZATION);
+
+        return args;
+    }
+
+    @TaskAction
+    @Override
+    protected void exec() {
+        if (!this.mainClassName.isPresent()) throw new InvalidUserDataException("mainClassName is null");
+
+        final File toolsDir  = this.installToolchain(null);
+        final File outputDir = this.outputDir.get().getAsFile();
+
+        try {
+            final String classPath  = this.prepareClassPath(outputDir);
+            final File   reportsDir = new File(outputDir, SpringGraalNativeInitializationTask.DIR_IMAGE_REPORTS);
+
+            // A report left by an earlier build would be taken for the one of this build if this build failed to write one
+            final File[] staleReports = reportsDir.listFiles(file -> file.getName().startsWith(SpringGraalNativeInitializationTask.PREFIX_REPORT));
+            if (staleReports != null) {
+                for (final File staleReport : staleReports) FileUtils.delete(staleReport);
+            }
+
+            // Classes initialized at build time by mistake fail native-image, which traces them to its error output, so they are reported before the task fails
+            final InitializationAdvisor advisor = new InitializationAdvisor();
+            GradleException             failure = null;
+
+            try {
+                this.execNativeImage(outputDir, this.getCommandLineArgs(toolsDir, null, classPath, null), 0, advisor::accept);
+            } catch (final GradleException e) {
+                failure = e;
+            }
+
+            final File report = SpringGraalNativeInitializationTask.getLatestReport(reportsDir);
+            if (report == null) throw failure == null ? new GradleException("native-image wrote no class initialization report") : failure;
+
+            final List<File> files = Stream.of(classPath.split(File.pathSeparator))
+                .map(File::new)
+                .collect(Collectors.toList());
+
+            final List<InitializationAdvisor.Advice> advices     = advisor.advise(report, files);
+            final List<String>                       suggestions = InitializationAdvisor.suggest(advices);
+
+            this.writeReports(advices, suggestions);
+            SpringGraalNativeInitializationTask.log(advices, suggestions);
+
+            if (failure != null) throw failure;
+        } catch (final IOException e) {
+            throw new ResourceException(e.getMessage(), e);
+        }
+    }
+
+    protected void writeReports(@Nonnull final List<InitializationAdvisor.Advice> advices, @Nonnull final List<String> suggestions) throws IOException {
+        final File report = this.getInitializationReport().get().getAsFile();
+        InitializationAdvisor.write(report, advices);
+
+        Files.write(this.getSuggestionFile().get().getAsFile().toPath(), suggestions, StandardCharsets.UTF_8);
+
+        SpringGraalNativeInitializationTask.LOGGER.lifecycle("Write class initialization report to {}", report.getAbsolutePath());
+    }
+
+    /**
+     * Returns the class initialization report last written to {@code reportsDir}, or {@code null} if there is none.
+     */
+    @Nullable
+    protected static File getLatestReport(@Nonnull final File reportsDir) {
+        final File[] reports = reportsDir.listFiles(file -> file.isFile() && file.getName().startsWith(SpringGraalNativeInitializationTask.PREFIX_REPORT));
+        if (reports == null || reports.length == 0) return null;
+
+        return Arrays.stream(reports)
+            .max(Comparator.comparingLong(File::lastModified))
+            .orElse(null);
+    }
+
+    private static void log(@Nonnull final List<InitializationAdvisor.Advice> advices, @Nonnull final List<String> suggestions) {
+        final List<InitializationAdvisor.Advice> safe = advices.stream()
+            .filter(InitializationAdvisor.Advice::isSafe)
+            .collect(Collectors.toList());
+
+        SpringGraalNativeInitializationTask.LOGGER.lifecycle("{} of {} classes initialized at run time can be initialized at build time, which removes {} bytes of static initializers from startup", safe.size(), advices.size(), safe.stream().mapToLong(InitializationAdvisor.Advice::getInitializerSize).sum());
+
+        if (!suggestions.isEmpty()) {
+            SpringGraalNativeInitializationTask.LOGGER.lifecycle("Suggested initializeAtBuildTime:");
+            for (final String suggestion : suggestions) SpringGraalNativeInitializationTask.LOGGER.lifecycle("  {}", suggestion);
+        }
+    }
+}
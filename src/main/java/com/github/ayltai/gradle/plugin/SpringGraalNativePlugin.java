@@ -1,19 +1,53 @@
 package com.github.ayltai.gradle.plugin;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
-import org.gradle.api.Task;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskContainer;
+import org.gradle.api.tasks.bundling.Jar;
+
+import com.github.ayltai.gradle.plugin.internal.BuildScanService;
+import com.github.ayltai.gradle.plugin.internal.BuildScanUtils;
+import com.github.ayltai.gradle.plugin.internal.GraalVMUtils;
 
 public class SpringGraalNativePlugin implements Plugin<Project> {
     //region Constants
 
-    static final String TASK_NAME      = "buildNativeImage";
-    static final String DEPENDENT_TASK = "bootJar";
+    static final String TASK_NAME           = "buildNativeImage";
+    static final String VARIANTS_TASK_NAME  = "buildNativeImageVariants";
+    static final String BENCHMARK_TASK_NAME = "benchmarkNativeImage";
+    static final String AGENT_TASK_NAME     = "traceNativeImage";
+    static final String SIZE_TASK_NAME      = "reportNativeImageSize";
+    static final String INIT_TASK_NAME      = "adviseNativeImageInitialization";
+    static final String DEPENDENT_TASK      = "bootJar";
 
     private static final String DEPENDENT_REPO     = "https://repo.spring.io/release";
     private static final String DEPENDENT_ARTIFACT = "org.springframework.experimental:spring-native:" + Constants.SPRING_NATIVE_VERSION;
+    private static final String DIR_TOOLCHAINS     = "caches/spring-graalvm-native/toolchains";
+    private static final String DIR_SLOTS          = "caches/spring-graalvm-native/slots";
+
+    private static final String PROPERTY_INSTALLATION_PATHS    = "org.gradle.java.installations.paths";
+    private static final String PROPERTY_INSTALLATIONS_FROM_ENV = "org.gradle.java.installations.fromEnv";
 
     //endregion
 
@@ -33,43 +67,214 @@ public class SpringGraalNativePlugin implements Plugin<Project> {
         project.getTasks()
             .register(SpringGraalNativePlugin.TASK_NAME, SpringGraalNativeTask.class, project.getObjects())
             .configure(task -> {
-                task.dependsOn(SpringGraalNativePlugin.getDependency(project));
-
-                task.toolVersion.set(extension.getToolVersion());
-                task.javaVersion.set(extension.getJavaVersion());
-                task.download.set(extension.getDownload());
-                task.traceClassInitialization.set(extension.getTraceClassInitialization());
-                task.traceClassInitializationEnabled.set(extension.getTraceClassInitializationEnabled());
-                task.traceClassInitializationFor.set(extension.getTraceClassInitializationFor());
-                task.removeSaturatedTypeFlows.set(extension.getRemoveSaturatedTypeFlows());
-                task.reportExceptionStackTraces.set(extension.getReportExceptionStackTraces());
-                task.printAnalysisCallTree.set(extension.getPrintAnalysisCallTree());
-                task.disableToolchainChecking.set(extension.getDisableToolchainChecking());
-                task.enableAllSecurityServices.set(extension.getEnableAllSecurityServices());
-                task.enableHttp.set(extension.getEnableHttp());
-                task.enableHttps.set(extension.getEnableHttps());
-                task.enableUrlProtocols.set(extension.getEnableUrlProtocols());
-                task.staticallyLinked.set(extension.getStaticallyLinked());
-                task.verbose.set(extension.getVerbose());
-                task.warnMissingSelectorHints.set(extension.getWarnMissingSelectorHints());
-                task.removeUnusedAutoConfig.set(extension.getRemoveUnusedAutoConfig());
-                task.removeYamlSupport.set(extension.getRemoveYamlSupport());
-                task.removeXmlSupport.set(extension.getRemoveXmlSupport());
-                task.removeSpelSupport.set(extension.getRemoveSpelSupport());
-                task.removeJmxSupport.set(extension.getRemoveJmxSupport());
-                task.verify.set(extension.getVerify());
-                task.springNativeVerbose.set(extension.getSpringNativeVerbose());
-                task.springNativeMode.set(extension.getSpringNativeMode());
-                task.dumpConfig.set(extension.getDumpConfig());
-                task.mainClassName.set(extension.getMainClassName());
-                task.maxHeapSize.set(extension.getMaxHeapSize());
-                task.initializeAtBuildTime.set(extension.getInitializeAtBuildTime());
-                task.extraArgs.set(extension.getExtraArgs());
+                SpringGraalNativePlugin.configure(project, extension, task);
+
+                task.mustRunAfter(SpringGraalNativePlugin.AGENT_TASK_NAME);
+
+                // Only this task dumps the configuration, so that no other task declares the same output file
+                task.dumpConfig.set(SpringGraalNativePlugin.getFile(project, extension.dumpConfig.map(path -> path.isEmpty() ? null : path)));
+            });
+
+        project.getTasks()
+            .register(SpringGraalNativePlugin.VARIANTS_TASK_NAME, SpringGraalNativeVariantsTask.class, project.getObjects())
+            .configure(task -> {
+                SpringGraalNativePlugin.configure(project, extension, task);
+
+                task.mustRunAfter(SpringGraalNativePlugin.AGENT_TASK_NAME);
+                task.variants.set(project.provider(() -> new ArrayList<>(extension.getVariants())));
+                task.maxParallelBuilds.set(extension.maxParallelBuilds);
+                task.outputDir.set(project.getLayout().getBuildDirectory().dir(SpringGraalNativeVariantsTask.DIR_OUTPUT));
+                task.slotDir.set(new File(project.getGradle().getGradleUserHomeDir(), SpringGraalNativePlugin.DIR_SLOTS));
+            });
+
+        project.getTasks()
+            .register(SpringGraalNativePlugin.BENCHMARK_TASK_NAME, SpringGraalNativeBenchmarkTask.class, project.getObjects())
+            .configure(task -> {
+                task.executable.set(project.getTasks().named(SpringGraalNativePlugin.TASK_NAME, SpringGraalNativeTask.class).flatMap(SpringGraalNativeTask::getOutputFile));
+                task.imageName.set(project.getName());
+                task.iterations.set(extension.benchmarkIterations);
+                task.args.set(extension.benchmarkArgs);
+                task.startupTimeout.set(extension.benchmarkTimeout);
+                task.readinessUrl.set(extension.readinessUrl);
+                task.readinessLogLine.set(extension.readinessLogLine);
+                task.maxStartupRegression.set(extension.maxStartupRegression);
+                task.maxRssRegression.set(extension.maxRssRegression);
+                task.maxSizeRegression.set(extension.maxSizeRegression);
+                task.report.set(project.getLayout().getBuildDirectory().file(SpringGraalNativeTask.DIR_REPORTS + "/" + String.format(SpringGraalNativeBenchmarkTask.FILE_REPORT, project.getName())));
+
+                task.baseline.set(SpringGraalNativePlugin.getFile(project, extension.benchmarkBaseline));
+            });
+
+        project.getTasks()
+            .register(SpringGraalNativePlugin.AGENT_TASK_NAME, SpringGraalNativeAgentTask.class, project.getObjects())
+            .configure(task -> {
+                SpringGraalNativePlugin.configure(project, extension, task);
+
+                task.agentConfigDir.set(SpringGraalNativePlugin.getAgentConfigDir(project, extension));
+                task.applicationArgs.set(extension.agentArgs);
+                task.workload.set(extension.agentWorkload);
+                task.workloadDir.set(project.getLayout().getProjectDirectory());
+                task.port.set(extension.agentPort);
+                task.readinessLogLine.set(extension.readinessLogLine);
+                task.startupTimeout.set(extension.agentTimeout);
+            });
+
+        project.getTasks()
+            .register(SpringGraalNativePlugin.INIT_TASK_NAME, SpringGraalNativeInitializationTask.class, project.getObjects())
+            .configure(task -> {
+                SpringGraalNativePlugin.configure(project, extension, task);
+
+                task.outputDir.set(project.getLayout().getBuildDirectory().dir(SpringGraalNativeInitializationTask.DIR_OUTPUT));
+            });
+
+        project.getTasks()
+            .register(SpringGraalNativePlugin.SIZE_TASK_NAME, SpringGraalNativeSizeTask.class, project.getObjects())
+            .configure(task -> {
+                task.dashboardDump.set(project.getTasks().named(SpringGraalNativePlugin.TASK_NAME, SpringGraalNativeTask.class).flatMap(SpringGraalNativeTask::getDashboardDump));
+                task.callTreeDir.set(project.getLayout().getBuildDirectory().dir(SpringGraalNativeTask.DIR_OUTPUT + "/reports"));
+                task.imageName.set(project.getName());
+                task.report.set(project.getLayout().getBuildDirectory().file(SpringGraalNativeTask.DIR_REPORTS + "/" + String.format(SpringGraalNativeSizeTask.FILE_REPORT, project.getName())));
+                task.diff.set(project.getLayout().getBuildDirectory().file(SpringGraalNativeTask.DIR_REPORTS + "/" + String.format(SpringGraalNativeSizeTask.FILE_DIFF, project.getName())));
+
+                final Provider<Directory> bootInfDir = project.getLayout().getBuildDirectory().dir(SpringGraalNativeTask.DIR_OUTPUT + "/" + SpringGraalNativeTask.DIR_BOOT_INF);
+                final FileCollection      bootInf    = project.files(project.fileTree(bootInfDir.map(dir -> dir.dir("lib"))), bootInfDir.map(dir -> dir.dir("classes")));
+
+                task.classPath.from(SpringGraalNativePlugin.getRuntimeClasspath(project, extension, bootInf));
             });
     }
 
+    protected static void configure(@Nonnull final Project project, @Nonnull final SpringGraalNativeExtension extension, @Nonnull final SpringGraalNativeTask task) {
+        task.toolVersion.set(extension.toolVersion);
+        task.javaVersion.set(extension.javaVersion);
+        task.download.set(extension.download);
+        task.traceClassInitialization.set(extension.traceClassInitialization);
+        task.traceClassInitializationEnabled.set(extension.traceClassInitializationEnabled);
+        task.traceClassInitializationFor.set(extension.traceClassInitializationFor);
+        task.removeSaturatedTypeFlows.set(extension.removeSaturatedTypeFlows);
+        task.reportExceptionStackTraces.set(extension.reportExceptionStackTraces);
+        task.printAnalysisCallTree.set(extension.printAnalysisCallTree);
+        task.disableToolchainChecking.set(extension.disableToolchainChecking);
+        task.enableAllSecurityServices.set(extension.enableAllSecurityServices);
+        task.enableHttp.set(extension.enableHttp);
+        task.enableHttps.set(extension.enableHttps);
+        task.enableUrlProtocols.set(extension.enableUrlProtocols);
+        task.staticallyLinked.set(extension.staticallyLinked);
+        task.verbose.set(extension.verbose);
+        task.warnMissingSelectorHints.set(extension.warnMissingSelectorHints);
+        task.removeUnusedAutoConfig.set(extension.removeUnusedAutoConfig);
+        task.removeYamlSupport.set(extension.removeYamlSupport);
+        task.removeXmlSupport.set(extension.removeXmlSupport);
+        task.removeSpelSupport.set(extension.removeSpelSupport);
+        task.removeJmxSupport.set(extension.removeJmxSupport);
+        task.verify.set(extension.verify);
+        task.springNativeVerbose.set(extension.springNativeVerbose);
+        task.springNativeMode.set(extension.springNativeMode);
+        task.mainClassName.set(extension.mainClassName);
+        task.maxHeapSize.set(extension.maxHeapSize);
+        task.initializeAtBuildTime.set(extension.initializeAtBuildTime);
+        task.extraArgs.set(extension.extraArgs);
+        task.incrementalExtraction.set(extension.incrementalExtraction);
+        task.useRuntimeClasspath.set(extension.useRuntimeClasspath);
+        task.keepArchive.set(extension.keepArchive);
+        task.checksum.set(extension.checksum);
+        task.useInstalledToolchain.set(extension.useInstalledToolchain);
+        task.autoSize.set(extension.autoSize);
+        task.sizeReport.set(extension.sizeReport);
+        task.pruneClassPath.set(extension.pruneClassPath);
+        task.keepJars.set(extension.keepJars);
+        task.buildProfile.set(extension.buildProfile);
+        task.memoryLimit.set(extension.memoryLimit);
+        task.failFast.set(extension.failFast);
+        task.fatalPatterns.set(extension.fatalPatterns);
+        task.mirrors.set(SpringGraalNativePlugin.getMirrors(project, extension));
+        task.imageName.set(project.getName());
+        task.outputDir.set(project.getLayout().getBuildDirectory().dir(SpringGraalNativeTask.DIR_OUTPUT));
+        task.reportDir.set(project.getLayout().getBuildDirectory().dir(SpringGraalNativeTask.DIR_REPORTS));
+        task.cacheDir.set(new File(project.getGradle().getGradleUserHomeDir(), SpringGraalNativePlugin.DIR_TOOLCHAINS));
+        task.installations.set(SpringGraalNativePlugin.getInstallations(project));
+
+        // The configuration recorded by the native image agent is used only once it has been recorded, which is told at execution time, as the agent may record it in the same build
+        task.configurationDir.set(SpringGraalNativePlugin.getAgentConfigDir(project, extension));
+
+        // The runtime classpath replaces the classes extracted from the boot jar, which is looked up and built only if it is used
+        final TaskContainer       tasks  = project.getTasks();
+        final RegularFileProperty noFile = project.getObjects().fileProperty();
+
+        task.runtimeClasspath.from(SpringGraalNativePlugin.getRuntimeClasspath(project, extension, project.files()));
+        task.bootJar.set(extension.useRuntimeClasspath.flatMap(useRuntimeClasspath -> useRuntimeClasspath ? noFile : tasks.named(SpringGraalNativePlugin.DEPENDENT_TASK, Jar.class).flatMap(Jar::getArchiveFile)));
+        task.dependsOn((Callable<Object>)() -> extension.getUseRuntimeClasspath() ? Collections.emptyList() : SpringGraalNativePlugin.DEPENDENT_TASK);
+
+        // The build scan is looked up while the project can still be reached, as it cannot be when the task runs
+        final Provider<BuildScanService> buildScanService = project.getGradle().getSharedServices().registerIfAbsent(BuildScanService.NAME, BuildScanService.class, spec -> { });
+        buildScanService.get().setBuildScan(project.findProperty(BuildScanUtils.EXTENSION_NAME));
+
+        task.buildScanService.set(buildScanService);
+        task.usesService(buildScanService);
+    }
+
+    @Nonnull
+    protected static Provider<List<File>> getInstallations(@Nonnull final Project project) {
+        final ProviderFactory  providers            = project.getProviders();
+        final Provider<String> installationPaths    = providers.gradleProperty(SpringGraalNativePlugin.PROPERTY_INSTALLATION_PATHS);
+        final Provider<String> installationsFromEnv = providers.gradleProperty(SpringGraalNativePlugin.PROPERTY_INSTALLATIONS_FROM_ENV);
+        final File             gradleUserHomeDir    = project.getGradle().getGradleUserHomeDir();
+
+        // Only the environment variables that are searched are read, through providers, so that the configuration cache is invalidated when one of them changes and not when any other does
+        final Map<String, Provider<String>> variables = new LinkedHashMap<>();
+        for (final String name : GraalVMUtils.getVariableNames(installationsFromEnv.getOrNull())) variables.put(name, providers.environmentVariable(name));
+
+        return project.provider(() -> {
+            final Map<String, String> env = new HashMap<>();
+            variables.forEach((name, variable) -> {
+                if (variable.isPresent()) env.put(name, variable.get());
+            });
+
+            return GraalVMUtils.getCandidates(env, installationPaths.getOrNull(), installationsFromEnv.getOrNull(), gradleUserHomeDir);
+        });
+    }
+
+    /**
+     * Returns the mirrors of {@code extension}, with the directories given without a scheme resolved against the project directory rather than the working directory of the Gradle daemon.
+     */
     @Nonnull
-    protected static Task getDependency(@Nonnull final Project project) {
-        return project.getTasks().getByName(SpringGraalNativePlugin.DEPENDENT_TASK);
+    protected static Provider<List<String>> getMirrors(@Nonnull final Project project, @Nonnull final SpringGraalNativeExtension extension) {
+        final File projectDir = project.getProjectDir();
+
+        return extension.mirrors.map(mirrors -> mirrors.stream()
+            .map(mirror -> mirror.contains("://") || mirror.startsWith("file:") || new File(mirror).isAbsolute() ? mirror : new File(projectDir, mirror).getAbsolutePath())
+            .collect(Collectors.toList()));
+    }
+
+    @Nonnull
+    protected static Provider<Directory> getAgentConfigDir(@Nonnull final Project project, @Nonnull final SpringGraalNativeExtension extension) {
+        final Directory projectDir = project.getLayout().getProjectDirectory();
+
+        return extension.agentConfigDir.map(projectDir::dir)
+            .orElse(project.getLayout().getBuildDirectory().dir(SpringGraalNativeAgentTask.DIR_OUTPUT));
+    }
+
+    /**
+     * Returns {@code path} resolved against the project directory, as {@link Project#file(Object)} would, without holding on to the project.
+     */
+    @Nonnull
+    protected static Provider<RegularFile> getFile(@Nonnull final Project project, @Nonnull final Provider<String> path) {
+        final Directory projectDir = project.getLayout().getProjectDirectory();
+
+        return path.map(projectDir::file);
+    }
+
+    /**
+     * Returns the runtime classpath of the main source set if {@code useRuntimeClasspath} is enabled, or {@code otherwise}. The source set is looked up only once the Java plugin is applied.
+     */
+    @Nonnull
+    protected static FileCollection getRuntimeClasspath(@Nonnull final Project project, @Nonnull final SpringGraalNativeExtension extension, @Nonnull final FileCollection otherwise) {
+        final ConfigurableFileCollection runtimeClasspath = project.files();
+
+        project.getPlugins().withType(JavaPlugin.class, plugin -> runtimeClasspath.from(project.getExtensions()
+            .getByType(SourceSetContainer.class)
+            .getByName(SourceSet.MAIN_SOURCE_SET_NAME)
+            .getRuntimeClasspath()));
+
+        return project.files(extension.useRuntimeClasspath.map(useRuntimeClasspath -> useRuntimeClasspath ? runtimeClasspath : otherwise));
     }
 }
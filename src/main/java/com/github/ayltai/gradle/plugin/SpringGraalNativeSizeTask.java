@@ -0,0 +1,222 @@
+package com.github.ayltai.gradle.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import com.github.ayltai.gradle.plugin.internal.DashboardDump;
+import com.github.ayltai.gradle.plugin.internal.ImageSizeReport;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.resources.ResourceException;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Breaks down the code size and the image heap size of the native image by Java package and by jar, and compares the breakdown with that of the previous build.
+ */
+public class SpringGraalNativeSizeTask extends DefaultTask {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(SpringGraalNativeSizeTask.class);
+
+    //region Constants
+
+    protected static final String FILE_REPORT = "%s-size.csv";
+    protected static final String FILE_DIFF   = "%s-size-diff.csv";
+
+    private static final String PREFIX_USED_METHODS = "used_methods_";
+    private static final int    MAX_LOGGED_CHANGES  = 10;
+
+    //endregion
+
+    //region Properties
+
+    protected final RegularFileProperty dashboardDump;
+    protected final DirectoryProperty   callTreeDir;
+    protected final Property<String>    imageName;
+    protected final RegularFileProperty report;
+    protected final RegularFileProperty diff;
+
+    protected final ConfigurableFileCollection classPath;
+
+    //endregion
+
+    @Inject
+    public SpringGraalNativeSizeTask(@Nonnull final ObjectFactory factory) {
+        this.dashboardDump = factory.fileProperty();
+        this.callTreeDir   = factory.directoryProperty();
+        this.imageName     = factory.property(String.class);
+        this.report        = factory.fileProperty();
+        this.diff          = factory.fileProperty();
+        this.classPath     = factory.fileCollection();
+
+        this.setGroup("reporting");
+        this.setDescription("Breaks down the size of the native image by package and by jar, and compares it with the previous build");
+    }
+
+    //region Inputs and outputs
+
+    /**
+     * Returns the dashboard dump written by {@code buildNativeImage} if {@code sizeReport} is enabled.
+     */
+    @Nonnull
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getDashboardDump() {
+        return this.dashboardDump;
+    }
+
+    /**
+     * Returns the directory of the reports written by {@code native-image} with {@code printAnalysisCallTree}, which the number of reachable methods is counted from.
+     */
+    @Nonnull
+    @Internal
+    public DirectoryProperty getCallTreeDir() {
+        return this.callTreeDir;
+    }
+
+    @Nonnull
+    @Input
+    public Property<String> getImageName() {
+        return this.imageName;
+    }
+
+    /**
+     * Returns the classpath of the native image, which tells the jar that each package comes from.
+     */
+    @Nonnull
+    @Classpath
+    public ConfigurableFileCollection getClassPath() {
+        return this.classPath;
+    }
+
+    /**
+     * Returns the breakdown of the size of the native image. It is also the breakdown of the previous build that the next one is compared with.
+     */
+    @Nonnull
+    @OutputFile
+    public RegularFileProperty getReport() {
+        return this.report;
+    }
+
+    @Nonnull
+    @OutputFile
+    public RegularFileProperty getDiff() {
+        return this.diff;
+    }
+
+    //endregion
+
+    @TaskAction
+    public void report() {
+        if (!this.dashboardDump.isPresent()) throw new InvalidUserDataException("sizeReport must be enabled to break down the size of the native image");
+
+        final File dump = this.dashboardDump.get().getAsFile();
+        if (!dump.isFile()) throw new InvalidUserDataException("Dashboard dump not found: " + dump.getAbsolutePath());
+
+        final File reportFile = this.report.get().getAsFile();
+        final File diffFile   = this.diff.get().getAsFile();
+
+        try {
+            final Map<String, long[]> previous = this.readPrevious(reportFile);
+            final ImageSizeReport     report   = new ImageSizeReport(ImageSizeReport.getOwners(this.classPath.getFiles()));
+
+            DashboardDump.parse(dump, report::add);
+
+            final File usedMethods = this.getUsedMethodsReport();
+            if (usedMethods != null) report.addMethods(usedMethods);
+
+            report.write(reportFile);
+
+            SpringGraalNativeSizeTask.LOGGER.lifecycle("Write native image size report to {}", reportFile.getAbsolutePath());
+
+            if (previous == null) {
+                SpringGraalNativeSizeTask.LOGGER.lifecycle("No previous native image size report to compare with");
+            } else {
+                final Map<String, long[]> diff = ImageSizeReport.diff(previous, report.getEntries());
+                ImageSizeReport.writeDiff(diffFile, diff);
+
+                this.logChanges(diff);
+            }
+        } catch (final IOException e) {
+            throw new ResourceException(e.getMessage(), e);
+        }
+    }
+
+    @Nullable
+    protected Map<String, long[]> readPrevious(@Nonnull final File reportFile) {
+        if (!reportFile.isFile()) return null;
+
+        try {
+            return ImageSizeReport.read(reportFile);
+        } catch (final IOException | RuntimeException e) {
+            SpringGraalNativeSizeTask.LOGGER.warn("Ignore previous native image size report: {}", e.getMessage());
+
+            return null;
+        }
+    }
+
+    /**
+     * Returns the latest list of reachable methods written by {@code native-image} with {@code printAnalysisCallTree}, or {@code null} if there is none.
+     */
+    @Nullable
+    protected File getUsedMethodsReport() {
+        if (!this.callTreeDir.isPresent()) return null;
+
+        final String prefix = SpringGraalNativeSizeTask.PREFIX_USED_METHODS + this.imageName.get() + "_";
+        final File[] files  = this.callTreeDir.get().getAsFile().listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".txt"));
+
+        File latest = null;
+        if (files != null) {
+            for (final File file : files) {
+                if (latest == null || file.lastModified() > latest.lastModified()) latest = file;
+            }
+        }
+
+        return latest;
+    }
+
+    protected void logChanges(@Nonnull final Map<String, long[]> diff) {
+        if (diff.isEmpty()) {
+            SpringGraalNativeSizeTask.LOGGER.lifecycle("The size of the native image has not changed since the previous build");
+
+            return;
+        }
+
+        int count = 0;
+
+        for (final Map.Entry<String, long[]> entry : diff.entrySet()) {
+            if (!entry.getKey().startsWith(ImageSizeReport.KIND_JAR + ",")) continue;
+            if (count++ == SpringGraalNativeSizeTask.MAX_LOGGED_CHANGES) break;
+
+            SpringGraalNativeSizeTask.LOGGER.lifecycle("{} {} (code {}, image heap {})", SpringGraalNativeSizeTask.format(entry.getValue()[2]), entry.getKey().substring(ImageSizeReport.KIND_JAR.length() + 1), SpringGraalNativeSizeTask.format(entry.getValue()[0]), SpringGraalNativeSizeTask.format(entry.getValue()[1]));
+        }
+
+        SpringGraalNativeSizeTask.LOGGER.lifecycle("Write native image size changes to {}", this.diff.get().getAsFile().getAbsolutePath());
+    }
+
+    @Nonnull
+    static String format(final long bytes) {
+        return String.format(Locale.ROOT, "%+.1f MB", bytes / (1024.0 * 1024));
+    }
+}
@@ -1,50 +1,101 @@
 package com.github.ayltai.gradle.plugin;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import com.github.ayltai.gradle.plugin.internal.ArchiveUtils;
+import com.github.ayltai.gradle.plugin.internal.BuildMetrics;
+import com.github.ayltai.gradle.plugin.internal.BuildProgress;
+import com.github.ayltai.gradle.plugin.internal.BuildScanService;
 import com.github.ayltai.gradle.plugin.internal.DownloadUtils;
+import com.github.ayltai.gradle.plugin.internal.FileUtils;
+import com.github.ayltai.gradle.plugin.internal.GraalVMFeature;
+import com.github.ayltai.gradle.plugin.internal.GraalVMUtils;
+import com.github.ayltai.gradle.plugin.internal.JarReachability;
+import com.github.ayltai.gradle.plugin.internal.LineOutputStream;
+import com.github.ayltai.gradle.plugin.internal.MemoryWatchdog;
+import com.github.ayltai.gradle.plugin.internal.OutputAnalyzer;
 import com.github.ayltai.gradle.plugin.internal.PlatformUtils;
-import com.github.ayltai.gradle.plugin.internal.VersionNumberComparator;
+import com.github.ayltai.gradle.plugin.internal.ProcessTree;
+import com.github.ayltai.gradle.plugin.internal.ResourceUtils;
+import com.github.ayltai.gradle.plugin.internal.ToolchainUtils;
+import com.github.ayltai.gradle.plugin.internal.Version;
 
+import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.resources.ResourceException;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Exec;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
-import org.gradle.api.tasks.bundling.Jar;
+import org.gradle.internal.logging.progress.ProgressLogger;
+import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.internal.os.OperatingSystem;
 
 import org.slf4j.LoggerFactory;
 
-public class SpringGraalNativeTask extends Exec {
+@CacheableTask
+public abstract class SpringGraalNativeTask extends Exec {
     private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(SpringGraalNativeTask.class);
 
     //region Constants
 
-    protected static final String DIR_OUTPUT = "native";
+    protected static final String DIR_OUTPUT  = "native";
+    protected static final String DIR_REPORTS = "reports/nativeImage";
 
-    private static final String DIR_BOOT_INF  = "BOOT-INF";
-    private static final String DIR_META_INF  = "META-INF";
-    private static final String FILE_MANIFEST = "MANIFEST.MF";
+    protected static final String DIR_BOOT_INF = "BOOT-INF";
 
-    private static final String DOWNLOAD_URL = "https://github.com/graalvm/graalvm-ce-builds/releases/download/vm-%1$s/graalvm-ce-java%2$s-%3$s-%4$s-%1$s.%5$s";
+    private static final long MB = 1024L * 1024;
+
+    private static final String DIR_META_INF   = "META-INF";
+    private static final String FILE_MANIFEST  = "MANIFEST.MF";
+    private static final String FILE_DASHBOARD = "%s-dashboard";
+
+    private static final String ARCHIVE_NAME        = "graalvm-ce-java%2$s-%3$s-%4$s-%1$s.%5$s";
+    private static final String MIRROR_LAYOUT       = "vm-[version]/[file]";
+    private static final String PLACEHOLDER_VERSION = "[version]";
+    private static final String PLACEHOLDER_FILE    = "[file]";
 
     //endregion
 
@@ -75,11 +126,36 @@ public class SpringGraalNativeTask extends Exec {
     protected final Property<Boolean>    verify;
     protected final Property<Boolean>    springNativeVerbose;
     protected final Property<String>     springNativeMode;
-    protected final Property<String>     dumpConfig;
+    protected final RegularFileProperty  dumpConfig;
     protected final Property<String>     mainClassName;
     protected final Property<String>     maxHeapSize;
     protected final ListProperty<String> initializeAtBuildTime;
     protected final ListProperty<String> extraArgs;
+    protected final Property<Boolean>    incrementalExtraction;
+    protected final Property<Boolean>    useRuntimeClasspath;
+    protected final Property<Boolean>    keepArchive;
+    protected final Property<String>     checksum;
+    protected final Property<Boolean>    useInstalledToolchain;
+    protected final Property<Boolean>    autoSize;
+    protected final Property<Boolean>    sizeReport;
+    protected final Property<Boolean>    pruneClassPath;
+    protected final ListProperty<String> keepJars;
+    protected final Property<String>     buildProfile;
+    protected final Property<Integer>    memoryLimit;
+    protected final Property<Boolean>    failFast;
+    protected final ListProperty<String> fatalPatterns;
+    protected final ListProperty<String> mirrors;
+    protected final Property<String>     imageName;
+    protected final RegularFileProperty  bootJar;
+    protected final DirectoryProperty    outputDir;
+    protected final DirectoryProperty    cacheDir;
+    protected final ListProperty<File>   installations;
+    protected final DirectoryProperty    reportDir;
+    protected final DirectoryProperty    configurationDir;
+
+    protected final ConfigurableFileCollection runtimeClasspath;
+
+    protected final Property<BuildScanService> buildScanService;
 
     //endregion
 
@@ -110,45 +186,633 @@ public class SpringGraalNativeTask extends Exec {
         this.verify                          = factory.property(Boolean.class);
         this.springNativeVerbose             = factory.property(Boolean.class);
         this.springNativeMode                = factory.property(String.class);
-        this.dumpConfig                      = factory.property(String.class);
+        this.dumpConfig                      = factory.fileProperty();
         this.mainClassName                   = factory.property(String.class);
         this.maxHeapSize                     = factory.property(String.class);
         this.initializeAtBuildTime           = factory.listProperty(String.class);
         this.extraArgs                       = factory.listProperty(String.class);
+        this.incrementalExtraction           = factory.property(Boolean.class);
+        this.useRuntimeClasspath             = factory.property(Boolean.class);
+        this.keepArchive                     = factory.property(Boolean.class);
+        this.checksum                        = factory.property(String.class);
+        this.useInstalledToolchain           = factory.property(Boolean.class);
+        this.autoSize                        = factory.property(Boolean.class);
+        this.sizeReport                      = factory.property(Boolean.class);
+        this.pruneClassPath                  = factory.property(Boolean.class);
+        this.keepJars                        = factory.listProperty(String.class);
+        this.buildProfile                    = factory.property(String.class);
+        this.memoryLimit                     = factory.property(Integer.class);
+        this.failFast                        = factory.property(Boolean.class);
+        this.fatalPatterns                   = factory.listProperty(String.class).convention(OutputAnalyzer.DEFAULT_PATTERNS);
+        this.mirrors                         = factory.listProperty(String.class).convention(Collections.singletonList(Constants.DEFAULT_MIRROR));
+        this.imageName                       = factory.property(String.class);
+        this.bootJar                         = factory.fileProperty();
+        this.outputDir                       = factory.directoryProperty();
+        this.cacheDir                        = factory.directoryProperty();
+        this.installations                   = factory.listProperty(File.class);
+        this.reportDir                       = factory.directoryProperty();
+        this.configurationDir                = factory.directoryProperty();
+        this.runtimeClasspath                = factory.fileCollection();
+        this.buildScanService                = factory.property(BuildScanService.class);
 
         this.setGroup("build");
         this.setDescription("Builds a native image for Spring Boot applications using GraalVM tools");
     }
 
+    /**
+     * Returns the factory of the progress loggers that show the phase of {@code native-image} in the console. It is injected by Gradle.
+     */
+    @Inject
+    protected abstract ProgressLoggerFactory getProgressLoggerFactory();
+
+    //region Inputs and outputs
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getToolVersion() {
+        return this.toolVersion;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getJavaVersion() {
+        return this.javaVersion;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getDownload() {
+        return this.download;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getTraceClassInitialization() {
+        return this.traceClassInitialization;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getTraceClassInitializationEnabled() {
+        return this.traceClassInitializationEnabled;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public ListProperty<String> getTraceClassInitializationFor() {
+        return this.traceClassInitializationFor;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getRemoveSaturatedTypeFlows() {
+        return this.removeSaturatedTypeFlows;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getReportExceptionStackTraces() {
+        return this.reportExceptionStackTraces;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getPrintAnalysisCallTree() {
+        return this.printAnalysisCallTree;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getDisableToolchainChecking() {
+        return this.disableToolchainChecking;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getEnableAllSecurityServices() {
+        return this.enableAllSecurityServices;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getEnableHttp() {
+        return this.enableHttp;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getEnableHttps() {
+        return this.enableHttps;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public ListProperty<String> getEnableUrlProtocols() {
+        return this.enableUrlProtocols;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getStaticallyLinked() {
+        return this.staticallyLinked;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getVerbose() {
+        return this.verbose;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getWarnMissingSelectorHints() {
+        return this.warnMissingSelectorHints;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getRemoveUnusedAutoConfig() {
+        return this.removeUnusedAutoConfig;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getRemoveYamlSupport() {
+        return this.removeYamlSupport;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getRemoveXmlSupport() {
+        return this.removeXmlSupport;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getRemoveSpelSupport() {
+        return this.removeSpelSupport;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getRemoveJmxSupport() {
+        return this.removeJmxSupport;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getVerify() {
+        return this.verify;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getSpringNativeVerbose() {
+        return this.springNativeVerbose;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getSpringNativeMode() {
+        return this.springNativeMode;
+    }
+
+    /**
+     * Returns the file that the Spring Native feature dumps its configuration to. It is an output, so that its path does not tie the build cache entry to the project directory.
+     */
+    @Nonnull
+    @OutputFile
+    @Optional
+    public RegularFileProperty getDumpConfig() {
+        return this.dumpConfig;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getMainClassName() {
+        return this.mainClassName;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getMaxHeapSize() {
+        return this.maxHeapSize;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public ListProperty<String> getInitializeAtBuildTime() {
+        return this.initializeAtBuildTime;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public ListProperty<String> getExtraArgs() {
+        return this.extraArgs;
+    }
+
+    @Nonnull
+    @Internal
+    public Property<Boolean> getIncrementalExtraction() {
+        return this.incrementalExtraction;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getUseRuntimeClasspath() {
+        return this.useRuntimeClasspath;
+    }
+
+    @Nonnull
+    @Classpath
+    public ConfigurableFileCollection getRuntimeClasspath() {
+        return this.runtimeClasspath;
+    }
+
+    @Nonnull
+    @Internal
+    public Property<Boolean> getKeepArchive() {
+        return this.keepArchive;
+    }
+
+    @Nonnull
+    @Internal
+    public Property<String> getChecksum() {
+        return this.checksum;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getUseInstalledToolchain() {
+        return this.useInstalledToolchain;
+    }
+
+    @Nonnull
+    @Internal
+    public Property<Boolean> getAutoSize() {
+        return this.autoSize;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getSizeReport() {
+        return this.sizeReport;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<Boolean> getPruneClassPath() {
+        return this.pruneClassPath;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public ListProperty<String> getKeepJars() {
+        return this.keepJars;
+    }
+
+    @Nonnull
+    @Input
+    @Optional
+    public Property<String> getBuildProfile() {
+        return this.buildProfile;
+    }
+
+    @Nonnull
+    @Internal
+    public Property<Integer> getMemoryLimit() {
+        return this.memoryLimit;
+    }
+
+    @Nonnull
+    @Internal
+    public Property<Boolean> getFailFast() {
+        return this.failFast;
+    }
+
+    @Nonnull
+    @Internal
+    public ListProperty<String> getFatalPatterns() {
+        return this.fatalPatterns;
+    }
+
+    @Nonnull
+    @Internal
+    public ListProperty<String> getMirrors() {
+        return this.mirrors;
+    }
+
+    @Nonnull
+    @Input
+    public Property<String> getImageName() {
+        return this.imageName;
+    }
+
+    @Nonnull
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getBootJar() {
+        return this.bootJar;
+    }
+
+    @Nonnull
+    @Internal
+    public DirectoryProperty getOutputDir() {
+        return this.outputDir;
+    }
+
+    @Nonnull
+    @Internal
+    public DirectoryProperty getCacheDir() {
+        return this.cacheDir;
+    }
+
     @Nonnull
     @Internal
-    protected String getDownloadUrl() {
+    public ListProperty<File> getInstallations() {
+        return this.installations;
+    }
+
+    @Nonnull
+    @Internal
+    public DirectoryProperty getReportDir() {
+        return this.reportDir;
+    }
+
+    /**
+     * Returns the directory of the configuration recorded by the native image agent, which the native image is built with in {@link SpringNativeMode#AGENT} mode once it exists.
+     */
+    @Nonnull
+    @InputFiles
+    @Optional
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public DirectoryProperty getConfigurationDir() {
+        return this.configurationDir;
+    }
+
+    @Nonnull
+    @Input
+    public String getPlatform() {
+        return PlatformUtils.getPlatform() + "-" + PlatformUtils.getArchitecture();
+    }
+
+    @Nonnull
+    @OutputFile
+    public Provider<RegularFile> getOutputFile() {
+        return this.outputDir.file(this.imageName.map(name -> PlatformUtils.isWindows() ? name + ".exe" : name));
+    }
+
+    /**
+     * Returns the JSON report of the phase timings, memory usage and reachable elements of the native image build.
+     */
+    @Nonnull
+    @OutputFile
+    public Provider<RegularFile> getJsonReport() {
+        return this.reportDir.file(this.imageName.map(name -> name + ".json"));
+    }
+
+    /**
+     * Returns the CSV report of the phase timings, memory usage and reachable elements of the native image build.
+     */
+    @Nonnull
+    @OutputFile
+    public Provider<RegularFile> getCsvReport() {
+        return this.reportDir.file(this.imageName.map(name -> name + ".csv"));
+    }
+
+    /**
+     * Returns the dump of the code and image heap breakdowns of the native image, which is written only if {@code sizeReport} is enabled.
+     */
+    @Nonnull
+    @OutputFile
+    @Optional
+    public Provider<RegularFile> getDashboardDump() {
+        return this.reportDir.file(this.imageName.map(name -> Boolean.TRUE.equals(this.sizeReport.getOrNull()) ? String.format(SpringGraalNativeTask.FILE_DASHBOARD, name) + ".dump" : null));
+    }
+
+    @Nonnull
+    @Internal
+    public Property<BuildScanService> getBuildScanService() {
+        return this.buildScanService;
+    }
+
+    //endregion
+
+    //region Variant properties
+
+    @Nonnull
+    protected String getToolVersion(@Nullable final SpringGraalNativeVariant variant) {
+        return variant == null || variant.getToolVersion() == null ? this.toolVersion.getOrElse(Constants.DEFAULT_TOOL_VERSION) : variant.getToolVersion();
+    }
+
+    @Nonnull
+    protected String getJavaVersion(@Nullable final SpringGraalNativeVariant variant) {
+        return variant == null || variant.getJavaVersion() == null ? this.javaVersion.getOrElse(Constants.DEFAULT_JAVA_VERSION) : variant.getJavaVersion();
+    }
+
+    @Nullable
+    protected String getSpringNativeMode(@Nullable final SpringGraalNativeVariant variant) {
+        return variant == null || variant.getSpringNativeMode() == null ? this.springNativeMode.getOrNull() : variant.getSpringNativeMode();
+    }
+
+    @Nonnull
+    protected String getMainClassName(@Nullable final SpringGraalNativeVariant variant) {
+        return variant == null || variant.getMainClassName() == null ? this.mainClassName.get() : variant.getMainClassName();
+    }
+
+    @Nonnull
+    protected String getImageName(@Nullable final SpringGraalNativeVariant variant) {
+        return variant == null ? this.imageName.get() : this.imageName.get() + "-" + variant.getName();
+    }
+
+    @Nonnull
+    protected List<String> getExtraArgs(@Nullable final SpringGraalNativeVariant variant) {
+        final List<String> args = new ArrayList<>(this.extraArgs.getOrElse(Collections.emptyList()));
+        if (variant != null && variant.getExtraArgs() != null) args.addAll(variant.getExtraArgs());
+
+        return args;
+    }
+
+    //endregion
+
+    @Nonnull
+    @Internal
+    protected List<String> getDownloadUrls() {
+        return this.getDownloadUrls(null);
+    }
+
+    /**
+     * Returns the URLs of the GraalVM archive on each of {@code mirrors}, in the order they are tried.
+     */
+    @Nonnull
+    protected List<String> getDownloadUrls(@Nullable final SpringGraalNativeVariant variant) {
+        final List<String> mirrors = this.mirrors.getOrElse(Collections.emptyList());
+        if (mirrors.isEmpty()) throw new InvalidUserDataException("mirrors is empty");
+
         final String platform = PlatformUtils.getPlatform();
-        return String.format(SpringGraalNativeTask.DOWNLOAD_URL, this.toolVersion.getOrElse(Constants.DEFAULT_TOOL_VERSION), this.javaVersion.getOrElse(Constants.DEFAULT_JAVA_VERSION), platform, PlatformUtils.getArchitecture(), "windows".equals(platform) ? "zip" : "tar.gz");
+        final String fileName = String.format(SpringGraalNativeTask.ARCHIVE_NAME, this.getToolVersion(variant), this.getJavaVersion(variant), platform, PlatformUtils.getArchitecture(), "windows".equals(platform) ? "zip" : "tar.gz");
+
+        return mirrors.stream()
+            .map(mirror -> SpringGraalNativeTask.getDownloadUrl(mirror, this.getToolVersion(variant), fileName))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the URL of the GraalVM archive {@code fileName} on {@code mirror}.
+     * @param mirror The base URL or the path of a mirror, laid out as GitHub releases are, such as {@code https://mirror.example.com/graalvm}, or a template with the placeholders {@code [version]} and {@code [file]}, such as {@code file:///opt/graalvm/[file]}.
+     */
+    @Nonnull
+    protected static String getDownloadUrl(@Nonnull final String mirror, @Nonnull final String toolVersion, @Nonnull final String fileName) {
+        final String location = mirror.contains(SpringGraalNativeTask.PLACEHOLDER_VERSION) || mirror.contains(SpringGraalNativeTask.PLACEHOLDER_FILE) ? mirror : (mirror.endsWith("/") ? mirror : mirror + "/") + SpringGraalNativeTask.MIRROR_LAYOUT;
+        final String url      = location.replace(SpringGraalNativeTask.PLACEHOLDER_VERSION, toolVersion).replace(SpringGraalNativeTask.PLACEHOLDER_FILE, fileName);
+
+        // A mirror without a scheme is a directory
+        return url.contains("://") || url.startsWith("file:") ? url : new File(url).toURI().toString();
+    }
+
+    @Nonnull
+    protected File getToolchainDir(@Nullable final SpringGraalNativeVariant variant) {
+        return ToolchainUtils.getToolchainDir(this.cacheDir.get().getAsFile(), this.getToolVersion(variant), this.getJavaVersion(variant));
     }
 
     @Nonnull
     @Internal
     protected File getToolsDir() {
-        return Paths.get(this.getProject().getBuildDir().getAbsolutePath(), "tmp", SpringGraalNativePlugin.TASK_NAME, DownloadUtils.getOutputPath(this.toolVersion.getOrElse(Constants.DEFAULT_TOOL_VERSION), this.javaVersion.getOrElse(Constants.DEFAULT_JAVA_VERSION))).toFile();
+        return this.getToolsDir(null);
+    }
+
+    @Nonnull
+    protected File getToolsDir(@Nullable final SpringGraalNativeVariant variant) {
+        return Paths.get(this.getToolchainDir(variant).getAbsolutePath(), DownloadUtils.getOutputPath(this.getToolVersion(variant), this.getJavaVersion(variant))).toFile();
     }
 
     @Nonnull
     protected String getClassPath(@Nonnull final String classesPath, @Nonnull final File outputDir) {
         final File[] files = Paths.get(outputDir.getAbsolutePath(), SpringGraalNativeTask.DIR_BOOT_INF, "lib").toFile().listFiles();
-        return files == null ? classesPath : classesPath + (OperatingSystem.current().isWindows() ? ";" : ":") + Stream.of(files)
-            .map(File::getAbsolutePath)
+        return files == null ? classesPath : this.getClassPath(classesPath, Stream.of(files));
+    }
+
+    @Nonnull
+    protected String getClassPath(@Nonnull final String classesPath, @Nonnull final Stream<File> files) {
+        return Stream.concat(Stream.of(classesPath), this.pruneJars(classesPath, files.collect(Collectors.toList())).stream().map(File::getAbsolutePath))
             .collect(Collectors.joining(OperatingSystem.current().isWindows() ? ";" : ":"));
     }
 
+    /**
+     * Returns {@code files} without the jars that cannot be reached from the main class, if {@code pruneClassPath} is enabled.
+     * @param classesPath The directory of the classes of the application.
+     * @param files The jars and directories that the application depends on.
+     * @return The jars and directories that may be reachable from the main class.
+     */
+    @Nonnull
+    protected List<File> pruneJars(@Nonnull final String classesPath, @Nonnull final List<File> files) {
+        if (!Boolean.TRUE.equals(this.pruneClassPath.getOrNull())) return files;
+
+        final List<File> classPath = new ArrayList<>();
+        classPath.add(new File(classesPath));
+        classPath.addAll(files);
+
+        try {
+            final List<File> unreachable = JarReachability.getUnreachable(classPath, this.mainClassName.get(), this.keepJars.getOrElse(Collections.emptyList()));
+
+            if (unreachable.isEmpty()) {
+                SpringGraalNativeTask.LOGGER.lifecycle("No jars to prune from the classpath");
+
+                return files;
+            }
+
+            SpringGraalNativeTask.LOGGER.lifecycle("Prune {} of {} jars unreachable from {}", unreachable.size(), files.size(), this.mainClassName.get());
+            for (final File file : unreachable) SpringGraalNativeTask.LOGGER.lifecycle("  {}", file.getName());
+
+            return files.stream()
+                .filter(file -> !unreachable.contains(file))
+                .collect(Collectors.toList());
+        } catch (final IOException e) {
+            throw new ResourceException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the GraalVM home directory to build the native image, or the given variant of it, with, installing GraalVM if needed.
+     * @param variant The variant to build, or {@code null} to build the native image itself.
+     * @return The GraalVM home directory, or {@code null} if {@code native-image} on {@code PATH} is used.
+     */
+    @Nullable
+    protected File installToolchain(@Nullable final SpringGraalNativeVariant variant) {
+        final String downloadStrategy = this.download.getOrElse(Constants.DOWNLOAD_DEFAULT);
+        if (Constants.DOWNLOAD_SKIP.equals(downloadStrategy)) return null;
+
+        if (Constants.DOWNLOAD_DEFAULT.equals(downloadStrategy) && this.useInstalledToolchain.getOrElse(true)) {
+            final GraalVMUtils.Installation installation = GraalVMUtils.find(this.installations.get(), this.getToolVersion(variant), this.getJavaVersion(variant));
+
+            if (installation != null) {
+                SpringGraalNativeTask.LOGGER.lifecycle("Use {}", installation);
+
+                return installation.getHome();
+            }
+        }
+
+        // The checksum is given for the toolchain of the extension, and does not apply to those of other versions
+        ToolchainUtils.install(this.getToolchainDir(variant), this.getDownloadUrls(variant), downloadStrategy, this.keepArchive.getOrElse(true), variant == null || variant.getToolVersion() == null && variant.getJavaVersion() == null ? this.checksum.getOrNull() : null);
+
+        return this.getToolsDir(variant);
+    }
+
     @Nonnull
     protected Iterable<String> getCommandLineArgs(@Nonnull final String classPath) {
-        final List<String> args = new ArrayList<>();
+        return this.getCommandLineArgs(Constants.DOWNLOAD_SKIP.equals(this.download.getOrElse(Constants.DOWNLOAD_DEFAULT)) ? null : this.getToolsDir(), null, classPath);
+    }
+
+    @Nonnull
+    protected Iterable<String> getCommandLineArgs(@Nullable final File toolsDir, @Nullable final ResourceUtils.Allocation allocation, @Nonnull final String classPath) {
+        return this.getCommandLineArgs(toolsDir, allocation, classPath, null);
+    }
+
+    @Nonnull
+    protected List<String> getCommandLineArgs(@Nullable final File toolsDir, @Nullable final ResourceUtils.Allocation allocation, @Nonnull final String classPath, @Nullable final SpringGraalNativeVariant variant) {
+        final List<String> args             = new ArrayList<>();
+        final String       springNativeMode = this.getSpringNativeMode(variant);
+        final List<String> extraArgs        = this.getExtraArgs(variant);
 
-        if (Constants.DOWNLOAD_SKIP.equals(this.download.getOrElse(Constants.DOWNLOAD_DEFAULT))) {
+        if (toolsDir == null) {
             args.add(PlatformUtils.isWindows() ? "native-image.cmd" : "native-image");
         } else {
-            args.add(Paths.get(this.getToolsDir().getAbsolutePath(), "bin", PlatformUtils.isWindows() ? "native-image.cmd" : "native-image").toString());
+            args.add(Paths.get(toolsDir.getAbsolutePath(), "bin", PlatformUtils.isWindows() ? "native-image.cmd" : "native-image").toString());
         }
 
         args.add("--allow-incomplete-classpath");
@@ -157,7 +821,7 @@ public class SpringGraalNativeTask extends Exec {
         args.add("--no-server");
         args.add("--install-exit-handlers");
 
-        if (VersionNumberComparator.getInstance().compare(this.toolVersion.getOrElse(Constants.DEFAULT_TOOL_VERSION), Constants.DEFAULT_TOOL_VERSION) < 0) {
+        if (!Version.of(this.getToolVersion(variant)).supports(GraalVMFeature.TRACE_CLASS_INITIALIZATION_FOR)) {
             SpringGraalNativeTask.appendCommandLineArg(args, "-H:+TraceClassInitialization", this.traceClassInitializationEnabled.getOrNull() == null ? this.traceClassInitialization : this.traceClassInitializationEnabled);
         } else {
             if (this.traceClassInitializationFor.isPresent() && !this.traceClassInitializationFor.get().isEmpty()) args.add("--trace-class-initialization=" + String.join(",", this.traceClassInitializationFor.get()));
@@ -182,21 +846,83 @@ public class SpringGraalNativeTask extends Exec {
         if (this.removeJmxSupport.isPresent()) args.add("-Dspring.native.remove-jmx-support=" + this.removeJmxSupport.get());
         if (this.verify.isPresent()) args.add("-Dspring.native.verify=" + this.verify.get());
         if (this.springNativeVerbose.isPresent()) args.add("-Dspring.native.verbose=" + this.springNativeVerbose.get());
-        if (this.springNativeMode.isPresent()) args.add("-Dspring.native.mode=" + this.springNativeMode.get());
-        if (this.maxHeapSize.isPresent() && !this.maxHeapSize.get().isEmpty()) args.add("-J-Xmx" + this.maxHeapSize.get());
+        if (springNativeMode != null) args.add("-Dspring.native.mode=" + springNativeMode);
+        if (SpringNativeMode.AGENT.equals(springNativeMode) && this.configurationDir.isPresent() && this.configurationDir.get().getAsFile().isDirectory()) args.add("-H:ConfigurationFileDirectories=" + this.configurationDir.get().getAsFile().getAbsolutePath());
+
+        // Variants built at the same time would dump to the same file
+        if (variant == null && this.dumpConfig.isPresent()) args.add("-Dspring.native.dump-config=" + this.dumpConfig.get().getAsFile().getAbsolutePath());
+
+        if (this.maxHeapSize.isPresent() && !this.maxHeapSize.get().isEmpty()) {
+            args.add("-J-Xmx" + this.maxHeapSize.get());
+        } else if (allocation != null) {
+            args.add("-J-Xmx" + allocation.getHeapSize() / (1024 * 1024) + "m");
+        }
+
+        if (allocation != null && extraArgs.stream().noneMatch(arg -> arg.startsWith("-H:NumberOfThreads="))) args.add("-H:NumberOfThreads=" + allocation.getThreads());
+
         if (this.initializeAtBuildTime.isPresent() && !this.initializeAtBuildTime.get().isEmpty()) args.add("--initialize-at-build-time=" + String.join(",", this.initializeAtBuildTime.get()));
-        if (this.extraArgs.isPresent() && !this.extraArgs.get().isEmpty()) args.addAll(this.extraArgs.get());
+        args.addAll(this.getProfileArgs(variant, extraArgs));
+        args.addAll(extraArgs);
 
-        args.add("-H:Name=" + this.getProject().getName());
+        if (Boolean.TRUE.equals(this.sizeReport.getOrNull())) {
+            // native-image appends .dump to the path of the dashboard dump
+            args.add("-H:DashboardDump=" + new File(this.reportDir.get().getAsFile(), String.format(SpringGraalNativeTask.FILE_DASHBOARD, this.getImageName(variant))).getAbsolutePath());
+            args.add("-H:+DashboardCode");
+            args.add("-H:+DashboardHeap");
+        }
+
+        args.add("-H:Name=" + this.getImageName(variant));
         args.add("-cp");
         args.add(classPath);
-        args.add(this.mainClassName.get());
+        args.add(this.getMainClassName(variant));
 
         if (SpringGraalNativeTask.LOGGER.isEnabled(LogLevel.DEBUG)) SpringGraalNativeTask.LOGGER.debug(String.join(" ", args));
 
         return args;
     }
 
+    /**
+     * Returns the optimization and CPU targeting options of {@code buildProfile} that the GraalVM version of the native image, or the given variant of it, supports.
+     * @param extraArgs The extra arguments, whose optimization and CPU targeting options take precedence over those of {@code buildProfile}.
+     * @return The options of {@code buildProfile}, or an empty list if no build profile is set.
+     */
+    @Nonnull
+    protected List<String> getProfileArgs(@Nullable final SpringGraalNativeVariant variant, @Nonnull final List<String> extraArgs) {
+        final String profile = this.buildProfile.getOrNull();
+        if (profile == null) return Collections.emptyList();
+
+        final Version      version         = Version.of(this.getToolVersion(variant));
+        final boolean      hasOptimization = extraArgs.stream().anyMatch(arg -> arg.startsWith("-O") || arg.startsWith("-H:Optimize="));
+        final boolean      hasArchitecture = extraArgs.stream().anyMatch(arg -> arg.startsWith("-march=") || arg.endsWith("NativeArchitecture"));
+        final List<String> args            = new ArrayList<>();
+
+        if (BuildProfile.DEV.equals(profile)) {
+            if (!hasOptimization) {
+                if (version.supports(GraalVMFeature.QUICK_BUILD)) {
+                    args.add("-Ob");
+                } else if (version.supports(GraalVMFeature.OPTIMIZATION_LEVEL)) {
+                    args.add("-O0");
+                }
+            }
+        } else if (BuildProfile.RELEASE.equals(profile)) {
+            if (!hasOptimization && version.supports(GraalVMFeature.OPTIMIZATION_LEVEL)) args.add("-O2");
+
+            if (!hasArchitecture) {
+                if (version.supports(GraalVMFeature.MARCH)) {
+                    args.add("-march=native");
+                } else if (version.supports(GraalVMFeature.NATIVE_ARCHITECTURE)) {
+                    args.add("-H:+NativeArchitecture");
+                }
+            }
+        } else {
+            throw new InvalidUserDataException("Unsupported buildProfile: " + profile);
+        }
+
+        if (args.isEmpty()) SpringGraalNativeTask.LOGGER.info("GraalVM {} supports no options of the {} build profile", version, profile);
+
+        return args;
+    }
+
     protected static void appendCommandLineArg(@Nonnull final List<String> args, @Nonnull final String arg, @Nonnull final Property<Boolean> property) {
         if (Boolean.TRUE.equals(property.getOrNull())) args.add(arg);
     }
@@ -206,57 +932,290 @@ public class SpringGraalNativeTask extends Exec {
     protected void exec() {
         if (!this.mainClassName.isPresent()) throw new InvalidUserDataException("mainClassName is null");
 
-        DownloadUtils.download(this.getDownloadUrl(), Paths.get(this.getProject().getBuildDir().getAbsolutePath(), "tmp", SpringGraalNativePlugin.TASK_NAME).toFile(), this.download.getOrElse(Constants.DOWNLOAD_DEFAULT));
-
-        final File outputDir = new File(this.getProject().getBuildDir().getAbsolutePath(), SpringGraalNativeTask.DIR_OUTPUT);
+        final File toolsDir  = this.installToolchain(null);
+        final File outputDir = this.outputDir.get().getAsFile();
 
         try {
-            final Path classesPath = Paths.get(outputDir.getAbsolutePath(), SpringGraalNativeTask.DIR_BOOT_INF, "classes");
+            final String              classPath   = this.prepareClassPath(outputDir);
+            final long                memoryLimit = this.memoryLimit.getOrElse(0) * SpringGraalNativeTask.MB;
+            final Map<String, String> properties  = this.getReportProperties(null);
+            final OutputAnalyzer      analyzer    = this.getOutputAnalyzer(outputDir);
 
-            this.deleteOutputDir(outputDir);
-            this.copyFiles(classesPath, outputDir);
+            BuildMetrics metrics = new BuildMetrics();
 
-            this.workingDir(outputDir)
-                .commandLine(this.getCommandLineArgs(this.getClassPath(classesPath.toString(), outputDir)));
+            try (ResourceUtils.Allocation allocation = Boolean.TRUE.equals(this.autoSize.getOrNull()) ? ResourceUtils.allocate() : null) {
+                final List<String> args = this.getCommandLineArgs(toolsDir, allocation, classPath, null);
 
-            super.exec();
+                if (!this.buildNativeImage(outputDir, args, memoryLimit, metrics, analyzer)) {
+                    // A build stopped for using too much memory is retried once, with less heap than it was given and fewer threads
+                    final long heapSize = MemoryWatchdog.getRetryHeapSize(MemoryWatchdog.getHeapSize(args), memoryLimit);
+                    final int  threads  = MemoryWatchdog.getRetryThreads(allocation == null ? Runtime.getRuntime().availableProcessors() : allocation.getThreads());
+
+                    SpringGraalNativeTask.LOGGER.lifecycle("Retry native-image with {} MB of heap and {} threads", heapSize / SpringGraalNativeTask.MB, threads);
+
+                    properties.put("memoryLimit", String.valueOf(this.memoryLimit.get()));
+                    properties.put("retryHeapSize", String.valueOf(heapSize / SpringGraalNativeTask.MB));
+                    properties.put("retryThreads", String.valueOf(threads));
+
+                    metrics = new BuildMetrics();
+
+                    if (!this.buildNativeImage(outputDir, SpringGraalNativeTask.getRetryArgs(args, heapSize, threads), memoryLimit, metrics, analyzer)) throw new GradleException("native-image used more than " + this.memoryLimit.get() + " MB of memory, even with " + heapSize / SpringGraalNativeTask.MB + " MB of heap and " + threads + " threads");
+                }
+            } finally {
+                this.writeReports(metrics, properties);
+
+                if (this.buildScanService.isPresent()) this.buildScanService.get().addValues(SpringGraalNativeTask.getBuildScanValues(metrics));
+            }
         } catch (final IOException e) {
             throw new ResourceException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Runs {@code native-image}, and fails with the diagnosis of {@code analyzer} if its output shows that the build is bound to fail.
+     * @return {@code false} if {@code native-image} is stopped for using more memory than {@code memoryLimit}.
+     */
+    private boolean buildNativeImage(@Nonnull final File workingDir, @Nonnull final List<String> args, final long memoryLimit, @Nonnull final BuildMetrics metrics, @Nonnull final OutputAnalyzer analyzer) {
+        final boolean isCompleted;
+
+        try {
+            isCompleted = this.execNativeImage(workingDir, args, memoryLimit, metrics::accept, analyzer::accept);
+        } catch (final GradleException e) {
+            if (analyzer.isFatal()) throw new GradleException(analyzer.getMessage(), e);
+
+            throw e;
+        }
+
+        // Where native-image cannot be stopped, it runs to the end, and may even succeed
+        if (analyzer.isFatal()) throw new GradleException(analyzer.getMessage());
+
+        return isCompleted;
+    }
+
+    /**
+     * Runs {@code native-image} with {@code args} in {@code workingDir}, and passes each line it prints to its standard or error output to {@code consumers}.
+     * @param memoryLimit The resident set size in bytes that the processes of {@code native-image} may use, or {@code 0} for no limit.
+     * @return {@code false} if {@code native-image} is stopped for using more memory than {@code memoryLimit}.
+     */
+    @SafeVarargs
+    protected final boolean execNativeImage(@Nonnull final File workingDir, @Nonnull final List<String> args, final long memoryLimit, @Nonnull final Consumer<String>... consumers) {
+        final ProgressLogger progressLogger = this.startProgressLogger();
+        final BuildProgress  progress       = BuildProgress.start(progressLogger == null ? status -> { } : progressLogger::progress, workingDir);
+
+        final Consumer<String>[] allConsumers = Arrays.copyOf(consumers, consumers.length + 1);
+        allConsumers[consumers.length] = progress::accept;
+
+        // native-image prints errors and traces to the error output, which is read on another thread, so the lines of both outputs are passed to the consumers one at a time
+        final Consumer<String> consumer = line -> {
+            synchronized (allConsumers) {
+                for (final Consumer<String> c : allConsumers) c.accept(line);
+            }
+        };
+
+        // The outputs are restored after each run, so that a later run, such as a retry, does not also pass its lines to the consumers of this one
+        final OutputStream     standardOutput = this.getStandardOutput();
+        final OutputStream     errorOutput    = this.getErrorOutput();
+        final LineOutputStream outputStream   = new LineOutputStream(standardOutput, Charset.defaultCharset(), consumer);
+        final LineOutputStream errorStream    = new LineOutputStream(errorOutput, Charset.defaultCharset(), consumer);
+        final MemoryWatchdog   watchdog       = memoryLimit > 0 ? MemoryWatchdog.start(workingDir, memoryLimit) : null;
+
+        try {
+            this.workingDir(workingDir)
+                .commandLine(args)
+                .setStandardOutput(outputStream)
+                .setErrorOutput(errorStream);
+
+            super.exec();
+
+            return true;
+        } catch (final GradleException e) {
+            if (watchdog == null || !watchdog.isTriggered()) throw e;
+
+            return false;
+        } finally {
+            progress.close();
+            if (progressLogger != null) progressLogger.completed();
+
+            if (watchdog != null) {
+                watchdog.close();
+
+                SpringGraalNativeTask.LOGGER.info("native-image used up to {} MB of memory", watchdog.getPeakRss() / SpringGraalNativeTask.MB);
+            }
+
+            try {
+                outputStream.close();
+                errorStream.close();
+            } catch (final IOException e) {
+                SpringGraalNativeTask.LOGGER.debug("Failed to close the output of native-image", e);
+            }
+
+            this.setStandardOutput(standardOutput);
+            this.setErrorOutput(errorOutput);
+        }
+    }
+
+    /**
+     * Starts showing the progress of {@code native-image} in the console, or returns {@code null} if it cannot be shown, as {@link ProgressLoggerFactory} is internal to Gradle and may change or go away.
+     */
+    @Nullable
+    private ProgressLogger startProgressLogger() {
+        try {
+            return this.getProgressLoggerFactory().newOperation(SpringGraalNativeTask.class).start("Build native image", null);
+        } catch (final RuntimeException | LinkageError e) {
+            SpringGraalNativeTask.LOGGER.debug("Failed to show the progress of native-image", e);
+
+            return null;
+        }
+    }
+
+    /**
+     * Returns the time taken by each phase and the peak RSS of the builder, as custom values of the build scan.
+     */
+    @Nonnull
+    protected static Map<String, String> getBuildScanValues(@Nonnull final BuildMetrics metrics) {
+        final Map<String, String> values = new LinkedHashMap<>();
+
+        for (final Map.Entry<String, Double> entry : metrics.getPhaseTimes().entrySet()) values.put("native-image " + entry.getKey() + " time", String.format(Locale.ROOT, "%.1fs", entry.getValue() / 1000));
+
+        final Long peakRss = metrics.getPeakRss();
+        if (peakRss != null) values.put("native-image peak RSS", peakRss / SpringGraalNativeTask.MB + " MB");
+
+        return values;
+    }
+
+    /**
+     * Returns {@code args} with {@code heapSize} bytes of heap and {@code threads} threads, in place of those they have.
+     */
+    @Nonnull
+    protected static List<String> getRetryArgs(@Nonnull final List<String> args, final long heapSize, final int threads) {
+        final List<String> retryArgs = args.stream()
+            .filter(arg -> !arg.startsWith("-J-Xmx") && !arg.startsWith("-H:NumberOfThreads="))
+            .collect(Collectors.toList());
+
+        // The options go before the classpath and the main class
+        final int index = retryArgs.indexOf("-cp");
+        retryArgs.addAll(index < 0 ? retryArgs.size() : index, Arrays.asList("-J-Xmx" + heapSize / SpringGraalNativeTask.MB + "m", "-H:NumberOfThreads=" + threads));
+
+        return retryArgs;
+    }
+
+    /**
+     * Returns the analyzer of the output of {@code native-image}, which stops the processes that run in {@code workingDir} as soon as a line matches {@code fatalPatterns}, if {@code failFast} is enabled.
+     */
+    @Nonnull
+    protected OutputAnalyzer getOutputAnalyzer(@Nonnull final File workingDir) {
+        final List<String> patterns = Boolean.TRUE.equals(this.failFast.getOrNull()) ? this.fatalPatterns.getOrElse(OutputAnalyzer.DEFAULT_PATTERNS) : Collections.emptyList();
+
+        try {
+            return new OutputAnalyzer(patterns, () -> {
+                SpringGraalNativeTask.LOGGER.warn("Stop native-image, which is bound to fail");
+
+                try {
+                    ProcessTree.kill(ProcessTree.of(workingDir).getProcesses());
+                } catch (final IOException e) {
+                    SpringGraalNativeTask.LOGGER.warn("Failed to stop native-image", e);
+                }
+            });
+        } catch (final PatternSyntaxException e) {
+            throw new InvalidUserDataException("Invalid fatalPatterns: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Extracts the boot JAR, or writes the manifest for the runtime classpath, into {@code outputDir}.
+     * @param outputDir The directory to build the native image in.
+     * @return The classpath to build the native image with.
+     */
+    @Nonnull
+    protected String prepareClassPath(@Nonnull final File outputDir) throws IOException {
+        final Path classesPath = Paths.get(outputDir.getAbsolutePath(), SpringGraalNativeTask.DIR_BOOT_INF, "classes");
+
+        if (Boolean.TRUE.equals(this.useRuntimeClasspath.getOrNull())) {
+            this.deleteOutputDir(outputDir);
+            this.writeManifest(classesPath);
+
+            return this.getClassPath(classesPath.toString(), this.runtimeClasspath.getFiles().stream());
+        }
+
+        final boolean isIncremental = Boolean.TRUE.equals(this.incrementalExtraction.getOrNull());
+
+        // Files extracted without a sync manifest cannot be told apart from stale ones, so they are cleared once
+        if (!isIncremental || !new File(outputDir, ArchiveUtils.FILE_SYNC_MANIFEST).exists()) this.deleteOutputDir(outputDir);
+
+        this.copyFiles(classesPath, outputDir, isIncremental);
+
+        return this.getClassPath(classesPath.toString(), outputDir);
+    }
+
+    @Nonnull
+    protected Map<String, String> getReportProperties(@Nullable final SpringGraalNativeVariant variant) {
+        final Map<String, String> properties       = new LinkedHashMap<>();
+        final String              springNativeMode = this.getSpringNativeMode(variant);
+
+        properties.put("imageName", this.getImageName(variant));
+        if (variant != null) properties.put("variant", variant.getName());
+        if (springNativeMode != null) properties.put("springNativeMode", springNativeMode);
+        properties.put("toolVersion", this.getToolVersion(variant));
+        properties.put("javaVersion", this.getJavaVersion(variant));
+        properties.put("platform", this.getPlatform());
+
+        return properties;
+    }
+
+    protected void writeReports(@Nonnull final BuildMetrics metrics, @Nonnull final Map<String, String> properties) throws IOException {
+        final File jsonReport = this.getJsonReport().get().getAsFile();
+
+        metrics.write(jsonReport, this.getCsvReport().get().getAsFile(), properties);
+
+        SpringGraalNativeTask.LOGGER.info("Write native image build report to {}", jsonReport.getAbsolutePath());
+    }
+
     protected void deleteOutputDir(@Nonnull final File outputDir) throws IOException {
         if (outputDir.exists()) {
             SpringGraalNativeTask.LOGGER.info("Clear output directory");
 
-            try (Stream<Path> stream = Files.walk(outputDir.toPath())) {
-                stream.map(Path::toFile)
-                    .sorted(Comparator.reverseOrder())
-                    .forEach(file -> {
-                        try {
-                            Files.deleteIfExists(file.toPath());
-                        } catch (final IOException e) {
-                            throw new ResourceException("Failed to delete directory or file: " + file.getAbsolutePath(), e);
-                        }
-                    });
-            }
+            FileUtils.delete(outputDir);
         } else {
             SpringGraalNativeTask.LOGGER.info("Skip clearing output directory as it does not exist");
         }
     }
 
-    protected void copyFiles(@Nonnull final Path classesPath, @Nonnull final File outputDir) {
+    protected void copyFiles(@Nonnull final Path classesPath, @Nonnull final File outputDir, final boolean isIncremental) {
         try {
-            ArchiveUtils.decompressJar(((Jar)SpringGraalNativePlugin.getDependency(this.getProject())).getArchiveFile().get().getAsFile(), outputDir);
+            if (isIncremental) {
+                final int changes = ArchiveUtils.syncJar(this.bootJar.get().getAsFile(), outputDir);
+
+                SpringGraalNativeTask.LOGGER.info("Synchronize output directory with {} changes", changes);
+            } else {
+                ArchiveUtils.decompressJar(this.bootJar.get().getAsFile(), outputDir);
+            }
 
             SpringGraalNativeTask.LOGGER.info("Copy dependencies to output directory");
 
             final File destination = new File(classesPath.toString(), SpringGraalNativeTask.DIR_META_INF);
             if (!destination.exists() && !destination.mkdirs()) throw new ResourceException("Failed to create directory: " + destination.getAbsolutePath());
 
-            Files.copy(Paths.get(outputDir.getAbsolutePath(), SpringGraalNativeTask.DIR_META_INF, SpringGraalNativeTask.FILE_MANIFEST), Paths.get(classesPath.toString(), SpringGraalNativeTask.DIR_META_INF, SpringGraalNativeTask.FILE_MANIFEST));
+            Files.copy(Paths.get(outputDir.getAbsolutePath(), SpringGraalNativeTask.DIR_META_INF, SpringGraalNativeTask.FILE_MANIFEST), Paths.get(classesPath.toString(), SpringGraalNativeTask.DIR_META_INF, SpringGraalNativeTask.FILE_MANIFEST), StandardCopyOption.REPLACE_EXISTING);
         } catch (final IOException | IllegalAccessException e) {
             throw new ResourceException(e.getMessage(), e);
         }
     }
+
+    protected void writeManifest(@Nonnull final Path classesPath) {
+        SpringGraalNativeTask.LOGGER.info("Write manifest to output directory");
+
+        final File destination = new File(classesPath.toString(), SpringGraalNativeTask.DIR_META_INF);
+        if (!destination.exists() && !destination.mkdirs()) throw new ResourceException("Failed to create directory: " + destination.getAbsolutePath());
+
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, this.mainClassName.get());
+        manifest.getMainAttributes().putValue("Start-Class", this.mainClassName.get());
+
+        try (OutputStream outputStream = new FileOutputStream(new File(destination, SpringGraalNativeTask.FILE_MANIFEST))) {
+            manifest.write(outputStream);
+        } catch (final IOException e) {
+            throw new ResourceException(e.getMessage(), e);
+        }
+    }
 }
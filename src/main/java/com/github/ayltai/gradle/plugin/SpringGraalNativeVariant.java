@@ -0,0 +1,152 @@
+package com.github.ayltai.gradle.plugin;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import org.gradle.api.Named;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Optional;
+
+/**
+ * A variant of the native image, built alongside the others by the {@code buildNativeImageVariants} task. Properties that are not set are taken from the {@code nativeImage} extension.
+ */
+public class SpringGraalNativeVariant implements Named {
+    private final String name;
+
+    //region Gradle plugin properties
+
+    protected final Property<String>     mainClassName;
+    protected final Property<String>     springNativeMode;
+    protected final Property<String>     toolVersion;
+    protected final Property<String>     javaVersion;
+    protected final ListProperty<String> extraArgs;
+
+    //endregion
+
+    @Inject
+    public SpringGraalNativeVariant(@Nonnull final String name, @Nonnull final ObjectFactory factory) {
+        this.name = name;
+
+        this.mainClassName    = factory.property(String.class);
+        this.springNativeMode = factory.property(String.class);
+        this.toolVersion      = factory.property(String.class);
+        this.javaVersion      = factory.property(String.class);
+        this.extraArgs        = factory.listProperty(String.class);
+    }
+
+    /**
+     * Returns the name of the variant, which is appended to the name of the native image.
+     * @return The name of the variant.
+     */
+    @Nonnull
+    @Input
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    //region Properties
+
+    /**
+     * Returns the fully qualified class name of the entry point of the variant.
+     * @return The fully qualified class name of the entry point of the variant.
+     */
+    @Nullable
+    @Input
+    @Optional
+    public String getMainClassName() {
+        return this.mainClassName.getOrNull();
+    }
+
+    /**
+     * Sets the fully qualified class name of the entry point of the variant.
+     * @param mainClassName The fully qualified class name of the entry point of the variant.
+     */
+    public void setMainClassName(@Nonnull final String mainClassName) {
+        this.mainClassName.set(mainClassName);
+    }
+
+    /**
+     * Returns the mode that switches how much configuration the feature actually provides to native-image for the variant.
+     * @return The mode that switches how much configuration the feature actually provides to native-image for the variant.
+     * @see SpringNativeMode
+     */
+    @Nullable
+    @Input
+    @Optional
+    public String getSpringNativeMode() {
+        return this.springNativeMode.getOrNull();
+    }
+
+    /**
+     * Sets the mode that switches how much configuration the feature actually provides to native-image for the variant.
+     * @param springNativeMode The mode that switches how much configuration the feature actually provides to native-image for the variant.
+     */
+    public void setSpringNativeMode(@Nonnull final String springNativeMode) {
+        this.springNativeMode.set(springNativeMode);
+    }
+
+    /**
+     * Returns the version of GraalVM Community Edition to build the variant with.
+     * @return The version of GraalVM Community Edition to build the variant with.
+     */
+    @Nullable
+    @Input
+    @Optional
+    public String getToolVersion() {
+        return this.toolVersion.getOrNull();
+    }
+
+    /**
+     * Sets the version of GraalVM Community Edition to build the variant with.
+     * @param toolVersion The version of GraalVM Community Edition to build the variant with.
+     */
+    public void setToolVersion(@Nonnull final String toolVersion) {
+        this.toolVersion.set(toolVersion);
+    }
+
+    /**
+     * Returns the version of JDK of GraalVM Community Edition to build the variant with.
+     * @return The version of JDK of GraalVM Community Edition to build the variant with.
+     */
+    @Nullable
+    @Input
+    @Optional
+    public String getJavaVersion() {
+        return this.javaVersion.getOrNull();
+    }
+
+    /**
+     * Sets the version of JDK of GraalVM Community Edition to build the variant with.
+     * @param javaVersion The version of JDK of GraalVM Community Edition to build the variant with.
+     */
+    public void setJavaVersion(@Nonnull final String javaVersion) {
+        this.javaVersion.set(javaVersion);
+    }
+
+    /**
+     * Returns the arguments passed to native-image for the variant, after those of the {@code nativeImage} extension.
+     * @return The arguments passed to native-image for the variant.
+     */
+    @Nullable
+    @Input
+    @Optional
+    public List<String> getExtraArgs() {
+        return this.extraArgs.getOrNull();
+    }
+
+    /**
+     * Sets the arguments passed to native-image for the variant, after those of the {@code nativeImage} extension.
+     * @param extraArgs The arguments passed to native-image for the variant.
+     */
+    public void setExtraArgs(@Nonnull final List<String> extraArgs) {
+        this.extraArgs.set(extraArgs);
+    }
+
+    //endregion
+}
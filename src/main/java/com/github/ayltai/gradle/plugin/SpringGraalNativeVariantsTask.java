@@ -0,0 +1,207 @@
+package com.github.ayltai.gradle.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+
+import com.github.ayltai.gradle.plugin.internal.NativeImageWorkAction;
+import com.github.ayltai.gradle.plugin.internal.PlatformUtils;
+import com.github.ayltai.gradle.plugin.internal.ResourceUtils;
+
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.resources.ResourceException;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFiles;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds all variants of the native image from one extracted classpath. Each variant is built by {@code native-image} in a worker process of its own, so that variants are built at the same time, up to {@code maxParallelBuilds} on this machine.
+ */
+public abstract class SpringGraalNativeVariantsTask extends SpringGraalNativeTask {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(SpringGraalNativeVariantsTask.class);
+
+    //region Constants
+
+    protected static final String DIR_OUTPUT = "nativeVariants";
+
+    private static final String SUFFIX_IMAGE = ".image";
+    private static final String SUFFIX_JSON  = ".json";
+    private static final String SUFFIX_CSV   = ".csv";
+
+    //endregion
+
+    //region Properties
+
+    protected final ListProperty<SpringGraalNativeVariant> variants;
+    protected final Property<Integer>                      maxParallelBuilds;
+    protected final DirectoryProperty                      slotDir;
+
+    //endregion
+
+    @Inject
+    public SpringGraalNativeVariantsTask(@Nonnull final ObjectFactory factory) {
+        super(factory);
+
+        this.variants          = factory.listProperty(SpringGraalNativeVariant.class);
+        this.maxParallelBuilds = factory.property(Integer.class);
+        this.slotDir           = factory.directoryProperty();
+
+        this.setDescription("Builds variants of the native image for Spring Boot applications using GraalVM tools");
+    }
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    //region Inputs and outputs
+
+    @Nonnull
+    @Nested
+    public List<SpringGraalNativeVariant> getVariants() {
+        return this.variants.getOrElse(Collections.emptyList());
+    }
+
+    @Nonnull
+    @Internal
+    public Property<Integer> getMaxParallelBuilds() {
+        return this.maxParallelBuilds;
+    }
+
+    @Nonnull
+    @Internal
+    public DirectoryProperty getSlotDir() {
+        return this.slotDir;
+    }
+
+    /**
+     * Returns the native image and the reports of each variant, keyed by the name of the variant and the kind of output, such as {@code cli.json}.
+     * <p>The outputs are named, rather than a plain collection of files, so that the task stays cacheable.</p>
+     */
+    @Nonnull
+    @OutputFiles
+    public Map<String, File> getVariantOutputs() {
+        final Map<String, File> outputs = new LinkedHashMap<>();
+
+        for (final SpringGraalNativeVariant variant : this.getVariants()) {
+            outputs.put(variant.getName() + SpringGraalNativeVariantsTask.SUFFIX_IMAGE, this.getOutputFile(variant));
+            outputs.put(variant.getName() + SpringGraalNativeVariantsTask.SUFFIX_JSON, this.getJsonReport(variant));
+            outputs.put(variant.getName() + SpringGraalNativeVariantsTask.SUFFIX_CSV, this.getCsvReport(variant));
+        }
+
+        return outputs;
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getOutputFile() {
+        return super.getOutputFile();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getJsonReport() {
+        return super.getJsonReport();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getCsvReport() {
+        return super.getCsvReport();
+    }
+
+    @Nonnull
+    @Internal
+    @Override
+    public Provider<RegularFile> getDashboardDump() {
+        return super.getDashboardDump();
+    }
+
+    //endregion
+
+    @Nonnull
+    protected File getOutputFile(@Nonnull final SpringGraalNativeVariant variant) {
+        final String imageName = this.getImageName(variant);
+        return new File(this.outputDir.get().getAsFile(), PlatformUtils.isWindows() ? imageName + ".exe" : imageName);
+    }
+
+    @Nonnull
+    protected File getJsonReport(@Nonnull final SpringGraalNativeVariant variant) {
+        return new File(this.reportDir.get().getAsFile(), this.getImageName(variant) + ".json");
+    }
+
+    @Nonnull
+    protected File getCsvReport(@Nonnull final SpringGraalNativeVariant variant) {
+        return new File(this.reportDir.get().getAsFile(), this.getImageName(variant) + ".csv");
+    }
+
+    @TaskAction
+    @Override
+    protected void exec() {
+        final List<SpringGraalNativeVariant> variants = this.getVariants();
+        if (variants.isEmpty()) {
+            SpringGraalNativeVariantsTask.LOGGER.lifecycle("No variants of the native image to build");
+
+            return;
+        }
+
+        for (final SpringGraalNativeVariant variant : variants) {
+            if (variant.getMainClassName() == null && !this.mainClassName.isPresent()) throw new InvalidUserDataException("mainClassName of variant " + variant.getName() + " is null");
+        }
+
+        final List<File> toolsDirs = new ArrayList<>();
+        for (final SpringGraalNativeVariant variant : variants) toolsDirs.add(this.installToolchain(variant));
+
+        final File outputDir = this.outputDir.get().getAsFile();
+        final int  slots     = this.maxParallelBuilds.getOrElse(1);
+
+        // Builds beyond the number of slots wait for one, so only as many builds as slots share the resources of this host
+        final List<ResourceUtils.Allocation> allocations = Boolean.TRUE.equals(this.autoSize.getOrNull()) ? ResourceUtils.allocate(Math.min(slots, variants.size())) : Collections.emptyList();
+
+        try {
+            final String    classPath = this.prepareClassPath(outputDir);
+            final WorkQueue queue     = this.getWorkerExecutor().processIsolation();
+
+            for (int i = 0; i < variants.size(); i++) {
+                final SpringGraalNativeVariant variant     = variants.get(i);
+                final List<String>             commandLine = this.getCommandLineArgs(toolsDirs.get(i), allocations.isEmpty() ? null : allocations.get(i % allocations.size()), classPath, variant);
+
+                queue.submit(NativeImageWorkAction.class, parameters -> {
+                    parameters.getVariantName().set(variant.getName());
+                    parameters.getCommandLine().set(commandLine);
+                    parameters.getWorkingDir().set(outputDir);
+                    parameters.getSlotDir().set(this.slotDir);
+                    parameters.getMaxParallelBuilds().set(slots);
+                    parameters.getJsonReport().set(this.getJsonReport(variant));
+                    parameters.getCsvReport().set(this.getCsvReport(variant));
+                    parameters.getReportProperties().set(this.getReportProperties(variant));
+                });
+            }
+
+            queue.await();
+        } catch (final IOException e) {
+            throw new ResourceException(e.getMessage(), e);
+        } finally {
+            allocations.forEach(ResourceUtils.Allocation::close);
+        }
+    }
+}
@@ -1,74 +1,278 @@
 package com.github.ayltai.gradle.plugin.internal;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import javax.annotation.Nonnull;
 
 import org.gradle.api.resources.ResourceException;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
-import org.apache.commons.compress.archivers.jar.JarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
-import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.utils.IOUtils;
 
 public final class ArchiveUtils {
+    public static final String FILE_SYNC_MANIFEST = ".sync.properties";
+
+    private static final int THREADS = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
+    // Entries of a streamed archive are buffered in memory while waiting to be written, up to this many bytes in total
+    private static final int MAX_BUFFERED_BYTES = 64 * 1024 * 1024;
+
+    // Entries of a streamed archive larger than this are written by the reading thread instead of being buffered
+    private static final int MAX_BUFFERED_ENTRY_BYTES = 8 * 1024 * 1024;
+
     private ArchiveUtils() {
     }
 
     public static void decompressTarGZip(@Nonnull final File archive, @Nonnull final File outputDir) throws IOException, IllegalAccessException {
-        try (ArchiveInputStream inputStream = new TarArchiveInputStream(new GzipCompressorInputStream(new BufferedInputStream(new FileInputStream(archive)), true))) {
-            ArchiveUtils.decompress(inputStream, outputDir);
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(archive))) {
+            ArchiveUtils.decompressTarGZip(inputStream, outputDir);
         }
     }
 
+    /**
+     * Extracts a tar.gz archive as it is being read from {@code inputStream}. The caller is responsible for closing {@code inputStream}.
+     * @param inputStream The tar.gz archive to extract.
+     * @param outputDir The directory to extract the archive to.
+     */
+    public static void decompressTarGZip(@Nonnull final InputStream inputStream, @Nonnull final File outputDir) throws IOException, IllegalAccessException {
+        ArchiveUtils.decompress(new TarArchiveInputStream(new GzipCompressorInputStream(inputStream, true)), outputDir);
+    }
+
     public static void decompressZip(@Nonnull final File archive, @Nonnull final File outputDir) throws IOException, IllegalAccessException {
-        try (ArchiveInputStream inputStream = new ZipArchiveInputStream(new BufferedInputStream(new FileInputStream(archive)))) {
-            ArchiveUtils.decompress(inputStream, outputDir);
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            ArchiveUtils.decompress(zipFile, outputDir);
         }
     }
 
     public static void decompressJar(@Nonnull final File archive, @Nonnull final File outputDir) throws IOException, IllegalAccessException {
-        try (ArchiveInputStream inputStream = new JarArchiveInputStream(new BufferedInputStream(new FileInputStream(archive)))) {
-            ArchiveUtils.decompress(inputStream, outputDir);
+        ArchiveUtils.decompressZip(archive, outputDir);
+    }
+
+    /**
+     * Extracts a jar into {@code outputDir}, rewriting only the entries whose CRC, size or modification time differ from the previous extraction, and deleting the files of entries that no longer exist in the jar.
+     * <p>The state of the previous extraction is persisted in {@link #FILE_SYNC_MANIFEST} under {@code outputDir}. Files that are not tracked by it are left untouched.</p>
+     * @param archive The jar to extract.
+     * @param outputDir The directory to extract the jar to.
+     * @return The number of entries that are written or deleted.
+     */
+    public static int syncJar(@Nonnull final File archive, @Nonnull final File outputDir) throws IOException, IllegalAccessException {
+        final File       manifestFile = new File(outputDir, ArchiveUtils.FILE_SYNC_MANIFEST);
+        final Properties previous     = new Properties();
+        final Properties current      = new Properties();
+
+        if (manifestFile.exists()) {
+            try (InputStream inputStream = new BufferedInputStream(new FileInputStream(manifestFile))) {
+                previous.load(inputStream);
+            }
+
+            // Any failure below leaves the extracted files in an unknown state, so a stale manifest must not survive it
+            Files.delete(manifestFile.toPath());
+        }
+
+        int changes = 0;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(ArchiveUtils.THREADS);
+
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            final List<Future<Void>> futures = new ArrayList<>();
+
+            final Enumeration<ZipArchiveEntry> entries = zipFile.getEntries();
+            while (entries.hasMoreElements()) {
+                final ZipArchiveEntry entry       = entries.nextElement();
+                final File            destination = ArchiveUtils.getDestination(outputDir, entry.getName());
+
+                if (!entry.isDirectory()) {
+                    final String checksum = entry.getCrc() + ":" + entry.getSize() + ":" + entry.getTime();
+                    current.setProperty(entry.getName(), checksum);
+
+                    if (!checksum.equals(previous.getProperty(entry.getName())) || !destination.isFile() || destination.length() != entry.getSize()) {
+                        futures.add(executor.submit(ArchiveUtils.write(zipFile, entry, destination)));
+
+                        changes++;
+                    }
+                }
+            }
+
+            ArchiveUtils.await(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (final String name : previous.stringPropertyNames()) {
+            if (!current.containsKey(name) && Files.deleteIfExists(ArchiveUtils.getDestination(outputDir, name).toPath())) changes++;
         }
+
+        try (OutputStream outputStream = new FileOutputStream(manifestFile)) {
+            current.store(outputStream, null);
+        }
+
+        return changes;
     }
 
+    /**
+     * Extracts all entries of {@code inputStream} into {@code outputDir}.
+     * <p>The archive is read sequentially by the calling thread, while the entries read are written to disk by a bounded pool of threads.</p>
+     * @param inputStream The archive to extract.
+     * @param outputDir The directory to extract the archive to.
+     */
     public static void decompress(@Nonnull final ArchiveInputStream inputStream, @Nonnull final File outputDir) throws IOException, IllegalAccessException {
-        ArchiveEntry entry;
-        while ((entry = inputStream.getNextEntry()) != null) {
-            final File destination = new File(outputDir, entry.getName());
-            if (!destination.getCanonicalPath().startsWith(outputDir.getCanonicalPath() + File.separator)) throw new IllegalAccessException("Archive entry is outside of the output directory: " + entry.getName());
+        final ExecutorService    executor = Executors.newFixedThreadPool(ArchiveUtils.THREADS);
+        final Semaphore          buffers  = new Semaphore(ArchiveUtils.MAX_BUFFERED_BYTES);
+        final List<Future<Void>> futures  = new ArrayList<>();
 
-            if (!entry.isDirectory()) {
-                final File parent = destination.getParentFile();
-                if (!parent.exists() && !parent.mkdirs()) throw new ResourceException("Failed to create output directory: " + parent.getAbsolutePath());
+        try {
+            ArchiveEntry entry;
+            while ((entry = inputStream.getNextEntry()) != null) {
+                final File destination = ArchiveUtils.getDestination(outputDir, entry.getName());
 
-                if (entry instanceof TarArchiveEntry) {
-                    final TarArchiveEntry tarArchiveEntry = (TarArchiveEntry)entry;
+                if (!entry.isDirectory()) {
+                    if (entry instanceof TarArchiveEntry) {
+                        final TarArchiveEntry tarArchiveEntry = (TarArchiveEntry)entry;
 
-                    if (tarArchiveEntry.isSymbolicLink()) {
-                        Files.createSymbolicLink(FileSystems.getDefault().getPath(destination.getAbsolutePath()), FileSystems.getDefault().getPath(tarArchiveEntry.getLinkName()));
+                        if (tarArchiveEntry.isSymbolicLink()) {
+                            ArchiveUtils.createParentDir(destination);
 
-                        continue;
+                            Files.createSymbolicLink(FileSystems.getDefault().getPath(destination.getAbsolutePath()), FileSystems.getDefault().getPath(tarArchiveEntry.getLinkName()));
+
+                            continue;
+                        }
                     }
-                }
 
-                try (OutputStream outputStream = new FileOutputStream(destination)) {
-                    IOUtils.copy(inputStream, outputStream);
+                    final long size = entry.getSize();
+                    if (size < 0 || size > ArchiveUtils.MAX_BUFFERED_ENTRY_BYTES) {
+                        ArchiveUtils.write(inputStream, destination);
+                    } else {
+                        final int permits = (int)size;
+                        ArchiveUtils.acquire(buffers, permits);
 
-                    if ("bin".equals(parent.getName()) && !destination.setExecutable(true)) throw new ResourceException("Failed to set executable permission: " + destination.getAbsolutePath());
+                        final byte[] bytes = IOUtils.toByteArray(inputStream);
+
+                        futures.add(executor.submit(() -> {
+                            try {
+                                ArchiveUtils.write(new ByteArrayInputStream(bytes), destination);
+                            } finally {
+                                buffers.release(permits);
+                            }
+
+                            return null;
+                        }));
+                    }
                 }
             }
+
+            ArchiveUtils.await(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void decompress(@Nonnull final ZipFile zipFile, @Nonnull final File outputDir) throws IOException, IllegalAccessException {
+        final ExecutorService    executor = Executors.newFixedThreadPool(ArchiveUtils.THREADS);
+        final List<Future<Void>> futures  = new ArrayList<>();
+
+        try {
+            final Enumeration<ZipArchiveEntry> entries = zipFile.getEntries();
+            while (entries.hasMoreElements()) {
+                final ZipArchiveEntry entry       = entries.nextElement();
+                final File            destination = ArchiveUtils.getDestination(outputDir, entry.getName());
+
+                if (!entry.isDirectory()) futures.add(executor.submit(ArchiveUtils.write(zipFile, entry, destination)));
+            }
+
+            ArchiveUtils.await(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Nonnull
+    private static File getDestination(@Nonnull final File outputDir, @Nonnull final String name) throws IOException, IllegalAccessException {
+        final File destination = new File(outputDir, name);
+        if (!destination.getCanonicalPath().startsWith(outputDir.getCanonicalPath() + File.separator)) throw new IllegalAccessException("Archive entry is outside of the output directory: " + name);
+
+        return destination;
+    }
+
+    private static void createParentDir(@Nonnull final File destination) {
+        final File parent = destination.getParentFile();
+
+        // Another thread may create the same directory at the same time, in which case mkdirs() returns false
+        if (!parent.mkdirs() && !parent.isDirectory()) throw new ResourceException("Failed to create output directory: " + parent.getAbsolutePath());
+    }
+
+    @Nonnull
+    private static Callable<Void> write(@Nonnull final ZipFile zipFile, @Nonnull final ZipArchiveEntry entry, @Nonnull final File destination) {
+        return () -> {
+            try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                ArchiveUtils.write(inputStream, destination);
+            }
+
+            return null;
+        };
+    }
+
+    private static void write(@Nonnull final InputStream inputStream, @Nonnull final File destination) throws IOException {
+        ArchiveUtils.createParentDir(destination);
+
+        try (OutputStream outputStream = new FileOutputStream(destination)) {
+            IOUtils.copy(inputStream, outputStream);
+
+            if ("bin".equals(destination.getParentFile().getName()) && !destination.setExecutable(true)) throw new ResourceException("Failed to set executable permission: " + destination.getAbsolutePath());
+        }
+    }
+
+    private static void acquire(@Nonnull final Semaphore semaphore, final int permits) throws InterruptedIOException {
+        try {
+            semaphore.acquire(permits);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    private static void await(@Nonnull final List<Future<Void>> futures) throws IOException, IllegalAccessException {
+        for (final Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new InterruptedIOException(e.getMessage());
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+
+                if (cause instanceof IOException) throw (IOException)cause;
+                if (cause instanceof IllegalAccessException) throw (IllegalAccessException)cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+
+                throw new ResourceException(cause.getMessage(), cause);
+            }
         }
     }
 }
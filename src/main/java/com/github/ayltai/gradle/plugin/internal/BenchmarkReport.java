@@ -0,0 +1,128 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Summarizes the launches of a native image by {@link StartupBenchmark}, and compares them with those of a previous build.
+ */
+public final class BenchmarkReport {
+    public static final String KEY_STARTUP_MILLIS = "startupMillisMedian";
+    public static final String KEY_PEAK_RSS       = "peakRssBytesMedian";
+    public static final String KEY_BINARY_SIZE    = "binarySizeBytes";
+
+    private final List<StartupBenchmark.Sample> samples;
+    private final long                          binarySize;
+
+    public BenchmarkReport(@Nonnull final List<StartupBenchmark.Sample> samples, final long binarySize) {
+        if (samples.isEmpty()) throw new IllegalArgumentException("samples is empty");
+
+        this.samples    = Collections.unmodifiableList(new ArrayList<>(samples));
+        this.binarySize = binarySize;
+    }
+
+    @Nonnull
+    public List<StartupBenchmark.Sample> getSamples() {
+        return this.samples;
+    }
+
+    public long getBinarySize() {
+        return this.binarySize;
+    }
+
+    public double getMedianStartupMillis() {
+        return BenchmarkReport.median(this.getStartupMillis());
+    }
+
+    /**
+     * Returns the median peak resident set size in bytes, or {@code null} if it is not available.
+     */
+    @Nullable
+    public Long getMedianPeakRss() {
+        final List<Double> peakRss = this.getPeakRss();
+        return peakRss.isEmpty() ? null : Math.round(BenchmarkReport.median(peakRss));
+    }
+
+    /**
+     * Returns the report as a flat map of names to values, in a stable order.
+     * @param properties Additional properties, such as the image name, to put before the results.
+     * @return The report.
+     */
+    @Nonnull
+    public Map<String, Object> toMap(@Nonnull final Map<String, String> properties) {
+        final List<Double> startupMillis = this.getStartupMillis();
+        final List<Double> peakRss       = this.getPeakRss();
+
+        final Map<String, Object> map = new LinkedHashMap<>(properties);
+        map.put("iterations", this.samples.size());
+        map.put(BenchmarkReport.KEY_BINARY_SIZE, this.binarySize);
+        map.put("startupMillisMin", Collections.min(startupMillis));
+        map.put(BenchmarkReport.KEY_STARTUP_MILLIS, BenchmarkReport.median(startupMillis));
+        map.put("startupMillisMean", startupMillis.stream().mapToDouble(Double::doubleValue).average().orElse(0));
+        map.put("startupMillisMax", Collections.max(startupMillis));
+        map.put(BenchmarkReport.KEY_PEAK_RSS, this.getMedianPeakRss());
+        map.put("peakRssBytesMax", peakRss.isEmpty() ? null : Math.round(Collections.max(peakRss)));
+        map.put("startupMillis", startupMillis);
+        map.put("peakRssBytes", this.samples.stream().map(StartupBenchmark.Sample::getPeakRss).filter(Objects::nonNull).collect(Collectors.toList()));
+
+        return map;
+    }
+
+    @Nonnull
+    public String toJson(@Nonnull final Map<String, String> properties) {
+        return JsonUtils.toJson(this.toMap(properties));
+    }
+
+    /**
+     * Compares the median startup time, the median peak resident set size and the binary size with those of {@code baseline}.
+     * @param baseline The numbers in the report of a previous build.
+     * @param maxStartupRegression The maximum increase of the median startup time in percent, or {@code null} not to compare it.
+     * @param maxRssRegression The maximum increase of the median peak resident set size in percent, or {@code null} not to compare it.
+     * @param maxSizeRegression The maximum increase of the binary size in percent, or {@code null} not to compare it.
+     * @return A description of each increase beyond its maximum, or an empty list if there is none.
+     */
+    @Nonnull
+    public List<String> getRegressions(@Nonnull final Map<String, Double> baseline, @Nullable final Integer maxStartupRegression, @Nullable final Integer maxRssRegression, @Nullable final Integer maxSizeRegression) {
+        final List<String> regressions = new ArrayList<>();
+        final Long         peakRss     = this.getMedianPeakRss();
+
+        BenchmarkReport.compare(regressions, "Median startup time", this.getMedianStartupMillis(), baseline.get(BenchmarkReport.KEY_STARTUP_MILLIS), maxStartupRegression);
+        BenchmarkReport.compare(regressions, "Median peak RSS", peakRss == null ? null : peakRss.doubleValue(), baseline.get(BenchmarkReport.KEY_PEAK_RSS), maxRssRegression);
+        BenchmarkReport.compare(regressions, "Binary size", (double)this.binarySize, baseline.get(BenchmarkReport.KEY_BINARY_SIZE), maxSizeRegression);
+
+        return regressions;
+    }
+
+    @Nonnull
+    private List<Double> getStartupMillis() {
+        return this.samples.stream().map(StartupBenchmark.Sample::getStartupMillis).collect(Collectors.toList());
+    }
+
+    @Nonnull
+    private List<Double> getPeakRss() {
+        return this.samples.stream().map(StartupBenchmark.Sample::getPeakRss).filter(Objects::nonNull).map(Long::doubleValue).collect(Collectors.toList());
+    }
+
+    private static void compare(@Nonnull final List<String> regressions, @Nonnull final String name, @Nullable final Double value, @Nullable final Double baseline, @Nullable final Integer maxRegression) {
+        if (value == null || baseline == null || baseline <= 0 || maxRegression == null) return;
+
+        final double regression = (value - baseline) / baseline * 100;
+        if (regression > maxRegression) regressions.add(String.format(Locale.ROOT, "%s increased by %.1f%% from %.0f to %.0f, which is more than %d%%", name, regression, baseline, value, maxRegression));
+    }
+
+    static double median(@Nonnull final List<Double> values) {
+        final List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+
+        final int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 0 ? (sorted.get(middle - 1) + sorted.get(middle)) / 2 : sorted.get(middle);
+    }
+}
@@ -0,0 +1,260 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Collects the metrics printed by {@code native-image} while it builds a native image.
+ * <p>Both the phase table printed by GraalVM 21 and earlier, such as {@code [app:1234]     analysis:  45,678.90 ms,  3.21 GB}, and the numbered stages printed by GraalVM 22 and later, such as {@code [2/7] Performing analysis...  (30.6s @ 1.72GB)}, are recognized.</p>
+ */
+public final class BuildMetrics {
+    public static final String PHASE_TOTAL = "total";
+
+    // Shared with BuildProgress, which follows the same lines
+    static final Pattern ANSI_PATTERN         = Pattern.compile("\u001B\\[[;\\d]*[A-Za-z]");
+    static final Pattern LEGACY_PHASE_PATTERN = Pattern.compile("^\\[[^\\]]+:\\d+]\\s+[(\\[]?([a-z]+)[)\\]]?:\\s+([\\d.,]+) ms,\\s+([\\d.,]+) GB");
+    static final Pattern STAGE_PATTERN        = Pattern.compile("^(\\[\\d+/\\d+] ([A-Za-z ]+?))\\.\\.\\.");
+    static final Pattern STAGE_TIME_PATTERN   = Pattern.compile("\\(([\\d.,]+)s @ ([\\d.,]+)GB\\)\\s*$");
+
+    private static final Pattern REACHABLE_PATTERN    = Pattern.compile("^\\s*([\\d.,]+) \\([\\d.,]+%\\) of\\s+[\\d.,]+ (classes|fields|methods) reachable");
+    private static final Pattern PEAK_RSS_PATTERN     = Pattern.compile("Peak RSS: ([\\d.,]+)([KMG]?B)");
+    private static final Pattern FINISHED_PATTERN     = Pattern.compile("^Finished generating '.+' in (?:(\\d+)h )?(?:(\\d+)m )?([\\d.,]+)s\\.");
+
+    static final long BYTES_PER_GB = 1024L * 1024 * 1024;
+
+    private final Map<String, Double> phaseTimes    = new LinkedHashMap<>();
+    private final Map<String, Long>   phaseMemories = new LinkedHashMap<>();
+    private final Map<String, Long>   reachables    = new LinkedHashMap<>();
+
+    private String stage;
+    private Long   peakRss;
+
+    /**
+     * Parses a line printed by {@code native-image}. Lines that contain no metrics are ignored.
+     * @param line The line to parse.
+     */
+    public synchronized void accept(@Nonnull final String line) {
+        final String text = BuildMetrics.ANSI_PATTERN.matcher(line).replaceAll("");
+
+        Matcher matcher = BuildMetrics.LEGACY_PHASE_PATTERN.matcher(text);
+        if (matcher.find()) {
+            // Sub-phases are printed in parentheses before the phase they belong to, and "(compile)" is the compilation of methods only, as the "Compiling methods" stage is
+            this.putPhase(matcher.group(1), BuildMetrics.parseDecimal(matcher.group(2)), BuildMetrics.parseDecimal(matcher.group(3)));
+
+            return;
+        }
+
+        matcher = BuildMetrics.STAGE_PATTERN.matcher(text);
+        if (matcher.find()) this.stage = BuildMetrics.getStageName(matcher.group(2));
+
+        matcher = BuildMetrics.STAGE_TIME_PATTERN.matcher(text);
+        if (matcher.find() && this.stage != null) {
+            this.putPhase(this.stage, BuildMetrics.parseDecimal(matcher.group(1)) * 1000, BuildMetrics.parseDecimal(matcher.group(2)));
+            this.stage = null;
+
+            return;
+        }
+
+        matcher = BuildMetrics.REACHABLE_PATTERN.matcher(text);
+        if (matcher.find()) {
+            this.reachables.put(matcher.group(2), (long)BuildMetrics.parseDecimal(matcher.group(1)));
+
+            return;
+        }
+
+        matcher = BuildMetrics.PEAK_RSS_PATTERN.matcher(text);
+        if (matcher.find()) this.peakRss = BuildMetrics.toBytes(BuildMetrics.parseDecimal(matcher.group(1)), matcher.group(2));
+
+        matcher = BuildMetrics.FINISHED_PATTERN.matcher(text);
+        if (matcher.find()) {
+            final double hours   = matcher.group(1) == null ? 0 : Double.parseDouble(matcher.group(1));
+            final double minutes = matcher.group(2) == null ? 0 : Double.parseDouble(matcher.group(2));
+
+            this.phaseTimes.put(BuildMetrics.PHASE_TOTAL, ((hours * 60 + minutes) * 60 + BuildMetrics.parseDecimal(matcher.group(3))) * 1000);
+        }
+    }
+
+    /**
+     * Returns the time taken by each phase in milliseconds, in the order they are printed, including {@link #PHASE_TOTAL} for the whole build.
+     */
+    @Nonnull
+    public synchronized Map<String, Double> getPhaseTimes() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(this.phaseTimes));
+    }
+
+    /**
+     * Returns the memory used by the builder at the end of each phase in bytes.
+     */
+    @Nonnull
+    public synchronized Map<String, Long> getPhaseMemories() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(this.phaseMemories));
+    }
+
+    /**
+     * Returns the peak resident set size of the builder in bytes, or {@code null} if {@code native-image} does not print it, as GraalVM 21 and earlier do not.
+     */
+    @Nullable
+    public synchronized Long getPeakRss() {
+        return this.peakRss;
+    }
+
+    @Nullable
+    public synchronized Long getReachableClasses() {
+        return this.reachables.get("classes");
+    }
+
+    @Nullable
+    public synchronized Long getReachableFields() {
+        return this.reachables.get("fields");
+    }
+
+    @Nullable
+    public synchronized Long getReachableMethods() {
+        return this.reachables.get("methods");
+    }
+
+    /**
+     * Returns the metrics as a flat map of names to values, in a stable order. Metrics that are not printed are {@code null}.
+     * @param properties Additional properties, such as the image name and the GraalVM version, to put before the metrics.
+     * @return The metrics.
+     */
+    @Nonnull
+    public synchronized Map<String, Object> toMap(@Nonnull final Map<String, String> properties) {
+        final Map<String, Object> map = new LinkedHashMap<>(properties);
+
+        for (final Map.Entry<String, Double> entry : this.phaseTimes.entrySet()) map.put(entry.getKey() + "TimeMillis", entry.getValue());
+        for (final Map.Entry<String, Long> entry : this.phaseMemories.entrySet()) map.put(entry.getKey() + "MemoryBytes", entry.getValue());
+
+        map.put("peakRssBytes", this.peakRss);
+        map.put("reachableClasses", this.getReachableClasses());
+        map.put("reachableFields", this.getReachableFields());
+        map.put("reachableMethods", this.getReachableMethods());
+
+        return map;
+    }
+
+    @Nonnull
+    public String toJson(@Nonnull final Map<String, String> properties) {
+        return JsonUtils.toJson(this.toMap(properties));
+    }
+
+    /**
+     * Returns the metrics as a CSV with a header row and a single row of values, which can be appended to those of previous builds.
+     */
+    @Nonnull
+    public String toCsv(@Nonnull final Map<String, String> properties) {
+        final Map<String, Object> map    = this.toMap(properties);
+        final List<String>        values = new ArrayList<>();
+
+        for (final Object value : map.values()) values.add(BuildMetrics.toCsvValue(value));
+
+        return String.join(",", map.keySet()) + "\n" + String.join(",", values) + "\n";
+    }
+
+    /**
+     * Writes the metrics as JSON to {@code jsonReport} and as CSV to {@code csvReport}, creating their parent directories if needed.
+     */
+    public void write(@Nonnull final File jsonReport, @Nonnull final File csvReport, @Nonnull final Map<String, String> properties) throws IOException {
+        Files.createDirectories(jsonReport.getAbsoluteFile().getParentFile().toPath());
+        Files.createDirectories(csvReport.getAbsoluteFile().getParentFile().toPath());
+
+        Files.write(jsonReport.toPath(), this.toJson(properties).getBytes(StandardCharsets.UTF_8));
+        Files.write(csvReport.toPath(), this.toCsv(properties).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void putPhase(@Nonnull final String name, final double millis, final double gigabytes) {
+        if (this.phaseTimes.containsKey(name)) return;
+
+        this.phaseTimes.put(name, millis);
+        if (!BuildMetrics.PHASE_TOTAL.equals(name)) this.phaseMemories.put(name, BuildMetrics.toBytes(gigabytes, "GB"));
+    }
+
+    @Nonnull
+    static String getStageName(@Nonnull final String description) {
+        switch (description) {
+            case "Initializing":
+                return "setup";
+
+            case "Performing analysis":
+                return "analysis";
+
+            case "Building universe":
+                return "universe";
+
+            case "Parsing methods":
+                return "parse";
+
+            case "Inlining methods":
+                return "inline";
+
+            case "Compiling methods":
+                return "compile";
+
+            case "Laying out methods":
+                return "layout";
+
+            case "Creating image":
+                return "image";
+
+            default:
+                final String[]      words   = description.toLowerCase(Locale.ROOT).split(" ");
+                final StringBuilder builder = new StringBuilder(words[0]);
+
+                for (int i = 1; i < words.length; i++) builder.append(StringUtils.capitalize(words[i]));
+
+                return builder.toString();
+        }
+    }
+
+    /**
+     * Parses a number printed with the default locale of {@code native-image}, in which either a comma or a period may be the grouping separator.
+     */
+    static double parseDecimal(@Nonnull final String value) {
+        final int index = Math.max(value.lastIndexOf('.'), value.lastIndexOf(','));
+
+        // The grouping separator is always followed by 3 digits, while native-image prints at most 2 decimal places
+        if (index < 0 || value.length() - index - 1 == 3) return Double.parseDouble(value.replaceAll("[.,]", ""));
+
+        return Double.parseDouble(value.substring(0, index).replaceAll("[.,]", "") + "." + value.substring(index + 1));
+    }
+
+    private static long toBytes(final double value, @Nonnull final String unit) {
+        switch (unit) {
+            case "GB":
+                return Math.round(value * BuildMetrics.BYTES_PER_GB);
+
+            case "MB":
+                return Math.round(value * 1024 * 1024);
+
+            case "KB":
+                return Math.round(value * 1024);
+
+            default:
+                return Math.round(value);
+        }
+    }
+
+    @Nonnull
+    private static String toCsvValue(@Nullable final Object value) {
+        if (value == null) return "";
+        if (value instanceof Double) return String.format(Locale.ROOT, "%.2f", (Double)value);
+        if (value instanceof Number) return value.toString();
+
+        final String text = value.toString();
+        return text.contains(",") || text.contains("\"") ? "\"" + text.replace("\"", "\"\"") + "\"" : text;
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Follows the phases that {@code native-image} prints while it builds a native image, and reports the current phase, how long it has been running, and how much memory the builder uses, once a second.
+ * <p>GraalVM 22 and later print each stage as it starts, such as {@code [2/7] Performing analysis...}, while GraalVM 21 and earlier only print each phase as it ends, such as {@code [app:1234]     analysis:  45,678.90 ms,  3.21 GB}, so the phase reported for them is the one last ended. The memory is the resident set size of the processes of {@code native-image} where {@code /proc} is available, or else the memory printed last.</p>
+ */
+public final class BuildProgress implements AutoCloseable {
+    //region Constants
+
+    private static final long REFRESH_INTERVAL = 1000;
+
+    //endregion
+
+    private final Consumer<String>         reporter;
+    private final ProcessTree              processTree;
+    private final long                     startTime;
+    private final ScheduledExecutorService executor;
+
+    private volatile String phase;
+    private volatile long   phaseStartTime;
+    private volatile long   memory;
+
+    BuildProgress(@Nonnull final Consumer<String> reporter, @Nullable final ProcessTree processTree, final long startTime) {
+        this.reporter       = reporter;
+        this.processTree    = processTree;
+        this.startTime      = startTime;
+        this.phaseStartTime = startTime;
+        this.executor       = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "native-image progress");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Starts reporting the progress of the build of {@code native-image} that runs in {@code workingDir} to {@code reporter}, until the returned progress is closed.
+     */
+    @Nonnull
+    public static BuildProgress start(@Nonnull final Consumer<String> reporter, @Nonnull final File workingDir) {
+        final ProcessTree   processTree = ProcessTree.of(workingDir);
+        final BuildProgress progress    = new BuildProgress(reporter, processTree.isAvailable() ? processTree : null, System.currentTimeMillis());
+
+        progress.executor.scheduleWithFixedDelay(progress::report, BuildProgress.REFRESH_INTERVAL, BuildProgress.REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+
+        return progress;
+    }
+
+    /**
+     * Parses a line printed by {@code native-image}. Lines that mark no phase are ignored. The phase is reported at the next refresh, as the reporter is not thread-safe.
+     * @param line The line to parse.
+     */
+    public void accept(@Nonnull final String line) {
+        final String text = BuildMetrics.ANSI_PATTERN.matcher(line).replaceAll("");
+
+        Matcher matcher = BuildMetrics.STAGE_PATTERN.matcher(text);
+        if (matcher.find()) this.setPhase(matcher.group(1));
+
+        matcher = BuildMetrics.STAGE_TIME_PATTERN.matcher(text);
+        if (matcher.find()) this.memory = BuildProgress.toBytes(matcher.group(2));
+
+        matcher = BuildMetrics.LEGACY_PHASE_PATTERN.matcher(text);
+        if (matcher.find()) {
+            this.setPhase("after " + matcher.group(1));
+            this.memory = BuildProgress.toBytes(matcher.group(3));
+        }
+    }
+
+    /**
+     * Returns the current phase, such as {@code [2/7] Performing analysis}, or {@code null} if no phase has been printed yet.
+     */
+    @Nullable
+    public String getPhase() {
+        return this.phase;
+    }
+
+    /**
+     * Returns the progress at {@code now}, such as {@code [2/7] Performing analysis, 45s (1m 2s in total), 2.10 GB}.
+     */
+    @Nonnull
+    String getStatus(final long now) {
+        final String phase  = this.phase;
+        final String memory = this.memory > 0 ? String.format(Locale.ROOT, ", %.2f GB", (double)this.memory / BuildMetrics.BYTES_PER_GB) : "";
+
+        if (phase == null) return "Starting, " + BuildProgress.formatDuration(now - this.startTime) + memory;
+
+        return phase + ", " + BuildProgress.formatDuration(now - this.phaseStartTime) + " (" + BuildProgress.formatDuration(now - this.startTime) + " in total)" + memory;
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+
+        // A report still running would use the reporter after it is closed
+        try {
+            this.executor.awaitTermination(BuildProgress.REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void setPhase(@Nonnull final String phase) {
+        this.phase          = phase;
+        this.phaseStartTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Reports the progress. It is only called by the executor, one call at a time.
+     */
+    void report() {
+        if (this.processTree != null) {
+            long rss = 0;
+            for (final long pid : this.processTree.getProcesses()) rss += this.processTree.getRss(pid);
+
+            if (rss > 0) this.memory = rss;
+        }
+
+        this.reporter.accept(this.getStatus(System.currentTimeMillis()));
+    }
+
+    /**
+     * Returns {@code millis} as minutes and seconds, such as {@code 1m 2s}.
+     */
+    @Nonnull
+    static String formatDuration(final long millis) {
+        final long seconds = Math.max(0, millis) / 1000;
+        return seconds < 60 ? seconds + "s" : seconds / 60 + "m " + seconds % 60 + "s";
+    }
+
+    private static long toBytes(@Nonnull final String gigabytes) {
+        return (long)(BuildMetrics.parseDecimal(gigabytes) * BuildMetrics.BYTES_PER_GB);
+    }
+}
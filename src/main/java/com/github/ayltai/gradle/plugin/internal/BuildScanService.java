@@ -0,0 +1,37 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Holds the {@code buildScan} extension, which is looked up when the build is configured, so that tasks can add custom values to the build scan without reaching for the project when they run.
+ * <p>The extension is not kept by the configuration cache, so nothing is added when the tasks are loaded from it.</p>
+ */
+public abstract class BuildScanService implements BuildService<BuildServiceParameters.None> {
+    public static final String NAME = "springGraalNativeBuildScan";
+
+    private volatile Object buildScan;
+
+    /**
+     * Returns the {@code buildScan} extension, or {@code null} if build scans are not enabled or the build is loaded from the configuration cache.
+     */
+    @Nullable
+    public Object getBuildScan() {
+        return this.buildScan;
+    }
+
+    public void setBuildScan(@Nullable final Object buildScan) {
+        this.buildScan = buildScan;
+    }
+
+    /**
+     * Adds {@code values} to the build scan as custom values, if there is one.
+     */
+    public void addValues(@Nonnull final Map<String, String> values) {
+        BuildScanUtils.addValues(this.buildScan, values);
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.logging.Logger;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adds custom values to the build scan of the Gradle Enterprise plugin, which this plugin does not depend on, so its {@code buildScan} extension is called reflectively.
+ */
+public final class BuildScanUtils {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(BuildScanUtils.class);
+
+    public static final String EXTENSION_NAME = "buildScan";
+
+    private BuildScanUtils() {
+    }
+
+    /**
+     * Adds {@code values} to the build scan as custom values.
+     * @param buildScan The {@code buildScan} extension, or {@code null} if build scans are not enabled, in which case nothing is added.
+     */
+    public static void addValues(@Nullable final Object buildScan, @Nonnull final Map<String, String> values) {
+        if (buildScan == null) return;
+
+        try {
+            final Method method = buildScan.getClass().getMethod("value", String.class, String.class);
+            for (final Map.Entry<String, String> entry : values.entrySet()) method.invoke(buildScan, entry.getKey(), entry.getValue());
+        } catch (final NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            BuildScanUtils.LOGGER.debug("Failed to add custom values to the build scan", e);
+        }
+    }
+}
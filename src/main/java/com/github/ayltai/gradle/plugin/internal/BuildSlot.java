@@ -0,0 +1,97 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.logging.Logger;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * One of a fixed number of slots shared by all processes on this machine, held while a native image is built so that no more native images than slots are built at the same time.
+ * <p>Each slot is an exclusive lock on a file in a directory shared by the builds, so a slot is released even if the process holding it dies.</p>
+ */
+public final class BuildSlot implements AutoCloseable {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(BuildSlot.class);
+
+    private static final String FILE_SLOT     = "slot-%d.lock";
+    private static final long   POLL_INTERVAL = 1000;
+
+    private final int         index;
+    private final FileChannel channel;
+    private final FileLock    lock;
+
+    private BuildSlot(final int index, @Nonnull final FileChannel channel, @Nonnull final FileLock lock) {
+        this.index   = index;
+        this.channel = channel;
+        this.lock    = lock;
+    }
+
+    /**
+     * Acquires one of {@code slots} slots in {@code slotDir}, waiting for one to be released if all of them are held.
+     * @param slotDir The directory shared by the builds.
+     * @param slots The number of slots, which is the maximum number of native images built at the same time.
+     * @return The slot, which is released when it is closed.
+     */
+    @Nonnull
+    public static BuildSlot acquire(@Nonnull final File slotDir, final int slots) throws IOException, InterruptedException {
+        Files.createDirectories(slotDir.toPath());
+
+        boolean isWaiting = false;
+
+        while (true) {
+            for (int i = 0; i < Math.max(1, slots); i++) {
+                final BuildSlot slot = BuildSlot.tryAcquire(new File(slotDir, String.format(BuildSlot.FILE_SLOT, i)), i);
+                if (slot != null) return slot;
+            }
+
+            if (!isWaiting) {
+                BuildSlot.LOGGER.lifecycle("Waiting for one of {} native image builds on this machine to finish", slots);
+
+                isWaiting = true;
+            }
+
+            Thread.sleep(BuildSlot.POLL_INTERVAL);
+        }
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.lock.release();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    @Nullable
+    private static BuildSlot tryAcquire(@Nonnull final File file, final int index) throws IOException {
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        try {
+            final FileLock lock = channel.tryLock();
+            if (lock != null) return new BuildSlot(index, channel, lock);
+        } catch (final OverlappingFileLockException e) {
+            // The slot is held by another build in this JVM
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+
+            throw e;
+        }
+
+        channel.close();
+
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.resources.ResourceException;
+
+public final class ChecksumUtils {
+    private static final String ALGORITHM   = "SHA-256";
+    private static final String EXTENSION   = ".sha256";
+    private static final String PATTERN     = "[0-9a-fA-F]{64}";
+    private static final int    BUFFER_SIZE = 64 * 1024;
+
+    private ChecksumUtils() {
+    }
+
+    @Nonnull
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ChecksumUtils.ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ResourceException(e.getMessage(), e);
+        }
+    }
+
+    @Nonnull
+    public static String sha256(@Nonnull final File file) throws IOException {
+        final MessageDigest digest = ChecksumUtils.newDigest();
+        final byte[]        buffer = new byte[ChecksumUtils.BUFFER_SIZE];
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int count;
+            while ((count = inputStream.read(buffer)) >= 0) digest.update(buffer, 0, count);
+        }
+
+        return ChecksumUtils.toHex(digest.digest());
+    }
+
+    @Nonnull
+    public static String toHex(@Nonnull final byte[] bytes) {
+        final StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (final byte value : bytes) builder.append(String.format("%02x", value));
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns the SHA-256 checksum published next to {@code downloadUrl}, in a file with the same name and a {@code .sha256} extension.
+     * @param downloadUrl The URL of the file to return the checksum for.
+     * @return The published checksum in lowercase, or {@code null} if no checksum is published.
+     */
+    @Nullable
+    public static String getPublishedChecksum(@Nonnull final String downloadUrl) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(DownloadUtils.openConnection(downloadUrl + ChecksumUtils.EXTENSION).getInputStream(), StandardCharsets.US_ASCII))) {
+            final String line = reader.readLine();
+            if (line == null) return null;
+
+            // The checksum may be followed by the file name, as generated by sha256sum
+            final String checksum = line.trim().split("\\s+")[0];
+            return checksum.matches(ChecksumUtils.PATTERN) ? checksum.toLowerCase() : null;
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    public static void verify(@Nonnull final String expected, @Nonnull final String actual, @Nonnull final String name) {
+        if (!expected.equalsIgnoreCase(actual)) throw new ResourceException(String.format("SHA-256 checksum mismatch for %s. Expected: %s, actual: %s", name, expected, actual));
+    }
+}
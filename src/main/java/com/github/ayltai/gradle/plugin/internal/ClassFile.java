@@ -0,0 +1,380 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The parts of a class file that tell which classes it refers to: its constant pool, its super class, and the bytecode of its static initializer.
+ */
+final class ClassFile {
+    //region Constants
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String STATIC_INITIALIZER = "<clinit>";
+    private static final String ATTRIBUTE_CODE     = "Code";
+
+    private static final int CONSTANT_UTF8                 = 1;
+    private static final int CONSTANT_INTEGER              = 3;
+    private static final int CONSTANT_FLOAT                = 4;
+    private static final int CONSTANT_LONG                 = 5;
+    private static final int CONSTANT_DOUBLE               = 6;
+    private static final int CONSTANT_CLASS                = 7;
+    private static final int CONSTANT_STRING               = 8;
+    private static final int CONSTANT_FIELD_REF            = 9;
+    private static final int CONSTANT_METHOD_REF           = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE        = 12;
+    private static final int CONSTANT_METHOD_HANDLE        = 15;
+    private static final int CONSTANT_METHOD_TYPE          = 16;
+    private static final int CONSTANT_DYNAMIC              = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC       = 18;
+    private static final int CONSTANT_MODULE               = 19;
+    private static final int CONSTANT_PACKAGE              = 20;
+
+    private static final int OPCODE_LDC            = 0x12;
+    private static final int OPCODE_LDC_W          = 0x13;
+    private static final int OPCODE_LDC2_W         = 0x14;
+    private static final int OPCODE_TABLESWITCH    = 0xaa;
+    private static final int OPCODE_LOOKUPSWITCH   = 0xab;
+    private static final int OPCODE_GETSTATIC      = 0xb2;
+    private static final int OPCODE_INVOKEDYNAMIC  = 0xba;
+    private static final int OPCODE_NEW            = 0xbb;
+    private static final int OPCODE_ANEWARRAY      = 0xbd;
+    private static final int OPCODE_CHECKCAST      = 0xc0;
+    private static final int OPCODE_INSTANCEOF     = 0xc1;
+    private static final int OPCODE_WIDE           = 0xc4;
+    private static final int OPCODE_MULTIANEWARRAY = 0xc5;
+    private static final int OPCODE_IINC           = 0x84;
+
+    // The number of bytes of the operands of each opcode, or -1 for those read separately
+    private static final int[] OPERAND_SIZES = new int[256];
+
+    static {
+        for (final int opcode : new int[] { 0x10, 0x12, 0x15, 0x16, 0x17, 0x18, 0x19, 0x36, 0x37, 0x38, 0x39, 0x3a, 0xa9, 0xbc }) ClassFile.OPERAND_SIZES[opcode] = 1;
+        for (final int opcode : new int[] { 0x11, 0x13, 0x14, 0x84, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xbb, 0xbd, 0xc0, 0xc1, 0xc6, 0xc7 }) ClassFile.OPERAND_SIZES[opcode] = 2;
+        for (int opcode = 0x99; opcode <= 0xa8; opcode++) ClassFile.OPERAND_SIZES[opcode] = 2;
+        for (final int opcode : new int[] { 0xb9, 0xba, 0xc8, 0xc9 }) ClassFile.OPERAND_SIZES[opcode] = 4;
+
+        ClassFile.OPERAND_SIZES[ClassFile.OPCODE_MULTIANEWARRAY] = 3;
+        ClassFile.OPERAND_SIZES[ClassFile.OPCODE_TABLESWITCH]    = -1;
+        ClassFile.OPERAND_SIZES[ClassFile.OPCODE_LOOKUPSWITCH]   = -1;
+        ClassFile.OPERAND_SIZES[ClassFile.OPCODE_WIDE]           = -1;
+    }
+
+    //endregion
+
+    private final int[]    tags;
+    private final String[] strings;
+    private final int[]    firsts;
+    private final int[]    seconds;
+
+    private String name;
+    private String superName;
+    private byte[] staticInitializer;
+
+    private ClassFile(final int count) {
+        this.tags    = new int[count];
+        this.strings = new String[count];
+        this.firsts  = new int[count];
+        this.seconds = new int[count];
+    }
+
+    /**
+     * Reads a class file.
+     * @param withStaticInitializer {@code true} to read the bytecode of the static initializer, or {@code false} to stop after the constant pool.
+     */
+    @Nonnull
+    static ClassFile read(@Nonnull final InputStream inputStream, final boolean withStaticInitializer) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+        if (input.readInt() != ClassFile.MAGIC) throw new IOException("Not a class file");
+
+        // The minor and major versions
+        input.readInt();
+
+        final ClassFile classFile = new ClassFile(input.readUnsignedShort());
+        classFile.readConstantPool(input);
+
+        if (withStaticInitializer) {
+            // The access flags
+            input.readUnsignedShort();
+
+            classFile.name      = classFile.getClassName(input.readUnsignedShort());
+            classFile.superName = classFile.getClassName(input.readUnsignedShort());
+
+            ClassFile.skip(input, 2 * input.readUnsignedShort());
+
+            ClassFile.skipMembers(input);
+            classFile.readMethods(input);
+        }
+
+        return classFile;
+    }
+
+    /**
+     * Returns the strings of the constant pool, which hold the names of classes, members, descriptors and signatures, and string constants.
+     */
+    @Nonnull
+    List<String> getStrings() {
+        final List<String> strings = new ArrayList<>();
+        for (int i = 1; i < this.tags.length; i++) {
+            if (this.tags[i] == ClassFile.CONSTANT_UTF8) strings.add(this.strings[i]);
+        }
+
+        return strings;
+    }
+
+    /**
+     * Returns the internal name of the class, such as {@code java/lang/String}.
+     */
+    @Nullable
+    String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the internal name of the super class, or {@code null} for {@code java/lang/Object}.
+     */
+    @Nullable
+    String getSuperName() {
+        return this.superName;
+    }
+
+    /**
+     * Returns the bytecode of the static initializer, or {@code null} if there is none.
+     */
+    @Nullable
+    byte[] getStaticInitializer() {
+        return this.staticInitializer;
+    }
+
+    /**
+     * Returns what the static initializer refers to: the internal name of each class it uses, such as {@code java/lang/System}, and each member it uses, such as {@code java/lang/System.currentTimeMillis}.
+     */
+    @Nonnull
+    Set<String> getStaticInitializerReferences() throws IOException {
+        if (this.staticInitializer == null) return Collections.emptySet();
+
+        final Set<String> references = new LinkedHashSet<>();
+        final byte[]      code       = this.staticInitializer;
+
+        int offset = 0;
+        while (offset < code.length) {
+            final int opcode = code[offset] & 0xff;
+
+            if (opcode == ClassFile.OPCODE_LDC) {
+                this.addReference(code[offset + 1] & 0xff, references);
+            } else if (opcode == ClassFile.OPCODE_LDC_W || opcode == ClassFile.OPCODE_LDC2_W || opcode >= ClassFile.OPCODE_GETSTATIC && opcode <= ClassFile.OPCODE_INVOKEDYNAMIC || opcode == ClassFile.OPCODE_NEW || opcode == ClassFile.OPCODE_ANEWARRAY || opcode == ClassFile.OPCODE_CHECKCAST || opcode == ClassFile.OPCODE_INSTANCEOF || opcode == ClassFile.OPCODE_MULTIANEWARRAY) {
+                this.addReference((code[offset + 1] & 0xff) << 8 | code[offset + 2] & 0xff, references);
+            }
+
+            offset = ClassFile.next(code, offset, opcode);
+        }
+
+        return references;
+    }
+
+    /**
+     * Returns the offset of the instruction after the one at {@code offset}.
+     */
+    private static int next(@Nonnull final byte[] code, final int offset, final int opcode) throws IOException {
+        switch (opcode) {
+            case ClassFile.OPCODE_TABLESWITCH: {
+                // The operands are aligned to 4 bytes from the start of the bytecode
+                final int start = (offset + 4) & ~3;
+                final int low   = ClassFile.readInt(code, start + 4);
+                final int high  = ClassFile.readInt(code, start + 8);
+
+                return start + 12 + 4 * (high - low + 1);
+            }
+
+            case ClassFile.OPCODE_LOOKUPSWITCH: {
+                final int start = (offset + 4) & ~3;
+
+                return start + 8 + 8 * ClassFile.readInt(code, start + 4);
+            }
+
+            case ClassFile.OPCODE_WIDE:
+                return offset + ((code[offset + 1] & 0xff) == ClassFile.OPCODE_IINC ? 6 : 4);
+
+            default:
+                if (ClassFile.OPERAND_SIZES[opcode] < 0) throw new IOException("Unknown opcode: " + opcode);
+
+                return offset + 1 + ClassFile.OPERAND_SIZES[opcode];
+        }
+    }
+
+    private static int readInt(@Nonnull final byte[] code, final int offset) throws IOException {
+        if (offset + 4 > code.length) throw new IOException("Truncated bytecode");
+
+        return (code[offset] & 0xff) << 24 | (code[offset + 1] & 0xff) << 16 | (code[offset + 2] & 0xff) << 8 | code[offset + 3] & 0xff;
+    }
+
+    private void addReference(final int index, @Nonnull final Set<String> references) {
+        if (index <= 0 || index >= this.tags.length) return;
+
+        switch (this.tags[index]) {
+            case ClassFile.CONSTANT_CLASS:
+                final String className = this.getClassName(index);
+                if (className != null) references.add(className);
+                break;
+
+            case ClassFile.CONSTANT_FIELD_REF:
+            case ClassFile.CONSTANT_METHOD_REF:
+            case ClassFile.CONSTANT_INTERFACE_METHOD_REF:
+                final String owner = this.getClassName(this.firsts[index]);
+
+                if (owner != null) {
+                    references.add(owner);
+                    references.add(owner + "." + this.strings[this.firsts[this.seconds[index]]]);
+                }
+
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    @Nullable
+    private String getClassName(final int index) {
+        if (index <= 0 || index >= this.tags.length || this.tags[index] != ClassFile.CONSTANT_CLASS) return null;
+
+        final String className = this.strings[this.firsts[index]];
+
+        // An array of classes, such as [Ljava/lang/String;
+        if (className != null && className.startsWith("[")) {
+            final int start = className.indexOf('L');
+            return start < 0 ? null : className.substring(start + 1, className.length() - 1);
+        }
+
+        return className;
+    }
+
+    private void readConstantPool(@Nonnull final DataInputStream input) throws IOException {
+        for (int i = 1; i < this.tags.length; i++) {
+            final int tag = input.readUnsignedByte();
+            this.tags[i] = tag;
+
+            switch (tag) {
+                case ClassFile.CONSTANT_UTF8:
+                    this.strings[i] = input.readUTF();
+                    break;
+
+                case ClassFile.CONSTANT_CLASS:
+                case ClassFile.CONSTANT_STRING:
+                case ClassFile.CONSTANT_METHOD_TYPE:
+                case ClassFile.CONSTANT_MODULE:
+                case ClassFile.CONSTANT_PACKAGE:
+                    this.firsts[i] = input.readUnsignedShort();
+                    break;
+
+                case ClassFile.CONSTANT_METHOD_HANDLE:
+                    ClassFile.skip(input, 3);
+                    break;
+
+                case ClassFile.CONSTANT_FIELD_REF:
+                case ClassFile.CONSTANT_METHOD_REF:
+                case ClassFile.CONSTANT_INTERFACE_METHOD_REF:
+                case ClassFile.CONSTANT_NAME_AND_TYPE:
+                case ClassFile.CONSTANT_DYNAMIC:
+                case ClassFile.CONSTANT_INVOKE_DYNAMIC:
+                    this.firsts[i]  = input.readUnsignedShort();
+                    this.seconds[i] = input.readUnsignedShort();
+                    break;
+
+                case ClassFile.CONSTANT_INTEGER:
+                case ClassFile.CONSTANT_FLOAT:
+                    ClassFile.skip(input, 4);
+                    break;
+
+                case ClassFile.CONSTANT_LONG:
+                case ClassFile.CONSTANT_DOUBLE:
+                    // Takes two entries of the constant pool
+                    ClassFile.skip(input, 8);
+                    i++;
+                    break;
+
+                default:
+                    throw new IOException("Unknown constant pool tag: " + tag);
+            }
+        }
+    }
+
+    private void readMethods(@Nonnull final DataInputStream input) throws IOException {
+        final int count = input.readUnsignedShort();
+
+        for (int i = 0; i < count; i++) {
+            // The access flags
+            input.readUnsignedShort();
+
+            final String methodName = this.strings[input.readUnsignedShort()];
+
+            // The descriptor
+            input.readUnsignedShort();
+
+            final int attributes = input.readUnsignedShort();
+
+            for (int j = 0; j < attributes; j++) {
+                final String attributeName = this.strings[input.readUnsignedShort()];
+                final int    length        = input.readInt();
+
+                if (ClassFile.STATIC_INITIALIZER.equals(methodName) && ClassFile.ATTRIBUTE_CODE.equals(attributeName)) {
+                    // The maximum stack size and the maximum number of local variables
+                    input.readInt();
+
+                    final byte[] code = new byte[input.readInt()];
+                    input.readFully(code);
+                    ClassFile.skip(input, length - 8 - code.length);
+
+                    this.staticInitializer = code;
+                } else {
+                    ClassFile.skip(input, length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips {@code count} bytes, which {@link DataInputStream#skipBytes(int)} may not do at once.
+     */
+    private static void skip(@Nonnull final DataInputStream input, final int count) throws IOException {
+        int remaining = count;
+
+        while (remaining > 0) {
+            final int skipped = input.skipBytes(remaining);
+
+            if (skipped > 0) {
+                remaining -= skipped;
+            } else {
+                if (input.read() < 0) throw new EOFException();
+
+                remaining--;
+            }
+        }
+    }
+
+    private static void skipMembers(@Nonnull final DataInputStream input) throws IOException {
+        final int count = input.readUnsignedShort();
+
+        for (int i = 0; i < count; i++) {
+            ClassFile.skip(input, 6);
+
+            final int attributes = input.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                ClassFile.skip(input, 2);
+                ClassFile.skip(input, input.readInt());
+            }
+        }
+    }
+}
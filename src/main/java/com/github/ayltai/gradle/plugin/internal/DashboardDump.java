@@ -0,0 +1,286 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the code and image heap breakdowns of a native image from the JSON dump written with {@code -H:DashboardDump}.
+ * <p>A dump of a large application, with its points-to graph, may be several gigabytes, so it is read as a stream, and only one breakdown entry is held in memory at a time.</p>
+ */
+public final class DashboardDump {
+    //region Constants
+
+    /**
+     * The breakdown of compiled code, whose entries are methods, such as {@code java.lang.String.hashCode()}.
+     */
+    public static final String SECTION_CODE = "code-size";
+
+    /**
+     * The breakdown of the image heap, whose entries are types, such as {@code java.lang.String} or {@code byte[]}.
+     */
+    public static final String SECTION_HEAP = "heap-size";
+
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_SIZE = "size";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NONE        = -2;
+
+    //endregion
+
+    /**
+     * Receives the entries of the breakdowns.
+     */
+    public interface Consumer {
+        /**
+         * @param section {@link #SECTION_CODE} or {@link #SECTION_HEAP}.
+         * @param name The name of the method or the type.
+         * @param size The size in bytes.
+         */
+        void accept(@Nonnull String section, @Nonnull String name, long size);
+    }
+
+    private final Reader   reader;
+    private final Consumer consumer;
+
+    private int peeked = DashboardDump.NONE;
+
+    private DashboardDump(@Nonnull final Reader reader, @Nonnull final Consumer consumer) {
+        this.reader   = reader;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Reads {@code file} and passes each entry of its code and image heap breakdowns to {@code consumer}.
+     */
+    public static void parse(@Nonnull final File file, @Nonnull final Consumer consumer) throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8), DashboardDump.BUFFER_SIZE)) {
+            DashboardDump.parse(reader, consumer);
+        }
+    }
+
+    static void parse(@Nonnull final Reader reader, @Nonnull final Consumer consumer) throws IOException {
+        final DashboardDump dump = new DashboardDump(reader, consumer);
+
+        dump.parseValue(null);
+        if (dump.next() != -1) throw dump.error("Unexpected content after the end of the dump");
+    }
+
+    /**
+     * Parses the value that starts at the next character.
+     * @param section The breakdown that the value is an entry of, or {@code null} if it is not an entry of a breakdown.
+     */
+    private void parseValue(@Nullable final String section) throws IOException {
+        final int c = this.next();
+
+        switch (c) {
+            case '{':
+                this.parseObject(section);
+                break;
+
+            case '[':
+                this.parseArray(section);
+                break;
+
+            case '"':
+                this.readString(false);
+                break;
+
+            case -1:
+                throw this.error("Unexpected end of the dump");
+
+            default:
+                this.readScalar(c);
+                break;
+        }
+    }
+
+    private void parseObject(@Nullable final String section) throws IOException {
+        String name = null;
+        long   size = -1;
+
+        int c = this.next();
+        if (c == '}') return;
+
+        while (true) {
+            if (c != '"') throw this.error("Expected a field name");
+
+            final String key = this.readString(true);
+            if (this.next() != ':') throw this.error("Expected ':' after field " + key);
+
+            final int start = this.next();
+
+            if (start == '"') {
+                final String value = this.readString(section != null && DashboardDump.FIELD_NAME.equals(key));
+                if (value != null) name = value;
+            } else if (start == '{' || start == '[') {
+                this.unread(start);
+
+                // A breakdown is an array of entries held by a field named after it
+                this.parseValue(start == '[' && (DashboardDump.SECTION_CODE.equals(key) || DashboardDump.SECTION_HEAP.equals(key)) ? key : null);
+            } else {
+                final String value = this.readScalar(start);
+                if (section != null && DashboardDump.FIELD_SIZE.equals(key)) size = DashboardDump.parseSize(value);
+            }
+
+            c = this.next();
+            if (c == '}') break;
+            if (c != ',') throw this.error("Expected ',' or '}'");
+
+            c = this.next();
+        }
+
+        if (section != null && name != null && size >= 0) this.consumer.accept(section, name, size);
+    }
+
+    private void parseArray(@Nullable final String section) throws IOException {
+        int c = this.next();
+        if (c == ']') return;
+
+        this.unread(c);
+
+        while (true) {
+            this.parseValue(section);
+
+            c = this.next();
+            if (c == ']') break;
+            if (c != ',') throw this.error("Expected ',' or ']'");
+        }
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote has been read.
+     * @param keep {@code true} to return the string, or {@code false} to skip it.
+     */
+    @Nullable
+    private String readString(final boolean keep) throws IOException {
+        final StringBuilder builder = keep ? new StringBuilder() : null;
+
+        while (true) {
+            int c = this.read();
+            if (c == -1) throw this.error("Unterminated string");
+            if (c == '"') break;
+
+            if (c == '\\') {
+                c = this.read();
+
+                switch (c) {
+                    case 'b':
+                        c = '\b';
+                        break;
+
+                    case 'f':
+                        c = '\f';
+                        break;
+
+                    case 'n':
+                        c = '\n';
+                        break;
+
+                    case 'r':
+                        c = '\r';
+                        break;
+
+                    case 't':
+                        c = '\t';
+                        break;
+
+                    case 'u':
+                        final char[] digits = new char[4];
+                        for (int i = 0; i < digits.length; i++) {
+                            final int digit = this.read();
+                            if (digit == -1) throw this.error("Unterminated string");
+
+                            digits[i] = (char)digit;
+                        }
+
+                        c = Integer.parseInt(new String(digits), 16);
+                        break;
+
+                    case -1:
+                        throw this.error("Unterminated string");
+
+                    default:
+                        break;
+                }
+            }
+
+            if (builder != null) builder.append((char)c);
+        }
+
+        return builder == null ? null : builder.toString();
+    }
+
+    /**
+     * Reads a number, {@code true}, {@code false} or {@code null} that starts with {@code first}.
+     */
+    @Nonnull
+    private String readScalar(final int first) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        builder.append((char)first);
+
+        while (true) {
+            final int c = this.read();
+
+            if (c == -1 || c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                this.unread(c);
+                break;
+            }
+
+            builder.append((char)c);
+        }
+
+        return builder.toString();
+    }
+
+    private static long parseSize(@Nonnull final String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            try {
+                return (long)Double.parseDouble(value);
+            } catch (final NumberFormatException ex) {
+                return -1;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (this.peeked != DashboardDump.NONE) {
+            final int c = this.peeked;
+            this.peeked = DashboardDump.NONE;
+
+            return c;
+        }
+
+        return this.reader.read();
+    }
+
+    private void unread(final int c) {
+        this.peeked = c;
+    }
+
+    /**
+     * Returns the next character that is not whitespace, or {@code -1} at the end of the dump.
+     */
+    private int next() throws IOException {
+        int c;
+        do {
+            c = this.read();
+        } while (c != -1 && Character.isWhitespace(c));
+
+        return c;
+    }
+
+    @Nonnull
+    private IOException error(@Nonnull final String message) {
+        return new IOException("Malformed dashboard dump: " + message);
+    }
+}
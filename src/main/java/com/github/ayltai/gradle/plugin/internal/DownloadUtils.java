@@ -1,23 +1,62 @@
 package com.github.ayltai.gradle.plugin.internal;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
-import java.nio.channels.Channels;
-import java.nio.channels.FileChannel;
-import java.nio.channels.ReadableByteChannel;
+import java.net.URLConnection;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import org.gradle.api.logging.Logger;
 import org.gradle.api.resources.ResourceException;
 
 import com.github.ayltai.gradle.plugin.Constants;
 
+import org.apache.commons.compress.utils.CountingInputStream;
+import org.apache.commons.compress.utils.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import org.slf4j.LoggerFactory;
+
 public final class DownloadUtils {
-    private static final String OUTPUT_PATH = "graalvm-ce-java%2$s-%1$s";
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(DownloadUtils.class);
+
+    private static final String OUTPUT_PATH    = "graalvm-ce-java%2$s-%1$s";
+    private static final String PART_EXTENSION = ".part";
+    private static final int    BUFFER_SIZE    = 8192;
+    private static final int    CONNECTIONS    = 4;
+    private static final long   CHUNK_SIZE     = 16L * 1024 * 1024;
+    private static final long   BYTES_PER_MB   = 1024L * 1024;
+
+    private static final int CONNECT_TIMEOUT = 30 * 1000;
+    private static final int READ_TIMEOUT    = 60 * 1000;
+
+    private static final String EXTENSION_TAR_GZ   = ".tar.gz";
+    private static final String EXTENSION_JAR      = ".jar";
+    private static final String ARCHIVE_PREFIX     = "graalvm-ce-";
+    private static final String INSTALLABLE_PREFIX = "native-image-installable-svm-";
 
     private DownloadUtils() {
     }
@@ -29,32 +68,431 @@ public final class DownloadUtils {
     }
 
     public static void download(@Nonnull final  String downloadUrl, @Nonnull final File outputDir, @Nonnull final String downloadStrategy) {
+        DownloadUtils.download(downloadUrl, outputDir, downloadStrategy, true, null);
+    }
+
+    /**
+     * Downloads GraalVM from {@code downloadUrl}, as {@link #download(List, File, String, boolean, String)} does from a single URL.
+     */
+    public static void download(@Nonnull final  String downloadUrl, @Nonnull final File outputDir, @Nonnull final String downloadStrategy, final boolean keepArchive, @Nullable final String checksum) {
+        DownloadUtils.download(Collections.singletonList(downloadUrl), outputDir, downloadStrategy, keepArchive, checksum);
+    }
+
+    /**
+     * Downloads GraalVM from the first of {@code downloadUrls} that works, extracts it into {@code outputDir} and installs GraalVM Native Image from the same mirrors.
+     * <p>If the server supports range requests, the archive is downloaded in chunks over several connections, resuming any chunks left by an interrupted download, and its checksum is verified before it is extracted.</p>
+     * <p>Otherwise, a tar.gz archive is extracted while it is being downloaded, and the extracted files are deleted if its checksum does not match. A zip archive is always downloaded completely first, because its entries can only be located from the end of the archive.</p>
+     * <p>If a download fails, times out or does not match its checksum, the archive is downloaded from the next URL. The throughput of each download is logged.</p>
+     * @param downloadUrls The URLs of the same GraalVM archive, such as on mirrors, in the order they are tried. {@code file:} URLs are supported.
+     * @param outputDir The directory to extract GraalVM to.
+     * @param downloadStrategy {@link Constants#DOWNLOAD_DEFAULT}, {@link Constants#DOWNLOAD_ALWAYS} or {@link Constants#DOWNLOAD_SKIP}.
+     * @param keepArchive {@code true} to keep a copy of the downloaded archive in {@code outputDir}.
+     * @param checksum The expected SHA-256 checksum of the archive, or {@code null} to use the checksum published next to each of {@code downloadUrls}.
+     */
+    public static void download(@Nonnull final List<String> downloadUrls, @Nonnull final File outputDir, @Nonnull final String downloadStrategy, final boolean keepArchive, @Nullable final String checksum) {
+        if (downloadUrls.isEmpty()) throw new IllegalArgumentException("No download URLs");
         if (!outputDir.exists() && !outputDir.mkdirs()) throw new ResourceException("Failed to create temporary directory: " + outputDir.getAbsolutePath());
 
-        final File outputFile = new File(outputDir, downloadUrl.substring(downloadUrl.lastIndexOf('/') + 1));
-        if (Constants.DOWNLOAD_DEFAULT.equals(downloadStrategy) && !outputFile.exists() || Constants.DOWNLOAD_ALWAYS.equals(downloadStrategy)) {
-            try (
-                ReadableByteChannel readableByteChannel = Channels.newChannel(new URL(downloadUrl).openStream());
-                FileOutputStream    outputStream        = new FileOutputStream(outputFile);
-                FileChannel         fileChannel         = outputStream.getChannel()) {
-                fileChannel.transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
-
-                final boolean isWindows = PlatformUtils.isWindows();
-                if (isWindows) {
-                    ArchiveUtils.decompressZip(outputFile, outputDir);
-                } else {
-                    ArchiveUtils.decompressTarGZip(outputFile, outputDir);
+        // The archive has the same name on every mirror, and its name tells the versions of GraalVM
+        final String  fileName   = DownloadUtils.getFileName(downloadUrls.get(0));
+        final File    outputFile = new File(outputDir, fileName);
+        final File    toolsDir   = Paths.get(outputDir.getAbsolutePath(), DownloadUtils.getOutputPath(DownloadUtils.getToolVersion(fileName), StringUtils.substringBetween(fileName, "-java", "-"))).toFile();
+        final boolean isAlways   = Constants.DOWNLOAD_ALWAYS.equals(downloadStrategy);
+
+        if (Constants.DOWNLOAD_DEFAULT.equals(downloadStrategy) && !DownloadUtils.isInstalled(toolsDir) || isAlways) {
+            try {
+                for (int i = 0; i < downloadUrls.size(); i++) {
+                    final String downloadUrl = downloadUrls.get(i);
+                    final long   startTime   = System.currentTimeMillis();
+
+                    try {
+                        final long length = DownloadUtils.download(downloadUrl, outputDir, outputFile, toolsDir, isAlways, keepArchive, checksum);
+                        if (length > 0) DownloadUtils.LOGGER.lifecycle("Downloaded {} from {}", DownloadUtils.getThroughput(length, System.currentTimeMillis() - startTime), downloadUrl);
+
+                        break;
+                    } catch (final IOException | ResourceException e) {
+                        if (i == downloadUrls.size() - 1) throw e;
+
+                        DownloadUtils.LOGGER.warn("Failed to download {} after {} ms, so {} is tried next: {}", downloadUrl, System.currentTimeMillis() - startTime, downloadUrls.get(i + 1), e.getMessage());
+
+                        if (toolsDir.exists()) FileUtils.delete(toolsDir);
+                    }
                 }
 
-                final int result = new ProcessBuilder()
-                    .command(Paths.get(outputDir.getAbsolutePath(), DownloadUtils.getOutputPath(StringUtils.substringBetween(downloadUrl, "/vm-", "/"), StringUtils.substringBetween(downloadUrl, "-java", "-")), "bin", "gu").toString(), "install", "native-image")
-                    .start()
-                    .waitFor();
+                DownloadUtils.installNativeImage(downloadUrls, fileName, outputDir, toolsDir, isAlways, keepArchive);
+            } catch (final IOException | IllegalAccessException e) {
+                throw new ResourceException(e.getMessage(), e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
 
-                if (result != 0) throw new ResourceException("Failed to install GraalVM Native Image. Error code: " + result);
-            } catch (final IOException | IllegalAccessException | InterruptedException e) {
                 throw new ResourceException(e.getMessage(), e);
             }
         }
     }
+
+    /**
+     * Installs GraalVM Native Image into the GraalVM at {@code toolsDir}, from the installable published next to the GraalVM archive {@code fileName} on the first of {@code downloadUrls} that has it.
+     * <p>The installable is fetched the same way as the archive, so that GraalVM can be installed without reaching the GraalVM catalog. If no mirror has it, {@code gu} downloads it from the catalog instead.</p>
+     */
+    private static void installNativeImage(@Nonnull final List<String> downloadUrls, @Nonnull final String fileName, @Nonnull final File outputDir, @Nonnull final File toolsDir, final boolean isAlways, final boolean keepArchive) throws IOException, InterruptedException {
+        final String installableName = DownloadUtils.getInstallableName(fileName);
+        final File   installable     = new File(outputDir, installableName);
+
+        if (isAlways || !installable.exists()) {
+            for (final String downloadUrl : downloadUrls) {
+                final String installableUrl = downloadUrl.replace(fileName, installableName);
+                final long   startTime      = System.currentTimeMillis();
+
+                try {
+                    final String checksum = ChecksumUtils.getPublishedChecksum(installableUrl);
+                    if (checksum == null) DownloadUtils.LOGGER.warn("No checksum is found for {}. The download will not be verified", installableUrl);
+
+                    DownloadUtils.fetch(installableUrl, installable, DownloadUtils.getContentLength(installableUrl), checksum);
+                    DownloadUtils.LOGGER.lifecycle("Downloaded {} from {}", DownloadUtils.getThroughput(installable.length(), System.currentTimeMillis() - startTime), installableUrl);
+
+                    break;
+                } catch (final IOException | ResourceException e) {
+                    DownloadUtils.LOGGER.warn("Failed to download {} after {} ms: {}", installableUrl, System.currentTimeMillis() - startTime, e.getMessage());
+                }
+            }
+        }
+
+        final String gu = Paths.get(toolsDir.getAbsolutePath(), "bin", "gu").toString();
+
+        if (!installable.exists()) DownloadUtils.LOGGER.warn("{} is not found on any mirror, so GraalVM Native Image is installed from the GraalVM catalog", installableName);
+
+        final int result = new ProcessBuilder()
+            .command(installable.exists() ? Arrays.asList(gu, "install", "-L", installable.getAbsolutePath()) : Arrays.asList(gu, "install", GraalVMUtils.COMPONENT_NATIVE_IMAGE))
+            .start()
+            .waitFor();
+
+        if (!keepArchive) Files.deleteIfExists(installable.toPath());
+
+        if (result != 0) throw new ResourceException("Failed to install GraalVM Native Image. Error code: " + result);
+    }
+
+    /**
+     * Downloads the archive at {@code downloadUrl} and extracts it into {@code outputDir}, unless an archive downloaded before can be extracted instead.
+     * @return The number of bytes downloaded, or {@code 0} if an archive downloaded before is extracted.
+     */
+    private static long download(@Nonnull final String downloadUrl, @Nonnull final File outputDir, @Nonnull final File outputFile, @Nonnull final File toolsDir, final boolean isAlways, final boolean keepArchive, @Nullable final String checksum) throws IOException, IllegalAccessException {
+        final String expected = checksum == null ? ChecksumUtils.getPublishedChecksum(downloadUrl) : checksum;
+        if (expected == null) DownloadUtils.LOGGER.warn("No checksum is found for {}. The download will not be verified", downloadUrl);
+
+        if (!isAlways && outputFile.exists() && (expected == null || expected.equalsIgnoreCase(ChecksumUtils.sha256(outputFile)))) {
+            DownloadUtils.LOGGER.info("Extract previously downloaded {}", outputFile.getName());
+
+            DownloadUtils.decompress(outputFile, outputDir);
+
+            return 0;
+        }
+
+        final long length = DownloadUtils.getContentLength(downloadUrl);
+
+        if (length < 0 && !PlatformUtils.isWindows()) return DownloadUtils.stream(downloadUrl, outputDir, keepArchive ? outputFile : null, expected, toolsDir);
+
+        DownloadUtils.fetch(downloadUrl, outputFile, length, expected);
+        DownloadUtils.decompress(outputFile, outputDir);
+
+        final long size = outputFile.length();
+        if (!keepArchive) Files.delete(outputFile.toPath());
+
+        return size;
+    }
+
+    /**
+     * Opens a connection to {@code url} that times out if the server does not respond, so that a mirror that hangs is given up.
+     */
+    @Nonnull
+    static URLConnection openConnection(@Nonnull final String url) throws IOException {
+        final URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(DownloadUtils.CONNECT_TIMEOUT);
+        connection.setReadTimeout(DownloadUtils.READ_TIMEOUT);
+
+        return connection;
+    }
+
+    @Nonnull
+    static String getFileName(@Nonnull final String downloadUrl) {
+        return downloadUrl.substring(downloadUrl.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Returns the GraalVM version in the name of its archive, such as {@code 21.1.0} for {@code graalvm-ce-java11-linux-amd64-21.1.0.tar.gz}.
+     */
+    @Nonnull
+    static String getToolVersion(@Nonnull final String fileName) {
+        return StringUtils.substringAfterLast(DownloadUtils.getBaseName(fileName), "-");
+    }
+
+    @Nonnull
+    private static String getBaseName(@Nonnull final String fileName) {
+        return fileName.endsWith(DownloadUtils.EXTENSION_TAR_GZ) ? fileName.substring(0, fileName.length() - DownloadUtils.EXTENSION_TAR_GZ.length()) : StringUtils.substringBeforeLast(fileName, ".");
+    }
+
+    /**
+     * Returns the name of the GraalVM Native Image installable published with the GraalVM archive {@code fileName}, such as {@code native-image-installable-svm-java11-linux-amd64-21.1.0.jar} for {@code graalvm-ce-java11-linux-amd64-21.1.0.tar.gz}.
+     */
+    @Nonnull
+    static String getInstallableName(@Nonnull final String fileName) {
+        return DownloadUtils.INSTALLABLE_PREFIX + StringUtils.removeStart(DownloadUtils.getBaseName(fileName), DownloadUtils.ARCHIVE_PREFIX) + DownloadUtils.EXTENSION_JAR;
+    }
+
+    /**
+     * Returns the size of a download and its throughput, such as {@code 12.3 MB in 4.5 s (2.7 MB/s)}.
+     */
+    @Nonnull
+    static String getThroughput(final long length, final long millis) {
+        final double megabytes = (double)length / DownloadUtils.BYTES_PER_MB;
+        final double seconds   = Math.max(millis, 1) / 1000.0;
+
+        return String.format(Locale.ROOT, "%.1f MB in %.1f s (%.1f MB/s)", megabytes, seconds, megabytes / seconds);
+    }
+
+    private static boolean isInstalled(@Nonnull final File toolsDir) {
+        return Paths.get(toolsDir.getAbsolutePath(), "bin", PlatformUtils.isWindows() ? "native-image.cmd" : "native-image").toFile().exists();
+    }
+
+    private static void decompress(@Nonnull final File archive, @Nonnull final File outputDir) throws IOException, IllegalAccessException {
+        if (PlatformUtils.isWindows()) {
+            ArchiveUtils.decompressZip(archive, outputDir);
+        } else {
+            ArchiveUtils.decompressTarGZip(archive, outputDir);
+        }
+    }
+
+    /**
+     * Returns the length of the file at {@code downloadUrl} if the server supports range requests for it.
+     * @param downloadUrl The URL of the file.
+     * @return The length of the file, or {@code -1} if the server does not support range requests.
+     */
+    private static long getContentLength(@Nonnull final String downloadUrl) throws IOException {
+        final URLConnection connection = DownloadUtils.openConnection(downloadUrl);
+        if (!(connection instanceof HttpURLConnection)) return -1;
+
+        final HttpURLConnection httpConnection = (HttpURLConnection)connection;
+        httpConnection.setRequestProperty("Range", "bytes=0-0");
+
+        try {
+            final String contentRange = httpConnection.getHeaderField("Content-Range");
+            if (httpConnection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL || contentRange == null || !contentRange.contains("/")) return -1;
+
+            final String length = contentRange.substring(contentRange.lastIndexOf('/') + 1).trim();
+            return StringUtils.isNumeric(length) ? Long.parseLong(length) : -1;
+        } finally {
+            httpConnection.disconnect();
+        }
+    }
+
+    /**
+     * Downloads the file at {@code downloadUrl} to {@code outputFile}, in parallel chunks if {@code length} is known.
+     * <p>Each chunk is written to its own {@code .part} file, which is resumed by a later call if the download is interrupted. The chunks are joined and verified against {@code checksum} before {@code outputFile} is created.</p>
+     */
+    private static void fetch(@Nonnull final String downloadUrl, @Nonnull final File outputFile, final long length, @Nullable final String checksum) throws IOException {
+        final int        chunks    = length < 0 ? 1 : (int)Math.max(1, (length + DownloadUtils.CHUNK_SIZE - 1) / DownloadUtils.CHUNK_SIZE);
+        final List<File> partFiles = new ArrayList<>();
+
+        for (int i = 0; i < chunks; i++) partFiles.add(new File(outputFile.getAbsolutePath() + DownloadUtils.PART_EXTENSION + "." + i));
+
+        if (length < 0) {
+            try (
+                InputStream  inputStream  = DownloadUtils.openConnection(downloadUrl).getInputStream();
+                OutputStream outputStream = new FileOutputStream(partFiles.get(0))) {
+                IOUtils.copy(inputStream, outputStream);
+            }
+        } else {
+            final ExecutorService    executor = Executors.newFixedThreadPool(Math.min(chunks, DownloadUtils.CONNECTIONS));
+            final List<Future<Void>> futures  = new ArrayList<>();
+
+            try {
+                for (int i = 0; i < chunks; i++) {
+                    final long start = i * DownloadUtils.CHUNK_SIZE;
+                    final long end   = Math.min(start + DownloadUtils.CHUNK_SIZE, length) - 1;
+                    final File file  = partFiles.get(i);
+
+                    futures.add(executor.submit(() -> {
+                        DownloadUtils.fetch(downloadUrl, file, start, end);
+
+                        return null;
+                    }));
+                }
+
+                DownloadUtils.await(futures);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        final File          partFile = new File(outputFile.getAbsolutePath() + DownloadUtils.PART_EXTENSION);
+        final MessageDigest digest   = ChecksumUtils.newDigest();
+
+        try (OutputStream outputStream = new FileOutputStream(partFile)) {
+            for (final File file : partFiles) {
+                try (InputStream inputStream = new DigestInputStream(new FileInputStream(file), digest)) {
+                    IOUtils.copy(inputStream, outputStream, DownloadUtils.BUFFER_SIZE);
+                }
+            }
+        }
+
+        for (final File file : partFiles) Files.delete(file.toPath());
+
+        if (checksum != null) {
+            try {
+                ChecksumUtils.verify(checksum, ChecksumUtils.toHex(digest.digest()), outputFile.getName());
+            } catch (final ResourceException e) {
+                Files.delete(partFile.toPath());
+
+                throw e;
+            }
+        }
+
+        Files.move(partFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Downloads bytes {@code start} to {@code end} (inclusive) of the file at {@code downloadUrl} to {@code partFile}, resuming from the bytes already in {@code partFile}.
+     */
+    private static void fetch(@Nonnull final String downloadUrl, @Nonnull final File partFile, final long start, final long end) throws IOException {
+        final long expected = end - start + 1;
+
+        if (partFile.length() > expected) Files.delete(partFile.toPath());
+        if (partFile.length() == expected) return;
+
+        final long              offset     = start + partFile.length();
+        final HttpURLConnection connection = (HttpURLConnection)DownloadUtils.openConnection(downloadUrl);
+        connection.setRequestProperty("Range", "bytes=" + offset + "-" + end);
+
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) throw new IOException(String.format("Failed to download bytes %d-%d of %s. HTTP status: %d", offset, end, downloadUrl, connection.getResponseCode()));
+
+            try (
+                InputStream  inputStream  = connection.getInputStream();
+                OutputStream outputStream = new FileOutputStream(partFile, true)) {
+                IOUtils.copy(inputStream, outputStream, DownloadUtils.BUFFER_SIZE);
+            }
+        } finally {
+            connection.disconnect();
+        }
+
+        if (partFile.length() != expected) throw new IOException(String.format("Incomplete download of bytes %d-%d of %s", start, end, downloadUrl));
+    }
+
+    /**
+     * Extracts the tar.gz archive at {@code downloadUrl} while it is being downloaded.
+     * @return The number of bytes downloaded.
+     */
+    private static long stream(@Nonnull final String downloadUrl, @Nonnull final File outputDir, @Nullable final File outputFile, @Nullable final String checksum, @Nonnull final File toolsDir) throws IOException, IllegalAccessException {
+        final File                partFile       = outputFile == null ? null : new File(outputFile.getAbsolutePath() + DownloadUtils.PART_EXTENSION);
+        final MessageDigest       digest         = ChecksumUtils.newDigest();
+        final CountingInputStream countingStream = new CountingInputStream(DownloadUtils.openConnection(downloadUrl).getInputStream());
+
+        try (InputStream inputStream = new DigestInputStream(partFile == null ? countingStream : new TeeInputStream(countingStream, new FileOutputStream(partFile)), digest)) {
+            ArchiveUtils.decompressTarGZip(new BufferedInputStream(inputStream), outputDir);
+
+            // The tar reader stops at the end-of-archive marker, so the remaining padding has to be read for the copy and the checksum to be complete
+            if (partFile != null || checksum != null) DownloadUtils.drain(inputStream);
+        }
+
+        if (checksum != null) {
+            try {
+                ChecksumUtils.verify(checksum, ChecksumUtils.toHex(digest.digest()), downloadUrl);
+            } catch (final ResourceException e) {
+                FileUtils.delete(toolsDir);
+                if (partFile != null) Files.delete(partFile.toPath());
+
+                throw e;
+            }
+        }
+
+        if (partFile != null) Files.move(partFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        return countingStream.getBytesRead();
+    }
+
+    private static void drain(@Nonnull final InputStream inputStream) throws IOException {
+        final byte[] buffer = new byte[DownloadUtils.BUFFER_SIZE];
+
+        int count;
+        do {
+            count = inputStream.read(buffer);
+        } while (count >= 0);
+    }
+
+    private static void await(@Nonnull final List<Future<Void>> futures) throws IOException {
+        for (final Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new InterruptedIOException(e.getMessage());
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+
+                if (cause instanceof IOException) throw (IOException)cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+
+                throw new ResourceException(cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /**
+     * Copies all bytes read from an input stream to an output stream.
+     */
+    private static final class TeeInputStream extends FilterInputStream {
+        private final OutputStream outputStream;
+
+        TeeInputStream(@Nonnull final InputStream inputStream, @Nonnull final OutputStream outputStream) {
+            super(inputStream);
+
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value = super.read();
+            if (value >= 0) this.outputStream.write(value);
+
+            return value;
+        }
+
+        @Override
+        public int read(@Nonnull final byte[] bytes, final int offset, final int length) throws IOException {
+            final int count = super.read(bytes, offset, length);
+            if (count > 0) this.outputStream.write(bytes, offset, count);
+
+            return count;
+        }
+
+        @Override
+        public long skip(final long count) throws IOException {
+            // Skipped bytes must be copied too, so they are read instead of being skipped
+            final byte[] buffer  = new byte[DownloadUtils.BUFFER_SIZE];
+            long         skipped = 0;
+
+            while (skipped < count) {
+                final int read = this.read(buffer, 0, (int)Math.min(buffer.length, count - skipped));
+                if (read < 0) break;
+
+                skipped += read;
+            }
+
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                this.outputStream.close();
+            }
+        }
+    }
 }
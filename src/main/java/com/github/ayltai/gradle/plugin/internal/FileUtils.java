@@ -0,0 +1,36 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+
+import org.gradle.api.resources.ResourceException;
+
+public final class FileUtils {
+    private FileUtils() {
+    }
+
+    /**
+     * Deletes {@code file} and, if it is a directory, everything in it. Does nothing if {@code file} does not exist.
+     * @param file The file or directory to delete.
+     */
+    public static void delete(@Nonnull final File file) throws IOException {
+        if (!file.exists()) return;
+
+        try (Stream<Path> stream = Files.walk(file.toPath())) {
+            stream.map(Path::toFile)
+                .sorted(Comparator.reverseOrder())
+                .forEach(child -> {
+                    try {
+                        Files.deleteIfExists(child.toPath());
+                    } catch (final IOException e) {
+                        throw new ResourceException("Failed to delete directory or file: " + child.getAbsolutePath(), e);
+                    }
+                });
+        }
+    }
+}
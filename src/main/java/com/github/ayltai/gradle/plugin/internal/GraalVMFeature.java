@@ -0,0 +1,48 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The {@code native-image} options that depend on the GraalVM version, each with the version that introduced it.
+ * @see Version#supports(GraalVMFeature)
+ */
+public enum GraalVMFeature {
+    /**
+     * {@code --trace-class-initialization=<classes>}, which replaces {@code -H:+TraceClassInitialization}.
+     */
+    TRACE_CLASS_INITIALIZATION_FOR("20.3.0"),
+
+    /**
+     * {@code -O<level>}, the optimization level of the compiled code.
+     */
+    OPTIMIZATION_LEVEL("21.0.0"),
+
+    /**
+     * {@code -H:+NativeArchitecture}, which compiles for the CPU features of the build machine.
+     */
+    NATIVE_ARCHITECTURE("21.0.0"),
+
+    /**
+     * {@code -Ob}, the quick build mode, which trades optimizations for a shorter build.
+     */
+    QUICK_BUILD("22.2.0"),
+
+    /**
+     * {@code -march=<architecture>}, which replaces {@code -H:+NativeArchitecture}.
+     */
+    MARCH("23.0.0");
+
+    private final Version since;
+
+    GraalVMFeature(@Nonnull final String since) {
+        this.since = Version.of(since);
+    }
+
+    /**
+     * Returns the first GraalVM version that supports this feature.
+     */
+    @Nonnull
+    public Version getSince() {
+        return this.since;
+    }
+}
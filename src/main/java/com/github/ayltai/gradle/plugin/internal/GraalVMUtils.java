@@ -0,0 +1,301 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.slf4j.LoggerFactory;
+
+public final class GraalVMUtils {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(GraalVMUtils.class);
+
+    public static final String COMPONENT_NATIVE_IMAGE = "native-image";
+
+    private static final String  ENV_GRAALVM_HOME  = "GRAALVM_HOME";
+    private static final String  ENV_JAVA_HOME     = "JAVA_HOME";
+    private static final String  ENV_PROGRAM_FILES = "ProgramFiles";
+
+    private static final String  FILE_RELEASE    = "release";
+    private static final String  DIR_COMPONENTS  = "lib/installer/components";
+    private static final String  COMPONENT_GROUP = "org.graalvm.";
+    private static final Pattern VERSION_PATTERN = Pattern.compile("GraalVM(?: CE)? ([0-9][0-9.]*)");
+
+    // Probing an installation may start a process, so the result is kept for as long as the Gradle daemon lives
+    private static final ConcurrentMap<String, Installation> INSTALLATIONS = new ConcurrentHashMap<>();
+
+    private GraalVMUtils() {
+    }
+
+    /**
+     * Returns the names of the environment variables read by {@link #getCandidates(Map, String, String, File)}, so that only these are passed to it.
+     * @param installationsFromEnv The value of {@code org.gradle.java.installations.fromEnv}, or {@code null} if it is not set.
+     * @return The names of the environment variables.
+     */
+    @Nonnull
+    public static Set<String> getVariableNames(@Nullable final String installationsFromEnv) {
+        final Set<String> names = new LinkedHashSet<>();
+
+        if (installationsFromEnv != null) {
+            for (final String name : installationsFromEnv.split(",")) {
+                if (!name.trim().isEmpty()) names.add(name.trim());
+            }
+        }
+
+        names.add(GraalVMUtils.ENV_GRAALVM_HOME);
+        names.add(GraalVMUtils.ENV_JAVA_HOME);
+        if (PlatformUtils.isWindows()) names.add(GraalVMUtils.ENV_PROGRAM_FILES);
+
+        return names;
+    }
+
+    /**
+     * Returns the directories that may contain a Java installation, in the order they should be searched.
+     * <p>These are the installations known to Gradle Java toolchains, followed by {@code GRAALVM_HOME}, {@code JAVA_HOME}, and the common install locations of the current platform.</p>
+     * @param env The environment variables named by {@link #getVariableNames(String)}.
+     * @param installationPaths The value of {@code org.gradle.java.installations.paths}, or {@code null} if it is not set.
+     * @param installationsFromEnv The value of {@code org.gradle.java.installations.fromEnv}, or {@code null} if it is not set.
+     * @param gradleUserHomeDir The Gradle user home directory, where Gradle provisions Java toolchains.
+     * @return The candidate Java home directories.
+     */
+    @Nonnull
+    public static List<File> getCandidates(@Nonnull final Map<String, String> env, @Nullable final String installationPaths, @Nullable final String installationsFromEnv, @Nonnull final File gradleUserHomeDir) {
+        final Set<File> candidates = new LinkedHashSet<>();
+
+        if (installationPaths != null) {
+            for (final String path : installationPaths.split(",")) {
+                if (!path.trim().isEmpty()) candidates.add(GraalVMUtils.getHome(new File(path.trim())));
+            }
+        }
+
+        if (installationsFromEnv != null) {
+            for (final String name : installationsFromEnv.split(",")) {
+                final String path = env.get(name.trim());
+                if (path != null) candidates.add(GraalVMUtils.getHome(new File(path)));
+            }
+        }
+
+        GraalVMUtils.addChildren(candidates, new File(gradleUserHomeDir, "jdks"));
+
+        if (env.containsKey(GraalVMUtils.ENV_GRAALVM_HOME)) candidates.add(new File(env.get(GraalVMUtils.ENV_GRAALVM_HOME)));
+        if (env.containsKey(GraalVMUtils.ENV_JAVA_HOME)) candidates.add(new File(env.get(GraalVMUtils.ENV_JAVA_HOME)));
+
+        final File userHomeDir = new File(System.getProperty("user.home"));
+        GraalVMUtils.addChildren(candidates, new File(new File(new File(userHomeDir, ".sdkman"), "candidates"), "java"));
+        GraalVMUtils.addChildren(candidates, new File(userHomeDir, ".jdks"));
+
+        if (PlatformUtils.isWindows()) {
+            final String programFiles = env.getOrDefault(GraalVMUtils.ENV_PROGRAM_FILES, "C:\\Program Files");
+
+            GraalVMUtils.addChildren(candidates, new File(programFiles, "GraalVM"));
+            GraalVMUtils.addChildren(candidates, new File(programFiles, "Java"));
+        } else if (PlatformUtils.isMacOS()) {
+            GraalVMUtils.addChildren(candidates, new File("/Library/Java/JavaVirtualMachines"));
+            GraalVMUtils.addChildren(candidates, new File(new File(new File(userHomeDir, "Library"), "Java"), "JavaVirtualMachines"));
+        } else {
+            GraalVMUtils.addChildren(candidates, new File("/usr/lib/jvm"));
+            GraalVMUtils.addChildren(candidates, new File("/opt"));
+        }
+
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * Returns the first installation in {@code candidates} that is a GraalVM of {@code toolVersion} for Java {@code javaVersion} with GraalVM Native Image installed.
+     * @param candidates The Java home directories to search.
+     * @param toolVersion The GraalVM version.
+     * @param javaVersion The Java version of GraalVM.
+     * @return The matching installation, or {@code null} if none is found.
+     */
+    @Nullable
+    public static Installation find(@Nonnull final Iterable<File> candidates, @Nonnull final String toolVersion, @Nonnull final String javaVersion) {
+        for (final File candidate : candidates) {
+            final Installation installation = GraalVMUtils.probe(candidate);
+
+            if (installation != null) {
+                if (Version.of(installation.getVersion()).equals(Version.of(toolVersion)) && javaVersion.equals(installation.getJavaVersion()) && installation.getComponents().contains(GraalVMUtils.COMPONENT_NATIVE_IMAGE)) return installation;
+
+                GraalVMUtils.LOGGER.debug("Skip {}", installation);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the GraalVM installation at {@code home}. The result is cached until the {@code release} file of the installation or its {@code native-image} launcher changes.
+     * @param home The Java home directory.
+     * @return The installation, or {@code null} if {@code home} is not a GraalVM installation.
+     */
+    @Nullable
+    public static Installation probe(@Nonnull final File home) {
+        final File release = new File(home, GraalVMUtils.FILE_RELEASE);
+        if (!release.isFile()) return null;
+
+        final String key = home.getAbsolutePath() + ":" + release.lastModified() + ":" + GraalVMUtils.getNativeImage(home).lastModified();
+
+        final Installation cached = GraalVMUtils.INSTALLATIONS.get(key);
+        if (cached != null) return cached == Installation.NONE ? null : cached;
+
+        Installation installation;
+
+        try {
+            installation = GraalVMUtils.read(home, release);
+        } catch (final IOException e) {
+            GraalVMUtils.LOGGER.debug("Failed to probe " + home.getAbsolutePath(), e);
+
+            installation = null;
+        }
+
+        GraalVMUtils.INSTALLATIONS.put(key, installation == null ? Installation.NONE : installation);
+
+        return installation;
+    }
+
+    @Nonnull
+    static String getMajorVersion(@Nonnull final String javaVersion) {
+        final String[] parts = javaVersion.split("[._+-]");
+        return parts.length > 1 && "1".equals(parts[0]) ? parts[1] : parts[0];
+    }
+
+    @Nullable
+    private static Installation read(@Nonnull final File home, @Nonnull final File release) throws IOException {
+        final Properties properties = new Properties();
+
+        try (InputStream inputStream = new FileInputStream(release)) {
+            properties.load(inputStream);
+        }
+
+        final String javaVersion = StringUtils.strip(properties.getProperty("JAVA_VERSION"), "\"");
+        if (javaVersion == null) return null;
+
+        final File nativeImage = GraalVMUtils.getNativeImage(home);
+
+        String version = StringUtils.strip(properties.getProperty("GRAALVM_VERSION"), "\"");
+        if (version == null && nativeImage.isFile()) version = GraalVMUtils.getVersion(nativeImage);
+        if (version == null) return null;
+
+        final Set<String> components = new TreeSet<>();
+
+        final File[] files = new File(home, GraalVMUtils.DIR_COMPONENTS).listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                if (file.getName().startsWith(GraalVMUtils.COMPONENT_GROUP)) components.add(StringUtils.substringBefore(file.getName().substring(GraalVMUtils.COMPONENT_GROUP.length()), "."));
+            }
+        }
+
+        if (nativeImage.isFile()) components.add(GraalVMUtils.COMPONENT_NATIVE_IMAGE);
+
+        return new Installation(home, version, GraalVMUtils.getMajorVersion(javaVersion), components);
+    }
+
+    /**
+     * Returns the GraalVM version printed by {@code native-image --version}, for installations without {@code GRAALVM_VERSION} in their {@code release} file.
+     */
+    @Nullable
+    private static String getVersion(@Nonnull final File nativeImage) throws IOException {
+        final Process process = new ProcessBuilder(nativeImage.getAbsolutePath(), "--version")
+            .redirectErrorStream(true)
+            .start();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final Matcher matcher = GraalVMUtils.VERSION_PATTERN.matcher(line);
+                if (matcher.find()) return matcher.group(1);
+            }
+        } finally {
+            process.destroy();
+        }
+
+        return null;
+    }
+
+    @Nonnull
+    private static File getNativeImage(@Nonnull final File home) {
+        return new File(new File(home, "bin"), PlatformUtils.isWindows() ? "native-image.cmd" : "native-image");
+    }
+
+    @Nonnull
+    private static File getHome(@Nonnull final File dir) {
+        // Java installations on macOS are bundles with the Java home inside
+        final File home = new File(new File(dir, "Contents"), "Home");
+        return home.isDirectory() ? home : dir;
+    }
+
+    private static void addChildren(@Nonnull final Set<File> candidates, @Nonnull final File dir) {
+        final File[] children = dir.listFiles(File::isDirectory);
+        if (children == null) return;
+
+        for (final File child : children) candidates.add(GraalVMUtils.getHome(child));
+    }
+
+    /**
+     * A GraalVM installation found on this machine.
+     */
+    public static final class Installation {
+        static final Installation NONE = new Installation(new File(""), "", "", Collections.emptySet());
+
+        private final File        home;
+        private final String      version;
+        private final String      javaVersion;
+        private final Set<String> components;
+
+        Installation(@Nonnull final File home, @Nonnull final String version, @Nonnull final String javaVersion, @Nonnull final Set<String> components) {
+            this.home        = home;
+            this.version     = version;
+            this.javaVersion = javaVersion;
+            this.components  = Collections.unmodifiableSet(components);
+        }
+
+        @Nonnull
+        public File getHome() {
+            return this.home;
+        }
+
+        @Nonnull
+        public String getVersion() {
+            return this.version;
+        }
+
+        /**
+         * Returns the major version of Java, such as {@code 8} or {@code 11}.
+         */
+        @Nonnull
+        public String getJavaVersion() {
+            return this.javaVersion;
+        }
+
+        @Nonnull
+        public Set<String> getComponents() {
+            return this.components;
+        }
+
+        @Nonnull
+        @Override
+        public String toString() {
+            return String.format("GraalVM %s Java %s %s at %s", this.version, this.javaVersion, this.components, this.home.getAbsolutePath());
+        }
+    }
+}
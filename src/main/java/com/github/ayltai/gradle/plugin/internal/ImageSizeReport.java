@@ -0,0 +1,247 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.Nonnull;
+
+/**
+ * The code size, the image heap size and the number of reachable methods of a native image, broken down by Java package and by the jar that each package comes from.
+ */
+public final class ImageSizeReport {
+    //region Constants
+
+    public static final String KIND_PACKAGE = "package";
+    public static final String KIND_JAR     = "jar";
+
+    static final String OWNER_CLASSES = "(classes)";
+    static final String OWNER_JDK     = "(jdk)";
+    static final String OWNER_GRAALVM = "(graalvm)";
+    static final String OWNER_OTHER   = "(other)";
+
+    private static final String DEFAULT_PACKAGE = "(default)";
+    private static final String CSV_HEADER      = "kind,name,codeBytes,heapBytes,methods";
+    private static final String DIFF_HEADER     = "kind,name,codeBytes,heapBytes,totalBytes";
+    private static final String CLASS_EXTENSION = ".class";
+
+    private static final String[] JDK_PACKAGES     = { "java.", "javax.", "jdk.", "sun.", "com.sun." };
+    private static final String[] GRAALVM_PACKAGES = { "com.oracle.svm.", "com.oracle.truffle.", "org.graalvm." };
+
+    //endregion
+
+    private final Map<String, String> owners;
+    private final Map<String, long[]> entries = new HashMap<>();
+
+    /**
+     * @param owners The name of the jar, or {@link #OWNER_CLASSES}, that each package comes from, as returned by {@link #getOwners(Iterable)}.
+     */
+    public ImageSizeReport(@Nonnull final Map<String, String> owners) {
+        this.owners = owners;
+    }
+
+    /**
+     * Adds an entry of the code or image heap breakdown of {@link DashboardDump}.
+     */
+    public void add(@Nonnull final String section, @Nonnull final String name, final long size) {
+        if (DashboardDump.SECTION_CODE.equals(section)) {
+            this.add(ImageSizeReport.getClassName(name), 0, size);
+        } else if (DashboardDump.SECTION_HEAP.equals(section)) {
+            this.add(name, 1, size);
+        }
+    }
+
+    /**
+     * Reads the reachable methods listed in {@code report}, as written by {@code -H:+PrintAnalysisCallTree} to {@code used_methods_<imageName>_<timestamp>.txt}, one line at a time.
+     */
+    public void addMethods(@Nonnull final File report) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(report.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) this.add(ImageSizeReport.getClassName(line.trim()), 2, 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the breakdown, keyed by {@code <kind>,<name>}, with the code size, the image heap size and the number of reachable methods of each package and jar.
+     */
+    @Nonnull
+    public Map<String, long[]> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Writes the breakdown as CSV, packages and jars each sorted by their total size, largest first.
+     */
+    public void write(@Nonnull final File file) throws IOException {
+        final List<Map.Entry<String, long[]>> entries = new ArrayList<>(this.entries.entrySet());
+        entries.sort(Comparator.<Map.Entry<String, long[]>, Boolean>comparing(entry -> !entry.getKey().startsWith(ImageSizeReport.KIND_PACKAGE + ","))
+            .thenComparing(entry -> -(entry.getValue()[0] + entry.getValue()[1])));
+
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(ImageSizeReport.CSV_HEADER + "\n");
+
+            for (final Map.Entry<String, long[]> entry : entries) writer.write(entry.getKey() + "," + entry.getValue()[0] + "," + entry.getValue()[1] + "," + entry.getValue()[2] + "\n");
+        }
+    }
+
+    /**
+     * Reads a breakdown written by {@link #write(File)}, one line at a time.
+     * @return The breakdown keyed as by {@link #getEntries()}.
+     */
+    @Nonnull
+    public static Map<String, long[]> read(@Nonnull final File file) throws IOException {
+        final Map<String, long[]> entries = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (!ImageSizeReport.CSV_HEADER.equals(line)) throw new IOException("Not a native image size report: " + file.getAbsolutePath());
+
+            while ((line = reader.readLine()) != null) {
+                final String[] values = line.split(",");
+                if (values.length == 5) entries.put(values[0] + "," + values[1], new long[] { Long.parseLong(values[2]), Long.parseLong(values[3]), Long.parseLong(values[4]) });
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Returns the changes from {@code previous} to {@code current}, largest first by the absolute change of their total size.
+     * @return The changes keyed as by {@link #getEntries()}, each with the change of the code size, the image heap size and the total size.
+     */
+    @Nonnull
+    public static Map<String, long[]> diff(@Nonnull final Map<String, long[]> previous, @Nonnull final Map<String, long[]> current) {
+        final Set<String> keys = new HashSet<>(previous.keySet());
+        keys.addAll(current.keySet());
+
+        final List<Map.Entry<String, long[]>> changes = new ArrayList<>();
+
+        for (final String key : keys) {
+            final long[] before = previous.getOrDefault(key, new long[3]);
+            final long[] after  = current.getOrDefault(key, new long[3]);
+            final long   code   = after[0] - before[0];
+            final long   heap   = after[1] - before[1];
+
+            if (code != 0 || heap != 0) changes.add(new AbstractMap.SimpleImmutableEntry<>(key, new long[] { code, heap, code + heap }));
+        }
+
+        changes.sort(Comparator.comparing(entry -> -Math.abs(entry.getValue()[2])));
+
+        final Map<String, long[]> diff = new LinkedHashMap<>();
+        for (final Map.Entry<String, long[]> change : changes) diff.put(change.getKey(), change.getValue());
+
+        return diff;
+    }
+
+    /**
+     * Writes the changes returned by {@link #diff(Map, Map)} as CSV.
+     */
+    public static void writeDiff(@Nonnull final File file, @Nonnull final Map<String, long[]> diff) throws IOException {
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(ImageSizeReport.DIFF_HEADER + "\n");
+
+            for (final Map.Entry<String, long[]> entry : diff.entrySet()) writer.write(entry.getKey() + "," + entry.getValue()[0] + "," + entry.getValue()[1] + "," + entry.getValue()[2] + "\n");
+        }
+    }
+
+    /**
+     * Returns the name of the jar, or {@link #OWNER_CLASSES} for a directory, that each package in {@code classPath} comes from. Only the names of the entries of each jar are read.
+     */
+    @Nonnull
+    public static Map<String, String> getOwners(@Nonnull final Iterable<File> classPath) throws IOException {
+        final Map<String, String> owners = new HashMap<>();
+
+        for (final File file : classPath) {
+            if (file.isDirectory()) {
+                try (Stream<Path> paths = Files.walk(file.toPath())) {
+                    paths.map(path -> file.toPath().relativize(path).toString().replace(File.separatorChar, '/'))
+                        .filter(path -> path.endsWith(ImageSizeReport.CLASS_EXTENSION))
+                        .forEach(path -> owners.putIfAbsent(ImageSizeReport.getPackageName(path), ImageSizeReport.OWNER_CLASSES));
+                }
+            } else if (file.isFile() && file.getName().endsWith(".jar")) {
+                try (ZipFile zipFile = new ZipFile(file)) {
+                    final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+
+                    while (entries.hasMoreElements()) {
+                        final String name = entries.nextElement().getName();
+                        if (name.endsWith(ImageSizeReport.CLASS_EXTENSION) && !name.startsWith("META-INF/")) owners.putIfAbsent(ImageSizeReport.getPackageName(name), file.getName());
+                    }
+                }
+            }
+        }
+
+        return owners;
+    }
+
+    /**
+     * Returns the class of a method formatted as {@code java.lang.String.hashCode():int}, or the class itself if {@code name} is not a method.
+     */
+    @Nonnull
+    static String getClassName(@Nonnull final String name) {
+        final int parenthesis = name.indexOf('(');
+        if (parenthesis < 0) return name;
+
+        final int dot = name.lastIndexOf('.', parenthesis);
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    /**
+     * Returns the package of a class, such as {@code java.lang} for {@code java.lang.String[]}, or of a class file, such as {@code java.lang} for {@code java/lang/String.class}.
+     */
+    @Nonnull
+    static String getPackageName(@Nonnull final String className) {
+        String name = className.endsWith(ImageSizeReport.CLASS_EXTENSION) ? className.substring(0, className.length() - ImageSizeReport.CLASS_EXTENSION.length()).replace('/', '.') : className;
+        while (name.endsWith("[]")) name = name.substring(0, name.length() - 2);
+
+        final int dot = name.lastIndexOf('.');
+        return dot < 0 ? ImageSizeReport.DEFAULT_PACKAGE : name.substring(0, dot);
+    }
+
+    @Nonnull
+    String getOwner(@Nonnull final String packageName) {
+        final String owner = this.owners.get(packageName);
+        if (owner != null) return owner;
+
+        for (final String prefix : ImageSizeReport.JDK_PACKAGES) {
+            if ((packageName + ".").startsWith(prefix)) return ImageSizeReport.OWNER_JDK;
+        }
+
+        for (final String prefix : ImageSizeReport.GRAALVM_PACKAGES) {
+            if ((packageName + ".").startsWith(prefix)) return ImageSizeReport.OWNER_GRAALVM;
+        }
+
+        return ImageSizeReport.OWNER_OTHER;
+    }
+
+    /**
+     * Adds {@code value} to the column {@code index} of the package of {@code className} and of its jar.
+     */
+    private void add(@Nonnull final String className, final int index, final long value) {
+        final String packageName = ImageSizeReport.getPackageName(className);
+
+        this.entries.computeIfAbsent(ImageSizeReport.KIND_PACKAGE + "," + packageName, key -> new long[3])[index] += value;
+        this.entries.computeIfAbsent(ImageSizeReport.KIND_JAR + "," + this.getOwner(packageName), key -> new long[3])[index] += value;
+    }
+}
@@ -0,0 +1,385 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Tells which of the classes initialized at run time by a native image can be initialized at build time instead, from the class initialization report written with {@code -H:+PrintClassInitialization}.
+ * <p>A class is safe if neither its static initializer, nor that of any class it depends on, reads the time, the environment, system properties, files or the network, generates random numbers, starts threads, or sets up logging, whose results would otherwise be frozen into the image heap. Classes that {@code native-image} reports as initialized at build time by mistake, or that are configured to be initialized at run time, are unsafe.</p>
+ */
+public final class InitializationAdvisor {
+    //region Constants
+
+    public static final String KIND_BUILD_TIME = "BUILD_TIME";
+    public static final String KIND_RUN_TIME   = "RUN_TIME";
+    public static final String KIND_RERUN      = "RERUN";
+
+    private static final String CSV_HEADER      = "class,kind,safe,initializerBytes,reason";
+    private static final String CLASS_EXTENSION = ".class";
+
+    private static final Pattern TRACE_PATTERN = Pattern.compile("^\\s*([\\w$]+(?:\\.[\\w$]+)+) (?:the class was requested to be initialized at run time|was unintentionally initialized at build time)");
+
+    private static final String[] PLATFORM_PACKAGES   = { "java.", "javax.", "jdk.", "sun.", "com.sun.", "com.oracle.svm.", "org.graalvm." };
+    private static final String[] CONFIGURED_REASONS = { "command line", "feature", "substitution" };
+
+    // The classes whose use in a static initializer freezes state of the build machine into the image heap
+    private static final Set<String> UNSAFE_CLASSES = new HashSet<>(Arrays.asList(
+        "java/lang/Thread", "java/lang/Runtime", "java/lang/ProcessBuilder", "java/lang/ClassLoader",
+        "java/util/Random", "java/util/UUID", "java/util/Timer", "java/security/SecureRandom", "java/util/concurrent/ThreadLocalRandom", "java/util/concurrent/Executors", "java/util/concurrent/ThreadPoolExecutor", "java/util/concurrent/ScheduledThreadPoolExecutor",
+        "java/io/File", "java/io/FileInputStream", "java/io/FileOutputStream", "java/io/FileReader", "java/io/FileWriter", "java/io/RandomAccessFile", "java/nio/file/Files", "java/nio/file/Paths", "java/nio/file/FileSystems",
+        "java/net/Socket", "java/net/ServerSocket", "java/net/InetAddress", "java/net/URLConnection", "java/net/NetworkInterface",
+        "java/time/Clock", "java/util/logging/Logger", "java/util/logging/LogManager",
+        "org/slf4j/LoggerFactory", "org/apache/commons/logging/LogFactory", "org/apache/logging/log4j/LogManager", "ch/qos/logback/classic/LoggerContext"));
+
+    private static final Set<String> UNSAFE_MEMBERS = new HashSet<>(Arrays.asList(
+        "java/lang/System.getenv", "java/lang/System.getProperty", "java/lang/System.getProperties", "java/lang/System.currentTimeMillis", "java/lang/System.nanoTime", "java/lang/System.load", "java/lang/System.loadLibrary", "java/lang/System.lineSeparator",
+        "java/lang/Integer.getInteger", "java/lang/Long.getLong", "java/lang/Boolean.getBoolean", "java/lang/Math.random", "java/lang/Class.getResource", "java/lang/Class.getResourceAsStream",
+        "java/time/Instant.now", "java/time/LocalDate.now", "java/time/LocalDateTime.now", "java/time/LocalTime.now", "java/time/OffsetDateTime.now", "java/time/ZonedDateTime.now", "java/time/ZoneId.systemDefault",
+        "java/util/Date.<init>", "java/util/Calendar.getInstance", "java/util/Locale.getDefault", "java/util/TimeZone.getDefault", "java/nio/charset/Charset.defaultCharset"));
+
+    //endregion
+
+    /**
+     * The advice for a class that {@code native-image} initializes at run time.
+     */
+    public static final class Advice {
+        private final String  className;
+        private final String  kind;
+        private final boolean isSafe;
+        private final int     initializerSize;
+        private final String  reason;
+
+        Advice(@Nonnull final String className, @Nonnull final String kind, final boolean isSafe, final int initializerSize, @Nonnull final String reason) {
+            this.className       = className;
+            this.kind            = kind;
+            this.isSafe          = isSafe;
+            this.initializerSize = initializerSize;
+            this.reason          = reason;
+        }
+
+        @Nonnull
+        public String getClassName() {
+            return this.className;
+        }
+
+        @Nonnull
+        public String getKind() {
+            return this.kind;
+        }
+
+        public boolean isSafe() {
+            return this.isSafe;
+        }
+
+        /**
+         * Returns the size in bytes of the bytecode of the static initializer, which is run at startup unless the class is initialized at build time.
+         */
+        public int getInitializerSize() {
+            return this.initializerSize;
+        }
+
+        @Nonnull
+        public String getReason() {
+            return this.reason;
+        }
+    }
+
+    private final Set<String> traced = new HashSet<>();
+
+    /**
+     * Reads a line printed by {@code native-image}, which may name a class that should not have been initialized at build time.
+     */
+    public void accept(@Nonnull final String line) {
+        final Matcher matcher = InitializationAdvisor.TRACE_PATTERN.matcher(line);
+        if (matcher.find()) this.traced.add(matcher.group(1));
+    }
+
+    /**
+     * Returns the advice for each application class that {@code report} says is initialized at run time.
+     * @param report The class initialization report written by {@code native-image}.
+     * @param classPath The jars and directories of classes the native image is built from, which are read in parallel.
+     * @return The advice, sorted by class name.
+     */
+    @Nonnull
+    public List<Advice> advise(@Nonnull final File report, @Nonnull final List<File> classPath) throws IOException {
+        final Map<String, String[]> kinds = InitializationAdvisor.readReport(report);
+
+        // Classes that are initialized at run time as configured are not candidates, and neither are those that depend on them
+        final Map<String, String> unsafe     = new HashMap<>();
+        final Set<String>         candidates = new TreeSet<>();
+
+        for (final Map.Entry<String, String[]> entry : kinds.entrySet()) {
+            final String className = entry.getKey();
+            final String kind      = entry.getValue()[0];
+
+            if (InitializationAdvisor.KIND_BUILD_TIME.equals(kind) || InitializationAdvisor.isPlatformClass(className)) continue;
+
+            if (this.traced.contains(className)) {
+                unsafe.put(className, "initialized at build time by mistake");
+            } else if (InitializationAdvisor.isConfigured(entry.getValue()[1])) {
+                unsafe.put(className, "configured to be initialized at run time (" + entry.getValue()[1] + ")");
+            } else {
+                candidates.add(className);
+            }
+        }
+
+        final Map<String, ClassFile> classFiles = InitializationAdvisor.readClassFiles(classPath, candidates);
+        final Map<String, Set<String>> dependencies = new HashMap<>();
+
+        for (final String className : candidates) {
+            final ClassFile classFile = classFiles.get(className);
+
+            if (classFile == null) {
+                unsafe.put(className, "class file not found");
+            } else {
+                final Set<String> references = classFile.getStaticInitializerReferences();
+                final String      unsafeUse  = references.stream().filter(reference -> InitializationAdvisor.UNSAFE_CLASSES.contains(reference) || InitializationAdvisor.UNSAFE_MEMBERS.contains(reference)).findFirst().orElse(null);
+
+                if (unsafeUse == null) {
+                    final Set<String> classNames = new HashSet<>();
+                    if (classFile.getSuperName() != null) classNames.add(classFile.getSuperName().replace('/', '.'));
+
+                    for (final String reference : references) {
+                        if (reference.indexOf('.') < 0) classNames.add(reference.replace('/', '.'));
+                    }
+
+                    classNames.remove(className);
+                    dependencies.put(className, classNames);
+                } else {
+                    unsafe.put(className, "uses " + unsafeUse.replace('/', '.'));
+                }
+            }
+        }
+
+        // A class whose static initializer depends on an unsafe class is unsafe too, as initializing it would initialize the other
+        boolean isChanged = true;
+        while (isChanged) {
+            isChanged = false;
+
+            for (final Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+                if (unsafe.containsKey(entry.getKey())) continue;
+
+                for (final String dependency : entry.getValue()) {
+                    if (unsafe.containsKey(dependency)) {
+                        unsafe.put(entry.getKey(), "depends on " + dependency);
+                        isChanged = true;
+
+                        break;
+                    }
+                }
+            }
+        }
+
+        final List<Advice> advices = new ArrayList<>();
+
+        for (final String className : new TreeSet<>(unsafe.keySet())) advices.add(new Advice(className, kinds.get(className)[0], false, InitializationAdvisor.getInitializerSize(classFiles.get(className)), unsafe.get(className)));
+
+        for (final String className : candidates) {
+            if (!unsafe.containsKey(className)) advices.add(new Advice(className, kinds.get(className)[0], true, InitializationAdvisor.getInitializerSize(classFiles.get(className)), ""));
+        }
+
+        advices.sort((left, right) -> left.getClassName().compareTo(right.getClassName()));
+
+        return advices;
+    }
+
+    /**
+     * Returns the packages, and the classes in other packages, to initialize at build time. A package is suggested only if no class in it, or in its sub-packages, is unsafe.
+     */
+    @Nonnull
+    public static List<String> suggest(@Nonnull final List<Advice> advices) {
+        final Set<String> unsafePackages = new HashSet<>();
+
+        for (final Advice advice : advices) {
+            if (advice.isSafe()) continue;
+
+            String packageName = InitializationAdvisor.getPackageName(advice.getClassName());
+            while (!packageName.isEmpty() && unsafePackages.add(packageName)) packageName = InitializationAdvisor.getPackageName(packageName);
+        }
+
+        final Set<String> packages = new TreeSet<>();
+        final Set<String> classes  = new TreeSet<>();
+
+        for (final Advice advice : advices) {
+            if (!advice.isSafe()) continue;
+
+            final String packageName = InitializationAdvisor.getPackageName(advice.getClassName());
+
+            if (packageName.isEmpty() || unsafePackages.contains(packageName)) {
+                classes.add(advice.getClassName());
+            } else {
+                packages.add(packageName);
+            }
+        }
+
+        // A package covers its sub-packages
+        final List<String> suggestions = packages.stream()
+            .filter(packageName -> packages.stream().noneMatch(other -> packageName.startsWith(other + ".")))
+            .collect(Collectors.toList());
+
+        suggestions.addAll(classes);
+
+        return suggestions;
+    }
+
+    /**
+     * Writes the advice as CSV.
+     */
+    public static void write(@Nonnull final File file, @Nonnull final List<Advice> advices) throws IOException {
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(InitializationAdvisor.CSV_HEADER + "\n");
+
+            for (final Advice advice : advices) writer.write(String.format(Locale.ROOT, "%s,%s,%s,%d,\"%s\"%n", advice.getClassName(), advice.getKind(), advice.isSafe(), advice.getInitializerSize(), advice.getReason().replace("\"", "\"\"")));
+        }
+    }
+
+    /**
+     * Reads a class initialization report, whose lines are formatted as {@code com.example.Application, RUN_TIME, <reason>}.
+     * @return The kind of initialization and its reason, keyed by class name.
+     */
+    @Nonnull
+    static Map<String, String[]> readReport(@Nonnull final File report) throws IOException {
+        final Map<String, String[]> kinds = new LinkedHashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(report.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] values = line.split(",", 3);
+
+                if (values.length >= 2) {
+                    final String kind = values[1].trim();
+
+                    if (InitializationAdvisor.KIND_BUILD_TIME.equals(kind) || InitializationAdvisor.KIND_RUN_TIME.equals(kind) || InitializationAdvisor.KIND_RERUN.equals(kind)) kinds.put(values[0].trim(), new String[] { kind, values.length > 2 ? values[2].trim() : "" });
+                }
+            }
+        }
+
+        return kinds;
+    }
+
+    @Nonnull
+    private static Map<String, ClassFile> readClassFiles(@Nonnull final List<File> classPath, @Nonnull final Set<String> classNames) throws IOException {
+        final Map<String, ClassFile> classFiles = Collections.synchronizedMap(new HashMap<>());
+
+        try {
+            // A class found in more than one jar is read from the first one, as a class loader would
+            classPath.parallelStream()
+                .filter(File::exists)
+                .map(file -> {
+                    try {
+                        return InitializationAdvisor.readClassFiles(file, classNames);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .collect(Collectors.toList())
+                .forEach(map -> map.forEach(classFiles::putIfAbsent));
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return classFiles;
+    }
+
+    @Nonnull
+    private static Map<String, ClassFile> readClassFiles(@Nonnull final File file, @Nonnull final Set<String> classNames) throws IOException {
+        final Map<String, ClassFile> classFiles = new HashMap<>();
+
+        if (file.isDirectory()) {
+            final List<Path> paths;
+            try (Stream<Path> stream = Files.walk(file.toPath())) {
+                paths = stream.filter(path -> path.toString().endsWith(InitializationAdvisor.CLASS_EXTENSION))
+                    .collect(Collectors.toList());
+            }
+
+            for (final Path path : paths) {
+                final String className = InitializationAdvisor.getClassName(file.toPath().relativize(path).toString().replace(File.separatorChar, '/'));
+
+                if (classNames.contains(className)) {
+                    try (InputStream inputStream = Files.newInputStream(path)) {
+                        classFiles.put(className, ClassFile.read(inputStream, true));
+                    }
+                }
+            }
+        } else {
+            try (ZipFile zipFile = new ZipFile(file)) {
+                final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+
+                while (entries.hasMoreElements()) {
+                    final ZipEntry entry     = entries.nextElement();
+                    final String   className = InitializationAdvisor.getClassName(entry.getName());
+
+                    if (classNames.contains(className)) {
+                        try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                            classFiles.put(className, ClassFile.read(inputStream, true));
+                        }
+                    }
+                }
+            }
+        }
+
+        return classFiles;
+    }
+
+    @Nonnull
+    private static String getClassName(@Nonnull final String path) {
+        return path.endsWith(InitializationAdvisor.CLASS_EXTENSION) ? path.substring(0, path.length() - InitializationAdvisor.CLASS_EXTENSION.length()).replace('/', '.') : path;
+    }
+
+    @Nonnull
+    static String getPackageName(@Nonnull final String className) {
+        final int dot = className.lastIndexOf('.');
+        return dot < 0 ? "" : className.substring(0, dot);
+    }
+
+    private static int getInitializerSize(@Nullable final ClassFile classFile) {
+        return classFile == null || classFile.getStaticInitializer() == null ? 0 : classFile.getStaticInitializer().length;
+    }
+
+    private static boolean isPlatformClass(@Nonnull final String className) {
+        for (final String prefix : InitializationAdvisor.PLATFORM_PACKAGES) {
+            if (className.startsWith(prefix)) return true;
+        }
+
+        return false;
+    }
+
+    private static boolean isConfigured(@Nonnull final String reason) {
+        final String text = reason.toLowerCase(Locale.ROOT);
+
+        for (final String configured : InitializationAdvisor.CONFIGURED_REASONS) {
+            if (text.contains(configured)) return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,245 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Finds the jars of a classpath that cannot be reached from the main class, by following the classes named in the constant pools of the class files of each jar reached.
+ * <p>The analysis is conservative, and works at the level of jars rather than classes: once a jar is reached, every class in it is taken as reachable. Every string constant that names a class or a package of a jar is taken as a reference to that jar, as it may be loaded reflectively. Directories, jars without classes, and jars that provide Spring factories, services or native image configuration, which are loaded without being referenced, are always reachable.</p>
+ */
+public final class JarReachability {
+    //region Constants
+
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String DIR_VERSIONS    = "META-INF/versions/";
+
+    // Resources that are looked up on the whole classpath, and make the jars that provide them reachable
+    private static final String[] ROOT_RESOURCES = { "META-INF/spring.factories", "META-INF/spring/", "META-INF/services/", "META-INF/native-image/", "META-INF/spring.components" };
+
+    //endregion
+
+    /**
+     * The classes that a jar or a directory of classes holds, and the names found in their constant pools.
+     */
+    static final class Entry {
+        final File        file;
+        final Set<String> classes    = new HashSet<>();
+        final Set<String> references = new HashSet<>();
+
+        boolean isRoot;
+
+        Entry(@Nonnull final File file) {
+            this.file = file;
+        }
+    }
+
+    private JarReachability() {
+    }
+
+    /**
+     * Returns the jars of {@code classPath} that cannot be reached from {@code mainClassName}. The jars are read in parallel.
+     * @param classPath The jars and directories of classes, in the order they are given to {@code native-image}.
+     * @param mainClassName The fully qualified name of the main class.
+     * @param keep The glob patterns of the names of the jars that are loaded reflectively, such as {@code h2-*.jar}, which are kept as if they were reachable.
+     * @return The jars that cannot be reached, in the order of {@code classPath}.
+     */
+    @Nonnull
+    public static List<File> getUnreachable(@Nonnull final List<File> classPath, @Nonnull final String mainClassName, @Nonnull final Collection<String> keep) throws IOException {
+        final List<PathMatcher> matchers = keep.stream()
+            .map(pattern -> FileSystems.getDefault().getPathMatcher("glob:" + pattern))
+            .collect(Collectors.toList());
+
+        final List<Entry> entries;
+        try {
+            entries = classPath.parallelStream()
+                .filter(File::exists)
+                .map(file -> {
+                    try {
+                        return JarReachability.read(file);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // A class found in more than one jar is owned by the first one, as a class loader would find it there first, while a package may be split across jars
+        final Map<String, Entry>      classOwners   = new HashMap<>();
+        final Map<String, Set<Entry>> packageOwners = new HashMap<>();
+
+        for (final Entry entry : entries) {
+            for (final String className : entry.classes) {
+                classOwners.putIfAbsent(className, entry);
+                packageOwners.computeIfAbsent(JarReachability.getPackageName(className), key -> new HashSet<>()).add(entry);
+            }
+        }
+
+        final Set<Entry>   reached = new HashSet<>();
+        final Deque<Entry> queue   = new ArrayDeque<>();
+
+        for (final Entry entry : entries) {
+            final Path name = Paths.get(entry.file.getName());
+
+            if (entry.isRoot || matchers.stream().anyMatch(matcher -> matcher.matches(name))) JarReachability.reach(entry, reached, queue);
+        }
+
+        final Entry main = classOwners.get(mainClassName.replace('.', '/'));
+        if (main != null) JarReachability.reach(main, reached, queue);
+
+        while (!queue.isEmpty()) {
+            for (final String reference : queue.poll().references) {
+                final Entry owner = classOwners.get(reference);
+                if (owner != null) JarReachability.reach(owner, reached, queue);
+
+                final Set<Entry> owners = packageOwners.get(reference);
+                if (owners != null) owners.forEach(entry -> JarReachability.reach(entry, reached, queue));
+            }
+        }
+
+        return entries.stream()
+            .filter(entry -> !reached.contains(entry))
+            .map(entry -> entry.file)
+            .collect(Collectors.toList());
+    }
+
+    private static void reach(@Nonnull final Entry entry, @Nonnull final Set<Entry> reached, @Nonnull final Deque<Entry> queue) {
+        if (reached.add(entry)) queue.add(entry);
+    }
+
+    @Nonnull
+    static Entry read(@Nonnull final File file) throws IOException {
+        final Entry entry = new Entry(file);
+
+        if (file.isDirectory()) {
+            entry.isRoot = true;
+
+            final List<Path> paths;
+            try (Stream<Path> stream = Files.walk(file.toPath())) {
+                paths = stream.filter(path -> path.toString().endsWith(JarReachability.CLASS_EXTENSION))
+                    .collect(Collectors.toList());
+            }
+
+            for (final Path path : paths) {
+                final String className = JarReachability.getClassName(file.toPath().relativize(path).toString().replace(File.separatorChar, '/'));
+
+                if (className != null) {
+                    entry.classes.add(className);
+
+                    try (InputStream inputStream = Files.newInputStream(path)) {
+                        JarReachability.readReferences(inputStream, entry.references);
+                    }
+                }
+            }
+        } else {
+            try (ZipFile zipFile = new ZipFile(file)) {
+                final Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+
+                while (zipEntries.hasMoreElements()) {
+                    final ZipEntry zipEntry = zipEntries.nextElement();
+                    final String   name     = zipEntry.getName();
+
+                    for (final String resource : JarReachability.ROOT_RESOURCES) {
+                        if (name.startsWith(resource) && !zipEntry.isDirectory()) entry.isRoot = true;
+                    }
+
+                    final String className = zipEntry.isDirectory() ? null : JarReachability.getClassName(name);
+
+                    if (className != null) {
+                        entry.classes.add(className);
+
+                        try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+                            JarReachability.readReferences(inputStream, entry.references);
+                        } catch (final IOException e) {
+                            // What a class that cannot be read refers to is unknown, so the jar is kept
+                            entry.isRoot = true;
+                        }
+                    }
+                }
+            }
+
+            // What a jar without classes provides is looked up by the names of its resources, which cannot be told from the bytecode
+            if (entry.classes.isEmpty()) entry.isRoot = true;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Adds the names in the constant pool of a class file to {@code references}, in internal form, such as {@code java/lang/String}. Besides the classes it refers to, these are the classes in its descriptors and signatures, and every string constant in internal form, as it may name a class or a package loaded reflectively.
+     */
+    static void readReferences(@Nonnull final InputStream inputStream, @Nonnull final Set<String> references) throws IOException {
+        for (final String value : ClassFile.read(inputStream, false).getStrings()) JarReachability.addReferences(value, references);
+    }
+
+    /**
+     * Adds {@code value}, and the classes in it if it is a descriptor or a signature, such as {@code (Ljava/lang/String;)V}, to {@code references}.
+     */
+    static void addReferences(@Nonnull final String value, @Nonnull final Set<String> references) {
+        if (value.isEmpty()) return;
+
+        // A class named by a string constant, such as com.example.Application, or a package to scan, such as com.example
+        references.add(value.replace('.', '/'));
+
+        int start = value.indexOf('L');
+
+        while (start >= 0) {
+            int end = start + 1;
+            while (end < value.length() && value.charAt(end) != ';' && value.charAt(end) != '<') end++;
+
+            if (end < value.length() && end > start + 1) references.add(value.substring(start + 1, end));
+
+            start = value.indexOf('L', end);
+        }
+    }
+
+    /**
+     * Returns the internal name of the class of {@code path}, such as {@code java/lang/String} for {@code java/lang/String.class}, or {@code null} if it is not a class.
+     */
+    @Nullable
+    static String getClassName(@Nonnull final String path) {
+        if (!path.endsWith(JarReachability.CLASS_EXTENSION)) return null;
+
+        String name = path.substring(0, path.length() - JarReachability.CLASS_EXTENSION.length());
+
+        if (name.startsWith(JarReachability.DIR_VERSIONS)) {
+            final int slash = name.indexOf('/', JarReachability.DIR_VERSIONS.length());
+            if (slash < 0) return null;
+
+            name = name.substring(slash + 1);
+        }
+
+        if (name.startsWith("META-INF/") || name.endsWith("module-info") || name.endsWith("package-info")) return null;
+
+        return name;
+    }
+
+    @Nonnull
+    static String getPackageName(@Nonnull final String className) {
+        final int slash = className.lastIndexOf('/');
+        return slash < 0 ? "" : className.substring(0, slash);
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Writes and reads the flat JSON reports of this plugin, which hold numbers, strings and lists of numbers only.
+ */
+public final class JsonUtils {
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\"([^\"]+)\"\\s*:\\s*(-?[\\d.]+(?:[eE][-+]?\\d+)?)\\s*[,}\\n]");
+
+    private JsonUtils() {
+    }
+
+    /**
+     * Returns {@code map} as a JSON object with one field per line, in the order of its entries.
+     */
+    @Nonnull
+    public static String toJson(@Nonnull final Map<String, ?> map) {
+        final List<String> fields = new ArrayList<>();
+        for (final Map.Entry<String, ?> entry : map.entrySet()) fields.add("  " + JsonUtils.toJsonValue(entry.getKey()) + ": " + JsonUtils.toJsonValue(entry.getValue()));
+
+        return "{\n" + String.join(",\n", fields) + "\n}\n";
+    }
+
+    /**
+     * Returns the fields of a JSON object, as written by {@link #toJson(Map)}, whose values are numbers.
+     */
+    @Nonnull
+    public static Map<String, Double> parseNumbers(@Nonnull final String json) {
+        final Map<String, Double> numbers = new LinkedHashMap<>();
+        final Matcher             matcher = JsonUtils.NUMBER_PATTERN.matcher(json);
+
+        while (matcher.find()) numbers.put(matcher.group(1), Double.parseDouble(matcher.group(2)));
+
+        return numbers;
+    }
+
+    @Nonnull
+    static String toJsonValue(@Nullable final Object value) {
+        if (value == null) return "null";
+        if (value instanceof Double) return String.format(Locale.ROOT, "%.2f", (Double)value);
+        if (value instanceof Number) return value.toString();
+
+        if (value instanceof Iterable) {
+            final List<String> values = new ArrayList<>();
+            for (final Object item : (Iterable<?>)value) values.add(JsonUtils.toJsonValue(item));
+
+            return "[" + String.join(", ", values) + "]";
+        }
+
+        return "\"" + value.toString().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+
+/**
+ * Forwards all bytes written to another output stream, and passes each complete line written to a list of consumers.
+ * <p>Closing this stream passes any incomplete last line to the consumers and flushes, but does not close, the other output stream.</p>
+ */
+public final class LineOutputStream extends OutputStream {
+    private final ByteArrayOutputStream  buffer = new ByteArrayOutputStream();
+    private final OutputStream           outputStream;
+    private final Charset                charset;
+    private final List<Consumer<String>> consumers;
+
+    @SafeVarargs
+    public LineOutputStream(@Nonnull final OutputStream outputStream, @Nonnull final Charset charset, @Nonnull final Consumer<String>... consumers) {
+        this.outputStream = outputStream;
+        this.charset      = charset;
+        this.consumers    = Arrays.asList(consumers);
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        this.outputStream.write(value);
+
+        if (value == '\n') {
+            this.emit();
+        } else {
+            this.buffer.write(value);
+        }
+    }
+
+    @Override
+    public void write(@Nonnull final byte[] bytes, final int offset, final int length) throws IOException {
+        this.outputStream.write(bytes, offset, length);
+
+        int start = offset;
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] == '\n') {
+                this.buffer.write(bytes, start, i - start);
+                this.emit();
+
+                start = i + 1;
+            }
+        }
+
+        this.buffer.write(bytes, start, offset + length - start);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.buffer.size() > 0) this.emit();
+
+        this.flush();
+    }
+
+    private void emit() {
+        String line = new String(this.buffer.toByteArray(), this.charset);
+        if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+
+        this.buffer.reset();
+
+        for (final Consumer<String> consumer : this.consumers) consumer.accept(line);
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+
+import org.gradle.api.logging.Logger;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the resident set size of the processes that {@code native-image} runs in a working directory, and kills them once they use more memory than allowed, before the kernel kills them for running out of memory.
+ * <p>Where the processes cannot be found, as there is no {@code /proc}, nothing is watched.</p>
+ */
+public final class MemoryWatchdog implements AutoCloseable {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(MemoryWatchdog.class);
+
+    //region Constants
+
+    private static final long MB            = 1024L * 1024;
+    private static final long POLL_INTERVAL = 500;
+
+    // A builder uses memory beyond its heap, so a retry gets a heap well below the limit
+    private static final double RETRY_HEAP_RATIO = 0.6;
+
+    private static final Pattern HEAP_SIZE_PATTERN = Pattern.compile("-J-Xmx(\\d{1,12})([kKmMgGtT]?)");
+
+    //endregion
+
+    private final ProcessTree              processTree;
+    private final long                     limit;
+    private final ScheduledExecutorService executor;
+
+    private volatile ScheduledFuture<?> future;
+    private volatile long               peakRss;
+    private volatile boolean            isTriggered;
+
+    MemoryWatchdog(@Nonnull final ProcessTree processTree, final long limit) {
+        this.processTree = processTree;
+        this.limit       = limit;
+        this.executor    = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "native-image memory watchdog");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Starts watching the processes that {@code native-image} runs in {@code workingDir}, until the returned watchdog is closed.
+     * @param limit The resident set size in bytes that the processes may use in total.
+     */
+    @Nonnull
+    public static MemoryWatchdog start(@Nonnull final File workingDir, final long limit) {
+        final MemoryWatchdog watchdog = new MemoryWatchdog(ProcessTree.of(workingDir), limit);
+
+        if (!watchdog.processTree.isAvailable()) {
+            MemoryWatchdog.LOGGER.info("The memory of native-image is not watched, as /proc is not available");
+        } else {
+            watchdog.future = watchdog.executor.scheduleWithFixedDelay(watchdog::check, MemoryWatchdog.POLL_INTERVAL, MemoryWatchdog.POLL_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+
+        return watchdog;
+    }
+
+    /**
+     * Returns {@code true} if the processes have been killed for using more memory than allowed.
+     */
+    public boolean isTriggered() {
+        return this.isTriggered;
+    }
+
+    /**
+     * Returns the largest resident set size in bytes that the processes have been seen using in total.
+     */
+    public long getPeakRss() {
+        return this.peakRss;
+    }
+
+    /**
+     * Returns the heap size in bytes that {@code args} give the builder with {@code -J-Xmx}, of which the last one takes effect.
+     * @return The heap size in bytes, or {@code 0} if it is left to {@code native-image}.
+     */
+    public static long getHeapSize(@Nonnull final List<String> args) {
+        long heapSize = 0;
+
+        for (final String arg : args) {
+            final Matcher matcher = MemoryWatchdog.HEAP_SIZE_PATTERN.matcher(arg);
+            if (!matcher.matches()) continue;
+
+            final String unit = matcher.group(2).toLowerCase(Locale.ROOT);
+            final int    bits = unit.isEmpty() ? 0 : "kmgt".indexOf(unit.charAt(0)) * 10 + 10;
+
+            heapSize = Long.parseLong(matcher.group(1)) << bits;
+        }
+
+        return heapSize;
+    }
+
+    /**
+     * Returns the heap size in bytes for a retry of a build that used more memory than {@code limit} with {@code heapSize}.
+     * @param heapSize The heap size of the build, or {@code 0} if it was left to {@code native-image}.
+     */
+    public static long getRetryHeapSize(final long heapSize, final long limit) {
+        final long retryHeapSize = (long)(limit * MemoryWatchdog.RETRY_HEAP_RATIO);
+        return (heapSize > 0 ? Math.min(heapSize * 3 / 4, retryHeapSize) : retryHeapSize) / MemoryWatchdog.MB * MemoryWatchdog.MB;
+    }
+
+    /**
+     * Returns the number of threads for a retry of a build that used more memory than allowed with {@code threads}.
+     */
+    public static int getRetryThreads(final int threads) {
+        return Math.max(1, threads / 2);
+    }
+
+    @Override
+    public void close() {
+        // A check that fails stops all later checks, which must not go unnoticed
+        if (this.future != null && this.future.isDone() && !this.future.isCancelled()) {
+            try {
+                this.future.get();
+            } catch (final ExecutionException e) {
+                MemoryWatchdog.LOGGER.warn("The memory of native-image stopped being watched", e.getCause());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Sums up the resident set size of the processes, and kills them if it is above the limit.
+     */
+    void check() {
+        try {
+            final List<Long> pids = this.processTree.getProcesses();
+            if (pids.isEmpty()) return;
+
+            long rss = 0;
+            for (final long pid : pids) rss += this.processTree.getRss(pid);
+
+            if (rss > this.peakRss) this.peakRss = rss;
+
+            if (rss > this.limit && !this.isTriggered) {
+                this.isTriggered = true;
+
+                MemoryWatchdog.LOGGER.warn("Stop native-image, which uses {} MB of memory, more than the limit of {} MB", rss / MemoryWatchdog.MB, this.limit / MemoryWatchdog.MB);
+
+                ProcessTree.kill(pids);
+            }
+        } catch (final IOException e) {
+            MemoryWatchdog.LOGGER.warn("Failed to stop native-image", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import javax.annotation.Nonnull;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.resources.ResourceException;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import org.apache.commons.compress.utils.IOUtils;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a variant of the native image in a worker process, once it holds one of the build slots shared by all builds on this machine.
+ */
+public abstract class NativeImageWorkAction implements WorkAction<NativeImageWorkAction.Parameters> {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(NativeImageWorkAction.class);
+
+    public interface Parameters extends WorkParameters {
+        Property<String> getVariantName();
+
+        ListProperty<String> getCommandLine();
+
+        DirectoryProperty getWorkingDir();
+
+        DirectoryProperty getSlotDir();
+
+        Property<Integer> getMaxParallelBuilds();
+
+        RegularFileProperty getJsonReport();
+
+        RegularFileProperty getCsvReport();
+
+        MapProperty<String, String> getReportProperties();
+    }
+
+    @Override
+    public void execute() {
+        final Parameters parameters = this.getParameters();
+        final String     name       = parameters.getVariantName().get();
+
+        try (BuildSlot slot = BuildSlot.acquire(parameters.getSlotDir().get().getAsFile(), parameters.getMaxParallelBuilds().get())) {
+            NativeImageWorkAction.LOGGER.lifecycle("Build native image variant {} in slot {}", name, slot.getIndex());
+
+            final BuildMetrics metrics  = new BuildMetrics();
+            final int          exitCode = NativeImageWorkAction.run(parameters.getCommandLine().get(), parameters.getWorkingDir().get().getAsFile(), new LineOutputStream(System.out, Charset.defaultCharset(), metrics::accept));
+
+            metrics.write(parameters.getJsonReport().get().getAsFile(), parameters.getCsvReport().get().getAsFile(), parameters.getReportProperties().get());
+
+            if (exitCode != 0) throw new GradleException("native-image exited with code " + exitCode + " while building variant " + name);
+        } catch (final IOException e) {
+            throw new ResourceException(e.getMessage(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new GradleException("Interrupted while building variant " + name, e);
+        }
+    }
+
+    private static int run(@Nonnull final Iterable<String> commandLine, @Nonnull final File workingDir, @Nonnull final OutputStream outputStream) throws IOException, InterruptedException {
+        final ProcessBuilder builder = new ProcessBuilder();
+        commandLine.forEach(builder.command()::add);
+
+        final Process process = builder.directory(workingDir)
+            .redirectErrorStream(true)
+            .start();
+
+        try (
+            InputStream  inputStream = process.getInputStream();
+            OutputStream ignored     = outputStream) {
+            IOUtils.copy(inputStream, outputStream);
+        }
+
+        try {
+            return process.waitFor();
+        } catch (final InterruptedException e) {
+            process.destroy();
+
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the output of {@code native-image} line by line, and tells as soon as a line shows that the build is bound to fail, so that it can be stopped rather than run to the end.
+ * <p>A fatal pattern is a regular expression. The named groups {@code class} and {@code reason}, if any, tell the offending class and why the build fails. Without them, the whole line is the reason.</p>
+ */
+public final class OutputAnalyzer {
+    //region Constants
+
+    /**
+     * The patterns of the errors that fail a build, even with {@code --report-unsupported-elements-at-runtime}, which only defers unsupported features to run time.
+     */
+    public static final List<String> DEFAULT_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+        "^\\s*(?<class>[\\w.$]+) the class was requested to be initialized at run time \\((?<reason>[^)]*)\\)",
+        "^Error: No instances of (?<class>[\\w.$]+) are allowed in the image heap as (?<reason>this class should be initialized at image runtime)",
+        "^Error: Class initialization of (?<class>[\\w.$]+) failed",
+        "^Error: (?<reason>Detected a started Thread in the image heap)",
+        "UnsupportedFeatureException: (?<reason>.+)"));
+
+    private static final String GROUP_CLASS  = "class";
+    private static final String GROUP_REASON = "reason";
+
+    private static final int MAX_DIAGNOSES = 5;
+
+    //endregion
+
+    /**
+     * Why a build is bound to fail.
+     */
+    public static final class Diagnosis {
+        private final String className;
+        private final String reason;
+
+        Diagnosis(@Nullable final String className, @Nonnull final String reason) {
+            this.className = className;
+            this.reason    = reason;
+        }
+
+        /**
+         * Returns the fully qualified name of the offending class, or {@code null} if it is unknown.
+         */
+        @Nullable
+        public String getClassName() {
+            return this.className;
+        }
+
+        @Nonnull
+        public String getReason() {
+            return this.reason;
+        }
+
+        @Nonnull
+        @Override
+        public String toString() {
+            return this.className == null ? this.reason : this.className + ": " + this.reason;
+        }
+    }
+
+    private final List<Pattern>   patterns;
+    private final Runnable        onFatal;
+    private final List<Diagnosis> diagnoses = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * @param patterns The regular expressions of the lines that show that the build is bound to fail.
+     * @param onFatal Called once, on the first line that matches, such as to stop the build.
+     * @throws java.util.regex.PatternSyntaxException If a pattern is not a valid regular expression.
+     */
+    public OutputAnalyzer(@Nonnull final Collection<String> patterns, @Nonnull final Runnable onFatal) {
+        this.patterns = patterns.stream()
+            .map(Pattern::compile)
+            .collect(Collectors.toList());
+
+        this.onFatal = onFatal;
+    }
+
+    /**
+     * Returns {@code true} if a line has shown that the build is bound to fail.
+     */
+    public boolean isFatal() {
+        return !this.diagnoses.isEmpty();
+    }
+
+    @Nonnull
+    public List<Diagnosis> getDiagnoses() {
+        synchronized (this.diagnoses) {
+            return new ArrayList<>(this.diagnoses);
+        }
+    }
+
+    /**
+     * Returns a short description of why the build is bound to fail, naming at most the first few offending classes.
+     */
+    @Nonnull
+    public String getMessage() {
+        final List<Diagnosis> diagnoses = this.getDiagnoses();
+        final StringBuilder   builder   = new StringBuilder("native-image is bound to fail:");
+
+        for (final Diagnosis diagnosis : diagnoses.subList(0, Math.min(diagnoses.size(), OutputAnalyzer.MAX_DIAGNOSES))) builder.append(System.lineSeparator()).append("  ").append(diagnosis);
+
+        if (diagnoses.size() > OutputAnalyzer.MAX_DIAGNOSES) builder.append(System.lineSeparator()).append("  and ").append(diagnoses.size() - OutputAnalyzer.MAX_DIAGNOSES).append(" more");
+
+        return builder.toString();
+    }
+
+    public void accept(@Nonnull final String line) {
+        for (final Pattern pattern : this.patterns) {
+            final Matcher matcher = pattern.matcher(line);
+
+            if (matcher.find()) {
+                final String reason = OutputAnalyzer.getGroup(matcher, OutputAnalyzer.GROUP_REASON);
+
+                // The lines written before the build is stopped are still read, and may tell more classes
+                final boolean isFirst = this.diagnoses.isEmpty();
+                this.diagnoses.add(new Diagnosis(OutputAnalyzer.getGroup(matcher, OutputAnalyzer.GROUP_CLASS), reason == null ? line.trim() : reason));
+
+                if (isFirst) this.onFatal.run();
+
+                return;
+            }
+        }
+    }
+
+    @Nullable
+    private static String getGroup(@Nonnull final Matcher matcher, @Nonnull final String name) {
+        try {
+            final String group = matcher.group(name);
+            return group == null || group.trim().isEmpty() ? null : group.trim();
+        } catch (final IllegalArgumentException e) {
+            // The pattern has no such group
+            return null;
+        }
+    }
+}
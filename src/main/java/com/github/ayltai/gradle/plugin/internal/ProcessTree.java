@@ -0,0 +1,176 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.logging.Logger;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * The processes that {@code native-image} runs in a working directory, found through {@code /proc} as the descendants of this JVM whose working directory is that of the build, with their own descendants.
+ * <p>{@code Exec} does not expose the process it starts, and Java 8 cannot list the descendants of a process, so {@code /proc} is read instead. Where there is no {@code /proc}, no processes are found.</p>
+ */
+public final class ProcessTree {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(ProcessTree.class);
+
+    //region Constants
+
+    private static final File    PROC_DIR       = new File("/proc");
+    private static final Pattern VM_RSS_PATTERN = Pattern.compile("^VmRSS:\\s+(\\d+) kB");
+
+    //endregion
+
+    private final File procDir;
+    private final long parentPid;
+    private final Path workingDir;
+
+    ProcessTree(@Nonnull final File procDir, final long parentPid, @Nonnull final File workingDir) {
+        this.procDir    = procDir;
+        this.parentPid  = parentPid;
+        this.workingDir = workingDir.getAbsoluteFile().toPath();
+    }
+
+    /**
+     * Returns the processes that run in {@code workingDir}.
+     */
+    @Nonnull
+    public static ProcessTree of(@Nonnull final File workingDir) {
+        return new ProcessTree(ProcessTree.PROC_DIR, ProcessTree.getSelfPid(ProcessTree.PROC_DIR), workingDir);
+    }
+
+    /**
+     * Returns {@code true} if the processes can be found, that is, if {@code /proc} is available.
+     */
+    public boolean isAvailable() {
+        return this.parentPid >= 0;
+    }
+
+    /**
+     * Returns the descendants of this JVM that run in the working directory, followed by their own descendants.
+     */
+    @Nonnull
+    public List<Long> getProcesses() {
+        if (!this.isAvailable()) return Collections.emptyList();
+
+        final Map<Long, List<Long>> children = ProcessTree.getChildren(this.procDir);
+        final List<Long>            pids     = new ArrayList<>();
+        final Deque<Long>           queue    = new ArrayDeque<>(children.getOrDefault(this.parentPid, Collections.emptyList()));
+
+        while (!queue.isEmpty()) {
+            final long pid = queue.poll();
+
+            if (this.workingDir.equals(ProcessTree.getWorkingDir(this.procDir, pid))) {
+                final Deque<Long> tree = new ArrayDeque<>();
+                tree.add(pid);
+
+                while (!tree.isEmpty()) {
+                    final long descendant = tree.poll();
+
+                    pids.add(descendant);
+                    tree.addAll(children.getOrDefault(descendant, Collections.emptyList()));
+                }
+            } else {
+                queue.addAll(children.getOrDefault(pid, Collections.emptyList()));
+            }
+        }
+
+        return pids;
+    }
+
+    /**
+     * Returns the resident set size in bytes of {@code pid}, or {@code 0} if the process is gone.
+     */
+    public long getRss(final long pid) {
+        try {
+            for (final String line : Files.readAllLines(new File(new File(this.procDir, String.valueOf(pid)), "status").toPath(), StandardCharsets.US_ASCII)) {
+                final Matcher matcher = ProcessTree.VM_RSS_PATTERN.matcher(line);
+                if (matcher.find()) return Long.parseLong(matcher.group(1)) * 1024;
+            }
+        } catch (final IOException e) {
+            ProcessTree.LOGGER.debug("Failed to read the status of process " + pid, e);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Kills {@code pids} at once, without giving them a chance to clean up.
+     */
+    public static void kill(@Nonnull final List<Long> pids) throws IOException {
+        if (pids.isEmpty()) return;
+
+        final List<String> commandLine = new ArrayList<>();
+        commandLine.add("kill");
+        commandLine.add("-KILL");
+
+        for (final long pid : pids) commandLine.add(String.valueOf(pid));
+
+        new ProcessBuilder(commandLine).start();
+    }
+
+    /**
+     * Returns the child processes of each process, read from the parent process IDs in {@code /proc/<pid>/stat}.
+     */
+    @Nonnull
+    static Map<Long, List<Long>> getChildren(@Nonnull final File procDir) {
+        final Map<Long, List<Long>> children = new HashMap<>();
+        final File[]                dirs     = procDir.listFiles(file -> file.isDirectory() && file.getName().chars().allMatch(Character::isDigit));
+
+        if (dirs != null) {
+            for (final File dir : dirs) {
+                final long parentPid = ProcessTree.getParentPid(new File(dir, "stat"));
+                if (parentPid >= 0) children.computeIfAbsent(parentPid, key -> new ArrayList<>()).add(Long.parseLong(dir.getName()));
+            }
+        }
+
+        return children;
+    }
+
+    /**
+     * Returns the parent process ID in {@code stat}, formatted as {@code <pid> (<command>) <state> <parent pid> ...}, or {@code -1} if the process is gone.
+     */
+    static long getParentPid(@Nonnull final File stat) {
+        try {
+            final String line = new String(Files.readAllBytes(stat.toPath()), StandardCharsets.US_ASCII);
+
+            // The command may contain spaces and parentheses
+            final String[] fields = line.substring(line.lastIndexOf(')') + 2).split(" ");
+
+            return fields.length > 1 ? Long.parseLong(fields[1]) : -1;
+        } catch (final IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Nullable
+    private static Path getWorkingDir(@Nonnull final File procDir, final long pid) {
+        try {
+            return Files.readSymbolicLink(new File(new File(procDir, String.valueOf(pid)), "cwd").toPath());
+        } catch (final IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static long getSelfPid(@Nonnull final File procDir) {
+        try {
+            return Long.parseLong(Files.readSymbolicLink(new File(procDir, "self").toPath()).getFileName().toString());
+        } catch (final IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
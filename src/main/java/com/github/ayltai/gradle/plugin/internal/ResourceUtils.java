@@ -0,0 +1,261 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.logging.Logger;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Chooses the heap size and the number of threads of {@code native-image} from the memory and processors of the host, as limited by its cgroup, and shares them among the native image builds that run at the same time in this JVM.
+ */
+public final class ResourceUtils {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(ResourceUtils.class);
+
+    private static final long MB = 1024L * 1024;
+
+    // Memory left to the operating system and to the Gradle daemon itself, on top of its heap
+    private static final long RESERVED_MEMORY = 1024 * ResourceUtils.MB;
+
+    // The builder uses memory outside of its heap, for metaspace, code cache and native allocations, so its heap is only a part of the memory it gets
+    private static final double HEAP_RATIO = 0.8;
+
+    private static final long MIN_HEAP_SIZE = 1024 * ResourceUtils.MB;
+
+    // cgroup v1 reports no limit as a very large number rather than "max"
+    private static final long UNLIMITED = Long.MAX_VALUE / 2;
+
+    private static final File CGROUP_ROOT = new File("/sys/fs/cgroup");
+    private static final File MEMINFO     = new File("/proc/meminfo");
+
+    private static final AtomicInteger BUILDS    = new AtomicInteger();
+    private static final AtomicLong    ALLOCATED = new AtomicLong();
+
+    private ResourceUtils() {
+    }
+
+    /**
+     * Allocates memory and processors of this host to a native image build, until the returned allocation is closed.
+     * @return The heap size and the number of threads for the build.
+     */
+    @Nonnull
+    public static Allocation allocate() {
+        return ResourceUtils.allocate(1).get(0);
+    }
+
+    /**
+     * Allocates memory and processors of this host to {@code count} native image builds that run at the same time, each until its allocation is closed.
+     * @param count The number of builds.
+     * @return The heap size and the number of threads for each build.
+     */
+    @Nonnull
+    public static List<Allocation> allocate(final int count) {
+        final long totalMemory     = ResourceUtils.getTotalMemory(ResourceUtils.CGROUP_ROOT);
+        final long availableMemory = ResourceUtils.getAvailableMemory(ResourceUtils.CGROUP_ROOT, ResourceUtils.MEMINFO, totalMemory);
+        final int  processors      = ResourceUtils.getProcessors(ResourceUtils.CGROUP_ROOT);
+
+        return ResourceUtils.allocate(totalMemory - Runtime.getRuntime().maxMemory(), availableMemory, processors, count);
+    }
+
+    @Nonnull
+    static Allocation allocate(final long totalMemory, final long availableMemory, final int processors) {
+        return ResourceUtils.allocate(totalMemory, availableMemory, processors, 1).get(0);
+    }
+
+    /**
+     * Allocates a share of {@code totalMemory} and {@code processors} to each of {@code count} native image builds.
+     * <p>Each build running at the same time gets an equal share of the memory, but never more than what is neither allocated to other builds nor used by other processes. Each build gets an equal share of the processors, and at least one.</p>
+     * @param totalMemory The memory that native image builds may use in total.
+     * @param availableMemory The memory not used by any process at the moment.
+     * @param processors The number of processors that native image builds may use in total.
+     * @param count The number of builds to allocate to.
+     * @return The heap size and the number of threads for each build.
+     */
+    @Nonnull
+    static List<Allocation> allocate(final long totalMemory, final long availableMemory, final int processors, final int count) {
+        synchronized (ResourceUtils.BUILDS) {
+            final int  builds = ResourceUtils.BUILDS.addAndGet(count);
+            final long budget = Math.max(0, totalMemory - ResourceUtils.RESERVED_MEMORY);
+            final long memory = Math.min(budget / builds, Math.min(budget - ResourceUtils.ALLOCATED.get(), availableMemory - ResourceUtils.RESERVED_MEMORY) / count);
+
+            long heapSize = (long)(memory * ResourceUtils.HEAP_RATIO) / ResourceUtils.MB * ResourceUtils.MB;
+            if (heapSize < ResourceUtils.MIN_HEAP_SIZE) {
+                ResourceUtils.LOGGER.warn("Only {} MB of memory is available for building the native image", Math.max(0, memory) / ResourceUtils.MB);
+
+                heapSize = ResourceUtils.MIN_HEAP_SIZE;
+            }
+
+            // The memory of a build is more than its heap, and is what is left of the budget to other builds
+            final long share = Math.max(memory, (long)(heapSize / ResourceUtils.HEAP_RATIO));
+            ResourceUtils.ALLOCATED.addAndGet(share * count);
+
+            final int              threads     = Math.max(1, processors / builds);
+            final List<Allocation> allocations = new ArrayList<>();
+
+            for (int i = 0; i < count; i++) allocations.add(new Allocation(share, heapSize, threads));
+
+            ResourceUtils.LOGGER.lifecycle("Use {} MB of heap and {} threads for native-image ({} MB of memory and {} processors for {} concurrent native image builds)", heapSize / ResourceUtils.MB, threads, budget / ResourceUtils.MB, processors, builds);
+
+            return allocations;
+        }
+    }
+
+    /**
+     * Returns the memory limit of the cgroup of this process, or the physical memory of this host if it is smaller or there is no limit.
+     */
+    static long getTotalMemory(@Nonnull final File cgroupRoot) {
+        final long physicalMemory = ResourceUtils.getPhysicalMemory();
+        final long limit          = ResourceUtils.readLimit(new File(cgroupRoot, "memory.max"), new File(new File(cgroupRoot, "memory"), "memory.limit_in_bytes"));
+
+        return limit > 0 && limit < physicalMemory ? limit : physicalMemory;
+    }
+
+    /**
+     * Returns the memory that is not used by any process, within the memory limit of the cgroup of this process.
+     */
+    static long getAvailableMemory(@Nonnull final File cgroupRoot, @Nonnull final File meminfo, final long totalMemory) {
+        long available = ResourceUtils.getFreeMemory();
+
+        if (meminfo.isFile()) {
+            for (final String line : ResourceUtils.readLines(meminfo)) {
+                // MemAvailable counts the page cache that can be reclaimed, which free memory does not
+                if (line.startsWith("MemAvailable:")) available = Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+            }
+        }
+
+        final long usage = ResourceUtils.readLimit(new File(cgroupRoot, "memory.current"), new File(new File(cgroupRoot, "memory"), "memory.usage_in_bytes"));
+        if (usage > 0) available = Math.min(available, totalMemory - usage);
+
+        return Math.max(0, available);
+    }
+
+    /**
+     * Returns the number of processors available to this process, as limited by the CPU quota of its cgroup.
+     */
+    static int getProcessors(@Nonnull final File cgroupRoot) {
+        final int processors = Runtime.getRuntime().availableProcessors();
+
+        long quota  = -1;
+        long period = -1;
+
+        final File cpuMax = new File(cgroupRoot, "cpu.max");
+        if (cpuMax.isFile()) {
+            final String[] values = StringUtils.split(ResourceUtils.readFirstLine(cpuMax));
+
+            if (values.length == 2 && StringUtils.isNumeric(values[0]) && StringUtils.isNumeric(values[1])) {
+                quota  = Long.parseLong(values[0]);
+                period = Long.parseLong(values[1]);
+            }
+        } else {
+            final File cpuDir = new File(cgroupRoot, "cpu");
+
+            quota  = ResourceUtils.readLimit(new File(cpuDir, "cpu.cfs_quota_us"), null);
+            period = ResourceUtils.readLimit(new File(cpuDir, "cpu.cfs_period_us"), null);
+        }
+
+        return quota > 0 && period > 0 ? (int)Math.max(1, Math.min(processors, (quota + period - 1) / period)) : processors;
+    }
+
+    private static long getPhysicalMemory() {
+        final OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        return bean instanceof com.sun.management.OperatingSystemMXBean ? ((com.sun.management.OperatingSystemMXBean)bean).getTotalPhysicalMemorySize() : Runtime.getRuntime().maxMemory();
+    }
+
+    private static long getFreeMemory() {
+        final OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        return bean instanceof com.sun.management.OperatingSystemMXBean ? ((com.sun.management.OperatingSystemMXBean)bean).getFreePhysicalMemorySize() : Runtime.getRuntime().freeMemory();
+    }
+
+    /**
+     * Returns the number in the cgroup v2 {@code file}, or else in the cgroup v1 {@code legacyFile}.
+     * @return The number, or {@code -1} if there is no such file or no limit.
+     */
+    private static long readLimit(@Nonnull final File file, @Nullable final File legacyFile) {
+        final File source = file.isFile() ? file : legacyFile != null && legacyFile.isFile() ? legacyFile : null;
+        if (source == null) return -1;
+
+        final String value = ResourceUtils.readFirstLine(source).trim();
+        if (!StringUtils.isNumeric(value)) return -1;
+
+        final long limit = Long.parseLong(value);
+        return limit >= ResourceUtils.UNLIMITED ? -1 : limit;
+    }
+
+    @Nonnull
+    private static String readFirstLine(@Nonnull final File file) {
+        final List<String> lines = ResourceUtils.readLines(file);
+        return lines.isEmpty() ? "" : lines.get(0);
+    }
+
+    @Nonnull
+    private static List<String> readLines(@Nonnull final File file) {
+        try {
+            return Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII);
+        } catch (final IOException e) {
+            ResourceUtils.LOGGER.debug("Failed to read " + file.getAbsolutePath(), e);
+
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * The heap size and the number of threads allocated to a native image build. Closing it returns them to other builds.
+     */
+    public static final class Allocation implements AutoCloseable {
+        private final long memory;
+        private final long heapSize;
+        private final int  threads;
+
+        private boolean isClosed;
+
+        Allocation(final long memory, final long heapSize, final int threads) {
+            this.memory   = memory;
+            this.heapSize = heapSize;
+            this.threads  = threads;
+        }
+
+        /**
+         * Returns the memory allocated to the builder in bytes, of which its heap is a part.
+         */
+        long getMemory() {
+            return this.memory;
+        }
+
+        /**
+         * Returns the maximum heap size of the builder in bytes.
+         */
+        public long getHeapSize() {
+            return this.heapSize;
+        }
+
+        public int getThreads() {
+            return this.threads;
+        }
+
+        @Override
+        public void close() {
+            synchronized (ResourceUtils.BUILDS) {
+                if (this.isClosed) return;
+
+                this.isClosed = true;
+
+                ResourceUtils.BUILDS.decrementAndGet();
+                ResourceUtils.ALLOCATED.addAndGet(-this.memory);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Launches a native image, measures the time it takes to become ready and its peak resident set size, and stops it.
+ * <p>A native image is ready when either a URL on it responds, whatever its status code, or it prints a line that matches a pattern.</p>
+ */
+public final class StartupBenchmark {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final long POLL_INTERVAL   = 10;
+    private static final int  CONNECT_TIMEOUT = 100;
+    private static final int  READ_TIMEOUT    = 1000;
+    private static final long STOP_TIMEOUT    = 10;
+
+    private static final File    PROC_DIR       = new File("/proc");
+    private static final Pattern VM_HWM_PATTERN = Pattern.compile("^VmHWM:\\s+(\\d+) kB");
+
+    private StartupBenchmark() {
+    }
+
+    /**
+     * Launches {@code commandLine} once and waits until it is ready.
+     * @param commandLine The native image and its arguments.
+     * @param workingDir The working directory of the native image.
+     * @param readinessUrl The URL that responds once the native image is ready. Ignored if {@code readinessPattern} is given.
+     * @param readinessPattern The pattern of the line printed by the native image once it is ready, or {@code null} to poll {@code readinessUrl}.
+     * @param timeoutMillis The time to wait for the native image to become ready.
+     * @return The startup time and the peak resident set size of the native image.
+     */
+    @Nonnull
+    public static Sample run(@Nonnull final List<String> commandLine, @Nonnull final File workingDir, @Nullable final URL readinessUrl, @Nullable final Pattern readinessPattern, final long timeoutMillis) throws IOException, InterruptedException {
+        final long    start   = System.nanoTime();
+        final Process process = StartupBenchmark.start("Native image", commandLine, workingDir, readinessUrl, readinessPattern, timeoutMillis);
+
+        try {
+            final double startupMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            return new Sample(startupMillis, StartupBenchmark.getPeakRss(StartupBenchmark.PROC_DIR, StartupBenchmark.getPid(process)));
+        } finally {
+            StartupBenchmark.stop(process);
+        }
+    }
+
+    /**
+     * Launches {@code commandLine} and waits until it is ready. The process is stopped if it does not become ready.
+     * @param name The name of the process in error messages.
+     * @param commandLine The process and its arguments.
+     * @param workingDir The working directory of the process.
+     * @param readinessUrl The URL that responds once the process is ready. Ignored if {@code readinessPattern} is given.
+     * @param readinessPattern The pattern of the line printed by the process once it is ready, or {@code null} to poll {@code readinessUrl}.
+     * @param timeoutMillis The time to wait for the process to become ready.
+     * @return The process, which is ready.
+     */
+    @Nonnull
+    static Process start(@Nonnull final String name, @Nonnull final List<String> commandLine, @Nonnull final File workingDir, @Nullable final URL readinessUrl, @Nullable final Pattern readinessPattern, final long timeoutMillis) throws IOException, InterruptedException {
+        if (readinessUrl == null && readinessPattern == null) throw new IllegalArgumentException("Either readinessUrl or readinessPattern is required");
+
+        final CountDownLatch ready = new CountDownLatch(1);
+        final long           start = System.nanoTime();
+
+        final Process process = new ProcessBuilder(commandLine)
+            .directory(workingDir)
+            .redirectErrorStream(true)
+            .start();
+
+        final Thread reader = new Thread(() -> StartupBenchmark.read(process.getInputStream(), readinessPattern, ready), "benchmark-" + commandLine.get(0));
+        reader.setDaemon(true);
+        reader.start();
+
+        boolean isReady = false;
+
+        try {
+            final long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+            while (readinessPattern == null ? !StartupBenchmark.isReady(readinessUrl) : !ready.await(StartupBenchmark.POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (!process.isAlive()) throw new GradleException(name + " exited with code " + process.exitValue() + " before it was ready");
+                if (System.nanoTime() > deadline) throw new GradleException(name + " was not ready in " + timeoutMillis + " ms");
+
+                if (readinessPattern == null) Thread.sleep(StartupBenchmark.POLL_INTERVAL);
+            }
+
+            isReady = true;
+
+            return process;
+        } finally {
+            if (!isReady) StartupBenchmark.stop(process);
+        }
+    }
+
+    /**
+     * Returns the peak resident set size of the process {@code pid}, as reported by {@code /proc/<pid>/status}.
+     * @return The peak resident set size in bytes, or {@code null} if it is not available, as it is not on platforms other than Linux.
+     */
+    @Nullable
+    static Long getPeakRss(@Nonnull final File procDir, final long pid) {
+        if (pid < 0) return null;
+
+        final File status = new File(new File(procDir, String.valueOf(pid)), "status");
+        if (!status.isFile()) return null;
+
+        try {
+            for (final String line : Files.readAllLines(status.toPath(), StandardCharsets.US_ASCII)) {
+                final Matcher matcher = StartupBenchmark.VM_HWM_PATTERN.matcher(line);
+                if (matcher.find()) return Long.parseLong(matcher.group(1)) * 1024;
+            }
+        } catch (final IOException e) {
+            StartupBenchmark.LOGGER.debug("Failed to read " + status.getAbsolutePath(), e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the process ID of {@code process}, which {@link Process} exposes only on Java 9 and later.
+     * @return The process ID, or {@code -1} if it is not available.
+     */
+    static long getPid(@Nonnull final Process process) {
+        try {
+            return (Long)Process.class.getMethod("pid").invoke(process);
+        } catch (final NoSuchMethodException e) {
+            try {
+                final Field field = process.getClass().getDeclaredField("pid");
+                field.setAccessible(true);
+
+                return field.getLong(process);
+            } catch (final ReflectiveOperationException | RuntimeException ex) {
+                return -1;
+            }
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isReady(@Nonnull final URL url) {
+        HttpURLConnection connection = null;
+
+        try {
+            connection = (HttpURLConnection)url.openConnection();
+            connection.setConnectTimeout(StartupBenchmark.CONNECT_TIMEOUT);
+            connection.setReadTimeout(StartupBenchmark.READ_TIMEOUT);
+            connection.getResponseCode();
+
+            return true;
+        } catch (final IOException e) {
+            return false;
+        } finally {
+            if (connection != null) connection.disconnect();
+        }
+    }
+
+    private static void read(@Nonnull final InputStream inputStream, @Nullable final Pattern readinessPattern, @Nonnull final CountDownLatch ready) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, Charset.defaultCharset()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                StartupBenchmark.LOGGER.info(line);
+
+                if (readinessPattern != null && readinessPattern.matcher(line).find()) ready.countDown();
+            }
+        } catch (final IOException e) {
+            StartupBenchmark.LOGGER.debug(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops {@code process} gracefully, so that its shutdown hooks run, or forcibly if it does not stop in time.
+     */
+    static void stop(@Nonnull final Process process) throws InterruptedException {
+        process.destroy();
+
+        if (!process.waitFor(StartupBenchmark.STOP_TIMEOUT, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+    }
+
+    /**
+     * The startup time and the peak resident set size of a launch of a native image.
+     */
+    public static final class Sample {
+        private final double startupMillis;
+        private final Long   peakRss;
+
+        public Sample(final double startupMillis, @Nullable final Long peakRss) {
+            this.startupMillis = startupMillis;
+            this.peakRss       = peakRss;
+        }
+
+        public double getStartupMillis() {
+            return this.startupMillis;
+        }
+
+        /**
+         * Returns the peak resident set size in bytes, or {@code null} if it is not available.
+         */
+        @Nullable
+        public Long getPeakRss() {
+            return this.peakRss;
+        }
+    }
+}
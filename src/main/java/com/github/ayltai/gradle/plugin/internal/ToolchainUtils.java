@@ -0,0 +1,112 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.resources.ResourceException;
+
+import com.github.ayltai.gradle.plugin.Constants;
+
+import org.slf4j.LoggerFactory;
+
+public final class ToolchainUtils {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(ToolchainUtils.class);
+
+    private static final String TOOLCHAIN_PATH = "%1$s-java%2$s-%3$s-%4$s";
+    private static final String FILE_INSTALLED = ".installed";
+    private static final String LOCK_EXTENSION = ".lock";
+
+    // A file lock is held on behalf of the whole JVM, so threads of the same build are serialized by these monitors first
+    private static final ConcurrentMap<String, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private ToolchainUtils() {
+    }
+
+    /**
+     * Returns the directory in {@code cacheDir} that holds the GraalVM toolchain of the given versions for the current platform and architecture.
+     * @param cacheDir The directory shared by all toolchains.
+     * @param toolVersion The GraalVM version.
+     * @param javaVersion The Java version of GraalVM.
+     * @return The directory of the toolchain.
+     */
+    @Nonnull
+    public static File getToolchainDir(@Nonnull final File cacheDir, @Nonnull final String toolVersion, @Nonnull final String javaVersion) {
+        return new File(cacheDir, String.format(ToolchainUtils.TOOLCHAIN_PATH, toolVersion, javaVersion, PlatformUtils.getPlatform(), PlatformUtils.getArchitecture()));
+    }
+
+    /**
+     * Installs GraalVM from {@code downloadUrl} into {@code toolchainDir}, unless it is already installed there.
+     * <p>The installation holds an exclusive lock on a file next to {@code toolchainDir}, so concurrent builds, in this or other processes, install a toolchain only once and wait for it to complete instead of using it half-extracted. A toolchain is complete only after a marker file is written into {@code toolchainDir}. The extracted files of an incomplete toolchain are deleted before it is installed again, while its downloaded archive is kept to be reused or resumed.</p>
+     * @param toolchainDir The directory to install GraalVM to, as returned by {@link #getToolchainDir(File, String, String)}.
+     * @param downloadUrl The URL of the GraalVM archive.
+     * @param downloadStrategy {@link Constants#DOWNLOAD_DEFAULT}, {@link Constants#DOWNLOAD_ALWAYS} or {@link Constants#DOWNLOAD_SKIP}.
+     * @param keepArchive {@code true} to keep a copy of the downloaded archive in {@code toolchainDir}.
+     * @param checksum The expected SHA-256 checksum of the archive, or {@code null} to use the checksum published next to {@code downloadUrl}.
+     */
+    public static void install(@Nonnull final File toolchainDir, @Nonnull final String downloadUrl, @Nonnull final String downloadStrategy, final boolean keepArchive, @Nullable final String checksum) {
+        ToolchainUtils.install(toolchainDir, Collections.singletonList(downloadUrl), downloadStrategy, keepArchive, checksum);
+    }
+
+    /**
+     * Installs GraalVM from the first of {@code downloadUrls} that works into {@code toolchainDir}, as {@link #install(File, String, String, boolean, String)} does.
+     * @param downloadUrls The URLs of the same GraalVM archive, such as on mirrors, in the order they are tried.
+     */
+    public static void install(@Nonnull final File toolchainDir, @Nonnull final List<String> downloadUrls, @Nonnull final String downloadStrategy, final boolean keepArchive, @Nullable final String checksum) {
+        if (Constants.DOWNLOAD_SKIP.equals(downloadStrategy)) return;
+
+        final File cacheDir = toolchainDir.getParentFile();
+        if (!cacheDir.exists() && !cacheDir.mkdirs() && !cacheDir.isDirectory()) throw new ResourceException("Failed to create toolchain cache directory: " + cacheDir.getAbsolutePath());
+
+        final File    lockFile = new File(cacheDir, toolchainDir.getName() + ToolchainUtils.LOCK_EXTENSION);
+        final File    marker   = new File(toolchainDir, ToolchainUtils.FILE_INSTALLED);
+        final boolean isAlways = Constants.DOWNLOAD_ALWAYS.equals(downloadStrategy);
+
+        synchronized (ToolchainUtils.MONITORS.computeIfAbsent(lockFile.getAbsolutePath(), key -> new Object())) {
+            try (
+                FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock ignored = ToolchainUtils.lock(channel, toolchainDir)) {
+                if (marker.exists() && !isAlways) {
+                    ToolchainUtils.LOGGER.info("Use GraalVM installed at {}", toolchainDir.getAbsolutePath());
+
+                    return;
+                }
+
+                Files.deleteIfExists(marker.toPath());
+
+                final File[] files = toolchainDir.listFiles();
+                if (files != null) {
+                    for (final File file : files) {
+                        if (file.isDirectory()) FileUtils.delete(file);
+                    }
+                }
+
+                DownloadUtils.download(downloadUrls, toolchainDir, isAlways ? Constants.DOWNLOAD_ALWAYS : Constants.DOWNLOAD_DEFAULT, keepArchive, checksum);
+
+                Files.createFile(marker.toPath());
+            } catch (final IOException e) {
+                throw new ResourceException(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Nonnull
+    private static FileLock lock(@Nonnull final FileChannel channel, @Nonnull final File toolchainDir) throws IOException {
+        final FileLock lock = channel.tryLock();
+        if (lock != null) return lock;
+
+        ToolchainUtils.LOGGER.lifecycle("Waiting for another build to install GraalVM at {}", toolchainDir.getAbsolutePath());
+
+        return channel.lock();
+    }
+}
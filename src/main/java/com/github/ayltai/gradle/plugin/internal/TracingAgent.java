@@ -0,0 +1,93 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs an application on a JVM with the GraalVM native image agent, drives it with a workload, and stops it so that the agent writes the configuration it has recorded.
+ * <p>The agent merges what it records into the configuration already in its output directory, as with {@code config-merge-dir}, so configuration recorded by different workloads, or by earlier runs, accumulates there.</p>
+ */
+public final class TracingAgent {
+    private static final Logger LOGGER = (Logger)LoggerFactory.getLogger(TracingAgent.class);
+
+    private static final String AGENT_ARG = "-agentlib:native-image-agent=config-merge-dir=";
+
+    // The files the agent writes, which a native image build reads from a configuration directory
+    static final String[] CONFIG_FILES = { "jni-config.json", "proxy-config.json", "reflect-config.json", "resource-config.json", "serialization-config.json" };
+
+    private TracingAgent() {
+    }
+
+    /**
+     * Returns the JVM argument that loads the native image agent, which merges the configuration it records into {@code configDir}.
+     */
+    @Nonnull
+    public static String getAgentArg(@Nonnull final File configDir) {
+        return TracingAgent.AGENT_ARG + configDir.getAbsolutePath();
+    }
+
+    /**
+     * Runs {@code commandLine}, waits until it is ready, runs {@code workload} against it, and stops it.
+     * @param commandLine The JVM that runs the application with the native image agent, and its arguments.
+     * @param workingDir The working directory of the application.
+     * @param readinessUrl The URL that responds once the application is ready. Ignored if {@code readinessPattern} is given.
+     * @param readinessPattern The pattern of the line printed by the application once it is ready, or {@code null} to poll {@code readinessUrl}.
+     * @param timeoutMillis The time to wait for the application to become ready.
+     * @param workload The command that exercises the application, or an empty list to stop the application as soon as it is ready.
+     * @param workloadDir The working directory of {@code workload}.
+     * @param environment The environment variables added to those of {@code workload}.
+     */
+    public static void run(@Nonnull final List<String> commandLine, @Nonnull final File workingDir, @Nullable final URL readinessUrl, @Nullable final Pattern readinessPattern, final long timeoutMillis, @Nonnull final List<String> workload, @Nonnull final File workloadDir, @Nonnull final Map<String, String> environment) throws IOException, InterruptedException {
+        final Process process = StartupBenchmark.start("Application", commandLine, workingDir, readinessUrl, readinessPattern, timeoutMillis);
+
+        try {
+            if (!workload.isEmpty()) TracingAgent.runWorkload(workload, workloadDir, environment);
+        } finally {
+            // The agent writes its configuration when the JVM shuts down, which a forcible stop would skip
+            StartupBenchmark.stop(process);
+        }
+    }
+
+    /**
+     * Returns {@code true} if {@code configDir} holds any configuration written by the native image agent.
+     */
+    public static boolean hasConfig(@Nonnull final File configDir) {
+        for (final String file : TracingAgent.CONFIG_FILES) {
+            if (new File(configDir, file).isFile()) return true;
+        }
+
+        return false;
+    }
+
+    private static void runWorkload(@Nonnull final List<String> workload, @Nonnull final File workloadDir, @Nonnull final Map<String, String> environment) throws IOException, InterruptedException {
+        final ProcessBuilder builder = new ProcessBuilder(workload)
+            .directory(workloadDir)
+            .redirectErrorStream(true);
+
+        builder.environment().putAll(environment);
+
+        final Process process = builder.start();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), Charset.defaultCharset()))) {
+            String line;
+            while ((line = reader.readLine()) != null) TracingAgent.LOGGER.lifecycle(line);
+        }
+
+        final int exitCode = process.waitFor();
+        if (exitCode != 0) throw new GradleException("Workload exited with code " + exitCode);
+    }
+}
@@ -0,0 +1,157 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+
+/**
+ * An immutable version, such as {@code 21.1.0} or {@code 19.2.0-dev-b01}, parsed once and shared by all callers.
+ * <p>A version is split into segments, each of which is a run of non-digits followed by a run of digits. Versions are ordered segment by segment, by their non-digits as strings, then by their digits as numbers, so that {@code 21.10.0} comes after {@code 21.9.0}.</p>
+ */
+public final class Version implements Comparable<Version> {
+    // Versions are parsed from a handful of configured and installed versions, so they are never evicted
+    private static final ConcurrentMap<String, Version> VERSIONS = new ConcurrentHashMap<>();
+
+    // A run of more digits than this does not fit in a long, and is compared as its largest value
+    private static final int MAX_DIGITS = 18;
+
+    private final String   value;
+    private final String[] texts;
+    private final long[]   numbers;
+    private final int[]    digits;
+    private final int      hashCode;
+
+    private volatile Set<GraalVMFeature> features;
+
+    private Version(@Nonnull final String value) {
+        final List<String>  texts   = new ArrayList<>();
+        final List<Long>    numbers = new ArrayList<>();
+        final List<Integer> digits  = new ArrayList<>();
+
+        int index = 0;
+        while (index < value.length()) {
+            final int textEnd = Version.skip(value, index, false);
+            final int end     = Version.skip(value, textEnd, true);
+
+            texts.add(value.substring(index, textEnd));
+            numbers.add(Version.parseNumber(value, textEnd, end));
+            digits.add(end - textEnd);
+
+            index = end;
+        }
+
+        this.value    = value;
+        this.texts    = texts.toArray(new String[0]);
+        this.numbers  = numbers.stream().mapToLong(Long::longValue).toArray();
+        this.digits   = digits.stream().mapToInt(Integer::intValue).toArray();
+        this.hashCode = 31 * Arrays.hashCode(this.texts) + Arrays.hashCode(this.numbers);
+    }
+
+    /**
+     * Returns the version parsed from {@code value}. The same instance is returned for the same {@code value}.
+     */
+    @Nonnull
+    public static Version of(@Nonnull final String value) {
+        return Version.VERSIONS.computeIfAbsent(value, Version::new);
+    }
+
+    /**
+     * Returns {@code true} if this version of GraalVM supports {@code feature}.
+     */
+    public boolean supports(@Nonnull final GraalVMFeature feature) {
+        Set<GraalVMFeature> features = this.features;
+
+        if (features == null) {
+            // Features refer to versions themselves, so they are looked up on first use rather than on construction
+            final EnumSet<GraalVMFeature> supported = EnumSet.noneOf(GraalVMFeature.class);
+            for (final GraalVMFeature candidate : GraalVMFeature.values()) {
+                if (this.compareTo(candidate.getSince()) >= 0) supported.add(candidate);
+            }
+
+            features = Collections.unmodifiableSet(supported);
+
+            this.features = features;
+        }
+
+        return features.contains(feature);
+    }
+
+    @Override
+    public int compareTo(@Nonnull final Version other) {
+        if (this == other) return 0;
+
+        final int length = Math.max(this.texts.length, other.texts.length);
+
+        for (int i = 0; i < length; i++) {
+            final String text1 = i < this.texts.length ? this.texts[i] : "";
+            final String text2 = i < other.texts.length ? other.texts[i] : "";
+
+            int cmp = text1.compareTo(text2);
+            if (cmp != 0) return cmp;
+
+            // A segment without digits, or a missing one, comes before any number
+            final long number1 = i < this.numbers.length ? this.numbers[i] : -1;
+            final long number2 = i < other.numbers.length ? other.numbers[i] : -1;
+
+            cmp = Long.compare(number1, number2);
+            if (cmp != 0) return cmp;
+
+            // Of equal numbers, the one with more leading zeroes comes last
+            cmp = Integer.compare(i < this.digits.length ? this.digits[i] : 0, i < other.digits.length ? other.digits[i] : 0);
+            if (cmp != 0) return cmp;
+        }
+
+        return 0;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) return true;
+        if (!(other instanceof Version)) return false;
+
+        return this.compareTo((Version)other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return this.value;
+    }
+
+    private static int skip(@Nonnull final String value, final int start, final boolean isDigit) {
+        int index = start;
+        while (index < value.length() && Character.isDigit(value.charAt(index)) == isDigit) index++;
+
+        return index;
+    }
+
+    private static long parseNumber(@Nonnull final String value, final int start, final int end) {
+        if (start == end) return -1;
+
+        if (end - start > Version.MAX_DIGITS) {
+            // Leading zeroes do not count towards the magnitude
+            int index = start;
+            while (index < end - 1 && value.charAt(index) == '0') index++;
+
+            if (end - index > Version.MAX_DIGITS) return Long.MAX_VALUE;
+
+            return Long.parseLong(value.substring(index, end));
+        }
+
+        long number = 0;
+        for (int i = start; i < end; i++) number = number * 10 + Character.digit(value.charAt(i), 10);
+
+        return number;
+    }
+}
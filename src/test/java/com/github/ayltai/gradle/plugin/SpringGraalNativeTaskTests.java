@@ -1,16 +1,38 @@
 package com.github.ayltai.gradle.plugin;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.jar.Manifest;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 
+import com.github.ayltai.gradle.plugin.internal.BuildMetrics;
+import com.github.ayltai.gradle.plugin.internal.BuildScanUtils;
+import com.github.ayltai.gradle.plugin.internal.InitializationAdvisor;
+import com.github.ayltai.gradle.plugin.internal.MemoryWatchdog;
+import com.github.ayltai.gradle.plugin.internal.OutputAnalyzer;
+import com.github.ayltai.gradle.plugin.internal.PlatformUtils;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.Task;
 import org.gradle.api.internal.provider.MissingValueException;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
 public final class SpringGraalNativeTaskTests extends UnitTests {
@@ -22,11 +44,55 @@ public final class SpringGraalNativeTaskTests extends UnitTests {
 
     //endregion
 
+    public static final class BuildScan {
+        final Map<String, String> values = new LinkedHashMap<>();
+
+        public void value(final String name, final String value) {
+            this.values.put(name, value);
+        }
+    }
+
     @Test
     public void testSetUp() {
         Assertions.assertTrue(this.getTask() instanceof SpringGraalNativeTask);
     }
 
+    @Test
+    public void given_extensionSetAfterTaskIsConfigured_when_taskIsExecuted_then_extensionIsUsed() {
+        final SpringGraalNativeTask      task      = this.getTask();
+        final SpringGraalNativeExtension extension = this.project.getExtensions().getByType(SpringGraalNativeExtension.class);
+
+        Assertions.assertEquals(Constants.DEFAULT_TOOL_VERSION, task.toolVersion.get());
+        Assertions.assertFalse(task.dumpConfig.isPresent());
+
+        extension.setToolVersion("22.3.0");
+        extension.setDumpConfig("build/spring-native.json");
+        extension.setRemoveYamlSupport(true);
+
+        Assertions.assertEquals("22.3.0", task.toolVersion.get());
+        Assertions.assertEquals(new File(this.project.getProjectDir(), "build/spring-native.json"), task.dumpConfig.get().getAsFile());
+        Assertions.assertFalse(((SpringGraalNativeTask)this.project.getTasks().getByName(SpringGraalNativePlugin.INIT_TASK_NAME)).dumpConfig.isPresent());
+        Assertions.assertTrue(task.removeYamlSupport.get());
+        Assertions.assertTrue(task.getBootJar().isPresent());
+    }
+
+    @Test
+    public void testGetOutputFile() {
+        final SpringGraalNativeTask task = this.getTask();
+
+        Assertions.assertTrue(task.getOutputs().getHasOutput());
+        Assertions.assertEquals(new File(this.getOutputDir(), PlatformUtils.isWindows() ? this.project.getName() + ".exe" : this.project.getName()), task.getOutputFile().get().getAsFile());
+    }
+
+    @Test
+    public void testGetReports() {
+        final SpringGraalNativeTask task      = this.getTask();
+        final File                  reportDir = new File(this.project.getBuildDir(), SpringGraalNativeTask.DIR_REPORTS);
+
+        Assertions.assertEquals(new File(reportDir, this.project.getName() + ".json"), task.getJsonReport().get().getAsFile());
+        Assertions.assertEquals(new File(reportDir, this.project.getName() + ".csv"), task.getCsvReport().get().getAsFile());
+    }
+
     @Test
     public void testDeleteOutputDir() throws IOException {
         final File outputDir = this.getOutputDir();
@@ -51,6 +117,30 @@ public final class SpringGraalNativeTaskTests extends UnitTests {
         Assertions.assertEquals(SpringGraalNativeTaskTests.CLASSES_PATH, classPath);
     }
 
+    @Test
+    public void testGetClassPathFromFiles() {
+        final SpringGraalNativeTask task      = this.getTask();
+        final File                  jar1      = new File("test1.jar");
+        final File                  jar2      = new File("test2.jar");
+        final String                separator = PlatformUtils.isWindows() ? ";" : ":";
+        final String                classPath = task.getClassPath(SpringGraalNativeTaskTests.CLASS_PATH, Stream.of(jar1, jar2));
+
+        Assertions.assertEquals(SpringGraalNativeTaskTests.CLASS_PATH + separator + jar1.getAbsolutePath() + separator + jar2.getAbsolutePath(), classPath);
+    }
+
+    @Test
+    public void testWriteManifest() throws IOException {
+        final SpringGraalNativeTask task = this.getTask();
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+        task.writeManifest(this.getOutputDir().toPath());
+
+        try (InputStream inputStream = new FileInputStream(new File(new File(this.getOutputDir(), "META-INF"), "MANIFEST.MF"))) {
+            final Manifest manifest = new Manifest(inputStream);
+
+            Assertions.assertEquals(SpringGraalNativeTaskTests.MAIN_CLASS_NAME, manifest.getMainAttributes().getValue("Start-Class"));
+        }
+    }
+
     @Test
     public void given_missingMainClassName_when_getCommandLineArgsIsCalled_then_throwsMissingValueException() {
         Assertions.assertThrows(MissingValueException.class, () -> ((SpringGraalNativeTask)this.getTask()).getCommandLineArgs(SpringGraalNativeTaskTests.CLASS_PATH));
@@ -87,6 +177,320 @@ public final class SpringGraalNativeTaskTests extends UnitTests {
         Assertions.assertTrue(args.contains("-Dspring.native.remove-jmx-support=true"), args + " should contain '-Dspring.native.remove-jmx-support=true'");
     }
 
+    @Test
+    public void testGetTraceClassInitializationArgs() {
+        final SpringGraalNativeTask task = this.getTask();
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+        task.traceClassInitializationEnabled.set(true);
+        task.traceClassInitializationFor.add("com.example.Clock");
+
+        task.toolVersion.set("20.2.0");
+
+        List<String> args = task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null);
+        Assertions.assertTrue(args.contains("-H:+TraceClassInitialization"), args + " should contain '-H:+TraceClassInitialization'");
+        Assertions.assertTrue(args.stream().noneMatch(arg -> arg.startsWith("--trace-class-initialization=")));
+
+        // GraalVM 20.3.0 replaced -H:+TraceClassInitialization with --trace-class-initialization
+        task.toolVersion.set("20.3.0");
+
+        args = task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null);
+        Assertions.assertTrue(args.contains("--trace-class-initialization=com.example.Clock"), args + " should contain '--trace-class-initialization=com.example.Clock'");
+        Assertions.assertFalse(args.contains("-H:+TraceClassInitialization"));
+    }
+
+    @Test
+    public void testGetVariantCommandLineArgs() {
+        final SpringGraalNativeTask task = this.getTask();
+        task.extraArgs.add("-H:Xyz=uvw");
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+        task.springNativeMode.set(SpringNativeMode.REFLECTION);
+
+        final SpringGraalNativeExtension extension = this.project.getExtensions().getByType(SpringGraalNativeExtension.class);
+        final SpringGraalNativeVariant   variant   = extension.getVariants().create("cli");
+        variant.setMainClassName("cli");
+        variant.setSpringNativeMode(SpringNativeMode.FUNCTIONAL);
+        variant.setExtraArgs(Collections.singletonList("-H:Def=abc"));
+
+        final List<String> args = task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, variant);
+        Assertions.assertTrue(args.contains("-H:Name=" + this.project.getName() + "-cli"), args + " should contain '-H:Name=" + this.project.getName() + "-cli'");
+        Assertions.assertTrue(args.contains("-Dspring.native.mode=" + SpringNativeMode.FUNCTIONAL), args + " should contain '-Dspring.native.mode=" + SpringNativeMode.FUNCTIONAL + "'");
+        Assertions.assertFalse(args.contains("-Dspring.native.mode=" + SpringNativeMode.REFLECTION));
+        Assertions.assertTrue(args.indexOf("-H:Xyz=uvw") < args.indexOf("-H:Def=abc"));
+        Assertions.assertEquals("cli", args.get(args.size() - 1));
+    }
+
+    @Test
+    public void testGetVariantOutputs() {
+        final SpringGraalNativeExtension extension = this.project.getExtensions().getByType(SpringGraalNativeExtension.class);
+        extension.getVariants().create("cli");
+
+        final SpringGraalNativeVariantsTask task      = (SpringGraalNativeVariantsTask)this.project.getTasks().getByName(SpringGraalNativePlugin.VARIANTS_TASK_NAME);
+        final File                          outputDir = new File(this.project.getBuildDir(), SpringGraalNativeVariantsTask.DIR_OUTPUT);
+        final File                          reportDir = new File(this.project.getBuildDir(), SpringGraalNativeTask.DIR_REPORTS);
+
+        Assertions.assertEquals(1, task.getVariants().size());
+        Assertions.assertEquals(new File(outputDir, PlatformUtils.isWindows() ? this.project.getName() + "-cli.exe" : this.project.getName() + "-cli"), task.getVariantOutputs().get("cli.image"));
+        Assertions.assertEquals(new File(reportDir, this.project.getName() + "-cli.json"), task.getVariantOutputs().get("cli.json"));
+        Assertions.assertEquals(new File(reportDir, this.project.getName() + "-cli.csv"), task.getVariantOutputs().get("cli.csv"));
+    }
+
+    @Test
+    public void testGetAgentConfigurationArgs() {
+        final SpringGraalNativeTask task      = this.getTask();
+        final File                  configDir = new File(this.project.getBuildDir(), SpringGraalNativeAgentTask.DIR_OUTPUT);
+        final String                arg       = "-H:ConfigurationFileDirectories=" + configDir.getAbsolutePath();
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+        task.springNativeMode.set(SpringNativeMode.AGENT);
+
+        Assertions.assertEquals(configDir, task.getConfigurationDir().get().getAsFile());
+        Assertions.assertFalse(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).contains(arg));
+
+        Assertions.assertTrue(configDir.mkdirs());
+        Assertions.assertTrue(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).contains(arg), "Command line args should contain '" + arg + "'");
+
+        task.springNativeMode.set(SpringNativeMode.REFLECTION);
+        Assertions.assertFalse(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).contains(arg));
+    }
+
+    @Test
+    public void testGetDumpConfigArgs() {
+        final SpringGraalNativeTask task = this.getTask();
+        final File                  dump = new File(this.project.getBuildDir(), "dump.txt");
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+
+        Assertions.assertTrue(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).stream().noneMatch(arg -> arg.startsWith("-Dspring.native.dump-config=")));
+
+        task.dumpConfig.set(dump);
+        Assertions.assertTrue(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).contains("-Dspring.native.dump-config=" + dump.getAbsolutePath()));
+
+        // The configuration is dumped in every mode
+        task.springNativeMode.set(SpringNativeMode.AGENT);
+        Assertions.assertTrue(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).contains("-Dspring.native.dump-config=" + dump.getAbsolutePath()));
+
+        final SpringGraalNativeVariant variant = this.project.getExtensions().getByType(SpringGraalNativeExtension.class).getVariants().create("cli");
+        Assertions.assertTrue(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, variant).stream().noneMatch(arg -> arg.startsWith("-Dspring.native.dump-config=")));
+    }
+
+    @Test
+    public void testGetSizeReportArgs() {
+        final SpringGraalNativeTask task = this.getTask();
+        final String                arg  = "-H:DashboardDump=" + new File(task.reportDir.get().getAsFile(), this.project.getName() + "-dashboard").getAbsolutePath();
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+
+        Assertions.assertFalse(task.getDashboardDump().isPresent());
+        Assertions.assertFalse(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).contains(arg));
+
+        task.sizeReport.set(true);
+
+        final List<String> args = task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null);
+        Assertions.assertTrue(args.contains(arg), "Command line args should contain '" + arg + "'");
+        Assertions.assertTrue(args.contains("-H:+DashboardCode"), "Command line args should contain '-H:+DashboardCode'");
+        Assertions.assertTrue(args.contains("-H:+DashboardHeap"), "Command line args should contain '-H:+DashboardHeap'");
+        Assertions.assertEquals(new File(task.reportDir.get().getAsFile(), this.project.getName() + "-dashboard.dump"), task.getDashboardDump().get().getAsFile());
+    }
+
+    @Test
+    public void testGetRetryArgs() {
+        final SpringGraalNativeTask task = this.getTask();
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+        task.extraArgs.add("-H:NumberOfThreads=8");
+
+        final List<String> args = SpringGraalNativeTask.getRetryArgs(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null), 2048L * 1024 * 1024, 4);
+
+        Assertions.assertEquals(1, args.stream().filter(arg -> arg.startsWith("-H:NumberOfThreads=")).count());
+        Assertions.assertTrue(args.indexOf("-J-Xmx2048m") < args.indexOf("-cp"), "Command line args should contain '-J-Xmx2048m' before the classpath");
+        Assertions.assertTrue(args.indexOf("-H:NumberOfThreads=4") < args.indexOf("-cp"), "Command line args should contain '-H:NumberOfThreads=4' before the classpath");
+        Assertions.assertEquals(SpringGraalNativeTaskTests.MAIN_CLASS_NAME, args.get(args.size() - 1));
+
+        // The retry of a build with maxHeapSize gets less heap than it, even if the memory limit is much higher
+        task.maxHeapSize.set("2g");
+        Assertions.assertEquals(1536L * 1024 * 1024, MemoryWatchdog.getRetryHeapSize(MemoryWatchdog.getHeapSize(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null)), 16384L * 1024 * 1024));
+    }
+
+    @Test
+    public void testExecNativeImage() {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final SpringGraalNativeTask task           = this.getTask();
+        final OutputStream          standardOutput = task.getStandardOutput();
+        final List<String>          args           = Arrays.asList("sh", "-c", "echo first; echo second");
+        final List<String>          firstLines     = new ArrayList<>();
+        final List<String>          secondLines    = new ArrayList<>();
+
+        Assertions.assertTrue(this.getOutputDir().mkdirs());
+
+        // A retry runs native-image again on the same task, and its lines must reach only its own consumers
+        Assertions.assertTrue(task.execNativeImage(this.getOutputDir(), args, 0, firstLines::add));
+        Assertions.assertTrue(task.execNativeImage(this.getOutputDir(), args, 0, secondLines::add));
+
+        Assertions.assertEquals(Arrays.asList("first", "second"), firstLines);
+        Assertions.assertEquals(Arrays.asList("first", "second"), secondLines);
+        Assertions.assertSame(standardOutput, task.getStandardOutput());
+    }
+
+    @Test
+    public void testExecNativeImageErrorOutput() {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final SpringGraalNativeTask task        = this.getTask();
+        final OutputStream          errorOutput = task.getErrorOutput();
+        final OutputAnalyzer        analyzer    = new OutputAnalyzer(OutputAnalyzer.DEFAULT_PATTERNS, () -> { });
+
+        Assertions.assertTrue(this.getOutputDir().mkdirs());
+
+        // native-image prints its errors to the error output
+        Assertions.assertTrue(task.execNativeImage(this.getOutputDir(), Arrays.asList("sh", "-c", "echo 'Error: Detected a started Thread in the image heap.' >&2"), 0, analyzer::accept));
+
+        Assertions.assertTrue(analyzer.isFatal(), "An error printed to the error output should be analyzed");
+        Assertions.assertSame(errorOutput, task.getErrorOutput());
+    }
+
+    @Test
+    public void testExecNativeImageClassInitializationTrace() throws IOException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final SpringGraalNativeTask task    = this.getTask();
+        final InitializationAdvisor advisor = new InitializationAdvisor();
+        final File                  report  = new File(this.getOutputDir(), "class_initialization_report.csv");
+
+        Assertions.assertTrue(this.getOutputDir().mkdirs());
+        Files.write(report.toPath(), Collections.singletonList("com.example.Clock, RUN_TIME, classes are initialized at run time by default"), StandardCharsets.UTF_8);
+
+        // native-image traces the classes initialized at build time by mistake to its error output, then fails
+        Assertions.assertThrows(GradleException.class, () -> task.execNativeImage(this.getOutputDir(), Arrays.asList("sh", "-c", "echo ' com.example.Clock the class was requested to be initialized at run time (from the command line).' >&2; exit 1"), 0, advisor::accept));
+
+        Assertions.assertEquals("initialized at build time by mistake", advisor.advise(report, Collections.emptyList()).get(0).getReason());
+    }
+
+    @Test
+    public void testGetOutputAnalyzer() {
+        final SpringGraalNativeTask task = this.getTask();
+
+        OutputAnalyzer analyzer = task.getOutputAnalyzer(this.getOutputDir());
+        analyzer.accept("Error: Detected a started Thread in the image heap.");
+
+        Assertions.assertFalse(analyzer.isFatal(), "Output should not be analyzed unless failFast is enabled");
+
+        task.failFast.set(true);
+
+        analyzer = task.getOutputAnalyzer(this.getOutputDir());
+        analyzer.accept("Error: Detected a started Thread in the image heap.");
+
+        Assertions.assertTrue(analyzer.isFatal());
+
+        task.fatalPatterns.add("(unclosed");
+        Assertions.assertThrows(InvalidUserDataException.class, () -> task.getOutputAnalyzer(this.getOutputDir()));
+    }
+
+    @Test
+    public void testGetBuildScanService() {
+        final BuildScan buildScan = new BuildScan();
+        this.project.getExtensions().add(BuildScanUtils.EXTENSION_NAME, buildScan);
+
+        // The build scan is looked up when the task is configured
+        final SpringGraalNativeTask task = this.getTask();
+        task.getBuildScanService().get().addValues(Collections.singletonMap("native-image total time", "12.3s"));
+
+        Assertions.assertEquals("12.3s", buildScan.values.get("native-image total time"));
+    }
+
+    @Test
+    public void testGetBuildScanValues() {
+        final BuildMetrics metrics = new BuildMetrics();
+        metrics.accept("[2/7] Performing analysis...  [*******]                                                          (30.6s @ 1.72GB)");
+        metrics.accept("Finished generating 'app' in 1m 2s.");
+
+        final Map<String, String> values = SpringGraalNativeTask.getBuildScanValues(metrics);
+
+        Assertions.assertEquals("30.6s", values.get("native-image analysis time"));
+        Assertions.assertEquals("62.0s", values.get("native-image total time"));
+        Assertions.assertFalse(values.containsKey("native-image peak RSS"));
+    }
+
+    @Test
+    public void testGetDownloadUrls() {
+        final SpringGraalNativeTask task = this.getTask();
+        task.toolVersion.set("21.1.0");
+        task.javaVersion.set("11");
+
+        Assertions.assertTrue(task.getDownloadUrls().get(0).startsWith(Constants.DEFAULT_MIRROR + "/vm-21.1.0/graalvm-ce-java11-"));
+
+        task.mirrors.set(Collections.emptyList());
+        Assertions.assertThrows(InvalidUserDataException.class, task::getDownloadUrls);
+
+        final String fileName = "graalvm-ce-java11-linux-amd64-21.1.0.tar.gz";
+
+        Assertions.assertEquals("https://mirror.example.com/graalvm/vm-21.1.0/" + fileName, SpringGraalNativeTask.getDownloadUrl("https://mirror.example.com/graalvm/", "21.1.0", fileName));
+        Assertions.assertEquals("file:///opt/graalvm/" + fileName, SpringGraalNativeTask.getDownloadUrl("file:///opt/graalvm/[file]", "21.1.0", fileName));
+        Assertions.assertEquals(new File(this.getOutputDir(), "vm-21.1.0/" + fileName).toURI().toString(), SpringGraalNativeTask.getDownloadUrl(this.getOutputDir().getAbsolutePath(), "21.1.0", fileName));
+    }
+
+    @Test
+    public void testGetMirrors() {
+        final SpringGraalNativeTask      task      = this.getTask();
+        final SpringGraalNativeExtension extension = this.project.getExtensions().getByType(SpringGraalNativeExtension.class);
+
+        extension.setMirrors(Arrays.asList("https://mirror.example.com/graalvm", "file:///opt/graalvm/[file]", "mirror/[file]", this.getOutputDir().getAbsolutePath()));
+
+        Assertions.assertEquals(Arrays.asList("https://mirror.example.com/graalvm", "file:///opt/graalvm/[file]", new File(this.project.getProjectDir(), "mirror/[file]").getAbsolutePath(), this.getOutputDir().getAbsolutePath()), task.mirrors.get());
+    }
+
+    @Test
+    public void testGetBuildProfileArgs() {
+        final SpringGraalNativeTask task = this.getTask();
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+        task.toolVersion.set("22.3.0");
+        task.buildProfile.set(BuildProfile.DEV);
+
+        Assertions.assertTrue(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).contains("-Ob"), "Command line args should contain '-Ob'");
+
+        task.toolVersion.set("21.1.0");
+        Assertions.assertTrue(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).contains("-O0"), "Command line args should contain '-O0'");
+
+        task.toolVersion.set("20.3.0");
+        Assertions.assertFalse(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).stream().anyMatch(arg -> arg.startsWith("-O")));
+
+        task.toolVersion.set("23.0.0");
+        task.buildProfile.set(BuildProfile.RELEASE);
+
+        List<String> args = task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null);
+        Assertions.assertTrue(args.contains("-O2"), "Command line args should contain '-O2'");
+        Assertions.assertTrue(args.contains("-march=native"), "Command line args should contain '-march=native'");
+
+        task.extraArgs.add("-march=x86-64-v3");
+
+        args = task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null);
+        Assertions.assertFalse(args.contains("-march=native"));
+        Assertions.assertTrue(args.contains("-march=x86-64-v3"));
+
+        task.buildProfile.set("fast");
+        Assertions.assertThrows(InvalidUserDataException.class, () -> task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null));
+    }
+
+    @Test
+    public void testGetInitializationArgs() {
+        final SpringGraalNativeInitializationTask task = (SpringGraalNativeInitializationTask)this.project.getTasks().getByName(SpringGraalNativePlugin.INIT_TASK_NAME);
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+
+        Assertions.assertTrue(task.getCommandLineArgs(null, null, SpringGraalNativeTaskTests.CLASS_PATH, null).contains("-H:+PrintClassInitialization"), "Command line args should contain '-H:+PrintClassInitialization'");
+        Assertions.assertEquals(new File(this.project.getBuildDir(), SpringGraalNativeInitializationTask.DIR_OUTPUT), task.outputDir.get().getAsFile());
+        Assertions.assertEquals(new File(task.reportDir.get().getAsFile(), this.project.getName() + "-initialize-at-build-time.txt"), task.getSuggestionFile().get().getAsFile());
+    }
+
+    @Test
+    public void testGetAgentCommandLineArgs() {
+        final SpringGraalNativeAgentTask task = (SpringGraalNativeAgentTask)this.project.getTasks().getByName(SpringGraalNativePlugin.AGENT_TASK_NAME);
+        task.mainClassName.set(SpringGraalNativeTaskTests.MAIN_CLASS_NAME);
+        task.applicationArgs.add("--spring.profiles.active=native");
+
+        final List<String> args = task.getAgentCommandLineArgs(null, SpringGraalNativeTaskTests.CLASS_PATH);
+        Assertions.assertEquals(PlatformUtils.isWindows() ? "java.exe" : "java", args.get(0));
+        Assertions.assertEquals("-agentlib:native-image-agent=config-merge-dir=" + new File(this.project.getBuildDir(), SpringGraalNativeAgentTask.DIR_OUTPUT).getAbsolutePath(), args.get(1));
+        Assertions.assertTrue(args.contains("-Dserver.port=8080"), args + " should contain '-Dserver.port=8080'");
+        Assertions.assertEquals(SpringGraalNativeTaskTests.MAIN_CLASS_NAME, args.get(args.size() - 2));
+        Assertions.assertEquals("--spring.profiles.active=native", args.get(args.size() - 1));
+    }
+
     @Nonnull
     private <T extends Task> T getTask() {
         return (T)project.getTasks().getByName(SpringGraalNativePlugin.TASK_NAME);
@@ -1,10 +1,22 @@
 package com.github.ayltai.gradle.plugin.internal;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+import javax.annotation.Nonnull;
 
 import com.github.ayltai.gradle.plugin.UnitTests;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -21,4 +33,78 @@ public final class ArchiveUtilsTests extends UnitTests {
         Assertions.assertTrue(new File(new File(this.getOutputDir(), "META-INF"), "MANIFEST.MF").exists());
         Assertions.assertTrue(new File(new File(this.getOutputDir(), "org"), "springframework").exists());
     }
+
+    @Test
+    public void testSyncJar() throws IOException, IllegalAccessException {
+        final File manifest = new File(new File(this.getOutputDir(), "META-INF"), "MANIFEST.MF");
+        final File stale    = new File(new File(new File(this.getOutputDir(), "BOOT-INF"), "lib"), "stale.jar");
+
+        Assertions.assertTrue(ArchiveUtils.syncJar(this.jarFile, this.getOutputDir()) > 0);
+        Assertions.assertTrue(manifest.exists());
+        Assertions.assertEquals(0, ArchiveUtils.syncJar(this.jarFile, this.getOutputDir()));
+
+        final File       syncManifest = new File(this.getOutputDir(), ArchiveUtils.FILE_SYNC_MANIFEST);
+        final Properties properties   = new Properties();
+        try (InputStream inputStream = new FileInputStream(syncManifest)) {
+            properties.load(inputStream);
+        }
+
+        properties.setProperty("BOOT-INF/lib/stale.jar", "0:0:0");
+        try (OutputStream outputStream = new FileOutputStream(syncManifest)) {
+            properties.store(outputStream, null);
+        }
+
+        Assertions.assertTrue(manifest.delete());
+        Assertions.assertTrue(stale.createNewFile());
+        Assertions.assertEquals(2, ArchiveUtils.syncJar(this.jarFile, this.getOutputDir()));
+        Assertions.assertTrue(manifest.exists());
+        Assertions.assertFalse(stale.exists());
+    }
+
+    @Test
+    public void testDecompressTarGZip() throws IOException, IllegalAccessException {
+        final File archive = this.createTarGZip("graalvm/bin/native-image", "graalvm/lib/lib.so");
+
+        ArchiveUtils.decompressTarGZip(archive, this.getOutputDir());
+
+        final File bin = new File(new File(new File(this.getOutputDir(), "graalvm"), "bin"), "native-image");
+        Assertions.assertTrue(bin.canExecute());
+        Assertions.assertEquals("graalvm/bin/native-image", new String(Files.readAllBytes(bin.toPath()), StandardCharsets.UTF_8));
+        Assertions.assertTrue(Files.isSymbolicLink(new File(new File(new File(this.getOutputDir(), "graalvm"), "bin"), "link").toPath()));
+        Assertions.assertTrue(new File(new File(new File(this.getOutputDir(), "graalvm"), "lib"), "lib.so").exists());
+    }
+
+    @Test
+    public void given_entryOutsideOfOutputDir_when_decompressTarGZipIsCalled_then_throwsIllegalAccessException() throws IOException {
+        final File archive = this.createTarGZip("../outside");
+
+        Assertions.assertThrows(IllegalAccessException.class, () -> ArchiveUtils.decompressTarGZip(archive, this.getOutputDir()));
+        Assertions.assertFalse(new File(this.getOutputDir().getParentFile(), "outside").exists());
+    }
+
+    @Nonnull
+    private File createTarGZip(@Nonnull final String... names) throws IOException {
+        final File archive = new File(this.project.getBuildDir(), "test.tar.gz");
+        Assertions.assertTrue(archive.getParentFile().mkdirs());
+
+        try (TarArchiveOutputStream outputStream = new TarArchiveOutputStream(new GzipCompressorOutputStream(new FileOutputStream(archive)))) {
+            for (final String name : names) {
+                final byte[]          bytes = name.getBytes(StandardCharsets.UTF_8);
+                final TarArchiveEntry entry = new TarArchiveEntry(name);
+                entry.setSize(bytes.length);
+
+                outputStream.putArchiveEntry(entry);
+                outputStream.write(bytes);
+                outputStream.closeArchiveEntry();
+            }
+
+            final TarArchiveEntry link = new TarArchiveEntry("graalvm/bin/link", TarArchiveEntry.LF_SYMLINK);
+            link.setLinkName("native-image");
+
+            outputStream.putArchiveEntry(link);
+            outputStream.closeArchiveEntry();
+        }
+
+        return archive;
+    }
 }
@@ -0,0 +1,56 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class BenchmarkReportTests extends UnitTests {
+    private static final double DELTA = 0.001;
+
+    @Test
+    public void testMedian() {
+        Assertions.assertEquals(2, BenchmarkReport.median(Arrays.asList(3.0, 1.0, 2.0)), BenchmarkReportTests.DELTA);
+        Assertions.assertEquals(2.5, BenchmarkReport.median(Arrays.asList(4.0, 1.0, 3.0, 2.0)), BenchmarkReportTests.DELTA);
+    }
+
+    @Test
+    public void testToJson() {
+        final BenchmarkReport report = BenchmarkReportTests.createReport(100, 200);
+        final String          json   = report.toJson(Collections.singletonMap("imageName", "spring-boot"));
+
+        Assertions.assertTrue(json.startsWith("{\n  \"imageName\": \"spring-boot\",\n  \"iterations\": 3,\n  \"binarySizeBytes\": 200,"), json);
+        Assertions.assertTrue(json.contains("\"startupMillis\": [100.00, 110.00, 90.00]"), json);
+
+        final Map<String, Double> numbers = JsonUtils.parseNumbers(json);
+        Assertions.assertEquals(100, numbers.get(BenchmarkReport.KEY_STARTUP_MILLIS), BenchmarkReportTests.DELTA);
+        Assertions.assertEquals(1000, numbers.get(BenchmarkReport.KEY_PEAK_RSS), BenchmarkReportTests.DELTA);
+        Assertions.assertEquals(200, numbers.get(BenchmarkReport.KEY_BINARY_SIZE), BenchmarkReportTests.DELTA);
+        Assertions.assertFalse(numbers.containsKey("imageName"));
+    }
+
+    @Test
+    public void testGetRegressions() {
+        final Map<String, Double> baseline = JsonUtils.parseNumbers(BenchmarkReportTests.createReport(100, 200).toJson(Collections.emptyMap()));
+
+        Assertions.assertTrue(BenchmarkReportTests.createReport(109, 200).getRegressions(baseline, 10, 10, 10).isEmpty());
+        Assertions.assertTrue(BenchmarkReportTests.createReport(150, 300).getRegressions(baseline, null, null, null).isEmpty());
+
+        final List<String> regressions = BenchmarkReportTests.createReport(150, 300).getRegressions(baseline, 10, 10, 10);
+        Assertions.assertEquals(2, regressions.size());
+        Assertions.assertTrue(regressions.get(0).startsWith("Median startup time increased by 50.0%"), regressions.get(0));
+        Assertions.assertTrue(regressions.get(1).startsWith("Binary size increased by 50.0%"), regressions.get(1));
+    }
+
+    private static BenchmarkReport createReport(final double startupMillis, final long binarySize) {
+        return new BenchmarkReport(Arrays.asList(
+            new StartupBenchmark.Sample(startupMillis, 1000L),
+            new StartupBenchmark.Sample(startupMillis + 10, 1200L),
+            new StartupBenchmark.Sample(startupMillis - 10, 900L)), binarySize);
+    }
+}
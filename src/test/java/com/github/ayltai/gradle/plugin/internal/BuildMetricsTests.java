@@ -0,0 +1,115 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.apache.commons.compress.utils.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class BuildMetricsTests extends UnitTests {
+    private static final double DELTA = 0.001;
+
+    @Test
+    public void testAcceptLegacyOutput() throws IOException {
+        final BuildMetrics metrics = BuildMetricsTests.parse("native-image-21.1.0.log");
+
+        final Map<String, Double> phaseTimes = metrics.getPhaseTimes();
+        Assertions.assertEquals(Arrays.asList("classlist", "cap", "setup", "clinit", "typeflow", "objects", "features", "analysis", "universe", "parse", "inline", "compile", "image", "write", BuildMetrics.PHASE_TOTAL), new ArrayList<>(phaseTimes.keySet()));
+        Assertions.assertEquals(3052.46, phaseTimes.get("classlist"), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(61221.43, phaseTimes.get("analysis"), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(49612.09, phaseTimes.get("compile"), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(148779.54, phaseTimes.get(BuildMetrics.PHASE_TOTAL), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(Math.round(5.12 * 1024 * 1024 * 1024), (long)metrics.getPhaseMemories().get("write"));
+        Assertions.assertNull(metrics.getPeakRss());
+        Assertions.assertNull(metrics.getReachableClasses());
+    }
+
+    @Test
+    public void testAcceptOutput() throws IOException {
+        final BuildMetrics metrics = BuildMetricsTests.parse("native-image-22.2.0.log");
+
+        final Map<String, Double> phaseTimes = metrics.getPhaseTimes();
+        Assertions.assertEquals(Arrays.asList("setup", "analysis", "universe", "parse", "inline", "compile", "image", BuildMetrics.PHASE_TOTAL), new ArrayList<>(phaseTimes.keySet()));
+        Assertions.assertEquals(52800, phaseTimes.get("analysis"), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(134000, phaseTimes.get(BuildMetrics.PHASE_TOTAL), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(Math.round(3.45 * 1024 * 1024 * 1024), (long)metrics.getPhaseMemories().get("analysis"));
+        Assertions.assertEquals(Math.round(6.12 * 1024 * 1024 * 1024), (long)metrics.getPeakRss());
+        Assertions.assertEquals(15288L, (long)metrics.getReachableClasses());
+        Assertions.assertEquals(24913L, (long)metrics.getReachableFields());
+        Assertions.assertEquals(73451L, (long)metrics.getReachableMethods());
+    }
+
+    @Test
+    public void testAcceptColoredOutput() {
+        final BuildMetrics metrics = new BuildMetrics();
+        metrics.accept("\u001B[1m[2/7] Performing analysis...\u001B[0m  [****]");
+        metrics.accept("Warning: Could not resolve class");
+        metrics.accept("                                        \u001B[2m(12.5s @ 1.20GB)\u001B[0m");
+
+        Assertions.assertEquals(12500, metrics.getPhaseTimes().get("analysis"), BuildMetricsTests.DELTA);
+    }
+
+    @Test
+    public void testParseDecimal() {
+        Assertions.assertEquals(1234.56, BuildMetrics.parseDecimal("1,234.56"), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(1234.56, BuildMetrics.parseDecimal("1.234,56"), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(12.5, BuildMetrics.parseDecimal("12.5"), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(15288, BuildMetrics.parseDecimal("15,288"), BuildMetricsTests.DELTA);
+        Assertions.assertEquals(42, BuildMetrics.parseDecimal("42"), BuildMetricsTests.DELTA);
+    }
+
+    @Test
+    public void testToJsonAndCsv() throws IOException {
+        final BuildMetrics metrics = BuildMetricsTests.parse("native-image-22.2.0.log");
+
+        final String json = metrics.toJson(Collections.singletonMap("imageName", "spring-boot"));
+        Assertions.assertTrue(json.startsWith("{\n  \"imageName\": \"spring-boot\",\n  \"setupTimeMillis\": 6400.00,"), json);
+        Assertions.assertTrue(json.contains("\"reachableMethods\": 73451\n}"), json);
+
+        final String[] csv = metrics.toCsv(Collections.singletonMap("imageName", "spring-boot")).split("\n");
+        Assertions.assertEquals(2, csv.length);
+        Assertions.assertEquals(csv[0].split(",").length, csv[1].split(",", -1).length);
+        Assertions.assertTrue(csv[0].startsWith("imageName,setupTimeMillis,"));
+        Assertions.assertTrue(csv[1].startsWith("spring-boot,6400.00,"));
+    }
+
+    @Test
+    public void testLineOutputStream() throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final List<String>          lines        = new ArrayList<>();
+
+        try (OutputStream lineOutputStream = new LineOutputStream(outputStream, StandardCharsets.UTF_8, lines::add)) {
+            lineOutputStream.write("first\r\nsec".getBytes(StandardCharsets.UTF_8));
+            lineOutputStream.write('o');
+            lineOutputStream.write("nd\n\nlast".getBytes(StandardCharsets.UTF_8));
+        }
+
+        Assertions.assertEquals(Arrays.asList("first", "second", "", "last"), lines);
+        Assertions.assertEquals("first\r\nsecond\n\nlast", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Nonnull
+    private static BuildMetrics parse(@Nonnull final String name) throws IOException {
+        final BuildMetrics metrics = new BuildMetrics();
+
+        try (
+            InputStream  inputStream  = BuildMetricsTests.class.getClassLoader().getResourceAsStream("logs/" + name);
+            OutputStream outputStream = new LineOutputStream(new ByteArrayOutputStream(), StandardCharsets.UTF_8, metrics::accept)) {
+            IOUtils.copy(inputStream, outputStream);
+        }
+
+        return metrics;
+    }
+}
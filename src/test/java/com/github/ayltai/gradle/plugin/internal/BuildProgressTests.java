@@ -0,0 +1,66 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class BuildProgressTests extends UnitTests {
+    @Test
+    public void testAccept() {
+        final List<String> statuses = new ArrayList<>();
+
+        try (BuildProgress progress = new BuildProgress(statuses::add, null, System.currentTimeMillis())) {
+            Assertions.assertNull(progress.getPhase());
+
+            progress.accept("========================================================================================================================");
+            progress.accept("[1/7] Initializing...                                                                                    (5.2s @ 0.24GB)");
+            progress.accept("\u001B[1m[2/7] Performing analysis...\u001B[0m  [*******]");
+
+            Assertions.assertEquals("[2/7] Performing analysis", progress.getPhase());
+
+            // Lines are only parsed, and the progress is reported by the executor
+            Assertions.assertTrue(statuses.isEmpty());
+
+            progress.report();
+
+            Assertions.assertEquals(1, statuses.size());
+            Assertions.assertTrue(statuses.get(0).startsWith("[2/7] Performing analysis, 0s"), statuses.get(0));
+            Assertions.assertTrue(statuses.get(0).endsWith(", 0.24 GB"), statuses.get(0));
+
+            progress.accept("[app:1234]     analysis:  45,678.90 ms,  3.21 GB");
+
+            Assertions.assertEquals("after analysis", progress.getPhase());
+        }
+    }
+
+    @Test
+    public void testAcceptCommaDecimal() {
+        final List<String> statuses = new ArrayList<>();
+
+        try (BuildProgress progress = new BuildProgress(statuses::add, null, System.currentTimeMillis())) {
+            // native-image prints numbers with its default locale, in which the decimal separator may be a comma
+            progress.accept("[app:1234]     analysis:  45.678,90 ms,  3,21 GB");
+            progress.report();
+
+            Assertions.assertTrue(statuses.get(0).endsWith(", 3.21 GB"), statuses.get(0));
+        }
+    }
+
+    @Test
+    public void testGetStatus() {
+        try (BuildProgress progress = new BuildProgress(status -> { }, null, 0)) {
+            Assertions.assertEquals("Starting, 5s", progress.getStatus(5000));
+        }
+    }
+
+    @Test
+    public void testFormatDuration() {
+        Assertions.assertEquals("0s", BuildProgress.formatDuration(-1));
+        Assertions.assertEquals("59s", BuildProgress.formatDuration(59999));
+        Assertions.assertEquals("1m 2s", BuildProgress.formatDuration(62000));
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class BuildScanUtilsTests extends UnitTests {
+    public static final class BuildScan {
+        final Map<String, String> values = new LinkedHashMap<>();
+
+        public void value(final String name, final String value) {
+            this.values.put(name, value);
+        }
+    }
+
+    @Test
+    public void testAddValues() {
+        final BuildScan buildScan = new BuildScan();
+
+        BuildScanUtils.addValues(buildScan, Collections.singletonMap("native-image total time", "12.3s"));
+
+        Assertions.assertEquals("12.3s", buildScan.values.get("native-image total time"));
+    }
+
+    @Test
+    public void given_noBuildScan_when_addValuesIsCalled_then_nothingIsAdded() {
+        Assertions.assertDoesNotThrow(() -> BuildScanUtils.addValues(null, Collections.singletonMap("native-image total time", "12.3s")));
+        Assertions.assertDoesNotThrow(() -> BuildScanUtils.addValues(new Object(), Collections.singletonMap("native-image total time", "12.3s")));
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class BuildSlotTests extends UnitTests {
+    @Test
+    public void testAcquire() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        final CompletableFuture<Integer> third = new CompletableFuture<>();
+
+        try (
+            BuildSlot first = BuildSlot.acquire(this.getOutputDir(), 2);
+            BuildSlot second = BuildSlot.acquire(this.getOutputDir(), 2)) {
+            Assertions.assertEquals(0, first.getIndex());
+            Assertions.assertEquals(1, second.getIndex());
+
+            final Thread thread = new Thread(() -> {
+                try (BuildSlot slot = BuildSlot.acquire(this.getOutputDir(), 2)) {
+                    third.complete(slot.getIndex());
+                } catch (final IOException | InterruptedException e) {
+                    third.completeExceptionally(e);
+                }
+            });
+
+            thread.start();
+
+            // All slots are held, so the third build waits
+            Thread.sleep(500);
+            Assertions.assertFalse(third.isDone());
+        }
+
+        Assertions.assertEquals(0, (int)third.get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class DashboardDumpTests extends UnitTests {
+    @Test
+    public void testParse() throws IOException {
+        final List<String> entries = new ArrayList<>();
+
+        DashboardDump.parse(new StringReader("{\n"
+            + "  \"code-breakdown\": { \"code-size\": [ { \"name\": \"java.lang.String.hashCode():int\", \"size\": 120 }, { \"size\": 2.5E2, \"name\": \"com.example.Demo.main(java.lang.String[]):void\" } ] },\n"
+            + "  \"heap-breakdown\": { \"heap-size\": [ { \"name\": \"byte[]\", \"size\": 4096, \"count\": 12 }, { \"name\": \"java.lang.\\\"Quoted\\u0022\", \"size\": 8 } ] },\n"
+            + "  \"points-to\": { \"type-flows\": [ { \"name\": \"ignored\", \"size\": 1, \"inputs\": [ 1, 2, 3 ] } ], \"flags\": [ true, false, null ] },\n"
+            + "  \"empty\": { \"code-size\": [] }\n"
+            + "}"), (section, name, size) -> entries.add(section + " " + name + " " + size));
+
+        Assertions.assertEquals(Arrays.asList(
+            "code-size java.lang.String.hashCode():int 120",
+            "code-size com.example.Demo.main(java.lang.String[]):void 250",
+            "heap-size byte[] 4096",
+            "heap-size java.lang.\"Quoted\" 8"), entries);
+    }
+
+    @Test
+    public void given_malformedDump_when_parseIsCalled_then_throwsIOException() {
+        Assertions.assertThrows(IOException.class, () -> DashboardDump.parse(new StringReader("{ \"code-size\": [ { \"name\": \"a\", \"size\": 1 }"), (section, name, size) -> { }));
+        Assertions.assertThrows(IOException.class, () -> DashboardDump.parse(new StringReader("{ \"code-size\" [] }"), (section, name, size) -> { }));
+        Assertions.assertThrows(IOException.class, () -> DashboardDump.parse(new StringReader("{} {}"), (section, name, size) -> { }));
+    }
+}
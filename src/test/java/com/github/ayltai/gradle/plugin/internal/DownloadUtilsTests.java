@@ -1,17 +1,34 @@
 package com.github.ayltai.gradle.plugin.internal;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.gradle.api.resources.ResourceException;
 
 import com.github.ayltai.gradle.plugin.Constants;
 import com.github.ayltai.gradle.plugin.UnitTests;
+import com.sun.net.httpserver.HttpServer;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
 public final class DownloadUtilsTests extends UnitTests {
     private static final String DOWNLOAD_URL = "https://github.com/graalvm/graalvm-ce-builds/releases/download/vm-%1$s/graalvm-ce-java%2$s-%3$s-%4$s-%1$s.%5$s";
+    private static final String ARCHIVE_PATH = "/vm-%1$s/graalvm-ce-java%2$s-%3$s-%4$s-%1$s.tar.gz";
 
     @Test
     public void testDownload() {
@@ -25,9 +42,225 @@ public final class DownloadUtilsTests extends UnitTests {
         Assertions.assertTrue(outputFile.exists());
     }
 
+    @Test
+    public void testDownloadFromLocalServer() throws IOException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final byte[]     archive = DownloadUtilsTests.createArchive();
+        final HttpServer server  = DownloadUtilsTests.startServer(archive, false, null);
+
+        try {
+            final String downloadUrl = DownloadUtilsTests.getDownloadUrl(server);
+            final File   toolsDir    = Paths.get(this.getOutputDir().getAbsolutePath(), DownloadUtils.getOutputPath(Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION)).toFile();
+            final File   outputFile  = new File(this.getOutputDir(), downloadUrl.substring(downloadUrl.lastIndexOf('/') + 1));
+
+            DownloadUtils.download(downloadUrl, this.getOutputDir(), Constants.DOWNLOAD_ALWAYS, false, null);
+
+            Assertions.assertTrue(new File(new File(toolsDir, "bin"), "native-image").exists());
+            Assertions.assertFalse(outputFile.exists());
+
+            DownloadUtils.download(downloadUrl, this.getOutputDir(), Constants.DOWNLOAD_ALWAYS, true, null);
+
+            Assertions.assertArrayEquals(archive, Files.readAllBytes(outputFile.toPath()));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testResumeDownload() throws IOException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final byte[]     archive = DownloadUtilsTests.createArchive();
+        final HttpServer server  = DownloadUtilsTests.startServer(archive, true, ChecksumUtils.toHex(ChecksumUtils.newDigest().digest(archive)));
+
+        try {
+            final String downloadUrl = DownloadUtilsTests.getDownloadUrl(server);
+            final File   outputFile  = new File(this.getOutputDir(), downloadUrl.substring(downloadUrl.lastIndexOf('/') + 1));
+
+            // Simulates a download that is interrupted half way through
+            Assertions.assertTrue(this.getOutputDir().mkdirs());
+            Files.write(new File(outputFile.getAbsolutePath() + ".part.0").toPath(), Arrays.copyOf(archive, archive.length / 2));
+
+            DownloadUtils.download(downloadUrl, this.getOutputDir(), Constants.DOWNLOAD_DEFAULT, true, null);
+
+            Assertions.assertArrayEquals(archive, Files.readAllBytes(outputFile.toPath()));
+            Assertions.assertFalse(new File(outputFile.getAbsolutePath() + ".part.0").exists());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void given_checksumMismatch_when_downloadIsCalled_then_throwsResourceException() throws IOException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final byte[] archive  = DownloadUtilsTests.createArchive();
+        final String checksum = ChecksumUtils.toHex(ChecksumUtils.newDigest().digest(new byte[0]));
+
+        for (final boolean supportsRanges : new boolean[] { true, false }) {
+            final HttpServer server = DownloadUtilsTests.startServer(archive, supportsRanges, null);
+
+            try {
+                final String downloadUrl = DownloadUtilsTests.getDownloadUrl(server);
+                final File   toolsDir    = Paths.get(this.getOutputDir().getAbsolutePath(), DownloadUtils.getOutputPath(Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION)).toFile();
+
+                Assertions.assertThrows(ResourceException.class, () -> DownloadUtils.download(downloadUrl, this.getOutputDir(), Constants.DOWNLOAD_ALWAYS, true, checksum));
+                Assertions.assertFalse(new File(this.getOutputDir(), downloadUrl.substring(downloadUrl.lastIndexOf('/') + 1)).exists());
+                Assertions.assertFalse(toolsDir.exists());
+            } finally {
+                server.stop(0);
+            }
+        }
+    }
+
+    @Test
+    public void given_unreachableMirror_when_downloadIsCalled_then_nextMirrorIsUsed() throws IOException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final byte[]     archive = DownloadUtilsTests.createArchive();
+        final HttpServer server  = DownloadUtilsTests.startServer(archive, false, null);
+        final String     url     = DownloadUtilsTests.getDownloadUrl(server);
+
+        // Nothing listens on the port of a stopped server
+        server.stop(0);
+
+        final File mirrorDir   = new File(this.getOutputDir(), "mirror");
+        final File archiveFile = new File(mirrorDir, url.substring(url.lastIndexOf('/') + 1));
+        Files.createDirectories(mirrorDir.toPath());
+        Files.write(archiveFile.toPath(), archive);
+
+        final File outputDir = new File(this.getOutputDir(), "toolchain");
+        final File toolsDir  = Paths.get(outputDir.getAbsolutePath(), DownloadUtils.getOutputPath(Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION)).toFile();
+
+        DownloadUtils.download(Arrays.asList(url, archiveFile.toURI().toString()), outputDir, Constants.DOWNLOAD_ALWAYS, true, null);
+
+        Assertions.assertTrue(new File(new File(toolsDir, "bin"), "native-image").exists());
+        Assertions.assertArrayEquals(archive, Files.readAllBytes(new File(outputDir, archiveFile.getName()).toPath()));
+    }
+
+    @Test
+    public void testInstallNativeImageFromMirror() throws IOException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final byte[]     archive = DownloadUtilsTests.createArchive("#!/bin/sh\necho \"$@\" > \"$0.args\"\n");
+        final HttpServer server  = DownloadUtilsTests.startServer(archive, false, null);
+
+        try {
+            final String downloadUrl = DownloadUtilsTests.getDownloadUrl(server);
+            final File   toolsDir    = Paths.get(this.getOutputDir().getAbsolutePath(), DownloadUtils.getOutputPath(Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION)).toFile();
+            final File   installable = new File(this.getOutputDir(), DownloadUtils.getInstallableName(DownloadUtils.getFileName(downloadUrl)));
+
+            DownloadUtils.download(downloadUrl, this.getOutputDir(), Constants.DOWNLOAD_ALWAYS, true, null);
+
+            Assertions.assertArrayEquals(archive, Files.readAllBytes(installable.toPath()));
+            Assertions.assertEquals("install -L " + installable.getAbsolutePath(), new String(Files.readAllBytes(new File(new File(toolsDir, "bin"), "gu.args").toPath()), StandardCharsets.UTF_8).trim());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testGetInstallableName() {
+        Assertions.assertEquals("native-image-installable-svm-java11-linux-amd64-21.1.0.jar", DownloadUtils.getInstallableName("graalvm-ce-java11-linux-amd64-21.1.0.tar.gz"));
+        Assertions.assertEquals("native-image-installable-svm-java11-windows-amd64-21.1.0.jar", DownloadUtils.getInstallableName("graalvm-ce-java11-windows-amd64-21.1.0.zip"));
+    }
+
+    @Test
+    public void testGetToolVersion() {
+        Assertions.assertEquals("21.1.0", DownloadUtils.getToolVersion("graalvm-ce-java11-linux-amd64-21.1.0.tar.gz"));
+        Assertions.assertEquals("21.1.0", DownloadUtils.getToolVersion("graalvm-ce-java11-windows-amd64-21.1.0.zip"));
+    }
+
+    @Test
+    public void testGetThroughput() {
+        Assertions.assertEquals("20.0 MB in 4.0 s (5.0 MB/s)", DownloadUtils.getThroughput(20L * 1024 * 1024, 4000));
+    }
+
     @Nonnull
     protected String getDownloadUrl() {
         final String platform = PlatformUtils.getPlatform();
         return String.format(DownloadUtilsTests.DOWNLOAD_URL, Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION, platform, PlatformUtils.getArchitecture(), "windows".equals(platform) ? "zip" : "tar.gz");
     }
+
+    @Nonnull
+    static String getDownloadUrl(@Nonnull final HttpServer server) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + String.format(DownloadUtilsTests.ARCHIVE_PATH, Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION, PlatformUtils.getPlatform(), PlatformUtils.getArchitecture());
+    }
+
+    /**
+     * Starts a loopback HTTP server that serves {@code archive} for any path, and {@code checksum} for any path ending with {@code .sha256}.
+     */
+    @Nonnull
+    static HttpServer startServer(@Nonnull final byte[] archive, final boolean supportsRanges, @Nullable final String checksum) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = archive;
+
+            if (exchange.getRequestURI().getPath().endsWith(".sha256")) {
+                if (checksum == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    exchange.close();
+
+                    return;
+                }
+
+                body = checksum.getBytes(StandardCharsets.US_ASCII);
+            }
+
+            final String range = exchange.getRequestHeaders().getFirst("Range");
+            if (supportsRanges && range != null) {
+                final String[] bounds = range.substring("bytes=".length()).split("-");
+                final int      start  = Integer.parseInt(bounds[0]);
+                final int      end    = Math.min(Integer.parseInt(bounds[1]), body.length - 1);
+
+                exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + body.length);
+                exchange.sendResponseHeaders(206, end - start + 1);
+
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body, start, end - start + 1);
+                }
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body);
+                }
+            }
+        });
+        server.start();
+
+        return server;
+    }
+
+    /**
+     * Creates a GraalVM archive with a {@code gu} that succeeds without doing anything.
+     */
+    @Nonnull
+    static byte[] createArchive() throws IOException {
+        return DownloadUtilsTests.createArchive("#!/bin/sh\nexit 0\n");
+    }
+
+    /**
+     * Creates a GraalVM archive with {@code gu} as the script {@code gu}.
+     */
+    @Nonnull
+    static byte[] createArchive(@Nonnull final String gu) throws IOException {
+        final String                binPath      = Paths.get(DownloadUtils.getOutputPath(Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION), "bin").toString().replace(File.separatorChar, '/');
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (TarArchiveOutputStream tarOutputStream = new TarArchiveOutputStream(new GzipCompressorOutputStream(outputStream))) {
+            for (final String name : new String[] { "gu", "native-image" }) {
+                final byte[]          bytes = ("gu".equals(name) ? gu : "#!/bin/sh\nexit 0\n").getBytes(StandardCharsets.UTF_8);
+                final TarArchiveEntry entry = new TarArchiveEntry(binPath + "/" + name);
+                entry.setSize(bytes.length);
+
+                tarOutputStream.putArchiveEntry(entry);
+                tarOutputStream.write(bytes);
+                tarOutputStream.closeArchiveEntry();
+            }
+        }
+
+        return outputStream.toByteArray();
+    }
 }
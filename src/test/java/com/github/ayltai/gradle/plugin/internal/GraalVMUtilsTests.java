@@ -0,0 +1,98 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class GraalVMUtilsTests extends UnitTests {
+    @Test
+    public void testGetMajorVersion() {
+        Assertions.assertEquals("8", GraalVMUtils.getMajorVersion("1.8.0_292"));
+        Assertions.assertEquals("11", GraalVMUtils.getMajorVersion("11.0.11"));
+        Assertions.assertEquals("17", GraalVMUtils.getMajorVersion("17"));
+    }
+
+    @Test
+    public void testProbe() throws IOException {
+        final File home = this.createInstallation("graalvm-ce-java11-21.1.0", "11.0.11", "21.1.0", true);
+
+        final GraalVMUtils.Installation installation = GraalVMUtils.probe(home);
+        Assertions.assertNotNull(installation);
+        Assertions.assertEquals("21.1.0", installation.getVersion());
+        Assertions.assertEquals("11", installation.getJavaVersion());
+        Assertions.assertTrue(installation.getComponents().contains(GraalVMUtils.COMPONENT_NATIVE_IMAGE));
+        Assertions.assertTrue(installation.getComponents().contains("js"));
+        Assertions.assertSame(installation, GraalVMUtils.probe(home));
+
+        Assertions.assertNull(GraalVMUtils.probe(this.getOutputDir()));
+    }
+
+    @Test
+    public void testFind() throws IOException {
+        final List<File> candidates = Arrays.asList(
+            this.getOutputDir(),
+            this.createInstallation("jdk-11", "11.0.11", null, false),
+            this.createInstallation("graalvm-ce-java8-21.1.0", "1.8.0_292", "21.1.0", true),
+            this.createInstallation("graalvm-ce-java11-21.0.0", "11.0.10", "21.0.0", true),
+            this.createInstallation("graalvm-ce-java11-21.1.0-without-native-image", "11.0.11", "21.1.0", false),
+            this.createInstallation("graalvm-ce-java11-21.1.0", "11.0.11", "21.1.0", true));
+
+        final GraalVMUtils.Installation installation = GraalVMUtils.find(candidates, "21.1.0", "11");
+        Assertions.assertNotNull(installation);
+        Assertions.assertEquals(candidates.get(5), installation.getHome());
+
+        Assertions.assertNull(GraalVMUtils.find(candidates, "21.2.0", "11"));
+        Assertions.assertNull(GraalVMUtils.find(Collections.emptyList(), "21.1.0", "11"));
+    }
+
+    @Test
+    public void testGetCandidates() throws IOException {
+        final File gradleUserHomeDir = new File(this.getOutputDir(), "gradle");
+        final File provisioned       = new File(new File(gradleUserHomeDir, "jdks"), "graalvm");
+        Assertions.assertTrue(provisioned.mkdirs());
+
+        final List<File> candidates = GraalVMUtils.getCandidates(Collections.singletonMap("GRAALVM_HOME", "/graalvm"), "/a, /b", "GRAALVM_HOME", gradleUserHomeDir);
+        Assertions.assertEquals(Arrays.asList(new File("/a"), new File("/b"), new File("/graalvm"), provisioned), candidates.subList(0, 4));
+    }
+
+    @Test
+    public void testGetVariableNames() {
+        final Set<String> names = GraalVMUtils.getVariableNames("JDK11, ,JDK17");
+
+        Assertions.assertEquals(Arrays.asList("JDK11", "JDK17", "GRAALVM_HOME", "JAVA_HOME"), new ArrayList<>(names).subList(0, 4));
+        Assertions.assertTrue(GraalVMUtils.getVariableNames(null).containsAll(Arrays.asList("GRAALVM_HOME", "JAVA_HOME")));
+    }
+
+    @Nonnull
+    private File createInstallation(@Nonnull final String name, @Nonnull final String javaVersion, @Nullable final String toolVersion, final boolean hasNativeImage) throws IOException {
+        final File home = new File(this.getOutputDir(), name);
+        final File bin  = new File(home, "bin");
+        Assertions.assertTrue(bin.mkdirs());
+
+        Files.write(new File(home, "release").toPath(), (toolVersion == null ? "JAVA_VERSION=\"" + javaVersion + "\"\n" : "JAVA_VERSION=\"" + javaVersion + "\"\nGRAALVM_VERSION=" + toolVersion + "\n").getBytes(StandardCharsets.UTF_8));
+
+        if (toolVersion != null) {
+            final File components = new File(new File(new File(home, "lib"), "installer"), "components");
+            Assertions.assertTrue(components.mkdirs());
+
+            Files.write(new File(components, "org.graalvm.js.component").toPath(), new byte[0]);
+        }
+
+        if (hasNativeImage) Files.write(new File(bin, PlatformUtils.isWindows() ? "native-image.cmd" : "native-image").toPath(), new byte[0]);
+
+        return home;
+    }
+}
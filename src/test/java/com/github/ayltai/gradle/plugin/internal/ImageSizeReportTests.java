@@ -0,0 +1,130 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class ImageSizeReportTests extends UnitTests {
+    @Test
+    public void testGetOwners() throws IOException {
+        final File outputDir  = this.getOutputDir();
+        final File classesDir = new File(outputDir, "classes");
+        final File jar        = new File(outputDir, "demo-1.0.jar");
+
+        Files.createDirectories(new File(classesDir, "com/example/app").toPath());
+        Files.write(new File(classesDir, "com/example/app/Application.class").toPath(), new byte[0]);
+
+        try (OutputStream outputStream = Files.newOutputStream(jar.toPath()); ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry("META-INF/versions/11/com/example/lib/Library.class"));
+            zipOutputStream.closeEntry();
+            zipOutputStream.putNextEntry(new ZipEntry("com/example/lib/Library.class"));
+            zipOutputStream.closeEntry();
+        }
+
+        final Map<String, String> owners = ImageSizeReport.getOwners(Arrays.asList(classesDir, jar, new File(outputDir, "missing.jar")));
+
+        Assertions.assertEquals(2, owners.size());
+        Assertions.assertEquals(ImageSizeReport.OWNER_CLASSES, owners.get("com.example.app"));
+        Assertions.assertEquals("demo-1.0.jar", owners.get("com.example.lib"));
+    }
+
+    @Test
+    public void testAdd() throws IOException {
+        final File usedMethods = new File(this.getOutputDir(), "used_methods_demo_20210101_000000.txt");
+        Files.createDirectories(usedMethods.getParentFile().toPath());
+        Files.write(usedMethods.toPath(), "com.example.lib.Library.run():void\ncom.example.lib.Library.stop():void\n\njava.lang.String.length():int\n".getBytes(StandardCharsets.UTF_8));
+
+        final ImageSizeReport report = new ImageSizeReport(Collections.singletonMap("com.example.lib", "demo-1.0.jar"));
+        report.add(DashboardDump.SECTION_CODE, "com.example.lib.Library.run():void", 100);
+        report.add(DashboardDump.SECTION_CODE, "java.lang.String.length():int", 10);
+        report.add(DashboardDump.SECTION_HEAP, "com.example.lib.Library[]", 50);
+        report.add(DashboardDump.SECTION_HEAP, "com.oracle.svm.core.Hub", 5);
+        report.add("points-to", "com.example.lib.Library", 1000);
+        report.addMethods(usedMethods);
+
+        final Map<String, long[]> entries = report.getEntries();
+
+        Assertions.assertArrayEquals(new long[] { 100, 50, 2 }, entries.get("package,com.example.lib"));
+        Assertions.assertArrayEquals(new long[] { 100, 50, 2 }, entries.get("jar,demo-1.0.jar"));
+        Assertions.assertArrayEquals(new long[] { 10, 0, 1 }, entries.get("jar,(jdk)"));
+        Assertions.assertArrayEquals(new long[] { 0, 5, 0 }, entries.get("jar,(graalvm)"));
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final File file = new File(this.getOutputDir(), "demo-size.csv");
+
+        final ImageSizeReport report = new ImageSizeReport(Collections.emptyMap());
+        report.add(DashboardDump.SECTION_CODE, "com.example.Small.run():void", 10);
+        report.add(DashboardDump.SECTION_CODE, "org.example.Large.run():void", 1000);
+        report.write(file);
+
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assertions.assertEquals("kind,name,codeBytes,heapBytes,methods", lines.get(0));
+        Assertions.assertEquals("package,org.example,1000,0,0", lines.get(1));
+        Assertions.assertEquals("package,com.example,10,0,0", lines.get(2));
+        Assertions.assertEquals("jar,(other),1010,0,0", lines.get(3));
+
+        final Map<String, long[]> entries = ImageSizeReport.read(file);
+        Assertions.assertEquals(report.getEntries().keySet(), entries.keySet());
+        Assertions.assertArrayEquals(new long[] { 1010, 0, 0 }, entries.get("jar,(other)"));
+    }
+
+    @Test
+    public void given_notReport_when_readIsCalled_then_throwsIOException() throws IOException {
+        final File file = new File(this.getOutputDir(), "demo-size.csv");
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), "name,size\n".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertThrows(IOException.class, () -> ImageSizeReport.read(file));
+    }
+
+    @Test
+    public void testDiff() throws IOException {
+        final Map<String, long[]> previous = new HashMap<>();
+        previous.put("jar,a.jar", new long[] { 100, 100, 1 });
+        previous.put("jar,b.jar", new long[] { 500, 0, 1 });
+        previous.put("jar,c.jar", new long[] { 10, 10, 1 });
+
+        final Map<String, long[]> current = new HashMap<>();
+        current.put("jar,a.jar", new long[] { 150, 100, 2 });
+        current.put("jar,c.jar", new long[] { 10, 10, 5 });
+        current.put("jar,d.jar", new long[] { 0, 200, 1 });
+
+        final Map<String, long[]> diff = ImageSizeReport.diff(previous, current);
+
+        Assertions.assertEquals(Arrays.asList("jar,b.jar", "jar,d.jar", "jar,a.jar"), new ArrayList<>(diff.keySet()));
+        Assertions.assertArrayEquals(new long[] { -500, 0, -500 }, diff.get("jar,b.jar"));
+        Assertions.assertArrayEquals(new long[] { 0, 200, 200 }, diff.get("jar,d.jar"));
+        Assertions.assertArrayEquals(new long[] { 50, 0, 50 }, diff.get("jar,a.jar"));
+
+        final File file = new File(this.getOutputDir(), "demo-size-diff.csv");
+        ImageSizeReport.writeDiff(file, diff);
+
+        Assertions.assertEquals(Arrays.asList("kind,name,codeBytes,heapBytes,totalBytes", "jar,b.jar,-500,0,-500", "jar,d.jar,0,200,200", "jar,a.jar,50,0,50"), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testGetPackageName() {
+        Assertions.assertEquals("java.lang", ImageSizeReport.getPackageName(ImageSizeReport.getClassName("java.lang.String.hashCode():int")));
+        Assertions.assertEquals("java.lang", ImageSizeReport.getPackageName("java.lang.String[][]"));
+        Assertions.assertEquals("java.lang", ImageSizeReport.getPackageName("java/lang/String.class"));
+        Assertions.assertEquals("(default)", ImageSizeReport.getPackageName("byte[]"));
+        Assertions.assertEquals("com.example.Outer$Inner", ImageSizeReport.getClassName("com.example.Outer$Inner.run(java.util.List):void"));
+    }
+}
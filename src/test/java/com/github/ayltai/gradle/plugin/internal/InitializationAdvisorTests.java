@@ -0,0 +1,141 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class InitializationAdvisorTests extends UnitTests {
+    static final class Constants {
+        static final int[] VALUES = { 1, 2, 3 };
+    }
+
+    static final class Clock {
+        static final long START = System.currentTimeMillis();
+    }
+
+    static final class Uptime {
+        static final long START = Clock.START + 1;
+    }
+
+    @Test
+    public void testAdvise() throws IOException {
+        final File classesDir = this.copyClasses(Constants.class, Clock.class, Uptime.class);
+        final File report     = new File(this.getOutputDir(), "class_initialization_report.csv");
+
+        Files.write(report.toPath(), Arrays.asList(
+            "Class Name, Initialization Kind, Reason for Initialization",
+            "java.lang.String, BUILD_TIME, from jdk",
+            Constants.class.getName() + ", RUN_TIME, classes are initialized at run time by default",
+            Clock.class.getName() + ", RUN_TIME, classes are initialized at run time by default",
+            Uptime.class.getName() + ", RUN_TIME, classes are initialized at run time by default",
+            "com.example.Configured, RUN_TIME, from command line",
+            "com.example.Missing, RUN_TIME, classes are initialized at run time by default"), StandardCharsets.UTF_8);
+
+        final List<InitializationAdvisor.Advice> advices = new InitializationAdvisor().advise(report, Collections.singletonList(classesDir));
+
+        Assertions.assertEquals(5, advices.size());
+
+        final InitializationAdvisor.Advice constants = InitializationAdvisorTests.find(advices, Constants.class.getName());
+        Assertions.assertTrue(constants.isSafe());
+        Assertions.assertTrue(constants.getInitializerSize() > 0);
+
+        Assertions.assertEquals("uses java.lang.System.currentTimeMillis", InitializationAdvisorTests.find(advices, Clock.class.getName()).getReason());
+        Assertions.assertEquals("depends on " + Clock.class.getName(), InitializationAdvisorTests.find(advices, Uptime.class.getName()).getReason());
+        Assertions.assertFalse(InitializationAdvisorTests.find(advices, "com.example.Configured").isSafe());
+        Assertions.assertEquals("class file not found", InitializationAdvisorTests.find(advices, "com.example.Missing").getReason());
+    }
+
+    @Test
+    public void given_classInitializedAtBuildTimeByMistake_when_adviseIsCalled_then_classIsUnsafe() throws IOException {
+        final File classesDir = this.copyClasses(Constants.class);
+        final File report     = new File(this.getOutputDir(), "class_initialization_report.csv");
+
+        Files.write(report.toPath(), Collections.singletonList(Constants.class.getName() + ", RUN_TIME, classes are initialized at run time by default"), StandardCharsets.UTF_8);
+
+        final InitializationAdvisor advisor = new InitializationAdvisor();
+        advisor.accept("Error: Classes that should be initialized at run time got initialized during image building:");
+        advisor.accept(" " + Constants.class.getName() + " the class was requested to be initialized at run time (from the command line). To see why " + Constants.class.getName() + " got initialized use --trace-class-initialization=" + Constants.class.getName());
+
+        Assertions.assertFalse(advisor.advise(report, Collections.singletonList(classesDir)).get(0).isSafe());
+    }
+
+    @Test
+    public void testSuggest() {
+        final List<InitializationAdvisor.Advice> advices = Arrays.asList(
+            new InitializationAdvisor.Advice("com.example.a.A", InitializationAdvisor.KIND_RUN_TIME, true, 10, ""),
+            new InitializationAdvisor.Advice("com.example.a.b.B", InitializationAdvisor.KIND_RUN_TIME, true, 10, ""),
+            new InitializationAdvisor.Advice("com.example.c.C", InitializationAdvisor.KIND_RUN_TIME, true, 10, ""),
+            new InitializationAdvisor.Advice("com.example.c.D", InitializationAdvisor.KIND_RUN_TIME, false, 10, "uses java.util.Random"),
+            new InitializationAdvisor.Advice("com.example.c.e.E", InitializationAdvisor.KIND_RUN_TIME, true, 10, ""));
+
+        Assertions.assertEquals(Arrays.asList("com.example.a", "com.example.c.e", "com.example.c.C"), InitializationAdvisor.suggest(advices));
+    }
+
+    @Test
+    public void testReadReport() throws IOException {
+        final File report = new File(this.getOutputDir(), "class_initialization_report.csv");
+        Files.createDirectories(report.getParentFile().toPath());
+        Files.write(report.toPath(), Arrays.asList(
+            "Class Name, Initialization Kind, Reason for Initialization",
+            "com.example.Application, RUN_TIME, classes are initialized at run time by default",
+            "com.example.Holder$Inner, RERUN, from feature, with a comma"), StandardCharsets.UTF_8);
+
+        final Map<String, String[]> kinds = InitializationAdvisor.readReport(report);
+
+        Assertions.assertEquals(2, kinds.size());
+        Assertions.assertEquals(InitializationAdvisor.KIND_RUN_TIME, kinds.get("com.example.Application")[0]);
+        Assertions.assertEquals("from feature, with a comma", kinds.get("com.example.Holder$Inner")[1]);
+    }
+
+    @Test
+    public void testGetStaticInitializerReferences() throws IOException {
+        try (InputStream inputStream = InitializationAdvisorTests.getClassFile(Uptime.class)) {
+            final Set<String> references = ClassFile.read(inputStream, true).getStaticInitializerReferences();
+
+            Assertions.assertTrue(references.contains(Clock.class.getName().replace('.', '/') + ".START"), references.toString());
+        }
+
+        try (InputStream inputStream = InitializationAdvisorTests.getClassFile(Constants.class)) {
+            Assertions.assertFalse(ClassFile.read(inputStream, true).getStaticInitializerReferences().contains("java/lang/System"));
+        }
+    }
+
+    private File copyClasses(final Class<?>... classes) throws IOException {
+        final File classesDir = new File(this.getOutputDir(), "classes");
+
+        for (final Class<?> clazz : classes) {
+            final File file = new File(classesDir, clazz.getName().replace('.', '/') + ".class");
+            Files.createDirectories(file.getParentFile().toPath());
+
+            try (InputStream inputStream = InitializationAdvisorTests.getClassFile(clazz)) {
+                Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        return classesDir;
+    }
+
+    private static InputStream getClassFile(final Class<?> clazz) {
+        return clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class");
+    }
+
+    private static InitializationAdvisor.Advice find(final List<InitializationAdvisor.Advice> advices, final String className) {
+        return advices.stream()
+            .filter(advice -> advice.getClassName().equals(className))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError(className));
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class JarReachabilityTests extends UnitTests {
+    @Test
+    public void testGetUnreachable() throws IOException {
+        final File outputDir  = this.getOutputDir();
+        final File classesDir = new File(outputDir, "classes");
+
+        Files.createDirectories(new File(classesDir, "com/example").toPath());
+        Files.write(new File(classesDir, "com/example/Application.class").toPath(), JarReachabilityTests.getClassFile("com/example/Application", "com/lib/a/A"));
+
+        final File a = JarReachabilityTests.createJar(new File(outputDir, "a.jar"), "com/lib/a/A.class", JarReachabilityTests.getClassFile("com/lib/a/A", "(Lcom/lib/b/B;)V"));
+        final File b = JarReachabilityTests.createJar(new File(outputDir, "b.jar"), "com/lib/b/B.class", JarReachabilityTests.getClassFile("com/lib/b/B", "com.lib.g.G"));
+        final File c = JarReachabilityTests.createJar(new File(outputDir, "c.jar"), "com/lib/c/C.class", JarReachabilityTests.getClassFile("com/lib/c/C", "com/lib/a/A"));
+        final File d = JarReachabilityTests.createJar(new File(outputDir, "d.jar"), "META-INF/services/com.lib.Service", new byte[0]);
+        final File e = JarReachabilityTests.createJar(new File(outputDir, "e.jar"), "static/index.html", new byte[0]);
+        final File f = JarReachabilityTests.createJar(new File(outputDir, "f-1.0.jar"), "com/lib/f/F.class", JarReachabilityTests.getClassFile("com/lib/f/F"));
+        final File g = JarReachabilityTests.createJar(new File(outputDir, "g.jar"), "com/lib/g/G.class", JarReachabilityTests.getClassFile("com/lib/g/G"));
+
+        Assertions.assertEquals(Arrays.asList(c, f), JarReachability.getUnreachable(Arrays.asList(classesDir, a, b, c, d, e, f, g), "com.example.Application", Collections.emptyList()));
+        Assertions.assertEquals(Collections.singletonList(c), JarReachability.getUnreachable(Arrays.asList(classesDir, a, b, c, d, e, f, g), "com.example.Application", Collections.singletonList("f-*.jar")));
+    }
+
+    @Test
+    public void given_mainClassInJar_when_getUnreachableIsCalled_then_jarIsReachable() throws IOException {
+        final File outputDir = this.getOutputDir();
+        Files.createDirectories(outputDir.toPath());
+
+        final File application = JarReachabilityTests.createJar(new File(outputDir, "application.jar"), "com/example/Application.class", JarReachabilityTests.getClassFile("com/example/Application"));
+        final File library     = JarReachabilityTests.createJar(new File(outputDir, "library.jar"), "com/lib/Library.class", JarReachabilityTests.getClassFile("com/lib/Library"));
+
+        Assertions.assertEquals(Collections.singletonList(library), JarReachability.getUnreachable(Arrays.asList(application, library), "com.example.Application", Collections.emptyList()));
+    }
+
+    @Test
+    public void testReadReferences() throws IOException {
+        final Set<String> references = new HashSet<>();
+        JarReachability.readReferences(new ByteArrayInputStream(JarReachabilityTests.getClassFile("com/example/Application", "java/util/List", "Ljava/util/Map<Ljava/lang/String;[Ljava/lang/Integer;>;")), references);
+
+        Assertions.assertTrue(references.containsAll(Arrays.asList("com/example/Application", "java/util/List", "java/util/Map", "java/lang/String", "java/lang/Integer")), references.toString());
+    }
+
+    @Test
+    public void testGetClassName() {
+        Assertions.assertEquals("com/example/Application", JarReachability.getClassName("com/example/Application.class"));
+        Assertions.assertEquals("com/example/Application", JarReachability.getClassName("META-INF/versions/11/com/example/Application.class"));
+        Assertions.assertNull(JarReachability.getClassName("module-info.class"));
+        Assertions.assertNull(JarReachability.getClassName("com/example/application.properties"));
+    }
+
+    /**
+     * Returns a class file whose constant pool holds {@code name}, {@code java/lang/Object}, a long constant, and {@code references}.
+     */
+    private static byte[] getClassFile(final String name, final String... references) throws IOException {
+        final ByteArrayOutputStream bytes  = new ByteArrayOutputStream();
+        final DataOutputStream      output = new DataOutputStream(bytes);
+
+        output.writeInt(0xCAFEBABE);
+        output.writeShort(0);
+        output.writeShort(52);
+
+        // name, its class, the super class name, its class, a long constant that takes two entries, and the references
+        output.writeShort(7 + references.length);
+        output.writeByte(1);
+        output.writeUTF(name);
+        output.writeByte(7);
+        output.writeShort(1);
+        output.writeByte(1);
+        output.writeUTF("java/lang/Object");
+        output.writeByte(7);
+        output.writeShort(3);
+        output.writeByte(5);
+        output.writeLong(Long.MAX_VALUE);
+
+        for (final String reference : references) {
+            output.writeByte(1);
+            output.writeUTF(reference);
+        }
+
+        output.writeShort(0x0021);
+        output.writeShort(2);
+        output.writeShort(4);
+        output.writeShort(0);
+        output.writeShort(0);
+        output.writeShort(0);
+        output.writeShort(0);
+
+        return bytes.toByteArray();
+    }
+
+    private static File createJar(final File jar, final String name, final byte[] content) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(jar.toPath()); ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry(name));
+            zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+        }
+
+        return jar;
+    }
+}
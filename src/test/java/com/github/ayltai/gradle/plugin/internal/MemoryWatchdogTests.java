@@ -0,0 +1,40 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class MemoryWatchdogTests extends UnitTests {
+    private static final long MB = 1024L * 1024;
+
+    @Test
+    public void testGetRetryHeapSize() {
+        Assertions.assertEquals(3072 * MemoryWatchdogTests.MB, MemoryWatchdog.getRetryHeapSize(4096 * MemoryWatchdogTests.MB, 8192 * MemoryWatchdogTests.MB));
+        Assertions.assertEquals(2457 * MemoryWatchdogTests.MB, MemoryWatchdog.getRetryHeapSize(4096 * MemoryWatchdogTests.MB, 4096 * MemoryWatchdogTests.MB));
+        Assertions.assertEquals(2457 * MemoryWatchdogTests.MB, MemoryWatchdog.getRetryHeapSize(0, 4096 * MemoryWatchdogTests.MB));
+    }
+
+    @Test
+    public void testGetHeapSize() {
+        Assertions.assertEquals(0, MemoryWatchdog.getHeapSize(Collections.singletonList("native-image")));
+        Assertions.assertEquals(2048 * MemoryWatchdogTests.MB, MemoryWatchdog.getHeapSize(Arrays.asList("native-image", "-J-Xmx2g")));
+        Assertions.assertEquals(512 * MemoryWatchdogTests.MB, MemoryWatchdog.getHeapSize(Arrays.asList("-J-Xmx2g", "-J-Xmx512M")));
+        Assertions.assertEquals(1024, MemoryWatchdog.getHeapSize(Collections.singletonList("-J-Xmx1024")));
+    }
+
+    @Test
+    public void testGetRetryHeapSizeWithExplicitHeap() {
+        // A heap set with maxHeapSize is reduced rather than replaced by a share of the limit
+        Assertions.assertEquals(1536 * MemoryWatchdogTests.MB, MemoryWatchdog.getRetryHeapSize(MemoryWatchdog.getHeapSize(Collections.singletonList("-J-Xmx2g")), 16384 * MemoryWatchdogTests.MB));
+    }
+
+    @Test
+    public void testGetRetryThreads() {
+        Assertions.assertEquals(4, MemoryWatchdog.getRetryThreads(8));
+        Assertions.assertEquals(1, MemoryWatchdog.getRetryThreads(1));
+    }
+}
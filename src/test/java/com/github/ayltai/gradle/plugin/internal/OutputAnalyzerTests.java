@@ -0,0 +1,51 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class OutputAnalyzerTests extends UnitTests {
+    @Test
+    public void testAccept() {
+        final AtomicInteger  stops    = new AtomicInteger();
+        final OutputAnalyzer analyzer = new OutputAnalyzer(OutputAnalyzer.DEFAULT_PATTERNS, stops::incrementAndGet);
+
+        analyzer.accept("[main:12345]    analysis:  12,345.67 ms,  3.21 GB");
+        Assertions.assertFalse(analyzer.isFatal());
+
+        analyzer.accept("Error: Classes that should be initialized at run time got initialized during image building:");
+        analyzer.accept(" com.example.Clock the class was requested to be initialized at run time (from the command line). To see why com.example.Clock got initialized use --trace-class-initialization=com.example.Clock");
+        analyzer.accept("Error: No instances of com.example.Random are allowed in the image heap as this class should be initialized at image runtime. To see how this object got instantiated use --trace-object-instantiation=com.example.Random.");
+
+        Assertions.assertTrue(analyzer.isFatal());
+        Assertions.assertEquals(1, stops.get());
+        Assertions.assertEquals(2, analyzer.getDiagnoses().size());
+        Assertions.assertEquals("com.example.Clock", analyzer.getDiagnoses().get(0).getClassName());
+        Assertions.assertEquals("from the command line", analyzer.getDiagnoses().get(0).getReason());
+        Assertions.assertEquals("com.example.Random: this class should be initialized at image runtime", analyzer.getDiagnoses().get(1).toString());
+        Assertions.assertTrue(analyzer.getMessage().contains("com.example.Clock: from the command line"));
+    }
+
+    @Test
+    public void given_patternWithoutGroups_when_lineMatches_then_lineIsReason() {
+        final OutputAnalyzer analyzer = new OutputAnalyzer(Collections.singletonList("Fatal error"), () -> { });
+
+        analyzer.accept("  Fatal error: out of luck  ");
+
+        Assertions.assertNull(analyzer.getDiagnoses().get(0).getClassName());
+        Assertions.assertEquals("Fatal error: out of luck", analyzer.getDiagnoses().get(0).getReason());
+    }
+
+    @Test
+    public void given_noPatterns_when_lineIsAccepted_then_buildIsNotFatal() {
+        final OutputAnalyzer analyzer = new OutputAnalyzer(Collections.emptyList(), () -> { });
+
+        analyzer.accept("Error: Unsupported features in 2 methods");
+
+        Assertions.assertFalse(analyzer.isFatal());
+    }
+}
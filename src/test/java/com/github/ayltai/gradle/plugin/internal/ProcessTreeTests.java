@@ -0,0 +1,83 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class ProcessTreeTests extends UnitTests {
+    @Test
+    public void testGetParentPid() throws IOException {
+        final File procDir = new File(this.getOutputDir(), "proc");
+
+        ProcessTreeTests.createProcess(procDir, 42, "java (main) thread", 7, null, 0);
+
+        Assertions.assertEquals(7, ProcessTree.getParentPid(new File(new File(procDir, "42"), "stat")));
+        Assertions.assertEquals(-1, ProcessTree.getParentPid(new File(new File(procDir, "43"), "stat")));
+    }
+
+    @Test
+    public void testGetChildren() throws IOException {
+        final File procDir = new File(this.getOutputDir(), "proc");
+
+        ProcessTreeTests.createProcess(procDir, 2, "java", 1, null, 0);
+        ProcessTreeTests.createProcess(procDir, 3, "native-image", 2, null, 0);
+        ProcessTreeTests.createProcess(procDir, 4, "java", 3, null, 0);
+        ProcessTreeTests.createProcess(procDir, 5, "sh", 2, null, 0);
+
+        final Map<Long, List<Long>> children = ProcessTree.getChildren(procDir);
+        children.values().forEach(Collections::sort);
+
+        Assertions.assertEquals(Arrays.asList(3L, 5L), children.get(2L));
+        Assertions.assertEquals(Collections.singletonList(4L), children.get(3L));
+    }
+
+    @Test
+    public void testGetRss() throws IOException {
+        final File procDir = new File(this.getOutputDir(), "proc");
+
+        ProcessTreeTests.createProcess(procDir, 2, "java", 1, null, 2048);
+
+        Assertions.assertEquals(2048L * 1024, new ProcessTree(procDir, 1, procDir).getRss(2));
+        Assertions.assertEquals(0, new ProcessTree(procDir, 1, procDir).getRss(3));
+    }
+
+    @Test
+    public void given_processesInWorkingDir_when_getProcessesIsCalled_then_onlyTheirTreesAreReturned() throws IOException {
+        final File procDir    = new File(this.getOutputDir(), "proc");
+        final File workingDir = new File(this.getOutputDir(), "native");
+        final File otherDir   = new File(this.getOutputDir(), "other");
+
+        ProcessTreeTests.createProcess(procDir, 2, "java", 1, otherDir, 0);
+        ProcessTreeTests.createProcess(procDir, 3, "native-image", 2, workingDir, 0);
+        ProcessTreeTests.createProcess(procDir, 4, "java", 3, otherDir, 0);
+        ProcessTreeTests.createProcess(procDir, 5, "sh", 2, otherDir, 0);
+
+        final List<Long> pids = new ProcessTree(procDir, 2, workingDir).getProcesses();
+        Collections.sort(pids);
+
+        Assertions.assertEquals(Arrays.asList(3L, 4L), pids);
+    }
+
+    private static void createProcess(final File procDir, final long pid, final String command, final long parentPid, final File workingDir, final long rss) throws IOException {
+        final File dir = new File(procDir, String.valueOf(pid));
+        Files.createDirectories(dir.toPath());
+
+        Files.write(new File(dir, "stat").toPath(), Collections.singletonList(pid + " (" + command + ") S " + parentPid + " " + pid + " " + pid + " 0 -1"), StandardCharsets.US_ASCII);
+        Files.write(new File(dir, "status").toPath(), Arrays.asList("Name:\t" + command, "VmRSS:\t    " + rss + " kB"), StandardCharsets.US_ASCII);
+
+        if (workingDir != null) {
+            Files.createDirectories(workingDir.toPath());
+            Files.createSymbolicLink(new File(dir, "cwd").toPath(), workingDir.getAbsoluteFile().toPath());
+        }
+    }
+}
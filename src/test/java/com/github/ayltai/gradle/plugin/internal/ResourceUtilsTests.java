@@ -0,0 +1,123 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class ResourceUtilsTests extends UnitTests {
+    private static final long GB = 1024L * 1024 * 1024;
+
+    @Test
+    public void testAllocate() {
+        try (ResourceUtils.Allocation first = ResourceUtils.allocate(33 * ResourceUtilsTests.GB, 33 * ResourceUtilsTests.GB, 16)) {
+            Assertions.assertEquals(Math.round(32 * ResourceUtilsTests.GB * 0.8) / (1024 * 1024) * 1024 * 1024, first.getHeapSize());
+            Assertions.assertEquals(16, first.getThreads());
+
+            try (ResourceUtils.Allocation second = ResourceUtils.allocate(33 * ResourceUtilsTests.GB, 33 * ResourceUtilsTests.GB, 16)) {
+                // The first build holds all of the memory, not only its heap, so the second one gets the minimum heap size
+                Assertions.assertEquals(ResourceUtilsTests.GB, second.getHeapSize());
+                Assertions.assertEquals(8, second.getThreads());
+            }
+        }
+
+        try (ResourceUtils.Allocation first = ResourceUtils.allocate(33 * ResourceUtilsTests.GB, 21 * ResourceUtilsTests.GB, 16)) {
+            Assertions.assertEquals(20 * ResourceUtilsTests.GB, first.getMemory());
+
+            try (ResourceUtils.Allocation second = ResourceUtils.allocate(33 * ResourceUtilsTests.GB, 33 * ResourceUtilsTests.GB, 16)) {
+                // The first build holds 20 GB of memory, so the second one gets only the 12 GB left of it
+                Assertions.assertEquals(12 * ResourceUtilsTests.GB, second.getMemory());
+                Assertions.assertEquals(Math.round(12 * ResourceUtilsTests.GB * 0.8) / (1024 * 1024) * 1024 * 1024, second.getHeapSize());
+            }
+        }
+
+        try (ResourceUtils.Allocation allocation = ResourceUtils.allocate(33 * ResourceUtilsTests.GB, 33 * ResourceUtilsTests.GB, 16)) {
+            // The memory of the closed builds is returned in full
+            Assertions.assertEquals(32 * ResourceUtilsTests.GB, allocation.getMemory());
+        }
+
+        try (ResourceUtils.Allocation allocation = ResourceUtils.allocate(33 * ResourceUtilsTests.GB, 5 * ResourceUtilsTests.GB, 16)) {
+            Assertions.assertEquals(Math.round(4 * ResourceUtilsTests.GB * 0.8) / (1024 * 1024) * 1024 * 1024, allocation.getHeapSize());
+            Assertions.assertEquals(16, allocation.getThreads());
+        }
+
+        try (ResourceUtils.Allocation allocation = ResourceUtils.allocate(ResourceUtilsTests.GB, ResourceUtilsTests.GB, 1)) {
+            Assertions.assertEquals(ResourceUtilsTests.GB, allocation.getHeapSize());
+            Assertions.assertEquals(1, allocation.getThreads());
+        }
+    }
+
+    @Test
+    public void testAllocateMany() {
+        final List<ResourceUtils.Allocation> allocations = ResourceUtils.allocate(33 * ResourceUtilsTests.GB, 33 * ResourceUtilsTests.GB, 16, 2);
+
+        try {
+            Assertions.assertEquals(2, allocations.size());
+
+            for (final ResourceUtils.Allocation allocation : allocations) {
+                Assertions.assertEquals(Math.round(16 * ResourceUtilsTests.GB * 0.8) / (1024 * 1024) * 1024 * 1024, allocation.getHeapSize());
+                Assertions.assertEquals(8, allocation.getThreads());
+            }
+        } finally {
+            allocations.forEach(ResourceUtils.Allocation::close);
+        }
+
+        try (ResourceUtils.Allocation allocation = ResourceUtils.allocate(33 * ResourceUtilsTests.GB, 33 * ResourceUtilsTests.GB, 16)) {
+            Assertions.assertEquals(16, allocation.getThreads());
+        }
+    }
+
+    @Test
+    public void testGetProcessors() throws IOException {
+        final File cgroupRoot = this.getOutputDir();
+        final int  processors = Runtime.getRuntime().availableProcessors();
+
+        Assertions.assertEquals(processors, ResourceUtils.getProcessors(cgroupRoot));
+
+        ResourceUtilsTests.write(new File(new File(cgroupRoot, "cpu"), "cpu.cfs_quota_us"), "-1");
+        ResourceUtilsTests.write(new File(new File(cgroupRoot, "cpu"), "cpu.cfs_period_us"), "100000");
+        Assertions.assertEquals(processors, ResourceUtils.getProcessors(cgroupRoot));
+
+        ResourceUtilsTests.write(new File(new File(cgroupRoot, "cpu"), "cpu.cfs_quota_us"), "50000");
+        Assertions.assertEquals(1, ResourceUtils.getProcessors(cgroupRoot));
+
+        ResourceUtilsTests.write(new File(cgroupRoot, "cpu.max"), "max 100000");
+        Assertions.assertEquals(processors, ResourceUtils.getProcessors(cgroupRoot));
+
+        ResourceUtilsTests.write(new File(cgroupRoot, "cpu.max"), "100000 100000");
+        Assertions.assertEquals(1, ResourceUtils.getProcessors(cgroupRoot));
+    }
+
+    @Test
+    public void testGetMemory() throws IOException {
+        final File cgroupRoot = this.getOutputDir();
+        final File meminfo    = new File(cgroupRoot, "meminfo");
+
+        final long physicalMemory = ResourceUtils.getTotalMemory(cgroupRoot);
+        Assertions.assertTrue(physicalMemory > 0);
+
+        ResourceUtilsTests.write(new File(new File(cgroupRoot, "memory"), "memory.limit_in_bytes"), "9223372036854771712");
+        Assertions.assertEquals(physicalMemory, ResourceUtils.getTotalMemory(cgroupRoot));
+
+        ResourceUtilsTests.write(new File(cgroupRoot, "memory.max"), String.valueOf(ResourceUtilsTests.GB));
+        Assertions.assertEquals(ResourceUtilsTests.GB, ResourceUtils.getTotalMemory(cgroupRoot));
+
+        ResourceUtilsTests.write(meminfo, "MemTotal:       16384000 kB\nMemFree:         1024000 kB\nMemAvailable:    8192000 kB\n");
+        Assertions.assertEquals(8192000L * 1024, ResourceUtils.getAvailableMemory(cgroupRoot, meminfo, 16384000L * 1024));
+
+        ResourceUtilsTests.write(new File(cgroupRoot, "memory.current"), String.valueOf(ResourceUtilsTests.GB / 4));
+        Assertions.assertEquals(ResourceUtilsTests.GB * 3 / 4, ResourceUtils.getAvailableMemory(cgroupRoot, meminfo, ResourceUtilsTests.GB));
+    }
+
+    private static void write(@Nonnull final File file, @Nonnull final String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+import com.sun.net.httpserver.HttpServer;
+
+import org.gradle.api.GradleException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+public final class StartupBenchmarkTests extends UnitTests {
+    @Test
+    public void testRunUntilLogLine() throws IOException, InterruptedException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final StartupBenchmark.Sample sample = StartupBenchmark.run(Arrays.asList("sh", "-c", "sleep 0.2; echo Started; sleep 30"), new File("."), null, Pattern.compile("^Started"), 10000);
+        Assertions.assertTrue(sample.getStartupMillis() >= 200, String.valueOf(sample.getStartupMillis()));
+        Assertions.assertTrue(sample.getStartupMillis() < 10000, String.valueOf(sample.getStartupMillis()));
+    }
+
+    @Test
+    public void testRunUntilUrlResponds() throws IOException, InterruptedException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            final StartupBenchmark.Sample sample = StartupBenchmark.run(Arrays.asList("sh", "-c", "sleep 30"), new File("."), new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/"), null, 10000);
+            Assertions.assertTrue(sample.getStartupMillis() < 10000, String.valueOf(sample.getStartupMillis()));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void given_exitBeforeReady_when_runIsCalled_then_throwsGradleException() {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        Assertions.assertThrows(GradleException.class, () -> StartupBenchmark.run(Arrays.asList("sh", "-c", "exit 3"), new File("."), null, Pattern.compile("^Started"), 10000));
+    }
+
+    @Test
+    public void testGetPeakRss() throws IOException {
+        final File procDir = this.getOutputDir();
+        final File status  = new File(new File(procDir, "42"), "status");
+
+        Assertions.assertNull(StartupBenchmark.getPeakRss(procDir, 42));
+        Assertions.assertNull(StartupBenchmark.getPeakRss(procDir, -1));
+
+        Files.createDirectories(status.getParentFile().toPath());
+        Files.write(status.toPath(), "Name:\tapp\nVmPeak:\t  200000 kB\nVmHWM:\t   51200 kB\nVmRSS:\t   40000 kB\n".getBytes(StandardCharsets.US_ASCII));
+
+        Assertions.assertEquals(51200L * 1024, (long)StartupBenchmark.getPeakRss(procDir, 42));
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.github.ayltai.gradle.plugin.Constants;
+import com.github.ayltai.gradle.plugin.UnitTests;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+public final class ToolchainUtilsTests extends UnitTests {
+    private static final int THREADS = 4;
+
+    @Test
+    public void testGetToolchainDir() {
+        final File toolchainDir = ToolchainUtils.getToolchainDir(this.getOutputDir(), "21.1.0", "11");
+
+        Assertions.assertEquals(this.getOutputDir(), toolchainDir.getParentFile());
+        Assertions.assertEquals("21.1.0-java11-" + PlatformUtils.getPlatform() + "-" + PlatformUtils.getArchitecture(), toolchainDir.getName());
+    }
+
+    @Test
+    public void testInstall() throws IOException, InterruptedException, ExecutionException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final File            toolchainDir = ToolchainUtils.getToolchainDir(this.getOutputDir(), Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION);
+        final HttpServer      server       = DownloadUtilsTests.startServer(DownloadUtilsTests.createArchive(), true, null);
+        final String          downloadUrl  = DownloadUtilsTests.getDownloadUrl(server);
+        final ExecutorService executor     = Executors.newFixedThreadPool(ToolchainUtilsTests.THREADS);
+
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < ToolchainUtilsTests.THREADS; i++) futures.add(executor.submit(() -> ToolchainUtils.install(toolchainDir, downloadUrl, Constants.DOWNLOAD_DEFAULT, true, null)));
+            for (final Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdownNow();
+            server.stop(0);
+        }
+
+        Assertions.assertTrue(Paths.get(toolchainDir.getAbsolutePath(), DownloadUtils.getOutputPath(Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION), "bin", "native-image").toFile().exists());
+
+        // The server is gone, so this succeeds only if the installed toolchain is reused
+        ToolchainUtils.install(toolchainDir, downloadUrl, Constants.DOWNLOAD_DEFAULT, true, null);
+    }
+
+    @Test
+    public void given_incompleteInstallation_when_installIsCalled_then_reinstalls() throws IOException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final File toolchainDir = ToolchainUtils.getToolchainDir(this.getOutputDir(), Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION);
+        final File binDir       = Paths.get(toolchainDir.getAbsolutePath(), DownloadUtils.getOutputPath(Constants.DEFAULT_TOOL_VERSION, Constants.DEFAULT_JAVA_VERSION), "bin").toFile();
+        final File staleFile    = new File(binDir, "native-image-agent");
+
+        // Simulates an extraction that is interrupted half way through
+        Assertions.assertTrue(binDir.mkdirs());
+        Files.write(new File(binDir, "native-image").toPath(), new byte[0]);
+        Files.write(staleFile.toPath(), new byte[0]);
+
+        final HttpServer server = DownloadUtilsTests.startServer(DownloadUtilsTests.createArchive(), true, null);
+
+        try {
+            ToolchainUtils.install(toolchainDir, DownloadUtilsTests.getDownloadUrl(server), Constants.DOWNLOAD_DEFAULT, true, null);
+        } finally {
+            server.stop(0);
+        }
+
+        Assertions.assertFalse(staleFile.exists());
+        Assertions.assertTrue(new File(binDir, "native-image").length() > 0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.gradle.api.GradleException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+public final class TracingAgentTests extends UnitTests {
+    @Test
+    public void testGetAgentArg() {
+        final File configDir = this.getOutputDir();
+
+        Assertions.assertEquals("-agentlib:native-image-agent=config-merge-dir=" + configDir.getAbsolutePath(), TracingAgent.getAgentArg(configDir));
+    }
+
+    @Test
+    public void testRun() throws IOException, InterruptedException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final File outputDir = this.getOutputDir();
+        final File output    = new File(outputDir, "workload.txt");
+        Files.createDirectories(outputDir.toPath());
+
+        // The application writes a configuration file on shutdown, as the agent does
+        TracingAgent.run(Arrays.asList("sh", "-c", "trap 'echo [] > reflect-config.json; exit 0' TERM; echo Started; while true; do sleep 0.1; done"), outputDir, null, Pattern.compile("^Started"), 10000, Arrays.asList("sh", "-c", "echo $PORT > workload.txt"), outputDir, Collections.singletonMap("PORT", "8081"));
+
+        Assertions.assertEquals("8081", new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8).trim());
+        Assertions.assertTrue(TracingAgent.hasConfig(outputDir));
+    }
+
+    @Test
+    public void given_failedWorkload_when_runIsCalled_then_throwsGradleException() throws IOException {
+        Assumptions.assumeFalse(PlatformUtils.isWindows());
+
+        final File outputDir = this.getOutputDir();
+        Files.createDirectories(outputDir.toPath());
+
+        Assertions.assertThrows(GradleException.class, () -> TracingAgent.run(Arrays.asList("sh", "-c", "echo Started; sleep 30"), outputDir, null, Pattern.compile("^Started"), 10000, Arrays.asList("sh", "-c", "exit 2"), outputDir, Collections.emptyMap()));
+    }
+
+    @Test
+    public void testHasConfig() throws IOException {
+        final File configDir = this.getOutputDir();
+        Assertions.assertFalse(TracingAgent.hasConfig(configDir));
+
+        Files.createDirectories(configDir.toPath());
+        Assertions.assertFalse(TracingAgent.hasConfig(configDir));
+
+        Files.write(new File(configDir, "resource-config.json").toPath(), "{}".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertTrue(TracingAgent.hasConfig(configDir));
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.ayltai.gradle.plugin.internal;
+
+import com.github.ayltai.gradle.plugin.UnitTests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class VersionTests extends UnitTests {
+    @Test
+    public void testOf() {
+        Assertions.assertSame(Version.of("21.1.0"), Version.of("21.1.0"));
+        Assertions.assertEquals("21.1.0", Version.of("21.1.0").toString());
+    }
+
+    @Test
+    public void testCompareTo() {
+        Assertions.assertTrue(Version.of("20.2.0").compareTo(Version.of("20.3.0")) < 0);
+        Assertions.assertTrue(Version.of("21.10.0").compareTo(Version.of("21.9.0")) > 0);
+        Assertions.assertTrue(Version.of("21.1").compareTo(Version.of("21.1.0")) < 0);
+        Assertions.assertTrue(Version.of("19.2.0-dev-b01").compareTo(Version.of("19.1.1")) > 0);
+        Assertions.assertTrue(Version.of("22.3.0-dev").compareTo(Version.of("22.3.0")) > 0);
+        Assertions.assertTrue(Version.of("21.01.0").compareTo(Version.of("21.1.0")) > 0);
+        Assertions.assertTrue(Version.of("1.12345678901234567890").compareTo(Version.of("1.9")) > 0);
+        Assertions.assertEquals(0, Version.of("20.1.0").compareTo(Version.of("20.1.0")));
+    }
+
+    @Test
+    public void testEquals() {
+        Assertions.assertEquals(Version.of("21.1.0"), Version.of("21.1.0"));
+        Assertions.assertEquals(Version.of("21.1.0").hashCode(), Version.of("21.1.0").hashCode());
+        Assertions.assertNotEquals(Version.of("21.1.0"), Version.of("21.1.1"));
+    }
+
+    @Test
+    public void testSupports() {
+        Assertions.assertFalse(Version.of("20.2.0").supports(GraalVMFeature.TRACE_CLASS_INITIALIZATION_FOR));
+        Assertions.assertTrue(Version.of("20.3.0").supports(GraalVMFeature.TRACE_CLASS_INITIALIZATION_FOR));
+        Assertions.assertTrue(Version.of("21.1.0").supports(GraalVMFeature.TRACE_CLASS_INITIALIZATION_FOR));
+    }
+}